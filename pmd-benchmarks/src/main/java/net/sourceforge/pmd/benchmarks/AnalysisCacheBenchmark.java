@@ -0,0 +1,138 @@
+/*
+ * BSD-style license; for more info see http://pmd.sourceforge.net/license.html
+ */
+
+package net.sourceforge.pmd.benchmarks;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import net.sourceforge.pmd.cache.internal.FileAnalysisCache;
+import net.sourceforge.pmd.lang.document.TextDocument;
+import net.sourceforge.pmd.lang.document.TextFile;
+import net.sourceforge.pmd.lang.rule.RuleSetLoader;
+import net.sourceforge.pmd.lang.rule.internal.RuleSets;
+import net.sourceforge.pmd.reporting.FileAnalysisListener;
+import net.sourceforge.pmd.reporting.Report;
+import net.sourceforge.pmd.util.log.PmdReporter;
+
+/**
+ * Measures the persistence and the loading of the {@link FileAnalysisCache},
+ * filled with the violations of the Java best practices rules on the corpus.
+ * Loading includes the validity check, and therefore the fingerprint of the
+ * execution classpath, like at the start of an analysis.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class AnalysisCacheBenchmark {
+
+    private List<TextFile> files;
+    private List<TextDocument> documents;
+    private List<Report> reports;
+    private RuleSets ruleSets;
+    private File cacheFile;
+
+    @Setup(Level.Trial)
+    public void setup() throws Exception {
+        files = Corpus.files("java");
+        documents = new ArrayList<>(files.size());
+        for (TextFile file : files) {
+            documents.add(TextDocument.create(file));
+        }
+
+        ruleSets = new RuleSets(new RuleSetLoader().warnDeprecated(false)
+                                                   .loadFromResource("category/java/bestpractices.xml"));
+        reports = new ArrayList<>(documents.size());
+        try (LanguageSetup setup = new LanguageSetup("java")) {
+            ruleSets.initializeRules(setup.getRegistry(), PmdReporter.quiet());
+            for (TextDocument document : documents) {
+                reports.add(Report.buildReport(listener -> ruleSets.apply(setup.parse(document), listener)));
+            }
+        }
+
+        cacheFile = Files.createTempFile("pmd-benchmark", ".cache").toFile();
+        fillCache(cacheFile).persist();
+    }
+
+    /**
+     * Fills a new cache with the violations of the corpus. The backing
+     * file must not exist or be empty, so that nothing is loaded from it.
+     */
+    FileAnalysisCache fillCache(File backingFile) throws Exception {
+        FileAnalysisCache cache = new FileAnalysisCache(backingFile);
+        cache.checkValidity(ruleSets, getClass().getClassLoader(), files);
+        for (int i = 0; i < documents.size(); i++) {
+            TextDocument document = documents.get(i);
+            cache.isUpToDate(document);
+            try (FileAnalysisListener listener = cache.startFileAnalysis(document)) {
+                reports.get(i).getViolations().forEach(listener::onRuleViolation);
+            }
+        }
+        return cache;
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(cacheFile.toPath());
+    }
+
+    /**
+     * A filled cache, that has not been persisted yet.
+     */
+    @State(Scope.Thread)
+    public static class FilledCache {
+
+        private File file;
+        private FileAnalysisCache cache;
+
+        @Setup(Level.Invocation)
+        public void fill(AnalysisCacheBenchmark benchmark) throws Exception {
+            if (file == null) {
+                file = Files.createTempFile("pmd-benchmark", ".cache").toFile();
+            }
+            Files.deleteIfExists(file.toPath());
+            cache = benchmark.fillCache(file);
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown() throws IOException {
+            Files.deleteIfExists(file.toPath());
+        }
+    }
+
+    @Benchmark
+    public void persist(FilledCache filled) {
+        filled.cache.persist();
+    }
+
+    @Benchmark
+    public void load(Blackhole bh) {
+        FileAnalysisCache cache = new FileAnalysisCache(cacheFile);
+        cache.checkValidity(ruleSets, getClass().getClassLoader(), files);
+        for (TextDocument document : documents) {
+            bh.consume(cache.isUpToDate(document));
+        }
+    }
+}
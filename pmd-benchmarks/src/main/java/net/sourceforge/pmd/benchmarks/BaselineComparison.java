@@ -0,0 +1,150 @@
+/*
+ * BSD-style license; for more info see http://pmd.sourceforge.net/license.html
+ */
+
+package net.sourceforge.pmd.benchmarks;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.TreeMap;
+import java.util.function.Consumer;
+
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+
+/**
+ * Compares a JMH result file (JSON format) with a baseline result file,
+ * and fails if a benchmark regressed by more than a threshold. This is
+ * run by the {@code benchmark} profile of this module.
+ *
+ * <p>Usage: {@code BaselineComparison <result file> <baseline file> [threshold]}
+ *
+ * <p>The threshold is the relative change of the score that is considered
+ * a regression, eg {@code 0.10} for 10%. If the baseline file does not
+ * exist, the result file is copied to it, so that the next run is
+ * compared with this one. Benchmarks that are only in one of the files
+ * are reported, but are not regressions.
+ */
+public final class BaselineComparison {
+
+    private BaselineComparison() {
+        // utility class
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            throw new IllegalArgumentException("Usage: BaselineComparison <result file> <baseline file> [threshold]");
+        }
+        Path resultFile = Paths.get(args[0]);
+        Path baselineFile = Paths.get(args[1]);
+        double threshold = args.length > 2 ? Double.parseDouble(args[2]) : 0.10;
+
+        if (!Files.exists(baselineFile)) {
+            Path parent = baselineFile.toAbsolutePath().getParent();
+            if (parent != null) {
+                Files.createDirectories(parent);
+            }
+            Files.copy(resultFile, baselineFile, StandardCopyOption.REPLACE_EXISTING);
+            System.out.println("No baseline found, saved the results as the new baseline " + baselineFile);
+            return;
+        }
+
+        List<String> regressions = compare(read(resultFile), read(baselineFile), threshold, System.out::println);
+        if (!regressions.isEmpty()) {
+            System.err.println(regressions.size() + " benchmark(s) regressed by more than "
+                                   + Math.round(threshold * 100) + "% compared with " + baselineFile + ":");
+            regressions.forEach(it -> System.err.println("  " + it));
+            // not System.exit, this runs inside the Maven JVM
+            throw new IllegalStateException("Benchmarks regressed compared with the baseline");
+        }
+    }
+
+    /**
+     * Compares the results with the baseline. Each benchmark is printed
+     * to the given output. Returns the descriptions of the regressions.
+     */
+    static List<String> compare(Map<String, Score> results, Map<String, Score> baseline, double threshold,
+                                Consumer<String> out) {
+        List<String> regressions = new ArrayList<>();
+        for (Entry<String, Score> entry : results.entrySet()) {
+            String name = entry.getKey();
+            Score current = entry.getValue();
+            Score base = baseline.get(name);
+            if (base == null) {
+                out.accept(String.format("%-80s %12.3f %s (new)", name, current.value, current.unit));
+                continue;
+            }
+
+            double change = base.value == 0 ? 0 : (current.value - base.value) / base.value;
+            // positive when the benchmark got worse
+            double degradation = current.higherIsBetter ? -change : change;
+            String line = String.format("%-80s %12.3f %s (%+.1f%%)", name, current.value, current.unit, change * 100);
+            out.accept(line);
+            if (degradation > threshold) {
+                regressions.add(line);
+            }
+        }
+        for (String name : baseline.keySet()) {
+            if (!results.containsKey(name)) {
+                out.accept(String.format("%-80s (not run)", name));
+            }
+        }
+        return regressions;
+    }
+
+    static Map<String, Score> read(Path file) throws IOException {
+        try (Reader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            return read(reader);
+        }
+    }
+
+    /**
+     * Reads the scores of a JMH result file in JSON format, indexed by
+     * the name of the benchmark and its parameters.
+     */
+    static Map<String, Score> read(Reader reader) {
+        Map<String, Score> scores = new LinkedHashMap<>();
+        for (JsonElement element : JsonParser.parseReader(reader).getAsJsonArray()) {
+            JsonObject benchmark = element.getAsJsonObject();
+            StringBuilder name = new StringBuilder(benchmark.get("benchmark").getAsString());
+            JsonObject params = benchmark.getAsJsonObject("params");
+            if (params != null) {
+                // sorted, so that the name does not depend on the order of the params
+                Map<String, String> sorted = new TreeMap<>();
+                params.entrySet().forEach(it -> sorted.put(it.getKey(), it.getValue().getAsString()));
+                sorted.forEach((key, value) -> name.append(' ').append(key).append('=').append(value));
+            }
+            String mode = benchmark.get("mode").getAsString();
+            JsonObject metric = benchmark.getAsJsonObject("primaryMetric");
+            scores.put(name.toString(), new Score(metric.get("score").getAsDouble(),
+                                                  metric.get("scoreUnit").getAsString(),
+                                                  "thrpt".equals(mode)));
+        }
+        return scores;
+    }
+
+    static final class Score {
+
+        final double value;
+        final String unit;
+        /** True for the throughput mode, where the score is a number of operations per unit of time. */
+        final boolean higherIsBetter;
+
+        Score(double value, String unit, boolean higherIsBetter) {
+            this.value = value;
+            this.unit = unit;
+            this.higherIsBetter = higherIsBetter;
+        }
+    }
+}
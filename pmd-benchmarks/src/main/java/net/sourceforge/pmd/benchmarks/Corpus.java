@@ -0,0 +1,116 @@
+/*
+ * BSD-style license; for more info see http://pmd.sourceforge.net/license.html
+ */
+
+package net.sourceforge.pmd.benchmarks;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+
+import net.sourceforge.pmd.internal.util.IOUtil;
+import net.sourceforge.pmd.lang.Language;
+import net.sourceforge.pmd.lang.LanguageRegistry;
+import net.sourceforge.pmd.lang.LanguageVersion;
+import net.sourceforge.pmd.lang.document.FileId;
+import net.sourceforge.pmd.lang.document.TextDocument;
+import net.sourceforge.pmd.lang.document.TextFile;
+
+/**
+ * The fixed corpus analysed by the benchmarks. The Java files are generated
+ * by {@link JavaCorpusGenerator}, the files of the other languages are
+ * resources of this module. Everything is loaded in memory, so that the
+ * benchmarks do not measure the file system, and do not need the network.
+ */
+public final class Corpus {
+
+    /** Number of generated Java files. */
+    public static final int DEFAULT_JAVA_FILES = 200;
+
+    private static final String RESOURCE_ROOT = "/net/sourceforge/pmd/benchmarks/corpus/";
+
+    // resources cannot be listed reliably from a jar
+    private static final Map<String, List<String>> RESOURCES = new HashMap<>();
+
+    static {
+        RESOURCES.put("ecmascript", Arrays.asList("shop.js", "widgets.js", "validation.js"));
+        RESOURCES.put("xml", Arrays.asList("catalog.xml", "pom.xml", "layout.xml"));
+        RESOURCES.put("plsql", Arrays.asList("billing_pkg.pls", "inventory_pkg.pls", "reports.sql"));
+    }
+
+    private Corpus() {
+        // utility class
+    }
+
+    /**
+     * Returns the language with the given id.
+     *
+     * @throws IllegalArgumentException If the language is not on the classpath
+     */
+    public static Language language(String languageId) {
+        Language language = LanguageRegistry.PMD.getLanguageById(languageId);
+        if (language == null) {
+            throw new IllegalArgumentException("Unknown language " + languageId);
+        }
+        return language;
+    }
+
+    /**
+     * Returns the files of the corpus for the given language, in the
+     * default version of the language.
+     */
+    public static List<TextFile> files(String languageId) {
+        LanguageVersion version = language(languageId).getDefaultVersion();
+        List<TextFile> files = new ArrayList<>();
+        if ("java".equals(languageId)) {
+            for (Entry<String, String> file : JavaCorpusGenerator.generate(DEFAULT_JAVA_FILES, JavaCorpusGenerator.DEFAULT_SEED).entrySet()) {
+                files.add(TextFile.forCharSeq(file.getValue(), FileId.fromPathLikeString(file.getKey()), version));
+            }
+            return files;
+        }
+
+        List<String> names = RESOURCES.getOrDefault(languageId, Collections.emptyList());
+        if (names.isEmpty()) {
+            throw new IllegalArgumentException("No corpus for language " + languageId);
+        }
+        for (String name : names) {
+            String path = RESOURCE_ROOT + languageId + "/" + name;
+            files.add(TextFile.forCharSeq(readResource(path), FileId.fromPathLikeString(languageId + "/" + name), version));
+        }
+        return files;
+    }
+
+    /**
+     * Returns the documents of the corpus for the given language.
+     */
+    public static List<TextDocument> documents(String languageId) {
+        List<TextDocument> documents = new ArrayList<>();
+        for (TextFile file : files(languageId)) {
+            try {
+                documents.add(TextDocument.create(file));
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+        return documents;
+    }
+
+    private static String readResource(String path) {
+        try (InputStream in = Corpus.class.getResourceAsStream(path)) {
+            if (in == null) {
+                throw new IllegalStateException("Missing corpus file " + path);
+            }
+            return IOUtil.readToString(in, StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
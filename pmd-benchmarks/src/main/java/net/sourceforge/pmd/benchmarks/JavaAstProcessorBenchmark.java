@@ -0,0 +1,77 @@
+/*
+ * BSD-style license; for more info see http://pmd.sourceforge.net/license.html
+ */
+
+package net.sourceforge.pmd.benchmarks;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import net.sourceforge.pmd.lang.ast.SemanticErrorReporter;
+import net.sourceforge.pmd.lang.document.TextDocument;
+import net.sourceforge.pmd.lang.java.ast.ASTCompilationUnit;
+import net.sourceforge.pmd.lang.java.ast.JavaParser;
+import net.sourceforge.pmd.lang.java.internal.JavaAstProcessor;
+import net.sourceforge.pmd.lang.java.internal.JavaLanguageProcessor;
+
+/**
+ * Measures the semantic passes of the Java module (symbol table, type
+ * resolution, etc.) done by {@link JavaAstProcessor}. The trees are
+ * parsed again before each invocation, because the passes mutate them.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JavaAstProcessorBenchmark {
+
+    private LanguageSetup setup;
+    private JavaLanguageProcessor processor;
+    private List<TextDocument> documents;
+    private List<ASTCompilationUnit> roots;
+
+    @Setup(Level.Trial)
+    public void setupTrial() {
+        setup = new LanguageSetup("java");
+        processor = (JavaLanguageProcessor) setup.getProcessor();
+        documents = Corpus.documents("java");
+    }
+
+    @Setup(Level.Invocation)
+    public void parseWithoutProcessing() {
+        JavaParser parser = processor.getParserWithoutProcessing();
+        roots = new ArrayList<>(documents.size());
+        for (TextDocument document : documents) {
+            roots.add(parser.parse(setup.newTask(document)));
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        setup.close();
+    }
+
+    @Benchmark
+    public List<ASTCompilationUnit> process() {
+        for (ASTCompilationUnit root : roots) {
+            JavaAstProcessor.process(processor, SemanticErrorReporter.noop(), root);
+        }
+        return roots;
+    }
+}
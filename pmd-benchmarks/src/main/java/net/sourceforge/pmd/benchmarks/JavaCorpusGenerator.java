@@ -0,0 +1,214 @@
+/*
+ * BSD-style license; for more info see http://pmd.sourceforge.net/license.html
+ */
+
+package net.sourceforge.pmd.benchmarks;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Random;
+
+/**
+ * Generates the Java files of the benchmark corpus. The output only
+ * depends on the seed, so two runs of the benchmarks analyse the same
+ * code, without having to check in thousands of lines of Java.
+ *
+ * <p>The classes use the constructs that are costly for the semantic
+ * analysis of the Java module: generics, lambdas, method references,
+ * streams, overloaded calls, anonymous and nested classes. Method bodies
+ * are picked among a few templates with a few parameters, so that some
+ * of them are duplicated, which gives CPD something to find.
+ *
+ * <p>The main method writes the corpus to a directory, to inspect it or
+ * to analyse it with the CLI.
+ */
+public final class JavaCorpusGenerator {
+
+    /** Seed used by the benchmarks. */
+    public static final long DEFAULT_SEED = 20_240_830L;
+
+    private static final String[] METHOD_TEMPLATES = {
+        // 0: loops and conditions
+        "    public int sum%1$d(int[] values) {\n"
+            + "        int sum = 0;\n"
+            + "        for (int i = 0; i < values.length; i++) {\n"
+            + "            if (values[i] > %2$d) {\n"
+            + "                sum += values[i];\n"
+            + "            } else if (values[i] < -%2$d) {\n"
+            + "                sum -= values[i];\n"
+            + "            } else {\n"
+            + "                state++;\n"
+            + "            }\n"
+            + "        }\n"
+            + "        return sum;\n"
+            + "    }\n",
+        // 1: streams, lambdas and method references
+        "    public List<String> filter%1$d(String prefix) {\n"
+            + "        return names.stream()\n"
+            + "                    .filter(s -> s.length() > %2$d && s.startsWith(prefix))\n"
+            + "                    .map(String::trim)\n"
+            + "                    .sorted(Comparator.comparing(String::length).thenComparing(Function.identity()))\n"
+            + "                    .collect(Collectors.toList());\n"
+            + "    }\n",
+        // 2: string building and overloaded calls
+        "    public String describe%1$d(Object key, int times) {\n"
+            + "        StringBuilder sb = new StringBuilder(\"describe\").append(%2$d);\n"
+            + "        for (int i = 0; i < times; i++) {\n"
+            + "            sb.append(key).append(':').append(i).append(\", \");\n"
+            + "        }\n"
+            + "        counts.merge(String.valueOf(key), times, Integer::sum);\n"
+            + "        return sb.toString();\n"
+            + "    }\n",
+        // 3: switch and exceptions
+        "    public int classify%1$d(String kind) {\n"
+            + "        switch (kind) {\n"
+            + "        case \"small\":\n"
+            + "            return %2$d;\n"
+            + "        case \"medium\":\n"
+            + "            return %2$d * 2;\n"
+            + "        case \"large\":\n"
+            + "            return %2$d * 4;\n"
+            + "        default:\n"
+            + "            throw new IllegalArgumentException(\"Unknown kind \" + kind);\n"
+            + "        }\n"
+            + "    }\n",
+        // 4: try with resources
+        "    public int countLines%1$d(String path) throws IOException {\n"
+            + "        int count = 0;\n"
+            + "        try (BufferedReader reader = new BufferedReader(new FileReader(path))) {\n"
+            + "            String line;\n"
+            + "            while ((line = reader.readLine()) != null) {\n"
+            + "                if (line.length() > %2$d) {\n"
+            + "                    count++;\n"
+            + "                }\n"
+            + "            }\n"
+            + "        } catch (FileNotFoundException e) {\n"
+            + "            return -1;\n"
+            + "        }\n"
+            + "        return count;\n"
+            + "    }\n",
+        // 5: anonymous class and generic method
+        "    public <T extends Comparable<? super T>> T max%1$d(List<T> items, T fallback) {\n"
+            + "        Runnable log = new Runnable() {\n"
+            + "            @Override\n"
+            + "            public void run() {\n"
+            + "                names.add(\"max\" + %2$d);\n"
+            + "            }\n"
+            + "        };\n"
+            + "        log.run();\n"
+            + "        T best = fallback;\n"
+            + "        for (T item : items) {\n"
+            + "            if (best == null || item.compareTo(best) > 0) {\n"
+            + "                best = item;\n"
+            + "            }\n"
+            + "        }\n"
+            + "        return best;\n"
+            + "    }\n",
+        // 6: maps and nested class
+        "    public Map<String, List<Entry>> group%1$d(List<Entry> entries) {\n"
+            + "        Map<String, List<Entry>> result = new HashMap<>();\n"
+            + "        for (Entry entry : entries) {\n"
+            + "            result.computeIfAbsent(entry.key, k -> new ArrayList<>()).add(entry);\n"
+            + "            if (entry.value > %2$d) {\n"
+            + "                counts.put(entry.key, entry.value);\n"
+            + "            }\n"
+            + "        }\n"
+            + "        return result;\n"
+            + "    }\n",
+    };
+
+    private JavaCorpusGenerator() {
+        // utility class
+    }
+
+    /**
+     * Generates the given number of Java files. Returns a map of the
+     * relative paths of the files to their contents.
+     */
+    public static Map<String, String> generate(int numFiles, long seed) {
+        Random random = new Random(seed);
+        Map<String, String> files = new LinkedHashMap<>();
+        for (int i = 0; i < numFiles; i++) {
+            String pack = "bench.p" + (i % 5);
+            String name = "Generated" + i;
+            files.put(pack.replace('.', '/') + "/" + name + ".java", generateClass(random, pack, name));
+        }
+        return files;
+    }
+
+    private static String generateClass(Random random, String pack, String name) {
+        StringBuilder sb = new StringBuilder();
+        sb.append("package ").append(pack).append(";\n\n")
+          .append("import java.io.BufferedReader;\n")
+          .append("import java.io.FileNotFoundException;\n")
+          .append("import java.io.FileReader;\n")
+          .append("import java.io.IOException;\n")
+          .append("import java.util.ArrayList;\n")
+          .append("import java.util.Comparator;\n")
+          .append("import java.util.HashMap;\n")
+          .append("import java.util.List;\n")
+          .append("import java.util.Map;\n")
+          .append("import java.util.function.Function;\n")
+          .append("import java.util.stream.Collectors;\n\n")
+          .append("/**\n * Generated for the PMD benchmarks.\n */\n")
+          .append("public class ").append(name).append(" implements Comparable<").append(name).append("> {\n\n")
+          .append("    private static final int LIMIT = ").append(random.nextInt(1000)).append(";\n")
+          .append("    private final List<String> names = new ArrayList<>();\n")
+          .append("    private final Map<String, Integer> counts = new HashMap<>();\n")
+          .append("    private int state;\n")
+          .append("    private int unused").append(random.nextInt(10)).append(";\n\n");
+
+        int numMethods = 8 + random.nextInt(12);
+        for (int m = 0; m < numMethods; m++) {
+            String template = METHOD_TEMPLATES[random.nextInt(METHOD_TEMPLATES.length)];
+            // few distinct constants, so that some methods are duplicated
+            sb.append(String.format(template, m, random.nextInt(4))).append('\n');
+        }
+
+        sb.append("    @Override\n")
+          .append("    public int compareTo(").append(name).append(" other) {\n")
+          .append("        return Integer.compare(state, other.state);\n")
+          .append("    }\n\n")
+          .append("    static class Entry {\n")
+          .append("        final String key;\n")
+          .append("        final int value;\n\n")
+          .append("        Entry(String key, int value) {\n")
+          .append("            this.key = key;\n")
+          .append("            this.value = value > LIMIT ? LIMIT : value;\n")
+          .append("        }\n")
+          .append("    }\n")
+          .append("}\n");
+        return sb.toString();
+    }
+
+    /**
+     * Writes the corpus into a directory.
+     *
+     * <p>Usage: {@code JavaCorpusGenerator <output directory> [number of files] [seed]}
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length < 1) {
+            System.err.println("Usage: JavaCorpusGenerator <output directory> [number of files] [seed]");
+            System.exit(1);
+        }
+        Path outputDir = Paths.get(args[0]);
+        int numFiles = args.length > 1 ? Integer.parseInt(args[1]) : Corpus.DEFAULT_JAVA_FILES;
+        long seed = args.length > 2 ? Long.parseLong(args[2]) : DEFAULT_SEED;
+
+        for (Entry<String, String> file : generate(numFiles, seed).entrySet()) {
+            Path path = outputDir.resolve(file.getKey());
+            Files.createDirectories(path.getParent());
+            try (Writer writer = Files.newBufferedWriter(path, StandardCharsets.UTF_8)) {
+                writer.write(file.getValue());
+            }
+        }
+        System.out.println("Generated " + numFiles + " files in " + outputDir);
+    }
+}
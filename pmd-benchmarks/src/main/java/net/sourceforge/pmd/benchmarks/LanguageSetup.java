@@ -0,0 +1,85 @@
+/*
+ * BSD-style license; for more info see http://pmd.sourceforge.net/license.html
+ */
+
+package net.sourceforge.pmd.benchmarks;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import net.sourceforge.pmd.lang.Language;
+import net.sourceforge.pmd.lang.LanguageProcessor;
+import net.sourceforge.pmd.lang.LanguageProcessorRegistry;
+import net.sourceforge.pmd.lang.LanguageRegistry;
+import net.sourceforge.pmd.lang.ast.Parser;
+import net.sourceforge.pmd.lang.ast.Parser.ParserTask;
+import net.sourceforge.pmd.lang.ast.RootNode;
+import net.sourceforge.pmd.lang.ast.SemanticErrorReporter;
+import net.sourceforge.pmd.lang.document.TextDocument;
+import net.sourceforge.pmd.util.log.PmdReporter;
+
+/**
+ * Language processors of one language (and its dependencies), set up
+ * like for an analysis. This is shared by the benchmarks to parse the
+ * corpus outside of the measured methods.
+ */
+public final class LanguageSetup implements AutoCloseable {
+
+    private final Language language;
+    private final LanguageProcessorRegistry registry;
+
+    public LanguageSetup(String languageId) {
+        this.language = Corpus.language(languageId);
+        this.registry = LanguageProcessorRegistry.create(LanguageRegistry.PMD.getDependenciesOf(language),
+                                                         Collections.emptyMap(),
+                                                         PmdReporter.quiet());
+    }
+
+    public Language getLanguage() {
+        return language;
+    }
+
+    public LanguageProcessorRegistry getRegistry() {
+        return registry;
+    }
+
+    public LanguageProcessor getProcessor() {
+        return registry.getProcessor(language);
+    }
+
+    public Parser getParser() {
+        return getProcessor().services().getParser();
+    }
+
+    /**
+     * Creates a parser task for the given document.
+     */
+    public ParserTask newTask(TextDocument document) {
+        return new ParserTask(document, SemanticErrorReporter.noop(), registry);
+    }
+
+    /**
+     * Parses the document with the full parser of the language, that is,
+     * including the semantic passes for Java.
+     */
+    public RootNode parse(TextDocument document) {
+        return getParser().parse(newTask(document));
+    }
+
+    /**
+     * Parses all the given documents.
+     */
+    public List<RootNode> parseAll(List<TextDocument> documents) {
+        List<RootNode> roots = new ArrayList<>(documents.size());
+        for (TextDocument document : documents) {
+            roots.add(parse(document));
+        }
+        return roots;
+    }
+
+    @Override
+    public void close() {
+        registry.close();
+    }
+}
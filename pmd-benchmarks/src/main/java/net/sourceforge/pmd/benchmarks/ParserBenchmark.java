@@ -0,0 +1,71 @@
+/*
+ * BSD-style license; for more info see http://pmd.sourceforge.net/license.html
+ */
+
+package net.sourceforge.pmd.benchmarks;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import net.sourceforge.pmd.lang.ast.Parser;
+import net.sourceforge.pmd.lang.ast.Parser.ParserTask;
+import net.sourceforge.pmd.lang.document.TextDocument;
+
+/**
+ * Measures {@link Parser#parse(ParserTask)} on the whole corpus of a
+ * language. For Java, this includes the semantic passes, which are
+ * measured separately in {@link JavaAstProcessorBenchmark}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ParserBenchmark {
+
+    @Param({"java", "ecmascript", "xml", "plsql"})
+    public String language;
+
+    private LanguageSetup setup;
+    private List<ParserTask> tasks;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        setup = new LanguageSetup(language);
+        List<TextDocument> documents = Corpus.documents(language);
+        tasks = new ArrayList<>(documents.size());
+        for (TextDocument document : documents) {
+            tasks.add(setup.newTask(document));
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        setup.close();
+    }
+
+    @Benchmark
+    public void parse(Blackhole bh) {
+        Parser parser = setup.getParser();
+        for (ParserTask task : tasks) {
+            bh.consume(parser.parse(task));
+        }
+    }
+}
@@ -0,0 +1,93 @@
+/*
+ * BSD-style license; for more info see http://pmd.sourceforge.net/license.html
+ */
+
+package net.sourceforge.pmd.benchmarks;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import net.sourceforge.pmd.lang.ast.RootNode;
+import net.sourceforge.pmd.lang.rule.Rule;
+import net.sourceforge.pmd.lang.rule.RuleSet;
+import net.sourceforge.pmd.lang.rule.RuleSetLoader;
+import net.sourceforge.pmd.lang.rule.internal.RuleApplicator;
+import net.sourceforge.pmd.reporting.FileAnalysisListener;
+
+/**
+ * Measures a single Java rule applied with the {@link RuleApplicator}
+ * on the processed trees of the corpus. The parameter is the category
+ * and the name of the rule. The selection mixes Java rules that use the
+ * symbol table, the data flow analysis or metrics, and XPath rules.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RuleApplicationBenchmark {
+
+    @Param({
+        "bestpractices/UnusedPrivateField",
+        "bestpractices/UnusedAssignment",
+        "design/GodClass",
+        "errorprone/CloseResource",
+        "errorprone/EmptyCatchBlock",
+        "bestpractices/SwitchStmtsShouldHaveDefault",
+    })
+    public String rule;
+
+    private LanguageSetup setup;
+    private List<RootNode> roots;
+    private List<Rule> rules;
+    private RuleApplicator applicator;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        setup = new LanguageSetup("java");
+        roots = setup.parseAll(Corpus.documents("java"));
+
+        String category = rule.substring(0, rule.indexOf('/'));
+        String name = rule.substring(rule.indexOf('/') + 1);
+        RuleSet ruleSet = new RuleSetLoader().warnDeprecated(false)
+                                             .loadFromResource("category/java/" + category + ".xml");
+        Rule loaded = ruleSet.getRuleByName(name);
+        if (loaded == null) {
+            throw new IllegalArgumentException("Unknown rule " + rule);
+        }
+        loaded.initialize(setup.getProcessor());
+        rules = Collections.singletonList(loaded);
+        applicator = RuleApplicator.build(rules);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        setup.close();
+    }
+
+    @Benchmark
+    public void apply(Blackhole bh) {
+        FileAnalysisListener listener = bh::consume;
+        for (RootNode root : roots) {
+            applicator.index(root);
+            applicator.apply(rules, listener);
+        }
+    }
+}
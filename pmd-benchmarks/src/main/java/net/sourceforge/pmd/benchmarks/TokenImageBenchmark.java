@@ -0,0 +1,126 @@
+/*
+ * BSD-style license; for more info see http://pmd.sourceforge.net/license.html
+ */
+
+package net.sourceforge.pmd.benchmarks;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import net.sourceforge.pmd.lang.ast.GenericToken;
+import net.sourceforge.pmd.lang.ast.RootNode;
+import net.sourceforge.pmd.lang.ast.impl.javacc.JavaccToken;
+import net.sourceforge.pmd.lang.ast.impl.javacc.JjtreeNode;
+import net.sourceforge.pmd.lang.document.Chars;
+import net.sourceforge.pmd.lang.document.TextRegion;
+
+/**
+ * Compares the tokens whose image is the text of the document, when
+ * the token stores a slice of the text as its image, and when the image
+ * is sliced from the text by {@link JavaccToken#getImageCs()}. The tokens
+ * are those of the whole corpus of a language. This is meant to be run
+ * with the GC profiler, whose {@code gc.alloc.rate.norm} is the number
+ * of bytes allocated per operation:
+ *
+ * <pre>
+ * ./mvnw package -Pbenchmark -pl pmd-benchmarks -am -DskipTests -Dbenchmark.args="TokenImage -prof gc"
+ * </pre>
+ *
+ * <p>Creating the tokens without image saves one {@link Chars} per token.
+ * On the other hand, each call to {@link JavaccToken#getImageCs()} on such
+ * a token allocates a new slice, so the saving only holds as long as the
+ * images of most tokens are requested at most once.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TokenImageBenchmark {
+
+    @Param({"java", "plsql"})
+    public String language;
+
+    /** Tokens of the corpus, including comments, with the image sliced on demand. */
+    private JavaccToken[] lazyTokens;
+    /** The same tokens, with the image stored as a slice of the text. */
+    private JavaccToken[] storedTokens;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        List<JavaccToken> tokens = new ArrayList<>();
+        try (LanguageSetup setup = new LanguageSetup(language)) {
+            for (RootNode root : setup.parseAll(Corpus.documents(language))) {
+                for (JavaccToken token = ((JjtreeNode<?>) root).getFirstToken(); token != null; token = token.next) {
+                    for (JavaccToken comment : GenericToken.previousSpecials(token)) {
+                        tokens.add(comment);
+                    }
+                    if (!token.isEof()) {
+                        tokens.add(token);
+                    }
+                }
+            }
+        }
+        lazyTokens = new JavaccToken[tokens.size()];
+        storedTokens = new JavaccToken[tokens.size()];
+        for (int i = 0; i < tokens.size(); i++) {
+            lazyTokens[i] = createLazy(tokens.get(i));
+            storedTokens[i] = createStored(tokens.get(i));
+        }
+    }
+
+    private static JavaccToken createLazy(JavaccToken token) {
+        TextRegion region = token.getRegion();
+        return new JavaccToken(token.kind, region.getStartOffset(), region.getEndOffset(), token.getDocument());
+    }
+
+    private static JavaccToken createStored(JavaccToken token) {
+        TextRegion region = token.getRegion();
+        Chars image = token.getDocument().getTextDocument().getText().slice(region.getStartOffset(), region.getLength());
+        return new JavaccToken(token.kind, image, region.getStartOffset(), region.getEndOffset(), token.getDocument());
+    }
+
+    @Benchmark
+    public void createLazyTokens(Blackhole bh) {
+        for (JavaccToken token : lazyTokens) {
+            bh.consume(createLazy(token));
+        }
+    }
+
+    @Benchmark
+    public void createStoredTokens(Blackhole bh) {
+        for (JavaccToken token : lazyTokens) {
+            bh.consume(createStored(token));
+        }
+    }
+
+    @Benchmark
+    public void getImageOfLazyTokens(Blackhole bh) {
+        for (JavaccToken token : lazyTokens) {
+            bh.consume(token.getImageCs());
+        }
+    }
+
+    @Benchmark
+    public void getImageOfStoredTokens(Blackhole bh) {
+        for (JavaccToken token : storedTokens) {
+            bh.consume(token.getImageCs());
+        }
+    }
+}
@@ -0,0 +1,83 @@
+/*
+ * BSD-style license; for more info see http://pmd.sourceforge.net/license.html
+ */
+
+package net.sourceforge.pmd.benchmarks;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import net.sourceforge.pmd.lang.ast.RootNode;
+import net.sourceforge.pmd.lang.rule.xpath.XPathVersion;
+import net.sourceforge.pmd.lang.rule.xpath.internal.DeprecatedAttrLogger;
+import net.sourceforge.pmd.lang.rule.xpath.internal.SaxonXPathRuleQuery;
+
+/**
+ * Measures {@link SaxonXPathRuleQuery#evaluate(net.sourceforge.pmd.lang.ast.Node)}
+ * on the roots of the Java corpus. The queries are evaluated on the root
+ * of each file, so that those that would be in the rule chain are
+ * measured with a full traversal of the tree.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class XPathQueryBenchmark {
+
+    @Param({
+        // a simple path
+        "//MethodDeclaration[@Name = 'compareTo']",
+        // a predicate on descendants
+        "//ForStatement[not(.//IfStatement)]",
+        // attributes computed by the type resolution
+        "//MethodCall[pmd-java:matchesSig('java.lang.StringBuilder#append(_*)')]",
+        // a predicate on ancestors and following siblings
+        "//LocalVariableDeclaration[ancestor::TryStatement][following-sibling::*//ReturnStatement]",
+    })
+    public String expression;
+
+    private LanguageSetup setup;
+    private List<RootNode> roots;
+    private SaxonXPathRuleQuery query;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        setup = new LanguageSetup("java");
+        roots = setup.parseAll(Corpus.documents("java"));
+        query = new SaxonXPathRuleQuery(expression,
+                                        XPathVersion.DEFAULT,
+                                        Collections.emptyMap(),
+                                        setup.getProcessor().services().getXPathHandler(),
+                                        DeprecatedAttrLogger.noop());
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        setup.close();
+    }
+
+    @Benchmark
+    public void evaluate(Blackhole bh) {
+        for (RootNode root : roots) {
+            bh.consume(query.evaluate(root));
+        }
+    }
+}
@@ -0,0 +1,71 @@
+/*
+ * BSD-style license; for more info see http://pmd.sourceforge.net/license.html
+ */
+
+package net.sourceforge.pmd.cpd;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import net.sourceforge.pmd.benchmarks.Corpus;
+import net.sourceforge.pmd.lang.Language;
+import net.sourceforge.pmd.lang.document.TextFile;
+
+/**
+ * Measures {@link MatchAlgorithm#findMatches(CPDListener, SourceManager)}
+ * on the tokens of the Java corpus. The files are tokenized once, only
+ * the hashing and the collection of the matches are measured. This is
+ * in the package of CPD, because the algorithm is not public.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MatchAlgorithmBenchmark {
+
+    @Param({"50", "100"})
+    public int minimumTileSize;
+
+    private SourceManager sourceManager;
+    private Tokens tokens;
+
+    @Setup(Level.Trial)
+    public void setup() throws Exception {
+        Language java = Corpus.language("java");
+        CpdLexer lexer = ((CpdCapableLanguage) java).createCpdLexer(java.newPropertyBundle());
+
+        List<TextFile> files = Corpus.files("java");
+        sourceManager = new SourceManager(files);
+        tokens = new Tokens();
+        for (TextFile file : files) {
+            CpdLexer.tokenize(lexer, sourceManager.get(file), tokens);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        sourceManager.close();
+    }
+
+    @Benchmark
+    public List<Match> findMatches() {
+        // the hashes of the tokens are recomputed each time, so the tokens can be reused
+        return new MatchAlgorithm(tokens, minimumTileSize).findMatches(new CPDNullListener(), sourceManager);
+    }
+}
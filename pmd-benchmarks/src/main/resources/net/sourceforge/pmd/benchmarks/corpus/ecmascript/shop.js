@@ -0,0 +1,146 @@
+/*
+ * Shopping cart of a small web shop. Part of the PMD benchmark corpus.
+ */
+var Shop = (function () {
+    'use strict';
+
+    var TAX_RATE = 0.2;
+    var currencies = {
+        EUR: { symbol: '€', decimals: 2 },
+        USD: { symbol: '$', decimals: 2 },
+        JPY: { symbol: '¥', decimals: 0 }
+    };
+
+    function Product(id, name, price, category) {
+        this.id = id;
+        this.name = name;
+        this.price = price;
+        this.category = category;
+    }
+
+    Product.prototype.toString = function () {
+        return this.name + ' (' + this.id + ')';
+    };
+
+    function Cart(currency) {
+        this.items = [];
+        this.currency = currencies[currency] || currencies.EUR;
+        this.listeners = [];
+    }
+
+    Cart.prototype.add = function (product, quantity) {
+        var i, found = false;
+        if (quantity === undefined) {
+            quantity = 1;
+        }
+        for (i = 0; i < this.items.length; i++) {
+            if (this.items[i].product.id === product.id) {
+                this.items[i].quantity += quantity;
+                found = true;
+                break;
+            }
+        }
+        if (!found) {
+            this.items.push({ product: product, quantity: quantity });
+        }
+        this.fire('add', product, quantity);
+        return this;
+    };
+
+    Cart.prototype.remove = function (productId) {
+        var before = this.items.length;
+        this.items = this.items.filter(function (item) {
+            return item.product.id !== productId;
+        });
+        if (this.items.length !== before) {
+            this.fire('remove', productId);
+        }
+        return this;
+    };
+
+    Cart.prototype.subtotal = function () {
+        return this.items.reduce(function (sum, item) {
+            return sum + item.product.price * item.quantity;
+        }, 0);
+    };
+
+    Cart.prototype.total = function (discount) {
+        var subtotal = this.subtotal();
+        if (discount && discount.type === 'percent') {
+            subtotal = subtotal * (1 - discount.value / 100);
+        } else if (discount && discount.type === 'fixed') {
+            subtotal = Math.max(0, subtotal - discount.value);
+        }
+        return subtotal * (1 + TAX_RATE);
+    };
+
+    Cart.prototype.format = function (amount) {
+        var fixed = amount.toFixed(this.currency.decimals);
+        var parts = fixed.split('.');
+        parts[0] = parts[0].replace(/\B(?=(\d{3})+(?!\d))/g, ',');
+        return this.currency.symbol + parts.join('.');
+    };
+
+    Cart.prototype.on = function (listener) {
+        this.listeners.push(listener);
+    };
+
+    Cart.prototype.fire = function () {
+        var args = Array.prototype.slice.call(arguments);
+        var i;
+        for (i = 0; i < this.listeners.length; i++) {
+            try {
+                this.listeners[i].apply(this, args);
+            } catch (e) {
+                if (typeof console !== 'undefined') {
+                    console.log('Listener failed: ' + e.message);
+                }
+            }
+        }
+    };
+
+    Cart.prototype.byCategory = function () {
+        var groups = {};
+        this.items.forEach(function (item) {
+            var category = item.product.category || 'other';
+            if (!groups.hasOwnProperty(category)) {
+                groups[category] = [];
+            }
+            groups[category].push(item);
+        });
+        return groups;
+    };
+
+    function parsePrice(text) {
+        var value = parseFloat(String(text).replace(/[^0-9.\-]/g, ''));
+        if (isNaN(value)) {
+            throw new Error('Invalid price: ' + text);
+        }
+        return value;
+    }
+
+    function loadCatalog(rows) {
+        var products = [];
+        var i, row;
+        for (i = 0; i < rows.length; i++) {
+            row = rows[i];
+            switch (row.kind) {
+            case 'product':
+                products.push(new Product(row.id, row.name, parsePrice(row.price), row.category));
+                break;
+            case 'comment':
+                break;
+            default:
+                throw new Error('Unknown row kind ' + row.kind + ' at ' + i);
+            }
+        }
+        return products;
+    }
+
+    return {
+        Product: Product,
+        Cart: Cart,
+        loadCatalog: loadCatalog,
+        parsePrice: parsePrice
+    };
+}());
@@ -0,0 +1,124 @@
+/*
+ * Form validation. Part of the PMD benchmark corpus.
+ */
+var Validation = (function () {
+    var rules = {
+        required: function (value) {
+            return value !== null && value !== undefined && String(value).trim() !== '';
+        },
+        email: function (value) {
+            return /^[^\s@]+@[^\s@]+\.[^\s@]+$/.test(value);
+        },
+        minLength: function (value, length) {
+            return String(value).length >= length;
+        },
+        maxLength: function (value, length) {
+            return String(value).length <= length;
+        },
+        number: function (value) {
+            return !isNaN(parseFloat(value)) && isFinite(value);
+        },
+        range: function (value, min, max) {
+            var n = parseFloat(value);
+            return n >= min && n <= max;
+        },
+        pattern: function (value, regex) {
+            return new RegExp(regex).test(value);
+        }
+    };
+
+    var messages = {
+        required: 'This field is required',
+        email: 'Please enter a valid email address',
+        minLength: 'Please enter at least {0} characters',
+        maxLength: 'Please enter at most {0} characters',
+        number: 'Please enter a number',
+        range: 'Please enter a value between {0} and {1}',
+        pattern: 'The value has the wrong format'
+    };
+
+    function format(message, args) {
+        return message.replace(/\{(\d+)\}/g, function (match, index) {
+            return args[index] !== undefined ? args[index] : match;
+        });
+    }
+
+    function validateField(value, constraints) {
+        var errors = [];
+        var name, args;
+        for (name in constraints) {
+            if (!constraints.hasOwnProperty(name)) {
+                continue;
+            }
+            if (!rules[name]) {
+                throw new Error('Unknown rule ' + name);
+            }
+            args = constraints[name] === true ? [] : [].concat(constraints[name]);
+            if (name !== 'required' && !rules.required(value)) {
+                continue;
+            }
+            if (!rules[name].apply(null, [value].concat(args))) {
+                errors.push(format(messages[name], args));
+            }
+        }
+        return errors;
+    }
+
+    function validate(form, schema) {
+        var result = { valid: true, errors: {} };
+        var field, errors;
+        for (field in schema) {
+            if (schema.hasOwnProperty(field)) {
+                errors = validateField(form[field], schema[field]);
+                if (errors.length > 0) {
+                    result.valid = false;
+                    result.errors[field] = errors;
+                }
+            }
+        }
+        return result;
+    }
+
+    function addRule(name, check, message) {
+        if (rules[name]) {
+            throw new Error('Rule ' + name + ' already exists');
+        }
+        rules[name] = check;
+        messages[name] = message;
+    }
+
+    return {
+        validate: validate,
+        validateField: validateField,
+        addRule: addRule
+    };
+}());
+
+var signupSchema = {
+    name: { required: true, maxLength: 50 },
+    email: { required: true, email: true },
+    age: { number: true, range: [18, 130] },
+    password: { required: true, minLength: 8, pattern: '[A-Z]' }
+};
+
+function onSubmit(form) {
+    var values = {};
+    var i, element;
+    for (i = 0; i < form.elements.length; i++) {
+        element = form.elements[i];
+        if (element.name) {
+            values[element.name] = element.value;
+        }
+    }
+    var result = Validation.validate(values, signupSchema);
+    if (!result.valid) {
+        for (var field in result.errors) {
+            var label = document.getElementById(field + '-error');
+            if (label) {
+                label.textContent = result.errors[field].join(', ');
+            }
+        }
+        return false;
+    }
+    return true;
+}
@@ -0,0 +1,147 @@
+/*
+ * Small UI widgets. Part of the PMD benchmark corpus.
+ */
+var Widgets = Widgets || {};
+
+Widgets.Tabs = function (element, options) {
+    var self = this;
+    this.element = element;
+    this.options = options || {};
+    this.active = this.options.active || 0;
+    this.tabs = [];
+    this.panels = [];
+
+    var children = element.childNodes;
+    for (var i = 0; i < children.length; i++) {
+        var child = children[i];
+        if (child.nodeType !== 1) {
+            continue;
+        }
+        if (child.className.indexOf('tab') >= 0) {
+            this.tabs.push(child);
+        } else if (child.className.indexOf('panel') >= 0) {
+            this.panels.push(child);
+        }
+    }
+
+    this.tabs.forEach(function (tab, index) {
+        tab.addEventListener('click', function (event) {
+            event.preventDefault();
+            self.select(index);
+        });
+    });
+    this.select(this.active);
+};
+
+Widgets.Tabs.prototype.select = function (index) {
+    if (index < 0 || index >= this.tabs.length) {
+        return;
+    }
+    for (var i = 0; i < this.tabs.length; i++) {
+        var selected = i === index;
+        this.tabs[i].className = selected ? 'tab tab-active' : 'tab';
+        if (this.panels[i]) {
+            this.panels[i].style.display = selected ? 'block' : 'none';
+        }
+    }
+    this.active = index;
+    if (typeof this.options.onSelect === 'function') {
+        this.options.onSelect(index);
+    }
+};
+
+Widgets.Dialog = function (title, content) {
+    this.title = title;
+    this.content = content;
+    this.buttons = [];
+    this.visible = false;
+};
+
+Widgets.Dialog.prototype.addButton = function (label, handler) {
+    this.buttons.push({ label: label, handler: handler });
+    return this;
+};
+
+Widgets.Dialog.prototype.render = function (document) {
+    var root = document.createElement('div');
+    root.className = 'dialog';
+    var header = document.createElement('h2');
+    header.appendChild(document.createTextNode(this.title));
+    root.appendChild(header);
+    var body = document.createElement('div');
+    body.className = 'dialog-body';
+    body.innerHTML = this.content;
+    root.appendChild(body);
+    var footer = document.createElement('div');
+    footer.className = 'dialog-footer';
+    for (var i = 0; i < this.buttons.length; i++) {
+        var button = document.createElement('button');
+        button.appendChild(document.createTextNode(this.buttons[i].label));
+        button.onclick = (function (handler, dialog) {
+            return function () {
+                if (handler() !== false) {
+                    dialog.hide();
+                }
+            };
+        }(this.buttons[i].handler, this));
+        footer.appendChild(button);
+    }
+    root.appendChild(footer);
+    this.root = root;
+    return root;
+};
+
+Widgets.Dialog.prototype.show = function () {
+    if (this.root) {
+        this.root.style.display = 'block';
+    }
+    this.visible = true;
+};
+
+Widgets.Dialog.prototype.hide = function () {
+    if (this.root) {
+        this.root.style.display = 'none';
+    }
+    this.visible = false;
+};
+
+Widgets.Table = function (columns, rows) {
+    this.columns = columns;
+    this.rows = rows;
+    this.sortColumn = null;
+    this.ascending = true;
+};
+
+Widgets.Table.prototype.sortBy = function (column) {
+    if (this.sortColumn === column) {
+        this.ascending = !this.ascending;
+    } else {
+        this.sortColumn = column;
+        this.ascending = true;
+    }
+    var ascending = this.ascending;
+    this.rows.sort(function (a, b) {
+        var x = a[column], y = b[column];
+        if (x == y) {
+            return 0;
+        }
+        return (x < y ? -1 : 1) * (ascending ? 1 : -1);
+    });
+};
+
+Widgets.Table.prototype.toHtml = function () {
+    var html = '<table><thead><tr>';
+    var i, j;
+    for (i = 0; i < this.columns.length; i++) {
+        html += '<th>' + this.columns[i] + '</th>';
+    }
+    html += '</tr></thead><tbody>';
+    for (i = 0; i < this.rows.length; i++) {
+        html += '<tr>';
+        for (j = 0; j < this.columns.length; j++) {
+            html += '<td>' + this.rows[i][this.columns[j]] + '</td>';
+        }
+        html += '</tr>';
+    }
+    return html + '</tbody></table>';
+};
@@ -0,0 +1,54 @@
+--
+-- Reporting procedures. Part of the PMD benchmark corpus.
+--
+CREATE OR REPLACE PROCEDURE monthly_sales_report(p_year IN NUMBER, p_month IN NUMBER) IS
+  v_start DATE;
+  v_end   DATE;
+  v_total NUMBER := 0;
+BEGIN
+  v_start := TO_DATE(p_year || '-' || p_month || '-01', 'YYYY-MM-DD');
+  v_end := ADD_MONTHS(v_start, 1);
+
+  FOR r IN (SELECT c.name AS customer, SUM(l.quantity * l.unit_price) AS amount
+              FROM invoices i
+              JOIN invoice_lines l ON l.invoice_id = i.id
+              JOIN customers c ON c.id = i.customer_id
+             WHERE i.created_at >= v_start
+               AND i.created_at < v_end
+             GROUP BY c.name
+             ORDER BY amount DESC) LOOP
+    DBMS_OUTPUT.PUT_LINE(RPAD(r.customer, 40) || TO_CHAR(r.amount, '999G999D99'));
+    v_total := v_total + r.amount;
+  END LOOP;
+
+  DBMS_OUTPUT.PUT_LINE(RPAD('Total', 40) || TO_CHAR(v_total, '999G999D99'));
+END monthly_sales_report;
+/
+
+CREATE OR REPLACE FUNCTION top_product(p_category IN VARCHAR2) RETURN VARCHAR2 IS
+  v_name products.name%TYPE;
+BEGIN
+  SELECT name
+    INTO v_name
+    FROM (SELECT p.name, SUM(l.quantity) AS sold
+            FROM products p
+            JOIN invoice_lines l ON l.product_id = p.id
+           WHERE p.category = p_category
+           GROUP BY p.name
+           ORDER BY sold DESC)
+   WHERE ROWNUM = 1;
+  RETURN v_name;
+EXCEPTION
+  WHEN NO_DATA_FOUND THEN
+    RETURN NULL;
+END top_product;
+/
+
+CREATE OR REPLACE PROCEDURE purge_old_reminders(p_days IN NUMBER) IS
+BEGIN
+  DELETE FROM reminders
+   WHERE sent_at < SYSDATE - p_days;
+  DBMS_OUTPUT.PUT_LINE(SQL%ROWCOUNT || ' reminders deleted');
+  COMMIT;
+END purge_old_reminders;
+/
@@ -0,0 +1,75 @@
+/*
+ * BSD-style license; for more info see http://pmd.sourceforge.net/license.html
+ */
+
+package net.sourceforge.pmd.benchmarks;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+import net.sourceforge.pmd.benchmarks.BaselineComparison.Score;
+
+class BaselineComparisonTest {
+
+    @Test
+    void scoresAreIndexedByBenchmarkAndParams() {
+        Map<String, Score> scores = read(result("ParserBenchmark.parse", "avgt", 12.5, "{\"language\": \"java\"}"));
+
+        Score score = scores.get("net.sourceforge.pmd.benchmarks.ParserBenchmark.parse language=java");
+        assertEquals(12.5, score.value);
+        assertEquals("ms/op", score.unit);
+    }
+
+    @Test
+    void slowerAverageTimeIsARegression() {
+        List<String> regressions = compare(result("A.a", "avgt", 12, null), result("A.a", "avgt", 10, null));
+        assertEquals(1, regressions.size());
+    }
+
+    @Test
+    void lowerThroughputIsARegression() {
+        List<String> regressions = compare(result("A.a", "thrpt", 8, null), result("A.a", "thrpt", 10, null));
+        assertEquals(1, regressions.size());
+    }
+
+    @Test
+    void improvementsAndSmallChangesAreNotRegressions() {
+        assertTrue(compare(result("A.a", "avgt", 5, null), result("A.a", "avgt", 10, null)).isEmpty());
+        assertTrue(compare(result("A.a", "avgt", 10.5, null), result("A.a", "avgt", 10, null)).isEmpty());
+        assertTrue(compare(result("A.a", "thrpt", 15, null), result("A.a", "thrpt", 10, null)).isEmpty());
+    }
+
+    @Test
+    void benchmarksMissingFromOneSideAreNotRegressions() {
+        List<String> output = new ArrayList<>();
+        List<String> regressions = BaselineComparison.compare(read(result("A.a", "avgt", 10, null)),
+                                                              read(result("B.b", "avgt", 10, null)),
+                                                              0.1, output::add);
+        assertTrue(regressions.isEmpty());
+        assertEquals(2, output.size());
+    }
+
+    private static List<String> compare(String results, String baseline) {
+        return BaselineComparison.compare(read(results), read(baseline), 0.1, line -> { });
+    }
+
+    private static Map<String, Score> read(String json) {
+        return BaselineComparison.read(new StringReader(json));
+    }
+
+    private static String result(String benchmark, String mode, double score, String params) {
+        return "[{"
+            + "\"benchmark\": \"net.sourceforge.pmd.benchmarks." + benchmark + "\","
+            + "\"mode\": \"" + mode + "\","
+            + (params != null ? "\"params\": " + params + "," : "")
+            + "\"primaryMetric\": {\"score\": " + score + ", \"scoreUnit\": \"" + ("thrpt".equals(mode) ? "ops/ms" : "ms/op") + "\"}"
+            + "}]";
+    }
+}
@@ -0,0 +1,33 @@
+/*
+ * BSD-style license; for more info see http://pmd.sourceforge.net/license.html
+ */
+
+package net.sourceforge.pmd.benchmarks;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import net.sourceforge.pmd.lang.ast.RootNode;
+
+class CorpusTest {
+
+    @ParameterizedTest
+    @ValueSource(strings = {"java", "ecmascript", "xml", "plsql"})
+    void corpusIsParsedWithoutErrors(String languageId) {
+        try (LanguageSetup setup = new LanguageSetup(languageId)) {
+            List<RootNode> roots = setup.parseAll(Corpus.documents(languageId));
+            assertFalse(roots.isEmpty());
+        }
+    }
+
+    @Test
+    void javaCorpusIsDeterministic() {
+        assertEquals(JavaCorpusGenerator.generate(10, 42L), JavaCorpusGenerator.generate(10, 42L));
+    }
+}
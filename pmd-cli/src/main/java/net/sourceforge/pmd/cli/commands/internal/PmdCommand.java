@@ -7,6 +7,8 @@ package net.sourceforge.pmd.cli.commands.internal;
 import java.io.IOException;
 import java.io.OutputStreamWriter;
 import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.Iterator;
@@ -20,6 +22,12 @@ import org.slf4j.LoggerFactory;
 
 import net.sourceforge.pmd.PMDConfiguration;
 import net.sourceforge.pmd.PmdAnalysis;
+import net.sourceforge.pmd.benchmark.JsonRunMetricsRenderer;
+import net.sourceforge.pmd.benchmark.JsonTimingReportRenderer;
+import net.sourceforge.pmd.benchmark.OpenMetricsRunMetricsRenderer;
+import net.sourceforge.pmd.benchmark.RunMetrics;
+import net.sourceforge.pmd.benchmark.RunMetricsListener;
+import net.sourceforge.pmd.benchmark.RunMetricsRenderer;
 import net.sourceforge.pmd.benchmark.TextTimingReportRenderer;
 import net.sourceforge.pmd.benchmark.TimeTracker;
 import net.sourceforge.pmd.benchmark.TimingReport;
@@ -86,6 +94,14 @@ public class PmdCommand extends AbstractAnalysisPmdSubcommand<PMDConfiguration>
 
     private boolean benchmark;
 
+    private boolean benchmarkXPath;
+
+    private Path benchmarkFile;
+
+    private Path metricsFile;
+
+    private MetricsFormat metricsFormat;
+
     private boolean showSuppressed;
 
     private String suppressMarker;
@@ -138,6 +154,35 @@ public class PmdCommand extends AbstractAnalysisPmdSubcommand<PMDConfiguration>
         this.benchmark = benchmark;
     }
 
+    @Option(names = "--benchmark-xpath",
+            description = "Like --benchmark, but additionally reports the time spent in each subexpression of XPath rules, "
+                          + "and logs the XPath rules that cannot use the rule chain. This has a noticeable overhead.")
+    public void setBenchmarkXPath(final boolean benchmarkXPath) {
+        this.benchmarkXPath = benchmarkXPath;
+    }
+
+    @Option(names = "--benchmark-file",
+            description = "Like --benchmark, but additionally writes the benchmark report in JSON format to the given file. "
+                          + "Both reports contain the slowest files, the slowest parses and the slowest rules on a single file.")
+    public void setBenchmarkFile(final Path benchmarkFile) {
+        this.benchmarkFile = benchmarkFile;
+    }
+
+    @Option(names = "--metrics-file",
+            description = "Path to a file to which metrics of the run are written at the end of the analysis, "
+                          + "eg the number of files per second, the time spent in the parsers and in each rule, "
+                          + "the cache hit ratio, the peak heap usage and the thread utilization.")
+    public void setMetricsFile(final Path metricsFile) {
+        this.metricsFile = metricsFile;
+    }
+
+    @Option(names = "--metrics-format",
+            description = "Format of the metrics file.%nValid values: ${COMPLETION-CANDIDATES}",
+            defaultValue = "JSON")
+    public void setMetricsFormat(final MetricsFormat metricsFormat) {
+        this.metricsFormat = metricsFormat;
+    }
+
     @Option(names = "--show-suppressed", description = "Report should show suppressed rule violations.")
     public void setShowSuppressed(final boolean showSuppressed) {
         this.showSuppressed = showSuppressed;
@@ -299,9 +344,11 @@ public class PmdCommand extends AbstractAnalysisPmdSubcommand<PMDConfiguration>
     @Override
     @NonNull
     protected CliExitCode doExecute(PMDConfiguration configuration) {
-        if (benchmark) {
-            TimeTracker.startGlobalTracking();
+        if (isBenchmarking() || metricsFile != null) {
+            // the metrics contain the times measured by the time tracker
+            TimeTracker.startGlobalTracking(benchmarkXPath);
         }
+        final RunMetricsListener metricsListener = metricsFile != null ? new RunMetricsListener() : null;
 
         final PmdReporter pmdReporter = configuration.getReporter();
 
@@ -327,6 +374,10 @@ public class PmdCommand extends AbstractAnalysisPmdSubcommand<PMDConfiguration>
                     }
                 }
 
+                if (metricsListener != null) {
+                    pmd.addListener(metricsListener);
+                }
+
                 final ReportStats stats = pmd.runAndReturnStats();
                 if (pmdReporter.numErrors() > 0) {
                     // processing errors are ignored
@@ -349,7 +400,9 @@ public class PmdCommand extends AbstractAnalysisPmdSubcommand<PMDConfiguration>
             printErrorDetected(pmdReporter, 1);
             return CliExitCode.ERROR;
         } finally {
-            finishBenchmarker(pmdReporter);
+            final TimingReport timingReport = TimeTracker.stopGlobalTracking();
+            finishBenchmarker(pmdReporter, timingReport);
+            writeMetrics(pmdReporter, metricsListener, timingReport);
         }
     }
 
@@ -360,10 +413,12 @@ public class PmdCommand extends AbstractAnalysisPmdSubcommand<PMDConfiguration>
         reporter.info(StringUtil.quoteMessageFormat(msg));
     }
 
-    private void finishBenchmarker(final PmdReporter pmdReporter) {
-        if (benchmark) {
-            final TimingReport timingReport = TimeTracker.stopGlobalTracking();
+    private boolean isBenchmarking() {
+        return benchmark || benchmarkXPath || benchmarkFile != null;
+    }
 
+    private void finishBenchmarker(final PmdReporter pmdReporter, final TimingReport timingReport) {
+        if (isBenchmarking()) {
             // TODO get specified report format from config
             final TimingReportRenderer renderer = new TextTimingReportRenderer();
 
@@ -375,13 +430,57 @@ public class PmdCommand extends AbstractAnalysisPmdSubcommand<PMDConfiguration>
             } catch (final IOException e) {
                 pmdReporter.errorEx("Error producing benchmark report", e);
             }
+
+            if (benchmarkFile != null) {
+                try (Writer writer = Files.newBufferedWriter(benchmarkFile, StandardCharsets.UTF_8)) {
+                    new JsonTimingReportRenderer().render(timingReport, writer);
+                } catch (final IOException e) {
+                    pmdReporter.errorEx("Error writing benchmark report to " + benchmarkFile, e);
+                }
+            }
+        }
+    }
+
+    private void writeMetrics(final PmdReporter pmdReporter, final RunMetricsListener metricsListener,
+                              final TimingReport timingReport) {
+        if (metricsListener == null) {
+            return;
+        }
+
+        // noop if the analysis closed it, but it is not closed if the analysis could not start
+        metricsListener.close();
+        final RunMetrics metrics = metricsListener.getResult().withTimingReport(timingReport);
+        try (Writer writer = Files.newBufferedWriter(metricsFile, StandardCharsets.UTF_8)) {
+            metricsFormat.newRenderer().render(metrics, writer);
+        } catch (final IOException e) {
+            pmdReporter.errorEx("Error writing metrics to " + metricsFile, e);
         }
     }
 
+    /**
+     * Formats of the metrics file.
+     */
+    enum MetricsFormat {
+        JSON {
+            @Override
+            RunMetricsRenderer newRenderer() {
+                return new JsonRunMetricsRenderer();
+            }
+        },
+        OPENMETRICS {
+            @Override
+            RunMetricsRenderer newRenderer() {
+                return new OpenMetricsRunMetricsRenderer();
+            }
+        };
+
+        abstract RunMetricsRenderer newRenderer();
+    }
+
     /**
      * Provider of candidates for valid report formats.
      */
-    private static final class PmdSupportedReportFormatsCandidates implements Iterable<String> {
+    static final class PmdSupportedReportFormatsCandidates implements Iterable<String> {
 
         @Override
         public Iterator<String> iterator() {
@@ -394,7 +493,7 @@ public class PmdCommand extends AbstractAnalysisPmdSubcommand<PMDConfiguration>
      * 
      * Check the help for which ones are supported by each report format and possible values.
      */
-    private static final class PmdReportPropertiesCandidates implements Iterable<String> {
+    static final class PmdReportPropertiesCandidates implements Iterable<String> {
 
         @Override
         public Iterator<String> iterator() {
@@ -0,0 +1,19 @@
+/**
+ * BSD-style license; for more info see http://pmd.sourceforge.net/license.html
+ */
+
+package net.sourceforge.pmd.cli.commands.internal;
+
+import picocli.CommandLine.Command;
+import picocli.CommandLine.Option;
+
+@Command(name = "report",
+    description = "Tools for reports written with the 'binary' report format",
+    subcommands = { ReportConvertCommand.class })
+public class ReportCommand {
+
+    @SuppressWarnings("unused")
+    @Option(names = { "-h", "--help" }, usageHelp = true, description = "Show this help message and exit.")
+    private boolean helpRequested;
+
+}
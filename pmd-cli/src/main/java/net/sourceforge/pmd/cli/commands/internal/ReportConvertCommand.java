@@ -0,0 +1,75 @@
+/**
+ * BSD-style license; for more info see http://pmd.sourceforge.net/license.html
+ */
+
+package net.sourceforge.pmd.cli.commands.internal;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Properties;
+
+import org.slf4j.LoggerFactory;
+
+import net.sourceforge.pmd.cli.commands.internal.PmdCommand.PmdReportPropertiesCandidates;
+import net.sourceforge.pmd.cli.commands.internal.PmdCommand.PmdSupportedReportFormatsCandidates;
+import net.sourceforge.pmd.cli.internal.CliExitCode;
+import net.sourceforge.pmd.internal.LogMessages;
+import net.sourceforge.pmd.renderers.Renderer;
+import net.sourceforge.pmd.renderers.RendererFactory;
+import net.sourceforge.pmd.renderers.internal.binary.BinaryReportReader;
+import net.sourceforge.pmd.util.log.internal.SimpleMessageReporter;
+
+import picocli.CommandLine.Command;
+import picocli.CommandLine.Option;
+import picocli.CommandLine.Parameters;
+
+@Command(name = "convert", showDefaultValues = true,
+    description = "Renders a report written with the 'binary' report format in another format, "
+        + "without running the analysis again")
+public class ReportConvertCommand extends AbstractPmdSubcommand {
+
+    @Parameters(arity = "1", paramLabel = "<binary-report>", description = "Path to the binary report to convert.")
+    private Path binaryReport;
+
+    @Option(names = { "--format", "-f" },
+            description = "Report format.%nValid values: ${COMPLETION-CANDIDATES}%n"
+                    + "Alternatively, you can provide the fully qualified name of a custom Renderer in the classpath.",
+            defaultValue = "text", completionCandidates = PmdSupportedReportFormatsCandidates.class)
+    private String format;
+
+    @Option(names = { "--property", "-P" },
+            description = "Key-value pair defining a property for the report format. "
+                + "See the help of the check command for the supported values.",
+            completionCandidates = PmdReportPropertiesCandidates.class)
+    private Properties properties = new Properties();
+
+    @Option(names = { "--report-file", "-r" },
+            description = "Path to a file to which report output is written. "
+                + "The file is created if it does not exist. "
+                + "If this option is not specified, the report is rendered to standard output.")
+    private Path reportFile;
+
+    @Option(names = "--show-suppressed", description = "Report should show suppressed rule violations, "
+        + "if they were written to the binary report.")
+    private boolean showSuppressed;
+
+    @Override
+    protected CliExitCode execute() {
+        final Renderer renderer = RendererFactory.createRenderer(format, properties);
+        renderer.setShowSuppressedViolations(showSuppressed);
+        renderer.setReportFile(reportFile == null ? null : reportFile.toString());
+
+        try (InputStream in = Files.newInputStream(binaryReport);
+             BinaryReportReader reader = new BinaryReportReader(in)) {
+            reader.renderTo(renderer);
+            return CliExitCode.OK;
+        } catch (final IOException e) {
+            final SimpleMessageReporter reporter = new SimpleMessageReporter(LoggerFactory.getLogger(ReportConvertCommand.class));
+            reporter.error(e, LogMessages.errorDetectedMessage(1, "report convert"));
+
+            return CliExitCode.ERROR;
+        }
+    }
+}
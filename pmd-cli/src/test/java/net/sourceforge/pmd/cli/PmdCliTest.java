@@ -104,6 +104,47 @@ class PmdCliTest extends BaseCliTest {
         assertNotEquals(readString(reportFile), STRING_TO_REPLACE, "Report file should have been overwritten");
     }
 
+    @Test
+    void testBenchmarkFile() throws Exception {
+        Path benchmarkFile = tempRoot().resolve("benchmark.json");
+
+        runCli(VIOLATIONS_FOUND, "--dir", srcDir.toString(), "--rulesets", RULESET_WITH_VIOLATION,
+               "--benchmark-file", benchmarkFile.toString())
+            .verify(r -> r.checkStdErr(containsString("Slowest File Processing")));
+
+        String json = readString(benchmarkFile);
+        assertThat(json, containsString("\"slowestOperations\""));
+        assertThat(json, containsString("\"FILE_PROCESSING\""));
+        assertThat(json, containsString("\"RULE\""));
+        assertThat(json, containsString("someSource.dummy"));
+    }
+
+    @Test
+    void testMetricsFile() throws Exception {
+        Path metricsFile = tempRoot().resolve("metrics.json");
+
+        runCli(VIOLATIONS_FOUND, "--dir", srcDir.toString(), "--rulesets", RULESET_WITH_VIOLATION,
+               "--metrics-file", metricsFile.toString());
+
+        String json = readString(metricsFile);
+        assertThat(json, containsString("\"files\": 1"));
+        assertThat(json, containsString("\"ruleTimeNanos\""));
+        assertThat(json, containsString("\"peakHeapBytes\""));
+    }
+
+    @Test
+    void testMetricsFileOpenMetrics() throws Exception {
+        Path metricsFile = tempRoot().resolve("metrics.prom");
+
+        runCli(VIOLATIONS_FOUND, "--dir", srcDir.toString(), "--rulesets", RULESET_WITH_VIOLATION,
+               "--metrics-file", metricsFile.toString(), "--metrics-format", "openmetrics");
+
+        String metrics = readString(metricsFile);
+        assertThat(metrics, containsString("pmd_files_total 1\n"));
+        assertThat(metrics, containsString("# TYPE pmd_rule_seconds counter\n"));
+        assertThat(metrics, endsWith("# EOF\n"));
+    }
+
     @Test
     void testNonExistentReportFile() throws Exception {
         Path reportFile = tempRoot().resolve("out/reportFile.txt");
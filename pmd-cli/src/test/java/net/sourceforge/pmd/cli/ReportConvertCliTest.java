@@ -0,0 +1,70 @@
+/*
+ * BSD-style license; for more info see http://pmd.sourceforge.net/license.html
+ */
+
+package net.sourceforge.pmd.cli;
+
+import static net.sourceforge.pmd.cli.internal.CliExitCode.ERROR;
+import static net.sourceforge.pmd.cli.internal.CliExitCode.VIOLATIONS_FOUND;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class ReportConvertCliTest extends BaseCliTest {
+
+    @TempDir
+    private Path tempDir;
+
+    private Path srcDir;
+
+    @BeforeEach
+    void setup() throws IOException {
+        srcDir = Files.createDirectories(tempDir.resolve("src"));
+        Files.write(srcDir.resolve("someSource.dummy"), "dummy text".getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void testConvertedReportIsTheSameAsTheOriginal() throws Exception {
+        Path textReport = tempDir.resolve("report.txt");
+        runCheck("text", textReport);
+        Path binaryReport = tempDir.resolve("report.pmdr");
+        runCheck("binary", binaryReport);
+
+        Path converted = tempDir.resolve("converted.txt");
+        runCliSuccessfully("report", "convert", binaryReport.toString(), "-f", "text", "-r", converted.toString());
+
+        assertEquals(readString(textReport), readString(converted));
+    }
+
+    @Test
+    void testConvertNotABinaryReport() throws Exception {
+        Path textReport = tempDir.resolve("report.txt");
+        runCheck("text", textReport);
+
+        runCli(ERROR, "report", "convert", textReport.toString());
+    }
+
+    private void runCheck(String format, Path reportFile) throws Exception {
+        runCli(VIOLATIONS_FOUND, "check", "--no-cache", "--no-progress",
+               "-d", srcDir.toString(), "-R", "rulesets/dummy/basic.xml",
+               "-f", format, "-r", reportFile.toString());
+    }
+
+    private static String readString(Path path) throws IOException {
+        return new String(Files.readAllBytes(path), StandardCharsets.UTF_8);
+    }
+
+    @Override
+    protected List<String> cliStandardArgs() {
+        return Collections.emptyList();
+    }
+}
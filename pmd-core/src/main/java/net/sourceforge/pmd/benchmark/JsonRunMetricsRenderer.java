@@ -0,0 +1,95 @@
+/**
+ * BSD-style license; for more info see http://pmd.sourceforge.net/license.html
+ */
+
+package net.sourceforge.pmd.benchmark;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Map;
+
+import net.sourceforge.pmd.PMDVersion;
+
+import com.google.gson.stream.JsonWriter;
+
+/**
+ * Renders {@link RunMetrics} as a JSON object. Times are in nanoseconds.
+ * The times measured by the {@link TimeTracker} are only rendered if they
+ * are available. The cache hit ratio is null if the cache was not used.
+ *
+ * <pre>{@code
+ * {
+ *   "formatVersion": 1,
+ *   "pmdVersion": "7.6.0",
+ *   "files": 120,
+ *   "violations": 42,
+ *   "errors": 0,
+ *   "wallClockNanos": 2000000000,
+ *   "filesPerSecond": 60.0,
+ *   "threads": 4,
+ *   "threadUtilization": 0.85,
+ *   "peakHeapBytes": 123456789,
+ *   "parsedCharacters": 500000,
+ *   "parsedCharactersPerSecond": 250000.0,
+ *   "parseTimeNanos": 300000000,
+ *   "languagePassTimeNanos": { "Type resolution": 100000000 },
+ *   "ruleTimeNanos": { "UnusedPrivateField": 1000000 },
+ *   "cache": { "checks": 120, "hits": 100, "hitRatio": 0.833 }
+ * }
+ * }</pre>
+ *
+ * @since 7.6.0
+ */
+public class JsonRunMetricsRenderer implements RunMetricsRenderer {
+
+    private static final int FORMAT_VERSION = 1;
+
+    @Override
+    public void render(final RunMetrics metrics, final Writer writer) throws IOException {
+        @SuppressWarnings("PMD.CloseResource") // the writer is closed by the caller
+        final JsonWriter json = new JsonWriter(writer);
+        json.setIndent("  ");
+
+        json.beginObject();
+        json.name("formatVersion").value(FORMAT_VERSION);
+        json.name("pmdVersion").value(PMDVersion.VERSION);
+        json.name("files").value(metrics.getFiles());
+        json.name("violations").value(metrics.getViolations());
+        json.name("errors").value(metrics.getErrors());
+        json.name("wallClockNanos").value(metrics.getWallClockNanos());
+        json.name("filesPerSecond").value(metrics.getFilesPerSecond());
+        json.name("threads").value(metrics.getThreads());
+        json.name("threadUtilization").value(metrics.getThreadUtilization());
+        json.name("peakHeapBytes").value(metrics.getPeakHeapBytes());
+
+        if (metrics.hasTimings()) {
+            json.name("parsedCharacters").value(metrics.getParsedCharacters());
+            json.name("parsedCharactersPerSecond").value(metrics.getParsedCharactersPerSecond());
+            json.name("parseTimeNanos").value(metrics.getParseTimeNanos());
+            renderTimes(json, "languagePassTimeNanos", metrics.getLanguagePassTimeNanos());
+            renderTimes(json, "ruleTimeNanos", metrics.getRuleTimeNanos());
+
+            json.name("cache").beginObject();
+            json.name("checks").value(metrics.getCacheChecks());
+            json.name("hits").value(metrics.getCacheHits());
+            json.name("hitRatio");
+            if (metrics.getCacheChecks() > 0) {
+                json.value(metrics.getCacheHitRatio());
+            } else {
+                json.nullValue();
+            }
+            json.endObject();
+        }
+
+        json.endObject();
+        json.flush();
+    }
+
+    private void renderTimes(final JsonWriter json, final String name, final Map<String, Long> times) throws IOException {
+        json.name(name).beginObject();
+        for (final Map.Entry<String, Long> entry : times.entrySet()) {
+            json.name(entry.getKey()).value(entry.getValue());
+        }
+        json.endObject();
+    }
+}
@@ -0,0 +1,111 @@
+/**
+ * BSD-style license; for more info see http://pmd.sourceforge.net/license.html
+ */
+
+package net.sourceforge.pmd.benchmark;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import net.sourceforge.pmd.PMDVersion;
+import net.sourceforge.pmd.benchmark.TimeTracker.TimedResult;
+
+import com.google.gson.stream.JsonWriter;
+
+/**
+ * A JSON renderer for {@link TimingReport}, meant to be processed by
+ * other tools. It contains the measurements of each category and label,
+ * and the slowest operations on a single file, eg the slowest files and
+ * the slowest rules on a file. Times are in nanoseconds.
+ *
+ * <pre>{@code
+ * {
+ *   "formatVersion": 1,
+ *   "pmdVersion": "7.6.0",
+ *   "wallClockMillis": 1234,
+ *   "measurements": [
+ *     { "category": "RULE", "label": "UnusedPrivateField", "totalTimeNanos": 10, "selfTimeNanos": 10, "callCount": 1, "counter": 0 }
+ *   ],
+ *   "slowestOperations": {
+ *     "PARSER": [
+ *       { "file": "/path/to/File.java", "timeNanos": 10, "counter": 0 }
+ *     ],
+ *     "RULE": [
+ *       { "label": "UnusedPrivateField", "file": "/path/to/File.java", "timeNanos": 10, "counter": 42 }
+ *     ]
+ *   }
+ * }
+ * }</pre>
+ *
+ * @since 7.6.0
+ */
+public class JsonTimingReportRenderer implements TimingReportRenderer {
+
+    private static final int FORMAT_VERSION = 1;
+
+    @Override
+    public void render(final TimingReport report, final Writer writer) throws IOException {
+        @SuppressWarnings("PMD.CloseResource") // the writer is closed by the caller
+        final JsonWriter json = new JsonWriter(writer);
+        json.setIndent("  ");
+
+        json.beginObject();
+        json.name("formatVersion").value(FORMAT_VERSION);
+        json.name("pmdVersion").value(PMDVersion.VERSION);
+        json.name("wallClockMillis").value(report.getWallClockMillis());
+
+        json.name("measurements").beginArray();
+        for (final TimedOperationCategory category : TimedOperationCategory.values()) {
+            final TimedResult unlabeled = report.getUnlabeledMeasurements(category);
+            if (unlabeled != null) {
+                renderMeasurement(json, category, null, unlabeled);
+            }
+            // sorted, so that the output is stable
+            final Map<String, TimedResult> labeled = new TreeMap<>(report.getLabeledMeasurements(category));
+            for (final Map.Entry<String, TimedResult> entry : labeled.entrySet()) {
+                renderMeasurement(json, category, entry.getKey(), entry.getValue());
+            }
+        }
+        json.endArray();
+
+        json.name("slowestOperations").beginObject();
+        for (final TimedOperationCategory category : TimedOperationCategory.values()) {
+            final List<SlowOperation> slowest = report.getSlowestOperations(category);
+            if (!slowest.isEmpty()) {
+                json.name(category.name()).beginArray();
+                for (final SlowOperation operation : slowest) {
+                    json.beginObject();
+                    if (operation.getLabel() != null) {
+                        json.name("label").value(operation.getLabel());
+                    }
+                    json.name("file").value(operation.getFileId().getAbsolutePath());
+                    json.name("timeNanos").value(operation.getTimeNanos());
+                    json.name("counter").value(operation.getCounter());
+                    json.endObject();
+                }
+                json.endArray();
+            }
+        }
+        json.endObject();
+
+        json.endObject();
+        json.flush();
+    }
+
+    private void renderMeasurement(final JsonWriter json, final TimedOperationCategory category, final String label,
+                                   final TimedResult result) throws IOException {
+        json.beginObject();
+        json.name("category").value(category.name());
+        if (label != null) {
+            json.name("label").value(label);
+        }
+        json.name("totalTimeNanos").value(result.totalTimeNanos.get());
+        json.name("selfTimeNanos").value(result.selfTimeNanos.get());
+        json.name("callCount").value(result.callCount.get());
+        json.name("counter").value(result.extraDataCounter.get());
+        json.endObject();
+    }
+}
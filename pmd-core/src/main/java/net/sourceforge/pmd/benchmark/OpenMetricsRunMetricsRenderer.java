@@ -0,0 +1,108 @@
+/**
+ * BSD-style license; for more info see http://pmd.sourceforge.net/license.html
+ */
+
+package net.sourceforge.pmd.benchmark;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.Writer;
+import java.util.Map;
+
+/**
+ * Renders {@link RunMetrics} in the <a href="https://openmetrics.io/">OpenMetrics</a>
+ * text format, eg to be pushed to a Prometheus push gateway or read by the
+ * textfile collector of the node exporter. Times are in seconds. The times
+ * measured by the {@link TimeTracker} are only rendered if they are available.
+ *
+ * @since 7.6.0
+ */
+public class OpenMetricsRunMetricsRenderer implements RunMetricsRenderer {
+
+    private static final double NANOS_PER_SECOND = 1_000_000_000.0;
+
+    @Override
+    public void render(final RunMetrics metrics, final Writer writer0) throws IOException {
+        final PrintWriter writer = new PrintWriter(writer0);
+
+        counter(writer, "pmd_files", "Number of analyzed files.", metrics.getFiles());
+        counter(writer, "pmd_violations", "Number of violations.", metrics.getViolations());
+        counter(writer, "pmd_errors", "Number of processing errors.", metrics.getErrors());
+        gauge(writer, "pmd_wall_clock_seconds", "Duration of the analysis.", seconds(metrics.getWallClockNanos()));
+        gauge(writer, "pmd_files_per_second", "Number of analyzed files per second of wall clock time.", metrics.getFilesPerSecond());
+        gauge(writer, "pmd_threads", "Number of threads that analyzed files.", metrics.getThreads());
+        gauge(writer, "pmd_thread_utilization_ratio", "Part of the wall clock time the threads spent on files.",
+              metrics.getThreadUtilization());
+        gauge(writer, "pmd_heap_peak_bytes", "Peak usage of the heap, summed over the heap memory pools.",
+              metrics.getPeakHeapBytes());
+
+        if (metrics.hasTimings()) {
+            counter(writer, "pmd_parsed_characters", "Number of characters of the parsed files.", metrics.getParsedCharacters());
+            gauge(writer, "pmd_parsed_characters_per_second", "Number of parsed characters per second of wall clock time.",
+                  metrics.getParsedCharactersPerSecond());
+            counter(writer, "pmd_parse_seconds", "Time spent in the parsers, summed over all threads.",
+                    seconds(metrics.getParseTimeNanos()));
+            labeledCounter(writer, "pmd_language_pass_seconds", "Time spent in a language specific pass, summed over all threads.",
+                           "pass", metrics.getLanguagePassTimeNanos());
+            labeledCounter(writer, "pmd_rule_seconds", "Time spent in a rule, summed over all threads.",
+                           "rule", metrics.getRuleTimeNanos());
+            counter(writer, "pmd_analysis_cache_checks", "Number of files checked in the analysis cache.", metrics.getCacheChecks());
+            counter(writer, "pmd_analysis_cache_hits", "Number of files found in the analysis cache.", metrics.getCacheHits());
+            if (metrics.getCacheChecks() > 0) {
+                gauge(writer, "pmd_analysis_cache_hit_ratio", "Ratio of files found in the analysis cache.",
+                      metrics.getCacheHitRatio());
+            }
+        }
+
+        writer.print("# EOF\n");
+        writer.flush();
+    }
+
+    private static void counter(PrintWriter writer, String name, String help, double value) {
+        header(writer, name, "counter", help);
+        sample(writer, name + "_total", null, null, value);
+    }
+
+    private static void labeledCounter(PrintWriter writer, String name, String help, String labelName, Map<String, Long> nanos) {
+        header(writer, name, "counter", help);
+        for (Map.Entry<String, Long> entry : nanos.entrySet()) {
+            sample(writer, name + "_total", labelName, entry.getKey(), seconds(entry.getValue()));
+        }
+    }
+
+    private static void gauge(PrintWriter writer, String name, String help, double value) {
+        header(writer, name, "gauge", help);
+        sample(writer, name, null, null, value);
+    }
+
+    private static void header(PrintWriter writer, String name, String type, String help) {
+        // not println, the format requires \n line endings
+        writer.print("# TYPE " + name + " " + type + "\n");
+        writer.print("# HELP " + name + " " + help + "\n");
+    }
+
+    private static void sample(PrintWriter writer, String name, String labelName, String labelValue, double value) {
+        writer.print(name);
+        if (labelName != null) {
+            writer.print("{" + labelName + "=\"" + escapeLabelValue(labelValue) + "\"}");
+        }
+        writer.print(' ');
+        writer.print(formatValue(value));
+        writer.print('\n');
+    }
+
+    private static String formatValue(double value) {
+        if (value == Math.rint(value) && !Double.isInfinite(value) && Math.abs(value) < Long.MAX_VALUE) {
+            return Long.toString((long) value);
+        }
+        return Double.toString(value);
+    }
+
+    private static String escapeLabelValue(String value) {
+        return value.replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n");
+    }
+
+    private static double seconds(long nanos) {
+        return nanos / NANOS_PER_SECOND;
+    }
+}
@@ -0,0 +1,192 @@
+/**
+ * BSD-style license; for more info see http://pmd.sourceforge.net/license.html
+ */
+
+package net.sourceforge.pmd.benchmark;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.TreeMap;
+
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+import net.sourceforge.pmd.benchmark.TimeTracker.TimedResult;
+
+/**
+ * Metrics of an analysis, for capacity planning. They are collected by
+ * a {@link RunMetricsListener}. The times of the parser, the language
+ * specific passes and the rules, the number of parsed characters and the
+ * cache hits are only available if the {@link TimeTracker} was enabled
+ * during the analysis, see {@link #withTimingReport(TimingReport)}.
+ * Otherwise they are zero.
+ *
+ * @see RunMetricsRenderer
+ * @since 7.6.0
+ */
+public final class RunMetrics {
+
+    private static final double NANOS_PER_SECOND = 1_000_000_000.0;
+    private static final String CACHE_CHECK_LABEL = "up-to-date check";
+
+    private final int files;
+    private final int violations;
+    private final int errors;
+    private final long wallClockNanos;
+    private final long busyNanos;
+    private final int threads;
+    private final long peakHeapBytes;
+    private final @Nullable TimingReport timingReport;
+
+    RunMetrics(int files, int violations, int errors, long wallClockNanos, long busyNanos, int threads,
+               long peakHeapBytes, @Nullable TimingReport timingReport) {
+        this.files = files;
+        this.violations = violations;
+        this.errors = errors;
+        this.wallClockNanos = wallClockNanos;
+        this.busyNanos = busyNanos;
+        this.threads = threads;
+        this.peakHeapBytes = peakHeapBytes;
+        this.timingReport = timingReport;
+    }
+
+    /**
+     * Returns metrics that additionally contain the times measured by the
+     * {@link TimeTracker} during the analysis.
+     *
+     * @param report The report returned by {@link TimeTracker#stopGlobalTracking()}, may be null
+     */
+    public RunMetrics withTimingReport(@Nullable TimingReport report) {
+        return new RunMetrics(files, violations, errors, wallClockNanos, busyNanos, threads, peakHeapBytes, report);
+    }
+
+    /** Returns true if the times measured by the {@link TimeTracker} are available. */
+    public boolean hasTimings() {
+        return timingReport != null;
+    }
+
+    /** Returns the number of analyzed files, including the files whose results were cached. */
+    public int getFiles() {
+        return files;
+    }
+
+    public int getViolations() {
+        return violations;
+    }
+
+    public int getErrors() {
+        return errors;
+    }
+
+    public long getWallClockNanos() {
+        return wallClockNanos;
+    }
+
+    public double getFilesPerSecond() {
+        return perSecond(files);
+    }
+
+    /** Returns the number of threads that analyzed files. */
+    public int getThreads() {
+        return threads;
+    }
+
+    /**
+     * Returns the part of the wall clock time the threads spent on files,
+     * between 0 and 1. This is low when the analysis threads wait, eg when
+     * few files are slow to analyze.
+     */
+    public double getThreadUtilization() {
+        if (threads == 0 || wallClockNanos == 0) {
+            return 0;
+        }
+        return Math.min(1.0, busyNanos / ((double) wallClockNanos * threads));
+    }
+
+    /**
+     * Returns the peak usage of the heap during the analysis. This is the
+     * sum of the peaks of the heap memory pools, which may not have been
+     * reached at the same time, so it is an upper bound.
+     */
+    public long getPeakHeapBytes() {
+        return peakHeapBytes;
+    }
+
+    /**
+     * Returns the number of characters of the parsed files. Files whose
+     * results were cached are not parsed.
+     */
+    public long getParsedCharacters() {
+        TimedResult parser = unlabeled(TimedOperationCategory.PARSER);
+        return parser == null ? 0 : parser.extraDataCounter.get();
+    }
+
+    public double getParsedCharactersPerSecond() {
+        return perSecond(getParsedCharacters());
+    }
+
+    /**
+     * Returns the time spent in the parsers, summed over all threads. This
+     * does not include the language specific passes run by the parsers.
+     */
+    public long getParseTimeNanos() {
+        TimedResult parser = unlabeled(TimedOperationCategory.PARSER);
+        return parser == null ? 0 : parser.selfTimeNanos.get();
+    }
+
+    /**
+     * Returns the time spent in each language specific pass, eg the type
+     * resolution, summed over all threads, indexed by the name of the pass.
+     */
+    public Map<String, Long> getLanguagePassTimeNanos() {
+        return totalTimes(TimedOperationCategory.LANGUAGE_SPECIFIC_PROCESSING);
+    }
+
+    /**
+     * Returns the time spent in each rule, summed over all threads, indexed
+     * by the name of the rule.
+     */
+    public Map<String, Long> getRuleTimeNanos() {
+        return totalTimes(TimedOperationCategory.RULE);
+    }
+
+    /** Returns the number of files that were checked in the analysis cache. */
+    public int getCacheChecks() {
+        TimedResult check = cacheCheck();
+        return check == null ? 0 : check.callCount.get();
+    }
+
+    /** Returns the number of files whose results were found in the analysis cache. */
+    public long getCacheHits() {
+        TimedResult check = cacheCheck();
+        return check == null ? 0 : check.extraDataCounter.get();
+    }
+
+    /** Returns the ratio of cache hits, or {@link Double#NaN} if no file was checked in the cache. */
+    public double getCacheHitRatio() {
+        int checks = getCacheChecks();
+        return checks == 0 ? Double.NaN : getCacheHits() / (double) checks;
+    }
+
+    private double perSecond(long count) {
+        return wallClockNanos == 0 ? 0 : count / (wallClockNanos / NANOS_PER_SECOND);
+    }
+
+    private @Nullable TimedResult unlabeled(TimedOperationCategory category) {
+        return timingReport == null ? null : timingReport.getUnlabeledMeasurements(category);
+    }
+
+    private @Nullable TimedResult cacheCheck() {
+        return timingReport == null
+               ? null
+               : timingReport.getLabeledMeasurements(TimedOperationCategory.ANALYSIS_CACHE).get(CACHE_CHECK_LABEL);
+    }
+
+    private Map<String, Long> totalTimes(TimedOperationCategory category) {
+        if (timingReport == null) {
+            return Collections.emptyMap();
+        }
+        Map<String, Long> times = new TreeMap<>();
+        timingReport.getLabeledMeasurements(category).forEach((label, result) -> times.put(label, result.totalTimeNanos.get()));
+        return times;
+    }
+}
@@ -0,0 +1,103 @@
+/**
+ * BSD-style license; for more info see http://pmd.sourceforge.net/license.html
+ */
+
+package net.sourceforge.pmd.benchmark;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+import net.sourceforge.pmd.lang.document.TextFile;
+import net.sourceforge.pmd.reporting.FileAnalysisListener;
+import net.sourceforge.pmd.reporting.GlobalAnalysisListener;
+import net.sourceforge.pmd.reporting.Report.ProcessingError;
+import net.sourceforge.pmd.reporting.RuleViolation;
+import net.sourceforge.pmd.util.BaseResultProducingCloseable;
+
+/**
+ * Collects the {@link RunMetrics} of an analysis: the number of files,
+ * the wall clock time from the creation of this listener until it is
+ * closed, the time the analysis threads spent on files, and the peak
+ * heap usage. The times measured by the {@link TimeTracker} are added
+ * with {@link RunMetrics#withTimingReport(TimingReport)}.
+ *
+ * @since 7.6.0
+ */
+public final class RunMetricsListener extends BaseResultProducingCloseable<RunMetrics> implements GlobalAnalysisListener {
+
+    private final long startNanos = System.nanoTime();
+    private final AtomicInteger numFiles = new AtomicInteger(0);
+    private final AtomicInteger numErrors = new AtomicInteger(0);
+    private final AtomicInteger numViolations = new AtomicInteger(0);
+    private final AtomicLong busyNanos = new AtomicLong(0);
+    private final Set<Long> threadIds = ConcurrentHashMap.newKeySet();
+    private final List<MemoryPoolMXBean> heapPools;
+
+    private long wallClockNanos;
+    private long peakHeapBytes;
+
+    public RunMetricsListener() {
+        heapPools = ManagementFactory.getMemoryPoolMXBeans().stream()
+                                     .filter(it -> it.getType() == MemoryType.HEAP && it.isValid())
+                                     .collect(Collectors.toList());
+        heapPools.forEach(MemoryPoolMXBean::resetPeakUsage);
+    }
+
+    @Override
+    public FileAnalysisListener startFileAnalysis(TextFile file) {
+        ensureOpen();
+        threadIds.add(Thread.currentThread().getId());
+        final long fileStartNanos = System.nanoTime();
+
+        return new FileAnalysisListener() {
+            // this object does not need thread-safety so we avoid using atomics,
+            // except during the merge.
+            private int numErrors = 0;
+            private int numViolations = 0;
+
+            @Override
+            public void onRuleViolation(RuleViolation violation) {
+                numViolations++;
+            }
+
+            @Override
+            public void onError(ProcessingError error) {
+                numErrors++;
+            }
+
+            @Override
+            public void close() {
+                busyNanos.addAndGet(System.nanoTime() - fileStartNanos);
+                numFiles.incrementAndGet();
+                if (numErrors > 0) {
+                    RunMetricsListener.this.numErrors.addAndGet(this.numErrors);
+                }
+                if (numViolations > 0) {
+                    RunMetricsListener.this.numViolations.addAndGet(this.numViolations);
+                }
+            }
+        };
+    }
+
+    @Override
+    protected void closeImpl() {
+        wallClockNanos = System.nanoTime() - startNanos;
+        // the sum of the peaks of each pool, which may not have been reached at the same time
+        peakHeapBytes = heapPools.stream().filter(MemoryPoolMXBean::isValid)
+                                 .mapToLong(it -> it.getPeakUsage().getUsed())
+                                 .sum();
+    }
+
+    @Override
+    protected RunMetrics getResultImpl() {
+        return new RunMetrics(numFiles.get(), numViolations.get(), numErrors.get(),
+                              wallClockNanos, busyNanos.get(), threadIds.size(), peakHeapBytes, null);
+    }
+}
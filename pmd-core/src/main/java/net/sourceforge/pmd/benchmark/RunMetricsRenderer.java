@@ -0,0 +1,26 @@
+/**
+ * BSD-style license; for more info see http://pmd.sourceforge.net/license.html
+ */
+
+package net.sourceforge.pmd.benchmark;
+
+import java.io.IOException;
+import java.io.Writer;
+
+/**
+ * Defines a renderer for {@link RunMetrics}.
+ *
+ * @see JsonRunMetricsRenderer
+ * @see OpenMetricsRunMetricsRenderer
+ * @since 7.6.0
+ */
+public interface RunMetricsRenderer {
+
+    /**
+     * Renders the given metrics into the given writer.
+     * @param metrics The metrics to render
+     * @param writer The writer on which to render
+     * @throws IOException if the write operation fails
+     */
+    void render(RunMetrics metrics, Writer writer) throws IOException;
+}
@@ -0,0 +1,70 @@
+/**
+ * BSD-style license; for more info see http://pmd.sourceforge.net/license.html
+ */
+
+package net.sourceforge.pmd.benchmark;
+
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+import net.sourceforge.pmd.lang.document.FileId;
+
+/**
+ * One of the slowest operations on a single file, eg the parsing of
+ * a file or the application of a rule on a file. These are reported by
+ * {@link TimingReport#getSlowestOperations(TimedOperationCategory)}.
+ *
+ * @see TimeTracker#startOperation(TimedOperationCategory, String, FileId)
+ * @since 7.6.0
+ */
+public final class SlowOperation {
+
+    private final TimedOperationCategory category;
+    private final String label;
+    private final FileId fileId;
+    private final long timeNanos;
+    private final long counter;
+
+    SlowOperation(TimedOperationCategory category, @Nullable String label, FileId fileId, long timeNanos, long counter) {
+        this.category = category;
+        this.label = label;
+        this.fileId = fileId;
+        this.timeNanos = timeNanos;
+        this.counter = counter;
+    }
+
+    public TimedOperationCategory getCategory() {
+        return category;
+    }
+
+    /**
+     * Returns the label of the operation, eg the name of the rule,
+     * or null if the operation has no label.
+     */
+    public @Nullable String getLabel() {
+        return label;
+    }
+
+    /** Returns the file on which the operation ran. */
+    public FileId getFileId() {
+        return fileId;
+    }
+
+    /** Returns the total time of the operation, including nested operations. */
+    public long getTimeNanos() {
+        return timeNanos;
+    }
+
+    /**
+     * Returns the extra data counter given when the operation was closed,
+     * eg the number of nodes visited by a rule.
+     */
+    public long getCounter() {
+        return counter;
+    }
+
+    @Override
+    public String toString() {
+        return "SlowOperation [category=" + category + ", label=" + label + ", file=" + fileId.getAbsolutePath()
+            + ", timeNanos=" + timeNanos + "]";
+    }
+}
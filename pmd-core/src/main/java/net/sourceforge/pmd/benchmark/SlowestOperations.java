@@ -0,0 +1,61 @@
+/**
+ * BSD-style license; for more info see http://pmd.sourceforge.net/license.html
+ */
+
+package net.sourceforge.pmd.benchmark;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+
+import net.sourceforge.pmd.lang.document.FileId;
+
+/**
+ * Keeps the slowest operations of a category, up to a fixed number.
+ * This is a min-heap on the time of the operations, so that the fastest
+ * of the kept operations is replaced when a slower one is offered. An
+ * operation that is faster than all the kept ones is rejected without
+ * allocating. Not thread-safe, there is one instance per thread, which
+ * are merged at the end.
+ */
+final class SlowestOperations {
+
+    private static final Comparator<SlowOperation> BY_TIME = Comparator.comparingLong(SlowOperation::getTimeNanos);
+
+    private final int capacity;
+    private final PriorityQueue<SlowOperation> heap;
+
+    SlowestOperations(int capacity) {
+        this.capacity = capacity;
+        this.heap = new PriorityQueue<>(capacity + 1, BY_TIME);
+    }
+
+    void offer(TimedOperationCategory category, String label, FileId fileId, long timeNanos, long counter) {
+        if (heap.size() < capacity || heap.peek().getTimeNanos() < timeNanos) {
+            add(new SlowOperation(category, label, fileId, timeNanos, counter));
+        }
+    }
+
+    void addAll(SlowestOperations other) {
+        for (SlowOperation op : other.heap) {
+            if (heap.size() < capacity || heap.peek().getTimeNanos() < op.getTimeNanos()) {
+                add(op);
+            }
+        }
+    }
+
+    private void add(SlowOperation op) {
+        heap.add(op);
+        if (heap.size() > capacity) {
+            heap.poll();
+        }
+    }
+
+    /** Returns the kept operations, the slowest first. */
+    List<SlowOperation> toSortedList() {
+        List<SlowOperation> result = new ArrayList<>(heap);
+        result.sort(BY_TIME.reversed());
+        return result;
+    }
+}
@@ -9,6 +9,7 @@ import java.io.PrintWriter;
 import java.io.Writer;
 import java.text.MessageFormat;
 import java.util.Comparator;
+import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Set;
@@ -46,6 +47,13 @@ public class TextTimingReportRenderer implements TimingReportRenderer {
             }
         }
 
+        for (final TimedOperationCategory category : TimedOperationCategory.values()) {
+            final List<SlowOperation> slowest = report.getSlowestOperations(category);
+            if (!slowest.isEmpty()) {
+                renderSlowestOperations(category, slowest, writer);
+            }
+        }
+
         renderHeader("Summary", writer);
 
         for (final TimedOperationCategory category : TimedOperationCategory.values()) {
@@ -106,7 +114,49 @@ public class TextTimingReportRenderer implements TimingReportRenderer {
         writer.println();
     }
 
+    private void renderSlowestOperations(final TimedOperationCategory category,
+            final List<SlowOperation> slowest, final PrintWriter writer) {
+        renderRuler("Slowest " + category.displayName(), writer);
+
+        // The file is the last column, as paths may be long
+        writer.write(StringUtils.leftPad("Time (secs)", TIME_COLUMN_WIDTH));
+        writer.write(StringUtils.leftPad("Counter", COUNTER_COLUMN_WIDTH));
+        writer.write("  File");
+        writer.println();
+        writer.println();
+
+        for (final SlowOperation operation : slowest) {
+            final String time = MessageFormat.format(TIME_FORMAT, operation.getTimeNanos() / 1000000000.0);
+            writer.write(StringUtils.leftPad(time, TIME_COLUMN_WIDTH));
+            final String counter = operation.getCounter() > 0
+                                   ? MessageFormat.format(CUSTOM_COUNTER_FORMAT, operation.getCounter())
+                                   : "";
+            writer.write(StringUtils.leftPad(counter, COUNTER_COLUMN_WIDTH));
+            writer.write("  ");
+            if (operation.getLabel() != null) {
+                writer.write(operation.getLabel());
+                writer.write(": ");
+            }
+            writer.write(operation.getFileId().getAbsolutePath());
+            writer.println();
+        }
+        writer.println();
+    }
+
     private void renderHeader(final String displayName, final PrintWriter writer) throws IOException {
+        renderRuler(displayName, writer);
+
+        // Write table titles
+        writer.write(StringUtils.rightPad("Label", LABEL_COLUMN_WIDTH));
+        writer.write(StringUtils.leftPad("Time (secs)", TIME_COLUMN_WIDTH));
+        writer.write(StringUtils.leftPad("Self Time (secs)", SELF_TIME_COLUMN_WIDTH));
+        writer.write(StringUtils.leftPad("# Calls", CALL_COLUMN_WIDTH));
+        writer.write(StringUtils.leftPad("Counter", COUNTER_COLUMN_WIDTH));
+        writer.println();
+        writer.println();
+    }
+
+    private void renderRuler(final String displayName, final PrintWriter writer) {
         final StringBuilder sb = new StringBuilder(COLUMNS)
                 .append(displayName);
 
@@ -125,15 +175,6 @@ public class TextTimingReportRenderer implements TimingReportRenderer {
 
         writer.write(sb.toString());
         writer.println();
-
-        // Write table titles
-        writer.write(StringUtils.rightPad("Label", LABEL_COLUMN_WIDTH));
-        writer.write(StringUtils.leftPad("Time (secs)", TIME_COLUMN_WIDTH));
-        writer.write(StringUtils.leftPad("Self Time (secs)", SELF_TIME_COLUMN_WIDTH));
-        writer.write(StringUtils.leftPad("# Calls", CALL_COLUMN_WIDTH));
-        writer.write(StringUtils.leftPad("Counter", COUNTER_COLUMN_WIDTH));
-        writer.println();
-        writer.println();
     }
 
 }
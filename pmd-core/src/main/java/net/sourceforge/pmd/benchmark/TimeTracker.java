@@ -4,28 +4,64 @@
 
 package net.sourceforge.pmd.benchmark;
 
-import java.util.Collections;
-import java.util.LinkedList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Queue;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicLong;
 import java.util.function.Supplier;
 
+import net.sourceforge.pmd.benchmark.internal.EventScope;
+import net.sourceforge.pmd.benchmark.internal.FlightRecorderEvents;
+import net.sourceforge.pmd.lang.document.FileId;
+
 /**
  * A time tracker class to measure time spent on different sections of PMD analysis.
  * The class is thread-aware, allowing to differentiate CPU and wall clock time.
  *
+ * <p>Tracking an operation does not allocate: each pair of category and
+ * label is interned once as an integer id, and each thread accumulates
+ * its measurements into its own arrays of counters, indexed by these ids.
+ * The counters of all threads are only merged when {@link #stopGlobalTracking()}
+ * is called, which must happen after the analysis threads are done.
+ *
+ * <p>Operations on a single file, started with {@link #startOperation(TimedOperationCategory, String, FileId)},
+ * are additionally ranked, to report the slowest files and the slowest
+ * rules on a file. Each thread keeps its {@value #SLOWEST_OPERATION_COUNT}
+ * slowest operations per category.
+ *
  * @author Juan Martín Sotuyo Dodero
  */
 public final class TimeTracker {
 
+    /** The number of the slowest operations on a file reported per category. */
+    public static final int SLOWEST_OPERATION_COUNT = 20;
+
     private static boolean trackTime = false;
+    private static boolean profileXPath = false;
     private static long wallClockStartMillis = -1;
-    private static final ThreadLocal<Queue<TimerEntry>> TIMER_ENTRIES;
-    private static final ConcurrentMap<TimedOperationKey, TimedResult> ACCUMULATED_RESULTS = new ConcurrentHashMap<>();
+
+    /** Incremented by each call to {@link #startGlobalTracking(boolean)}, the state of older sessions is discarded. */
+    private static int session = 0;
+    private static final ThreadLocal<ThreadState> THREAD_STATE = new ThreadLocal<>();
+    /** The states of the threads that tracked operations in the current session. */
+    private static final Queue<ThreadState> THREAD_STATES = new ConcurrentLinkedQueue<>();
+
+    /** Ids of the operations without a label, indexed by the ordinal of their category. */
+    private static final int[] UNLABELED_IDS = new int[TimedOperationCategory.values().length];
+    private static final Map<TimedOperationCategory, ConcurrentMap<String, Integer>> LABELED_IDS =
+        new EnumMap<>(TimedOperationCategory.class);
+    /** The operation keys, indexed by their id. Guarded by the class lock. */
+    private static final List<TimedOperationKey> OPERATION_KEYS = new ArrayList<>();
+
     private static final TimedOperation NOOP_TIMED_OPERATION = new TimedOperation() {
 
         @Override
@@ -40,7 +76,11 @@ public final class TimeTracker {
     };
 
     static {
-        TIMER_ENTRIES = ThreadLocal.withInitial(() -> Collections.asLifoQueue(new LinkedList<>()));
+        for (TimedOperationCategory category : TimedOperationCategory.values()) {
+            UNLABELED_IDS[category.ordinal()] = OPERATION_KEYS.size();
+            OPERATION_KEYS.add(new TimedOperationKey(category, null));
+            LABELED_IDS.put(category, new ConcurrentHashMap<>());
+        }
     }
 
     private TimeTracker() {
@@ -52,14 +92,31 @@ public final class TimeTracker {
      * Must be called once PMD starts if tracking is desired, no tracking will be performed otherwise.
      */
     public static void startGlobalTracking() {
+        startGlobalTracking(false);
+    }
+
+    /**
+     * Starts global tracking. Allows tracking operations to take place and starts the wall clock.
+     * Must be called once PMD starts if tracking is desired, no tracking will be performed otherwise.
+     *
+     * @param profileXPath If true, the subexpressions of XPath rules are additionally tracked
+     *                     under {@link TimedOperationCategory#XPATH_EXPRESSION}. This has a
+     *                     noticeable overhead.
+     */
+    public static void startGlobalTracking(boolean profileXPath) {
+        TimeTracker.profileXPath = profileXPath;
         wallClockStartMillis = System.currentTimeMillis();
+        THREAD_STATES.clear(); // just in case
+        session++;
         trackTime = true;
-        ACCUMULATED_RESULTS.clear(); // just in case
         initThread(); // init main thread
     }
 
     /**
      * Stops global tracking. Stops the wall clock. All further operations will be treated as NOOP.
+     * The measurements of all threads are merged here, so the threads that did the analysis
+     * must be finished.
+     *
      * @return The timed data obtained through the run.
      */
     public static TimingReport stopGlobalTracking() {
@@ -69,14 +126,40 @@ public final class TimeTracker {
 
         finishThread(); // finish the main thread
         trackTime = false;
+        profileXPath = false;
+
+        final List<TimedOperationKey> keys;
+        synchronized (TimeTracker.class) {
+            keys = new ArrayList<>(OPERATION_KEYS);
+        }
+        final Map<TimedOperationKey, TimedResult> accumulatedResults = new HashMap<>();
+        final Map<TimedOperationCategory, SlowestOperations> slowestOperations = new EnumMap<>(TimedOperationCategory.class);
+        for (ThreadState state : THREAD_STATES) {
+            state.mergeInto(keys, accumulatedResults);
+            state.mergeSlowestInto(slowestOperations);
+        }
+        THREAD_STATES.clear();
 
         // Fix UNACCOUNTED metric (total time is meaningless as is call count)
-        final TimedResult unaccountedResult = ACCUMULATED_RESULTS.get(
+        final TimedResult unaccountedResult = accumulatedResults.get(
                 new TimedOperationKey(TimedOperationCategory.UNACCOUNTED, null));
-        unaccountedResult.totalTimeNanos.set(unaccountedResult.selfTimeNanos.get());
-        unaccountedResult.callCount.set(0);
+        if (unaccountedResult != null) {
+            unaccountedResult.totalTimeNanos.set(unaccountedResult.selfTimeNanos.get());
+            unaccountedResult.callCount.set(0);
+        }
+
+        final Map<TimedOperationCategory, List<SlowOperation>> slowest = new EnumMap<>(TimedOperationCategory.class);
+        slowestOperations.forEach((category, operations) -> slowest.put(category, operations.toSortedList()));
 
-        return new TimingReport(System.currentTimeMillis() - wallClockStartMillis, ACCUMULATED_RESULTS);
+        return new TimingReport(System.currentTimeMillis() - wallClockStartMillis, accumulatedResults, slowest);
+    }
+
+    /**
+     * Returns true if the subexpressions of XPath rules should be tracked
+     * individually, see {@link #startGlobalTracking(boolean)}.
+     */
+    public static boolean isProfilingXPath() {
+        return trackTime && profileXPath;
     }
 
     /**
@@ -91,7 +174,9 @@ public final class TimeTracker {
     }
 
     /**
-     * Finishes tracking a thread.
+     * Finishes tracking a thread. The measurements of the thread are kept
+     * until {@link #stopGlobalTracking()}, and the thread may be initialized
+     * again, eg for the next file.
      */
     public static void finishThread() {
         if (!trackTime) {
@@ -99,11 +184,6 @@ public final class TimeTracker {
         }
 
         finishOperation(0);
-
-        // clean up thread-locals in multithread analysis
-        if (TIMER_ENTRIES.get().isEmpty()) {
-            TIMER_ENTRIES.remove();
-        }
     }
 
     /**
@@ -116,7 +196,10 @@ public final class TimeTracker {
     }
 
     /**
-     * Starts tracking an operation.
+     * Starts tracking an operation. The returned operation is reused by the
+     * thread for later operations, it must be closed once, by the thread that
+     * started it, before any enclosing operation. Use try-with-resources.
+     *
      * @param category The category under which to track the operation.
      * @param label A label to be added to the category. Allows to differentiate measures within a single category.
      * @return The current timed operation being tracked.
@@ -126,12 +209,34 @@ public final class TimeTracker {
             return NOOP_TIMED_OPERATION;
         }
 
-        TIMER_ENTRIES.get().add(new TimerEntry(category, label));
-        return new TimedOperationImpl();
+        return threadState().push(operationId(category, label), isBreakdown(category));
+    }
+
+    /**
+     * Starts tracking an operation on a single file, eg the parsing of the
+     * file. The operation is tracked like with {@link #startOperation(TimedOperationCategory, String)},
+     * and is additionally ranked among the slowest operations of its category,
+     * see {@link TimingReport#getSlowestOperations(TimedOperationCategory)}.
+     *
+     * @param category The category under which to track the operation.
+     * @param label A label to be added to the category, may be null.
+     * @param fileId The file on which the operation runs.
+     * @return The current timed operation being tracked.
+     * @since 7.6.0
+     */
+    public static TimedOperation startOperation(final TimedOperationCategory category, final String label, final FileId fileId) {
+        if (!trackTime) {
+            return NOOP_TIMED_OPERATION;
+        }
+
+        final ThreadState state = threadState();
+        final TimedOperation operation = state.push(operationId(category, label), isBreakdown(category));
+        state.setFile(category, label, fileId);
+        return operation;
     }
 
     /**
-     * Finishes tracking an operation.
+     * Finishes tracking the innermost operation of the current thread.
      * @param extraDataCounter An optional additional data counter to track along the measurements.
      *                         Users are free to track any extra value they want (ie: number of analyzed nodes,
      *                         iterations in a loop, etc.)
@@ -141,51 +246,200 @@ public final class TimeTracker {
             return;
         }
 
-        final Queue<TimerEntry> queue = TIMER_ENTRIES.get();
-        final TimerEntry timerEntry = queue.remove();
-
-        // Compute if absent
-        TimedResult result = ACCUMULATED_RESULTS.get(timerEntry.operation);
-        if (result == null) {
-            ACCUMULATED_RESULTS.putIfAbsent(timerEntry.operation, new TimedResult());
-            result = ACCUMULATED_RESULTS.get(timerEntry.operation);
-        }
-
-        // Update counters and let next element on the stack ignore the time we spent
-        final long delta = result.accumulate(timerEntry, extraDataCounter);
-        if (!queue.isEmpty()) {
-            queue.peek().inNestedOperationsNanos += delta;
+        final ThreadState state = threadState();
+        if (state.depth > 0) {
+            state.pop(extraDataCounter);
         }
     }
 
+    /**
+     * Runs a language specific processing stage, which is tracked under
+     * {@link TimedOperationCategory#LANGUAGE_SPECIFIC_PROCESSING} and
+     * recorded as a Flight Recorder event.
+     */
     public static void bench(String label, Runnable runnable) {
-        try (TimedOperation ignored = startOperation(TimedOperationCategory.LANGUAGE_SPECIFIC_PROCESSING, label)) {
+        try (TimedOperation ignored = startOperation(TimedOperationCategory.LANGUAGE_SPECIFIC_PROCESSING, label);
+             EventScope event = FlightRecorderEvents.languagePass(label)) {
             runnable.run();
         }
     }
 
+    /**
+     * Runs a language specific processing stage, which is tracked under
+     * {@link TimedOperationCategory#LANGUAGE_SPECIFIC_PROCESSING} and
+     * recorded as a Flight Recorder event.
+     */
     public static <T> T bench(String label, Supplier<T> runnable) {
-        try (TimedOperation ignored = startOperation(TimedOperationCategory.LANGUAGE_SPECIFIC_PROCESSING, label)) {
+        try (TimedOperation ignored = startOperation(TimedOperationCategory.LANGUAGE_SPECIFIC_PROCESSING, label);
+             EventScope event = FlightRecorderEvents.languagePass(label)) {
             return runnable.get();
         }
     }
 
     /**
-     * An entry in the open timers queue. Defines an operation that has started and hasn't finished yet.
+     * The operations of these categories break down the time of the enclosing
+     * operation, their time is not subtracted from its self time. Otherwise
+     * the self time of XPath rules would drop to near zero when XPath
+     * expressions are profiled, and could not be compared with other rules.
      */
-    private static class TimerEntry {
-        /* package */ final TimedOperationKey operation;
-        /* package */ final long start;
-        /* package */ long inNestedOperationsNanos = 0;
+    private static boolean isBreakdown(final TimedOperationCategory category) {
+        return category == TimedOperationCategory.XPATH_EXPRESSION;
+    }
 
-        /* package */ TimerEntry(final TimedOperationCategory category, final String label) {
-            this.operation = new TimedOperationKey(category, label);
-            this.start = System.nanoTime();
+    private static ThreadState threadState() {
+        ThreadState state = THREAD_STATE.get();
+        final int currentSession = session;
+        if (state == null || state.session != currentSession) {
+            state = new ThreadState(currentSession);
+            THREAD_STATE.set(state);
+            THREAD_STATES.add(state);
         }
+        return state;
+    }
 
-        @Override
-        public String toString() {
-            return "TimerEntry for " + operation;
+    private static int operationId(final TimedOperationCategory category, final String label) {
+        if (label == null) {
+            return UNLABELED_IDS[category.ordinal()];
+        }
+        final Integer id = LABELED_IDS.get(category).get(label);
+        return id != null ? id : internOperation(category, label);
+    }
+
+    private static synchronized int internOperation(final TimedOperationCategory category, final String label) {
+        return LABELED_IDS.get(category).computeIfAbsent(label, l -> {
+            OPERATION_KEYS.add(new TimedOperationKey(category, l));
+            return OPERATION_KEYS.size() - 1;
+        });
+    }
+
+    /**
+     * The measurements of a single thread, and the stack of its open operations.
+     * Only accessed by its thread, until it is merged by {@link #stopGlobalTracking()}.
+     */
+    private static final class ThreadState {
+        private static final int INITIAL_OPERATIONS = 64;
+        private static final int INITIAL_DEPTH = 16;
+
+        final int session;
+
+        // accumulated measurements, indexed by operation id
+        long[] totalTimeNanos = new long[INITIAL_OPERATIONS];
+        long[] selfTimeNanos = new long[INITIAL_OPERATIONS];
+        int[] callCount = new int[INITIAL_OPERATIONS];
+        long[] extraDataCounter = new long[INITIAL_OPERATIONS];
+
+        // open operations, indexed by depth
+        int depth = 0;
+        int[] openIds = new int[INITIAL_DEPTH];
+        long[] openStarts = new long[INITIAL_DEPTH];
+        long[] openNestedNanos = new long[INITIAL_DEPTH];
+        boolean[] openBreakdowns = new boolean[INITIAL_DEPTH];
+        TimedOperationImpl[] handles = new TimedOperationImpl[INITIAL_DEPTH];
+        // the file of the open operations that are ranked, null for the others
+        FileId[] openFiles = new FileId[INITIAL_DEPTH];
+        TimedOperationCategory[] openCategories = new TimedOperationCategory[INITIAL_DEPTH];
+        String[] openLabels = new String[INITIAL_DEPTH];
+
+        // slowest operations on a file, indexed by the ordinal of the category, created lazily
+        final SlowestOperations[] slowest = new SlowestOperations[TimedOperationCategory.values().length];
+
+        ThreadState(int session) {
+            this.session = session;
+            for (int i = 0; i < handles.length; i++) {
+                handles[i] = new TimedOperationImpl(this, i);
+            }
+        }
+
+        TimedOperation push(final int operationId, final boolean breakdown) {
+            if (depth == openIds.length) {
+                growStack();
+            }
+            openIds[depth] = operationId;
+            openNestedNanos[depth] = 0;
+            openBreakdowns[depth] = breakdown;
+            openStarts[depth] = System.nanoTime();
+            return handles[depth++];
+        }
+
+        /** Sets the file of the innermost open operation, so that the operation is ranked. */
+        void setFile(final TimedOperationCategory category, final String label, final FileId fileId) {
+            openFiles[depth - 1] = fileId;
+            openCategories[depth - 1] = category;
+            openLabels[depth - 1] = label;
+        }
+
+        void pop(final long extraData) {
+            final long end = System.nanoTime();
+            final int top = --depth;
+            final int id = openIds[top];
+            if (id >= callCount.length) {
+                growCounters(id);
+            }
+
+            // Update counters and let next element on the stack ignore the time we spent
+            final long delta = end - openStarts[top];
+            totalTimeNanos[id] += delta;
+            selfTimeNanos[id] += delta - openNestedNanos[top];
+            callCount[id]++;
+            extraDataCounter[id] += extraData;
+            if (top > 0 && !openBreakdowns[top]) {
+                openNestedNanos[top - 1] += delta;
+            }
+
+            final FileId fileId = openFiles[top];
+            if (fileId != null) {
+                openFiles[top] = null;
+                final TimedOperationCategory category = openCategories[top];
+                SlowestOperations operations = slowest[category.ordinal()];
+                if (operations == null) {
+                    operations = new SlowestOperations(SLOWEST_OPERATION_COUNT);
+                    slowest[category.ordinal()] = operations;
+                }
+                operations.offer(category, openLabels[top], fileId, delta, extraData);
+            }
+        }
+
+        private void growStack() {
+            final int oldLength = openIds.length;
+            final int newLength = oldLength * 2;
+            openIds = Arrays.copyOf(openIds, newLength);
+            openStarts = Arrays.copyOf(openStarts, newLength);
+            openNestedNanos = Arrays.copyOf(openNestedNanos, newLength);
+            openBreakdowns = Arrays.copyOf(openBreakdowns, newLength);
+            handles = Arrays.copyOf(handles, newLength);
+            openFiles = Arrays.copyOf(openFiles, newLength);
+            openCategories = Arrays.copyOf(openCategories, newLength);
+            openLabels = Arrays.copyOf(openLabels, newLength);
+            for (int i = oldLength; i < newLength; i++) {
+                handles[i] = new TimedOperationImpl(this, i);
+            }
+        }
+
+        private void growCounters(final int id) {
+            final int newLength = Math.max(callCount.length * 2, id + 1);
+            totalTimeNanos = Arrays.copyOf(totalTimeNanos, newLength);
+            selfTimeNanos = Arrays.copyOf(selfTimeNanos, newLength);
+            callCount = Arrays.copyOf(callCount, newLength);
+            extraDataCounter = Arrays.copyOf(extraDataCounter, newLength);
+        }
+
+        void mergeInto(final List<TimedOperationKey> keys, final Map<TimedOperationKey, TimedResult> results) {
+            for (int id = 0; id < callCount.length && id < keys.size(); id++) {
+                if (callCount[id] > 0) {
+                    results.computeIfAbsent(keys.get(id), k -> new TimedResult())
+                           .add(totalTimeNanos[id], selfTimeNanos[id], callCount[id], extraDataCounter[id]);
+                }
+            }
+        }
+
+        void mergeSlowestInto(final Map<TimedOperationCategory, SlowestOperations> results) {
+            final TimedOperationCategory[] categories = TimedOperationCategory.values();
+            for (int i = 0; i < slowest.length; i++) {
+                if (slowest[i] != null) {
+                    results.computeIfAbsent(categories[i], c -> new SlowestOperations(SLOWEST_OPERATION_COUNT))
+                           .addAll(slowest[i]);
+                }
+            }
         }
     }
 
@@ -199,20 +453,13 @@ public final class TimeTracker {
         /* package */ AtomicLong extraDataCounter = new AtomicLong();
 
         /**
-         * Adds a new {@link TimerEntry} to the results.
-         * @param timerEntry The entry to be added
-         * @param extraData Any extra data counter to be added
-         * @return The delta time transcurred since the {@link TimerEntry} began in nanos.
+         * Adds the measurements of a thread to the results.
          */
-        /* package */ long accumulate(final TimerEntry timerEntry, final long extraData) {
-            final long delta = System.nanoTime() - timerEntry.start;
-
-            totalTimeNanos.getAndAdd(delta);
-            selfTimeNanos.getAndAdd(delta - timerEntry.inNestedOperationsNanos);
-            callCount.getAndIncrement();
+        /* package */ void add(final long totalTime, final long selfTime, final int calls, final long extraData) {
+            totalTimeNanos.getAndAdd(totalTime);
+            selfTimeNanos.getAndAdd(selfTime);
+            callCount.getAndAdd(calls);
             extraDataCounter.getAndAdd(extraData);
-
-            return delta;
         }
 
         /**
@@ -268,10 +515,18 @@ public final class TimeTracker {
     }
 
     /**
-     * A standard timed operation implementation.
+     * A standard timed operation implementation. There is one instance per
+     * depth of the stack of open operations of a thread, reused by all the
+     * operations started at this depth.
      */
     private static final class TimedOperationImpl implements TimedOperation {
-        private boolean closed = false;
+        private final ThreadState owner;
+        private final int depth;
+
+        TimedOperationImpl(ThreadState owner, int depth) {
+            this.owner = owner;
+            this.depth = depth;
+        }
 
         @Override
         public void close() {
@@ -280,12 +535,12 @@ public final class TimeTracker {
 
         @Override
         public void close(int extraDataCounter) {
-            if (closed) {
+            // closing twice is a noop, the operation is not on the stack anymore
+            if (owner.depth <= depth) {
                 return;
             }
 
-            closed = true;
-            TimeTracker.finishOperation(extraDataCounter);
+            owner.pop(extraDataCounter);
         }
     }
 }
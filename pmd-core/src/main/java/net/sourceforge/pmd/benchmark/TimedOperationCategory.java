@@ -18,6 +18,13 @@ import org.apache.commons.lang3.StringUtils;
 public enum TimedOperationCategory {
     /** Rule execution proper. */
     RULE,
+    /**
+     * Subdivided into one label for each subexpression of an XPath rule.
+     * Only tracked if XPath profiling is enabled, see {@link TimeTracker#startGlobalTracking(boolean)}.
+     * This time is a breakdown of the time of the rule, it is not subtracted
+     * from the self time of the rule.
+     */
+    XPATH_EXPRESSION,
     COLLECT_FILES,
     LOAD_RULES,
     PARSER,
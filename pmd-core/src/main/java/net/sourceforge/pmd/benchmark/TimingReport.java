@@ -4,7 +4,9 @@
 
 package net.sourceforge.pmd.benchmark;
 
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 import net.sourceforge.pmd.benchmark.TimeTracker.TimedOperationKey;
@@ -18,10 +20,13 @@ public class TimingReport {
 
     private final long wallClockMillis;
     private final Map<TimedOperationKey, TimedResult> results;
+    private final Map<TimedOperationCategory, List<SlowOperation>> slowestOperations;
 
-    /* package */ TimingReport(final long wallClockMillis, final Map<TimedOperationKey, TimedResult> accumulatedResults) {
+    /* package */ TimingReport(final long wallClockMillis, final Map<TimedOperationKey, TimedResult> accumulatedResults,
+                               final Map<TimedOperationCategory, List<SlowOperation>> slowestOperations) {
         this.wallClockMillis = wallClockMillis;
         results = accumulatedResults;
+        this.slowestOperations = slowestOperations;
     }
 
     public Map<String, TimedResult> getLabeledMeasurements(final TimedOperationCategory category) {
@@ -48,6 +53,20 @@ public class TimingReport {
         return null;
     }
 
+    /**
+     * Returns the slowest operations of the category on a single file, the
+     * slowest first. There are at most {@link TimeTracker#SLOWEST_OPERATION_COUNT}
+     * of them. Only the operations started with {@link TimeTracker#startOperation(TimedOperationCategory, String, net.sourceforge.pmd.lang.document.FileId)}
+     * are ranked, for instance the processing of a file ({@link TimedOperationCategory#FILE_PROCESSING}),
+     * the parsing of a file ({@link TimedOperationCategory#PARSER}) and the application of a rule on a file
+     * ({@link TimedOperationCategory#RULE}).
+     *
+     * @since 7.6.0
+     */
+    public List<SlowOperation> getSlowestOperations(final TimedOperationCategory category) {
+        return slowestOperations.getOrDefault(category, Collections.emptyList());
+    }
+
     public long getWallClockMillis() {
         return wallClockMillis;
     }
@@ -0,0 +1,39 @@
+/*
+ * BSD-style license; for more info see http://pmd.sourceforge.net/license.html
+ */
+
+package net.sourceforge.pmd.benchmark.internal;
+
+/**
+ * The duration of a Flight Recorder event, see {@link FlightRecorderEvents}.
+ * The event is committed when the scope is closed.
+ */
+public interface EventScope extends AutoCloseable {
+
+    /** A scope that records nothing, used when the event is disabled. */
+    EventScope NOOP = new EventScope() {
+        @Override
+        public void close() {
+            // noop
+        }
+
+        @Override
+        public void close(int count) {
+            // noop
+        }
+    };
+
+    /**
+     * Ends the event and commits it, if it is still enabled.
+     */
+    @Override
+    void close();
+
+    /**
+     * Ends the event and commits it, if it is still enabled.
+     *
+     * @param count A number attached to the event, e.g. the number of nodes
+     *              visited by a rule. Ignored by the events that have no count.
+     */
+    void close(int count);
+}
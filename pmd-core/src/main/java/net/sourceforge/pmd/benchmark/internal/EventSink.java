@@ -0,0 +1,42 @@
+/*
+ * BSD-style license; for more info see http://pmd.sourceforge.net/license.html
+ */
+
+package net.sourceforge.pmd.benchmark.internal;
+
+import net.sourceforge.pmd.lang.LanguageVersion;
+import net.sourceforge.pmd.lang.document.FileId;
+import net.sourceforge.pmd.lang.rule.Rule;
+
+/**
+ * Creates the events of {@link FlightRecorderEvents}. The default methods
+ * record nothing, they are used when Flight Recorder is not available.
+ */
+interface EventSink {
+
+    EventSink NOOP = new EventSink() { };
+
+    default EventScope fileProcessing(FileId fileId, LanguageVersion languageVersion) {
+        return EventScope.NOOP;
+    }
+
+    default EventScope parse(FileId fileId, LanguageVersion languageVersion) {
+        return EventScope.NOOP;
+    }
+
+    default EventScope languagePass(String pass) {
+        return EventScope.NOOP;
+    }
+
+    default EventScope ruleApplication(Rule rule, FileId fileId, LanguageVersion languageVersion) {
+        return EventScope.NOOP;
+    }
+
+    default EventScope analysisCache(String operation, String cacheFile) {
+        return EventScope.NOOP;
+    }
+
+    default EventScope cpdPhase(String phase) {
+        return EventScope.NOOP;
+    }
+}
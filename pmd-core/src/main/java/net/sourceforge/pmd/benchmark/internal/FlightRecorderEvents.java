@@ -0,0 +1,91 @@
+/*
+ * BSD-style license; for more info see http://pmd.sourceforge.net/license.html
+ */
+
+package net.sourceforge.pmd.benchmark.internal;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import net.sourceforge.pmd.lang.LanguageVersion;
+import net.sourceforge.pmd.lang.document.FileId;
+import net.sourceforge.pmd.lang.rule.Rule;
+
+/**
+ * Custom events for the JDK Flight Recorder (JFR), so that profiles of
+ * an analysis can be correlated with files and rules. The events are in
+ * the category "PMD" of a recording. When they are not enabled in the
+ * recording, or when there is no recording, creating an event only costs
+ * a check.
+ *
+ * <p>The events are implemented in a multi-release part of the jar, as
+ * PMD is compiled for Java 8. On Java 8, or when the module {@code jdk.jfr}
+ * is not available, no event is recorded.
+ *
+ * <p>Usage:
+ * <pre>{@code
+ * try (EventScope ignored = FlightRecorderEvents.parse(fileId, languageVersion)) {
+ *     ...
+ * }
+ * }</pre>
+ */
+public final class FlightRecorderEvents {
+
+    private static final Logger LOG = LoggerFactory.getLogger(FlightRecorderEvents.class);
+    private static final String JFR_SINK_CLASS = "net.sourceforge.pmd.benchmark.internal.JfrEventSink";
+
+    private static final EventSink SINK = loadSink();
+
+    private FlightRecorderEvents() {
+        // utility class
+    }
+
+    private static EventSink loadSink() {
+        try {
+            return (EventSink) Class.forName(JFR_SINK_CLASS).getDeclaredConstructor().newInstance();
+        } catch (ReflectiveOperationException | LinkageError e) {
+            LOG.trace("Flight Recorder events are not available", e);
+            return EventSink.NOOP;
+        }
+    }
+
+    /**
+     * The processing of a file, from the cache check to the rules.
+     * The other events of the thread that happen until the scope is
+     * closed are attributed to this file.
+     */
+    public static EventScope fileProcessing(FileId fileId, LanguageVersion languageVersion) {
+        return SINK.fileProcessing(fileId, languageVersion);
+    }
+
+    /** The parsing of a file. */
+    public static EventScope parse(FileId fileId, LanguageVersion languageVersion) {
+        return SINK.parse(fileId, languageVersion);
+    }
+
+    /**
+     * A language specific pass on the current file, e.g. the symbol table resolution,
+     * see {@link net.sourceforge.pmd.benchmark.TimeTracker#bench(String, Runnable)}.
+     */
+    public static EventScope languagePass(String pass) {
+        return SINK.languagePass(pass);
+    }
+
+    /**
+     * The application of a rule on a file. The count given when the
+     * scope is closed is the number of visited nodes.
+     */
+    public static EventScope ruleApplication(Rule rule, FileId fileId, LanguageVersion languageVersion) {
+        return SINK.ruleApplication(rule, fileId, languageVersion);
+    }
+
+    /** Loading or persisting the analysis cache. */
+    public static EventScope analysisCache(String operation, String cacheFile) {
+        return SINK.analysisCache(operation, cacheFile);
+    }
+
+    /** A phase of CPD, e.g. the tokenization of the files or the hashing of the tokens. */
+    public static EventScope cpdPhase(String phase) {
+        return SINK.cpdPhase(phase);
+    }
+}
@@ -62,7 +62,7 @@ abstract class AbstractAnalysisCache implements AnalysisCache {
 
     @Override
     public boolean isUpToDate(final TextDocument document) {
-        try (TimedOperation ignored = TimeTracker.startOperation(TimedOperationCategory.ANALYSIS_CACHE, "up-to-date check")) {
+        try (TimedOperation op = TimeTracker.startOperation(TimedOperationCategory.ANALYSIS_CACHE, "up-to-date check")) {
             final AnalysisResult cachedResult = fileResultsCache.get(document.getFileId());
             final AnalysisResult updatedResult;
 
@@ -84,7 +84,9 @@ abstract class AbstractAnalysisCache implements AnalysisCache {
             }
 
             updatedResultsCache.put(document.getFileId(), updatedResult);
-            
+
+            // the counter is the number of cache hits
+            op.close(upToDate ? 1 : 0);
             return upToDate;
         }
     }
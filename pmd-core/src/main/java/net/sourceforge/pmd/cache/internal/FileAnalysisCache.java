@@ -22,6 +22,8 @@ import net.sourceforge.pmd.PMDVersion;
 import net.sourceforge.pmd.benchmark.TimeTracker;
 import net.sourceforge.pmd.benchmark.TimedOperation;
 import net.sourceforge.pmd.benchmark.TimedOperationCategory;
+import net.sourceforge.pmd.benchmark.internal.EventScope;
+import net.sourceforge.pmd.benchmark.internal.FlightRecorderEvents;
 import net.sourceforge.pmd.lang.document.FileId;
 import net.sourceforge.pmd.lang.document.TextFile;
 import net.sourceforge.pmd.lang.rule.internal.RuleSets;
@@ -60,7 +62,8 @@ public class FileAnalysisCache extends AbstractAnalysisCache {
             files.stream().map(TextFile::getFileId)
                  .collect(Collectors.toMap(FileId::getUriString, id -> id));
 
-        try (TimedOperation ignored = TimeTracker.startOperation(TimedOperationCategory.ANALYSIS_CACHE, "load")) {
+        try (TimedOperation ignored = TimeTracker.startOperation(TimedOperationCategory.ANALYSIS_CACHE, "load");
+             EventScope event = FlightRecorderEvents.analysisCache("load", cacheFile.getPath())) {
             if (cacheExists()) {
                 try (
                     DataInputStream inputStream = new DataInputStream(
@@ -113,7 +116,8 @@ public class FileAnalysisCache extends AbstractAnalysisCache {
 
     @Override
     public void persist() {
-        try (TimedOperation ignored = TimeTracker.startOperation(TimedOperationCategory.ANALYSIS_CACHE, "persist")) {
+        try (TimedOperation ignored = TimeTracker.startOperation(TimedOperationCategory.ANALYSIS_CACHE, "persist");
+             EventScope event = FlightRecorderEvents.analysisCache("persist", cacheFile.getPath())) {
             if (cacheFile.isDirectory()) {
                 LOG.error("Cannot persist the cache, the given path points to a directory.");
                 return;
@@ -19,6 +19,8 @@ import org.checkerframework.checker.nullness.qual.Nullable;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import net.sourceforge.pmd.benchmark.internal.EventScope;
+import net.sourceforge.pmd.benchmark.internal.FlightRecorderEvents;
 import net.sourceforge.pmd.internal.util.FileCollectionUtil;
 import net.sourceforge.pmd.internal.util.IOUtil;
 import net.sourceforge.pmd.lang.Language;
@@ -165,21 +167,23 @@ public final class CpdAnalysis implements AutoCloseable {
 
             List<Report.ProcessingError> processingErrors = new ArrayList<>();
             Tokens tokens = new Tokens();
-            for (TextFile textFile : sourceManager.getTextFiles()) {
-                TextDocument textDocument = sourceManager.get(textFile);
-                Tokens.State savedState = tokens.savePoint();
-                try {
-                    int newTokens = doTokenize(textDocument, tokenizers.get(textFile.getLanguageVersion().getLanguage()), tokens);
-                    numberOfTokensPerFile.put(textDocument.getFileId(), newTokens);
-                    listener.addedFile(1);
-                } catch (IOException | FileAnalysisException e) {
-                    if (e instanceof FileAnalysisException) { // NOPMD
-                        ((FileAnalysisException) e).setFileId(textFile.getFileId());
+            try (EventScope ignored = FlightRecorderEvents.cpdPhase("Tokenizing")) {
+                for (TextFile textFile : sourceManager.getTextFiles()) {
+                    TextDocument textDocument = sourceManager.get(textFile);
+                    Tokens.State savedState = tokens.savePoint();
+                    try {
+                        int newTokens = doTokenize(textDocument, tokenizers.get(textFile.getLanguageVersion().getLanguage()), tokens);
+                        numberOfTokensPerFile.put(textDocument.getFileId(), newTokens);
+                        listener.addedFile(1);
+                    } catch (IOException | FileAnalysisException e) {
+                        if (e instanceof FileAnalysisException) { // NOPMD
+                            ((FileAnalysisException) e).setFileId(textFile.getFileId());
+                        }
+                        String message = configuration.isSkipLexicalErrors() ? "Skipping file" : "Error while tokenizing";
+                        reporter.errorEx(message, e);
+                        processingErrors.add(new Report.ProcessingError(e, textFile.getFileId()));
+                        savedState.restore(tokens);
                     }
-                    String message = configuration.isSkipLexicalErrors() ? "Skipping file" : "Error while tokenizing";
-                    reporter.errorEx(message, e);
-                    processingErrors.add(new Report.ProcessingError(e, textFile.getFileId()));
-                    savedState.restore(tokens);
                 }
             }
             if (!processingErrors.isEmpty() && !configuration.isSkipLexicalErrors()) {
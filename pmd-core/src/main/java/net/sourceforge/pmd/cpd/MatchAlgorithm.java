@@ -13,6 +13,9 @@ import java.util.Map;
 
 import org.checkerframework.checker.nullness.qual.NonNull;
 
+import net.sourceforge.pmd.benchmark.internal.EventScope;
+import net.sourceforge.pmd.benchmark.internal.FlightRecorderEvents;
+
 class MatchAlgorithm {
 
     private static final int MOD = 37;
@@ -44,31 +47,39 @@ class MatchAlgorithm {
         MatchCollector matchCollector = new MatchCollector(this);
         {
             cpdListener.phaseUpdate(CPDListener.HASH);
-            Map<TokenEntry, Object> markGroups = hash();
+            Map<TokenEntry, Object> markGroups;
+            try (EventScope ignored = FlightRecorderEvents.cpdPhase("Hashing")) {
+                markGroups = hash();
+            }
 
             cpdListener.phaseUpdate(CPDListener.MATCH);
-            markGroups.values()
-                      .stream()
-                      .filter(it -> it instanceof List)
-                      .forEach(it -> {
-                          @SuppressWarnings("unchecked")
-                          List<TokenEntry> l = (List<TokenEntry>) it;
-                          Collections.reverse(l);
-                          matchCollector.collect(l);
-                      });
+            try (EventScope ignored = FlightRecorderEvents.cpdPhase("Matching")) {
+                markGroups.values()
+                          .stream()
+                          .filter(it -> it instanceof List)
+                          .forEach(it -> {
+                              @SuppressWarnings("unchecked")
+                              List<TokenEntry> l = (List<TokenEntry>) it;
+                              Collections.reverse(l);
+                              matchCollector.collect(l);
+                          });
+            }
             // put markGroups out of scope
         }
 
         cpdListener.phaseUpdate(CPDListener.GROUPING);
-        List<Match> matches = matchCollector.getMatches();
-        matches.sort(Comparator.naturalOrder());
+        List<Match> matches;
+        try (EventScope ignored = FlightRecorderEvents.cpdPhase("Grouping")) {
+            matches = matchCollector.getMatches();
+            matches.sort(Comparator.naturalOrder());
 
-        for (Match match : matches) {
-            for (Mark mark : match) {
-                TokenEntry token = mark.getToken();
-                TokenEntry endToken = tokens.getEndToken(token, match);
+            for (Match match : matches) {
+                for (Mark mark : match) {
+                    TokenEntry token = mark.getToken();
+                    TokenEntry endToken = tokens.getEndToken(token, match);
 
-                mark.setEndToken(endToken);
+                    mark.setEndToken(endToken);
+                }
             }
         }
         cpdListener.phaseUpdate(CPDListener.DONE);
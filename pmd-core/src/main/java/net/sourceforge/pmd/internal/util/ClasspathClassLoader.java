@@ -223,30 +223,9 @@ public class ClasspathClassLoader extends URLClassLoader {
         // always first search in jrt-fs, if available
         // note: we can't override just getResource(String) and return a jrt:/-URL, because the URL itself
         // won't be connected to the correct JrtFileSystem and would just load using the system classloader.
-        if (fileSystem != null) {
-            String moduleName = extractModuleName(name);
-            if (moduleName != null) {
-                LOG.trace("Trying to load module-info.class for module {} in jrt-fs", moduleName);
-                Path candidate = fileSystem.getPath("modules", moduleName, MODULE_INFO_SUFFIX);
-                if (Files.exists(candidate)) {
-                    return newInputStreamFromJrtFilesystem(candidate);
-                }
-            }
-
-            int lastSlash = name.lastIndexOf('/');
-            String packageName = name.substring(0, Math.max(lastSlash, 0));
-            Set<String> moduleNames = packagesDirsToModules.get(packageName);
-            if (moduleNames != null) {
-                LOG.trace("Trying to find {} in jrt-fs with packageName={} and modules={}",
-                        name, packageName, moduleNames);
-
-                for (String moduleCandidate : moduleNames) {
-                    Path candidate = fileSystem.getPath("modules", moduleCandidate, name);
-                    if (Files.exists(candidate)) {
-                        return newInputStreamFromJrtFilesystem(candidate);
-                    }
-                }
-            }
+        Path jrtPath = findInJrtFilesystem(name);
+        if (jrtPath != null) {
+            return newInputStreamFromJrtFilesystem(jrtPath);
         }
 
         // search in the other jars of the aux classpath.
@@ -254,7 +233,58 @@ public class ClasspathClassLoader extends URLClassLoader {
         return super.getResourceAsStream(name);
     }
 
-    private static InputStream newInputStreamFromJrtFilesystem(Path path) {
+    /**
+     * Returns the home directory of the Java installation whose Java Runtime
+     * Filesystem is used by this classloader, if one was configured with a
+     * {@code jrt-fs.jar} on the classpath. Returns null otherwise.
+     */
+    public @Nullable String getJrtFilesystemJavaHome() {
+        return fileSystem == null ? null : javaHome;
+    }
+
+    /**
+     * Returns the path of the given resource in the Java Runtime Filesystem,
+     * if one was configured with a {@code jrt-fs.jar} on the classpath, and
+     * it contains the resource. Returns null otherwise. Resources found in
+     * the jrt filesystem take precedence over the other entries of this
+     * classpath in {@link #getResourceAsStream(String)}.
+     *
+     * @param name Resource name
+     */
+    public @Nullable Path findInJrtFilesystem(String name) {
+        if (fileSystem == null) {
+            return null;
+        }
+        String moduleName = extractModuleName(name);
+        if (moduleName != null) {
+            LOG.trace("Trying to load module-info.class for module {} in jrt-fs", moduleName);
+            Path candidate = fileSystem.getPath("modules", moduleName, MODULE_INFO_SUFFIX);
+            if (Files.exists(candidate)) {
+                return candidate;
+            }
+        }
+
+        int lastSlash = name.lastIndexOf('/');
+        String packageName = name.substring(0, Math.max(lastSlash, 0));
+        Set<String> moduleNames = packagesDirsToModules.get(packageName);
+        if (moduleNames != null) {
+            LOG.trace("Trying to find {} in jrt-fs with packageName={} and modules={}",
+                    name, packageName, moduleNames);
+
+            for (String moduleCandidate : moduleNames) {
+                Path candidate = fileSystem.getPath("modules", moduleCandidate, name);
+                if (Files.exists(candidate)) {
+                    return candidate;
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Opens a path returned by {@link #findInJrtFilesystem(String)}.
+     */
+    public static InputStream newInputStreamFromJrtFilesystem(Path path) {
         LOG.trace("Found {}", path);
         try {
             // Note: The input streams from JrtFileSystem are ByteArrayInputStreams and do not
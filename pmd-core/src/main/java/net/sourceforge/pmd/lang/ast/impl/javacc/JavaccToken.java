@@ -4,6 +4,8 @@
 
 package net.sourceforge.pmd.lang.ast.impl.javacc;
 
+import org.checkerframework.checker.nullness.qual.Nullable;
+
 import net.sourceforge.pmd.lang.ast.GenericToken;
 import net.sourceforge.pmd.lang.document.Chars;
 import net.sourceforge.pmd.lang.document.FileLocation;
@@ -24,6 +26,10 @@ import net.sourceforge.pmd.lang.document.TextRegion;
  * <li>It's a bit lighter. Token instances are one of the most numerous
  * class in a typical PMD run and this may reduce GC pressure.
  * </ul>
+ *
+ * <p>Tokens whose image is the text of the document between their
+ * offsets, which is the case of most identifiers, literals and comments,
+ * don't store their image. It is sliced from the document when requested.
  */
 public class JavaccToken implements GenericToken<JavaccToken> {
 
@@ -47,7 +53,8 @@ public class JavaccToken implements GenericToken<JavaccToken> {
     public final int kind;
 
     private final JavaccTokenDocument document;
-    private final CharSequence image;
+    /** Null if the image is the text of the document between the offsets. */
+    private final @Nullable CharSequence image;
     private final int startOffset;
     private final int endOffset;
 
@@ -77,9 +84,9 @@ public class JavaccToken implements GenericToken<JavaccToken> {
 
 
     // common constructor, with a CharSequence parameter
-    JavaccToken(int kind, CharSequence image, int startInclusive, int endExclusive, JavaccTokenDocument document) {
+    JavaccToken(int kind, @Nullable CharSequence image, int startInclusive, int endExclusive, JavaccTokenDocument document) {
         assert document != null : "Null document";
-        assert image instanceof String || image instanceof Chars : "Null image";
+        assert image == null || image instanceof String || image instanceof Chars : "Invalid image";
         assert TextRegion.isValidRegion(startInclusive, endExclusive, document.getTextDocument());
 
         this.kind = kind;
@@ -109,6 +116,22 @@ public class JavaccToken implements GenericToken<JavaccToken> {
         this(kind, (CharSequence) image, startInclusive, endExclusive, document);
     }
 
+    /**
+     * Builds a new token of the specified kind, whose image is the text
+     * of the document between the given offsets. The image is not stored,
+     * so this is the cheapest way to create a token.
+     *
+     * @param kind           Kind of token
+     * @param startInclusive Start character of the token in the text document
+     * @param endExclusive   End of the token in the text document
+     * @param document       Document owning the token
+     *
+     * @since 7.6.0
+     */
+    public JavaccToken(int kind, int startInclusive, int endExclusive, JavaccTokenDocument document) {
+        this(kind, (CharSequence) null, startInclusive, endExclusive, document);
+    }
+
     /**
      * Returns the document owning this token.
      */
@@ -138,13 +161,21 @@ public class JavaccToken implements GenericToken<JavaccToken> {
 
     @Override
     public Chars getImageCs() {
+        if (image == null) {
+            // this is a new slice on each call, see TokenImageBenchmark in pmd-benchmarks
+            return sliceImage();
+        }
         // wrap it: it's zero cost (images are either Chars or String) and Chars has a nice API
         return Chars.wrap(image);
     }
 
     @Override
     public String getImage() {
-        return image.toString();
+        return image == null ? sliceImage().toString() : image.toString();
+    }
+
+    private Chars sliceImage() {
+        return document.getTextDocument().getText().slice(startOffset, endOffset - startOffset);
     }
 
     /**
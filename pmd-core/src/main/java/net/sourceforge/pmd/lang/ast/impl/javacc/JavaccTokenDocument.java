@@ -116,14 +116,18 @@ public final class JavaccTokenDocument extends TokenDocument<JavaccToken> {
          *              coordinates and the image
          * @param image Shared instance of the image token. If this is non-null,
          *              then no call to {@link CharStream#getTokenImage()} should be
-         *              issued.
+         *              issued. If this is null, the image of the token is the text
+         *              of the char stream, and is not stored in the token.
          *
          * @return A new token
          */
         public JavaccToken createToken(JavaccTokenDocument self, int kind, CharStream cs, @Nullable String image) {
+            if (image == null) {
+                return new JavaccToken(kind, cs.getStartOffset(), cs.getEndOffset(), self);
+            }
             return new JavaccToken(
                 kind,
-                image == null ? cs.getTokenImageCs() : image,
+                image,
                 cs.getStartOffset(),
                 cs.getEndOffset(),
                 self
@@ -12,6 +12,8 @@ import org.slf4j.LoggerFactory;
 import net.sourceforge.pmd.benchmark.TimeTracker;
 import net.sourceforge.pmd.benchmark.TimedOperation;
 import net.sourceforge.pmd.benchmark.TimedOperationCategory;
+import net.sourceforge.pmd.benchmark.internal.EventScope;
+import net.sourceforge.pmd.benchmark.internal.FlightRecorderEvents;
 import net.sourceforge.pmd.cache.internal.AnalysisCache;
 import net.sourceforge.pmd.internal.SystemProps;
 import net.sourceforge.pmd.lang.LanguageProcessor;
@@ -55,7 +57,8 @@ abstract class PmdRunnable implements Runnable {
     public void run() throws FileAnalysisException {
         TimeTracker.initThread();
 
-        try (TimedOperation ignored = TimeTracker.startOperation(TimedOperationCategory.FILE_PROCESSING);
+        try (TimedOperation ignored = TimeTracker.startOperation(TimedOperationCategory.FILE_PROCESSING, null, textFile.getFileId());
+             EventScope fileEvent = FlightRecorderEvents.fileProcessing(textFile.getFileId(), textFile.getLanguageVersion());
              FileAnalysisListener listener = task.getListener().startFileAnalysis(textFile)) {
 
             RuleSets ruleSets = getRulesets();
@@ -108,8 +111,12 @@ abstract class PmdRunnable implements Runnable {
     }
 
     private RootNode parse(Parser parser, ParserTask task) {
-        try (TimedOperation ignored = TimeTracker.startOperation(TimedOperationCategory.PARSER)) {
-            return parser.parse(task);
+        try (TimedOperation op = TimeTracker.startOperation(TimedOperationCategory.PARSER, null, task.getFileId());
+             EventScope parseEvent = FlightRecorderEvents.parse(task.getFileId(), task.getLanguageVersion())) {
+            RootNode root = parser.parse(task);
+            // the counter is the number of parsed characters
+            op.close(task.getTextDocument().getLength());
+            return root;
         }
     }
 
@@ -16,10 +16,13 @@ import org.slf4j.LoggerFactory;
 import net.sourceforge.pmd.benchmark.TimeTracker;
 import net.sourceforge.pmd.benchmark.TimedOperation;
 import net.sourceforge.pmd.benchmark.TimedOperationCategory;
+import net.sourceforge.pmd.benchmark.internal.EventScope;
+import net.sourceforge.pmd.benchmark.internal.FlightRecorderEvents;
 import net.sourceforge.pmd.internal.SystemProps;
 import net.sourceforge.pmd.lang.LanguageVersion;
 import net.sourceforge.pmd.lang.ast.Node;
 import net.sourceforge.pmd.lang.ast.RootNode;
+import net.sourceforge.pmd.lang.document.FileId;
 import net.sourceforge.pmd.lang.rule.Rule;
 import net.sourceforge.pmd.reporting.FileAnalysisListener;
 import net.sourceforge.pmd.reporting.InternalApiBridge;
@@ -41,6 +44,7 @@ public class RuleApplicator {
 
     private final TreeIndex idx;
     private LanguageVersion currentLangVer;
+    private FileId currentFileId;
 
     public RuleApplicator(TreeIndex index) {
         this.idx = index;
@@ -51,6 +55,7 @@ public class RuleApplicator {
         idx.reset();
         indexTree(root, idx);
         currentLangVer = root.getLanguageVersion();
+        currentFileId = root.getTextDocument().getFileId();
     }
 
     public void apply(Collection<? extends Rule> rules, FileAnalysisListener listener) {
@@ -65,7 +70,8 @@ public class RuleApplicator {
             
             RuleContext ctx = InternalApiBridge.createRuleContext(listener, rule);
             rule.start(ctx);
-            try (TimedOperation rcto = TimeTracker.startOperation(TimedOperationCategory.RULE, rule.getName())) {
+            try (TimedOperation rcto = TimeTracker.startOperation(TimedOperationCategory.RULE, rule.getName(), currentFileId);
+                 EventScope ruleEvent = FlightRecorderEvents.ruleApplication(rule, currentFileId, currentLangVer)) {
 
                 int nodeCounter = 0;
                 Iterator<? extends Node> targets = rule.getTargetSelector().getVisitedNodes(idx);
@@ -85,6 +91,7 @@ public class RuleApplicator {
                 }
                 
                 rcto.close(nodeCounter);
+                ruleEvent.close(nodeCounter);
             } finally {
                 rule.end(ctx);
             }
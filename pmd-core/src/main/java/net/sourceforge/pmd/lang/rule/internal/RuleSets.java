@@ -4,6 +4,8 @@
 
 package net.sourceforge.pmd.lang.rule.internal;
 
+import static net.sourceforge.pmd.lang.rule.xpath.InternalApiBridge.ruleChainFallbackReason;
+
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
@@ -12,6 +14,8 @@ import java.util.Iterator;
 import java.util.List;
 import java.util.Set;
 
+import org.slf4j.event.Level;
+
 import net.sourceforge.pmd.benchmark.TimeTracker;
 import net.sourceforge.pmd.benchmark.TimedOperation;
 import net.sourceforge.pmd.benchmark.TimedOperationCategory;
@@ -20,7 +24,9 @@ import net.sourceforge.pmd.lang.ast.RootNode;
 import net.sourceforge.pmd.lang.document.TextFile;
 import net.sourceforge.pmd.lang.rule.InternalApiBridge;
 import net.sourceforge.pmd.lang.rule.Rule;
+import net.sourceforge.pmd.lang.rule.RuleReference;
 import net.sourceforge.pmd.lang.rule.RuleSet;
+import net.sourceforge.pmd.lang.rule.xpath.XPathRule;
 import net.sourceforge.pmd.reporting.FileAnalysisListener;
 import net.sourceforge.pmd.util.log.PmdReporter;
 
@@ -72,11 +78,35 @@ public class RuleSets {
                     reporter.errorEx(
                         "Exception while initializing rule " + rule.getName() + ", the rule will not be run", e);
                     iterator.remove();
+                    continue;
                 }
+                reportRuleChainFallback(rule, reporter);
             }
         }
     }
 
+    /**
+     * XPath rules that cannot use the rule chain are evaluated on the
+     * whole file, which is much slower. This is reported at info level
+     * when XPath expressions are profiled, so that the report can be
+     * read alongside the timings.
+     */
+    private static void reportRuleChainFallback(Rule rule, PmdReporter reporter) {
+        Level level = TimeTracker.isProfilingXPath() ? Level.INFO : Level.DEBUG;
+        Rule target = rule;
+        while (target instanceof RuleReference) {
+            target = ((RuleReference) target).getRule();
+        }
+        if (!(target instanceof XPathRule) || !reporter.isLoggable(level)) {
+            return;
+        }
+        String reason = ruleChainFallbackReason((XPathRule) target);
+        if (reason != null) {
+            reporter.log(level, "XPath rule {0} ({1}) cannot use the rule chain and is evaluated on the whole file: {2}",
+                         rule.getName(), rule.getRuleSetName(), reason);
+        }
+    }
+
     private RuleApplicator prepareApplicator() {
         return RuleApplicator.build(ruleSets.stream().flatMap(it -> it.getRules().stream())::iterator);
     }
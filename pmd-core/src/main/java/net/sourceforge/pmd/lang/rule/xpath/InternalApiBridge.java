@@ -4,6 +4,8 @@
 
 package net.sourceforge.pmd.lang.rule.xpath;
 
+import org.checkerframework.checker.nullness.qual.Nullable;
+
 import net.sourceforge.pmd.annotation.InternalApi;
 
 /**
@@ -28,4 +30,8 @@ public final class InternalApiBridge {
     public static XPathRule newXPathRule() {
         return new XPathRule();
     }
+
+    public static @Nullable String ruleChainFallbackReason(XPathRule rule) {
+        return rule.getRuleChainFallbackReason();
+    }
 }
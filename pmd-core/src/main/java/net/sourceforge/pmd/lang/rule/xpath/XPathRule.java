@@ -5,12 +5,15 @@
 package net.sourceforge.pmd.lang.rule.xpath;
 
 import java.util.Arrays;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Objects;
+import java.util.Set;
 
 import org.apache.commons.lang3.StringUtils;
 import org.apache.commons.lang3.exception.ContextedRuntimeException;
 import org.checkerframework.checker.nullness.qual.NonNull;
+import org.checkerframework.checker.nullness.qual.Nullable;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -50,6 +53,13 @@ public final class XPathRule extends AbstractRule {
     // this is shared with rules forked by deepCopy, used by the XPathRuleQuery
     private DeprecatedAttrLogger attrLogger = DeprecatedAttrLogger.create(this);
 
+    /**
+     * Nodes reported in the current file, if the rule chain is used. The
+     * expressions evaluated on different visited nodes may select the same
+     * node, eg {@code (//A | //B)//C} or {@code //A//C} with nested {@code A}s.
+     */
+    private Set<Node> reportedNodes;
+
 
     /**
      * This is only used by the ruleset loader.
@@ -92,6 +102,16 @@ public final class XPathRule extends AbstractRule {
     }
 
 
+    @Override
+    public void start(RuleContext ctx) {
+        reportedNodes = getQueryMaybeInitialize().getRuleChainVisits().isEmpty() ? null : new HashSet<>();
+    }
+
+    @Override
+    public void end(RuleContext ctx) {
+        reportedNodes = null;
+    }
+
     @Override
     public void apply(Node target, RuleContext ctx) {
         SaxonXPathRuleQuery query = getQueryMaybeInitialize();
@@ -104,6 +124,9 @@ public final class XPathRule extends AbstractRule {
         }
 
         for (Node nodeWithViolation : nodesWithViolation) {
+            if (reportedNodes != null && !reportedNodes.add(nodeWithViolation)) {
+                continue;
+            }
             // see Deprecate getImage/@Image #4787 https://github.com/pmd/pmd/issues/4787
             String messageArg = nodeWithViolation.getImage();
             // Nodes might already have been refactored to not use getImage anymore.
@@ -139,6 +162,7 @@ public final class XPathRule extends AbstractRule {
                                                      getPropertiesByPropertyDescriptor(),
                                                      languageProcessor.services().getXPathHandler(),
                                                      attrLogger);
+            xpathRuleQuery.setRuleName(getName());
         } catch (PmdXPathException e) {
             throw addExceptionContext(e);
         }
@@ -164,6 +188,14 @@ public final class XPathRule extends AbstractRule {
     }
 
 
+    /**
+     * Returns why this rule cannot use the rule chain, or null if it can.
+     */
+    @Nullable String getRuleChainFallbackReason() {
+        return getQueryMaybeInitialize().getRuleChainFallbackReason();
+    }
+
+
     private void logXPathRuleChainUsage(boolean usesRuleChain) {
         LOG.debug("{} rule chain for XPath rule: {} ({})",
                 usesRuleChain ? "Using" : "no",
@@ -61,6 +61,20 @@ public abstract class XPathFunctionDefinition {
         return false;
     }
 
+    /**
+     * If the result of the function only depends on the context node
+     * and the arguments, then this method may return {@code true}. The
+     * result of a call is then remembered for the current file, and reused
+     * for calls with the same context node and arguments, also by other
+     * rules. This is worth it for functions that are expensive to compute,
+     * like type tests.
+     *
+     * @since 7.6.0
+     */
+    public boolean isCacheable() {
+        return false;
+    }
+
     /**
      * Create a call on this function. This method is called, when a function call
      * is found in the XPath expression.
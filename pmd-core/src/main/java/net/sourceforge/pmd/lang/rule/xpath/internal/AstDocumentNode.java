@@ -7,8 +7,6 @@ package net.sourceforge.pmd.lang.rule.xpath.internal;
 import java.util.Collections;
 import java.util.List;
 
-import org.apache.commons.lang3.mutable.MutableInt;
-
 import net.sourceforge.pmd.lang.ast.Node;
 import net.sourceforge.pmd.lang.ast.RootNode;
 
@@ -28,11 +26,10 @@ class AstDocumentNode extends BaseNodeInfo implements AstNodeOwner {
     private final List<AstElementNode> children;
 
     AstDocumentNode(AstTreeInfo document,
-                    MutableInt idGenerator,
                     RootNode wrappedNode,
                     Configuration configuration) {
         super(Type.DOCUMENT, configuration.getNamePool(), "", null);
-        this.rootElement = new AstElementNode(document, idGenerator, this, wrappedNode, configuration);
+        this.rootElement = new AstElementNode(document, this, wrappedNode, configuration.getNamePool());
         this.children = Collections.singletonList(rootElement);
     }
 
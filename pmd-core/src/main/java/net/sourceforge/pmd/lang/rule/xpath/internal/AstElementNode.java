@@ -4,14 +4,11 @@
 
 package net.sourceforge.pmd.lang.rule.xpath.internal;
 
+import java.util.AbstractList;
 import java.util.ArrayList;
-import java.util.HashMap;
-import java.util.Iterator;
 import java.util.List;
-import java.util.Map;
 import java.util.stream.Collectors;
 
-import org.apache.commons.lang3.mutable.MutableInt;
 import org.checkerframework.checker.nullness.qual.Nullable;
 
 import net.sourceforge.pmd.lang.ast.Node;
@@ -19,9 +16,8 @@ import net.sourceforge.pmd.lang.ast.RootNode;
 import net.sourceforge.pmd.lang.rule.xpath.Attribute;
 import net.sourceforge.pmd.lang.rule.xpath.CommentNode;
 import net.sourceforge.pmd.lang.rule.xpath.TextNode;
-import net.sourceforge.pmd.util.CollectionUtil;
 
-import net.sf.saxon.Configuration;
+import net.sf.saxon.om.NamePool;
 import net.sf.saxon.om.NamespaceUri;
 import net.sf.saxon.om.NodeInfo;
 import net.sf.saxon.pattern.NameTest;
@@ -42,30 +38,25 @@ import net.sf.saxon.type.Type;
 public final class AstElementNode extends BaseNodeInfo implements SiblingCountingNode, AstNodeOwner {
 
     private final Node wrappedNode;
-    /** The index of the node in the tree according to document order */
-    private final int id;
+    /** Identifier used by {@link #generateId(StringBuilder)}, assigned on first use. 0 is taken by the document node. */
+    private int id;
 
-    private final List<AstElementNode> children;
-    private @Nullable Map<String, AstAttributeNode> attributes;
-    private @Nullable Map<String, Attribute> lightAttributes;
+    /** Wrappers of the children, created on demand by {@link #getChildAt(int)}. */
+    private AstElementNode @Nullable [] children;
+
+    private @Nullable AttributeTable attributeTable;
+    private Attribute @Nullable [] lightAttributes;
+    private AstAttributeNode @Nullable [] attributes;
 
 
     AstElementNode(AstTreeInfo document,
-                   MutableInt idGenerator,
                    BaseNodeInfo parent,
                    Node wrappedNode,
-                   Configuration configuration) {
-        super(determineType(wrappedNode), configuration.getNamePool(), wrappedNode.getXPathNodeName(), parent);
+                   NamePool namePool) {
+        super(determineType(wrappedNode), namePool, wrappedNode.getXPathNodeName(), parent);
 
         this.treeInfo = document;
         this.wrappedNode = wrappedNode;
-        this.id = idGenerator.getAndIncrement();
-
-        this.children = new ArrayList<>(wrappedNode.getNumChildren());
-
-        for (int i = 0; i < wrappedNode.getNumChildren(); i++) {
-            children.add(new AstElementNode(document, idGenerator, this, wrappedNode.getChild(i), configuration));
-        }
     }
 
     private static int determineType(Node node) {
@@ -78,43 +69,70 @@ public final class AstElementNode extends BaseNodeInfo implements SiblingCountin
         return Type.ELEMENT;
     }
 
-    public Map<String, AstAttributeNode> makeAttributes(Node wrappedNode) {
-        Map<String, AstAttributeNode> atts = new HashMap<>();
-        Iterator<Attribute> it = wrappedNode.getXPathAttributesIterator();
-
-        int attrIdx = 0;
-        while (it.hasNext()) {
-            Attribute next = it.next();
-            atts.put(next.getName(), new AstAttributeNode(this, next, attrIdx++));
+    private void ensureAttributes() {
+        if (attributeTable == null) {
+            List<Attribute> atts = new ArrayList<>();
+            attributeTable = AttributeTable.collectAttributes(getUnderlyingNode(), atts);
+            lightAttributes = atts.toArray(new Attribute[0]);
+            attributes = new AstAttributeNode[lightAttributes.length];
         }
+    }
+
+    private @Nullable Attribute getLightAttribute(String name) {
+        ensureAttributes();
+        int idx = attributeTable.indexOf(name);
+        return idx < 0 ? null : lightAttributes[idx];
+    }
 
-        return atts;
+    private @Nullable AstAttributeNode getAttributeNode(String name) {
+        ensureAttributes();
+        int idx = attributeTable.indexOf(name);
+        return idx < 0 ? null : getAttributeNodeAt(idx);
     }
 
-    public Map<String, AstAttributeNode> getAttributes() {
-        if (attributes == null) {
-            attributes = makeAttributes(getUnderlyingNode());
+    private AstAttributeNode getAttributeNodeAt(int idx) {
+        AstAttributeNode attr = attributes[idx];
+        if (attr == null) {
+            attr = new AstAttributeNode(this, lightAttributes[idx], idx);
+            attributes[idx] = attr;
         }
-        return attributes;
+        return attr;
     }
 
-    public Map<String, Attribute> getLightAttributes() {
-        if (lightAttributes == null) {
-            lightAttributes = new HashMap<>();
-            getUnderlyingNode().getXPathAttributesIterator()
-                               .forEachRemaining(it -> lightAttributes.put(it.getName(), it));
+    /**
+     * Returns the wrapper for the child at the given index, creating
+     * it if needed. The wrappers of the other children are not created.
+     */
+    AstElementNode getChildAt(int idx) {
+        if (children == null) {
+            children = new AstElementNode[wrappedNode.getNumChildren()];
         }
-        return lightAttributes;
+        AstElementNode child = children[idx];
+        if (child == null) {
+            child = new AstElementNode(getTreeInfo(), this, wrappedNode.getChild(idx), getNamePool());
+            children[idx] = child;
+        }
+        return child;
     }
 
     @Override
     public boolean hasChildNodes() {
-        return !children.isEmpty();
+        return wrappedNode.getNumChildren() > 0;
     }
 
     @Override
     List<AstElementNode> getChildren() {
-        return children;
+        return new AbstractList<AstElementNode>() {
+            @Override
+            public AstElementNode get(int index) {
+                return getChildAt(index);
+            }
+
+            @Override
+            public int size() {
+                return wrappedNode.getNumChildren();
+            }
+        };
     }
 
     @Override
@@ -129,52 +147,89 @@ public final class AstElementNode extends BaseNodeInfo implements SiblingCountin
 
     @Override
     public int getSiblingPosition() {
-        BaseNodeInfo parent = getParent();
-        return !(parent instanceof AstElementNode) ? 0
-                                                   : id - ((AstElementNode) parent).id;
+        return parent instanceof AstElementNode ? wrappedNode.getIndexInParent() : 0;
     }
 
     @Override
     public int compareOrder(NodeInfo other) {
-        if (other instanceof AstElementNode) {
-            return Integer.compare(this.id, ((AstElementNode) other).id);
+        if (other instanceof AstElementNode && ((AstElementNode) other).getTreeInfo() == getTreeInfo()) { // NOPMD CompareObjectsWithEquals
+            return compareDocumentOrder(wrappedNode, ((AstElementNode) other).wrappedNode);
         } else if (other instanceof SiblingCountingNode) {
             return Navigator.compareOrder(this, (SiblingCountingNode) other);
         }
         throw new UnsupportedOperationException();
     }
 
+    /**
+     * Compares the position of two nodes of the same tree in document
+     * order. The deeper node is first brought up to the depth of the other,
+     * then both walk up until they are siblings, whose index in their
+     * parent gives the order. An ancestor comes before its descendants.
+     */
+    private static int compareDocumentOrder(Node a, Node b) {
+        int depthA = depth(a);
+        int depthB = depth(b);
+        Node ancestorA = a;
+        Node ancestorB = b;
+        for (int i = depthA; i > depthB; i--) {
+            ancestorA = ancestorA.getParent();
+        }
+        for (int i = depthB; i > depthA; i--) {
+            ancestorB = ancestorB.getParent();
+        }
+        if (ancestorA == ancestorB) { // NOPMD CompareObjectsWithEquals
+            // one node is an ancestor of the other, or they are the same
+            return Integer.compare(depthA, depthB);
+        }
+        while (ancestorA.getParent() != ancestorB.getParent()) { // NOPMD CompareObjectsWithEquals
+            ancestorA = ancestorA.getParent();
+            ancestorB = ancestorB.getParent();
+        }
+        return Integer.compare(ancestorA.getIndexInParent(), ancestorB.getIndexInParent());
+    }
+
+    private static int depth(Node node) {
+        int depth = 0;
+        for (Node parent = node.getParent(); parent != null; parent = parent.getParent()) {
+            depth++;
+        }
+        return depth;
+    }
+
     @Override
     protected AxisIterator iterateAttributes(NodeTest predicate) {
         if (predicate instanceof NameTest) {
             String local = ((NameTest) predicate).getLocalPart();
-            return SingleNodeIterator.makeIterator(getAttributes().get(local));
+            return SingleNodeIterator.makeIterator(getAttributeNode(local));
         }
 
-        return filter(predicate, new IteratorAdapter(getAttributes().values().iterator()));
+        ensureAttributes();
+        return filter(predicate, new AttributeIterator());
     }
 
     @Override
     protected AxisIterator iterateChildren(NodeTest nodeTest) {
-        return filter(nodeTest, iterateList(children));
+        return filter(nodeTest, new ChildIterator(this, 0, wrappedNode.getNumChildren(), true));
     }
 
     @Override // this excludes self
     protected AxisIterator iterateSiblings(NodeTest nodeTest, boolean forwards) {
-        if (parent == null) {
+        if (!(parent instanceof AstElementNode)) {
             return EmptyIterator.ofNodes();
         }
 
-        List<? extends NodeInfo> siblingsList =
-            forwards ? CollectionUtil.drop(parent.getChildren(), wrappedNode.getIndexInParent() + 1)
-                     : CollectionUtil.take(parent.getChildren(), wrappedNode.getIndexInParent());
+        AstElementNode parentElt = (AstElementNode) parent;
+        int myIndex = wrappedNode.getIndexInParent();
+        AxisIterator siblings =
+            forwards ? new ChildIterator(parentElt, myIndex + 1, parentElt.wrappedNode.getNumChildren(), true)
+                     : new ChildIterator(parentElt, 0, myIndex, false);
 
-        return filter(nodeTest, iterateList(siblingsList, forwards));
+        return filter(nodeTest, siblings);
     }
 
     @Override
     public String getAttributeValue(NamespaceUri uri, String local) {
-        Attribute attribute = getLightAttributes().get(local);
+        Attribute attribute = getLightAttribute(local);
         if (attribute != null) {
             getTreeInfo().getLogger().recordUsageOf(attribute);
             return attribute.getStringValue();
@@ -197,6 +252,9 @@ public final class AstElementNode extends BaseNodeInfo implements SiblingCountin
 
     @Override
     public void generateId(StringBuilder buffer) {
+        if (id == 0) {
+            id = getTreeInfo().nextNodeId();
+        }
         buffer.append(id);
     }
 
@@ -236,22 +294,66 @@ public final class AstElementNode extends BaseNodeInfo implements SiblingCountin
 
 
 
-    private static class IteratorAdapter implements AxisIterator, LookaheadIterator {
+    /**
+     * Iterates over a range of the children of an element, creating
+     * the wrappers lazily.
+     */
+    private static final class ChildIterator implements AxisIterator, LookaheadIterator {
+
+        private final AstElementNode parent;
+        private final int start;
+        private final int end;
+        private final boolean forwards;
+        private int remaining;
 
-        private final Iterator<? extends NodeInfo> it;
+        /** Iterates over the children in the range [start, end). */
+        ChildIterator(AstElementNode parent, int start, int end, boolean forwards) {
+            this.parent = parent;
+            this.start = start;
+            this.end = end;
+            this.forwards = forwards;
+            this.remaining = Math.max(0, end - start);
+        }
+
+        @Override
+        public boolean hasNext() {
+            return remaining > 0;
+        }
+
+        @Override
+        public NodeInfo next() {
+            if (remaining <= 0) {
+                return null;
+            }
+            int idx = forwards ? end - remaining : start + remaining - 1;
+            remaining--;
+            parent.getTreeInfo().recordVisit();
+            return parent.getChildAt(idx);
+        }
+
+        @Override
+        public void close() {
+            // nothing to do
+        }
 
-        IteratorAdapter(Iterator<? extends NodeInfo> it) {
-            this.it = it;
+        @Override
+        public boolean supportsHasNext() {
+            return true;
         }
+    }
+
+    private final class AttributeIterator implements AxisIterator, LookaheadIterator {
+
+        private int next;
 
         @Override
         public boolean hasNext() {
-            return it.hasNext();
+            return next < lightAttributes.length;
         }
 
         @Override
         public NodeInfo next() {
-            return it.hasNext() ? it.next() : null;
+            return hasNext() ? getAttributeNodeAt(next++) : null;
         }
 
         @Override
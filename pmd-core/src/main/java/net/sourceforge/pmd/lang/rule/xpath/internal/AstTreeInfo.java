@@ -5,18 +5,18 @@
 package net.sourceforge.pmd.lang.rule.xpath.internal;
 
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 
-import org.apache.commons.lang3.mutable.MutableInt;
-
 import net.sourceforge.pmd.lang.ast.Node;
 import net.sourceforge.pmd.lang.ast.RootNode;
 
 import net.sf.saxon.Configuration;
 import net.sf.saxon.om.GenericTreeInfo;
+import net.sf.saxon.om.Sequence;
 
 
 /**
@@ -25,6 +25,9 @@ import net.sf.saxon.om.GenericTreeInfo;
 public final class AstTreeInfo extends GenericTreeInfo {
 
     private DeprecatedAttrLogger logger;
+    private int nextNodeId = 1; // 0 is taken by the document node
+    private int numVisitedNodes;
+    private final Map<List<Object>, Sequence> functionResults = new HashMap<>();
     private final Map<Node, AstElementNode> wrapperCache = new LinkedHashMap<Node, AstElementNode>() {
         @Override
         protected boolean removeEldestEntry(Entry eldest) {
@@ -40,7 +43,9 @@ public final class AstTreeInfo extends GenericTreeInfo {
     };
 
     /**
-     * Builds an AstDocument, with the given node as the root.
+     * Builds an AstDocument, with the given node as the root. Wrappers
+     * for the other nodes of the tree are only created when they are
+     * first reached by an XPath expression.
      *
      * @param node          The root AST Node.
      * @param configuration Configuration of the run
@@ -49,8 +54,7 @@ public final class AstTreeInfo extends GenericTreeInfo {
      */
     public AstTreeInfo(RootNode node, Configuration configuration) {
         super(configuration);
-        MutableInt idGenerator = new MutableInt(1); // 0 is taken by the document node
-        setRootNode(new AstDocumentNode(this, idGenerator, node, configuration));
+        setRootNode(new AstDocumentNode(this, node, configuration));
     }
 
     public AstElementNode findWrapperFor(Node node) {
@@ -83,11 +87,11 @@ public final class AstTreeInfo extends GenericTreeInfo {
         for (int i = ancestors.size() - 2; i >= 0; i--) {
             Node ancestor = ancestors.get(i);
             int idx = ancestor.getIndexInParent();
-            if (idx >= cur.getChildren().size()) {
+            if (idx >= cur.getUnderlyingNode().getNumChildren()) {
                 throw new IllegalArgumentException("Node is not part of this tree " + node);
             }
 
-            cur = cur.getChildren().get(idx);
+            cur = cur.getChildAt(idx);
             wrapperCache.put(ancestor, cur);
         }
         if (cur.getUnderlyingNode() != node) {
@@ -97,6 +101,40 @@ public final class AstTreeInfo extends GenericTreeInfo {
         return cur;
     }
 
+    /** Returns a fresh id for {@link AstElementNode#generateId(StringBuilder)}. */
+    int nextNodeId() {
+        return nextNodeId++;
+    }
+
+    /**
+     * Returns the number of nodes that have been returned by the
+     * child, descendant and sibling axes of this tree so far. This
+     * is used to profile XPath expressions.
+     */
+    int getNumVisitedNodes() {
+        return numVisitedNodes;
+    }
+
+    void recordVisit() {
+        numVisitedNodes++;
+    }
+
+    /**
+     * Returns the result of a previous call to a cacheable extension
+     * function, or null if there is none. The key identifies the function,
+     * the context node and the arguments of the call. This cache is
+     * shared by all XPath rules that run on this file.
+     *
+     * @see net.sourceforge.pmd.lang.rule.xpath.impl.XPathFunctionDefinition#isCacheable()
+     */
+    Sequence getFunctionResult(List<Object> key) {
+        return functionResults.get(key);
+    }
+
+    void putFunctionResult(List<Object> key, Sequence result) {
+        functionResults.put(key, result);
+    }
+
     /**
      * Returns the document node of the tree. Note that this has a single
      * child of element type. Both the document and this element child have
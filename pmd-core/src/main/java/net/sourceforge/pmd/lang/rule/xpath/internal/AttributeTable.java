@@ -0,0 +1,93 @@
+/*
+ * BSD-style license; for more info see http://pmd.sourceforge.net/license.html
+ */
+
+package net.sourceforge.pmd.lang.rule.xpath.internal;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
+
+import net.sourceforge.pmd.lang.ast.Node;
+import net.sourceforge.pmd.lang.rule.xpath.Attribute;
+
+/**
+ * Maps attribute names to a slot index, so that the attributes of
+ * a node can be stored in a plain array instead of a hash map.
+ * Most node classes always expose the same attributes in the same
+ * order, so a single table is shared by all nodes of a class. Nodes
+ * that override {@link Node#getXPathAttributesIterator()} to produce
+ * attributes dynamically fall back to a table of their own.
+ *
+ * @since 7.6.0
+ */
+final class AttributeTable {
+
+    /**
+     * The table of each node class, set by the first node of the class.
+     * A class value doesn't keep the classes of the language modules from
+     * being unloaded, unlike a map keyed by class.
+     */
+    private static final ClassValue<AtomicReference<AttributeTable>> TABLES_BY_CLASS = new ClassValue<AtomicReference<AttributeTable>>() {
+        @Override
+        protected AtomicReference<AttributeTable> computeValue(Class<?> type) {
+            return new AtomicReference<>();
+        }
+    };
+
+    private final String[] names;
+    private final Map<String, Integer> indices;
+
+    private AttributeTable(List<Attribute> attributes) {
+        this.names = new String[attributes.size()];
+        this.indices = new HashMap<>(attributes.size() * 2);
+        for (int i = 0; i < names.length; i++) {
+            String name = attributes.get(i).getName();
+            names[i] = name;
+            indices.put(name, i);
+        }
+    }
+
+    /** Number of slots in this table. */
+    int size() {
+        return names.length;
+    }
+
+    /** Returns the slot of the attribute with the given name, or -1 if there is none. */
+    int indexOf(String name) {
+        Integer idx = indices.get(name);
+        return idx == null ? -1 : idx;
+    }
+
+    private boolean matches(List<Attribute> attributes) {
+        if (attributes.size() != names.length) {
+            return false;
+        }
+        for (int i = 0; i < names.length; i++) {
+            if (!names[i].equals(attributes.get(i).getName())) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Fetches the attributes of the node into the given list and returns
+     * the table describing their layout.
+     */
+    static AttributeTable collectAttributes(Node node, List<Attribute> out) {
+        Iterator<Attribute> it = node.getXPathAttributesIterator();
+        while (it.hasNext()) {
+            out.add(it.next());
+        }
+        AtomicReference<AttributeTable> classTable = TABLES_BY_CLASS.get(node.getClass());
+        AttributeTable table = classTable.get();
+        if (table == null) {
+            classTable.compareAndSet(null, new AttributeTable(out));
+            table = classTable.get();
+        }
+        return table.matches(out) ? table : new AttributeTable(out);
+    }
+}
@@ -7,7 +7,6 @@ package net.sourceforge.pmd.lang.rule.xpath.internal;
 
 import java.util.Collections;
 import java.util.List;
-import java.util.ListIterator;
 
 import net.sf.saxon.om.NamePool;
 import net.sf.saxon.om.NamespaceUri;
@@ -103,24 +102,6 @@ abstract class BaseNodeInfo extends AbstractNodeWrapper implements SiblingCounti
 
 
     static AxisIterator iterateList(List<? extends NodeInfo> nodes) {
-        return iterateList(nodes, true);
-    }
-
-    static <N extends NodeInfo> AxisIterator iterateList(List<N> nodes, boolean forwards) {
-        return forwards ? new NodeListIterator(Collections.unmodifiableList(nodes))
-                        : new RevListAxisIterator<>(nodes);
-    }
-
-    private static class RevListAxisIterator<N extends NodeInfo> implements AxisIterator {
-        private final ListIterator<N> iter;
-
-        RevListAxisIterator(List<N> list) {
-            iter = list.listIterator(list.size());
-        }
-
-        @Override
-        public NodeInfo next() {
-            return this.iter.hasPrevious() ? this.iter.previous() : null;
-        }
+        return new NodeListIterator(Collections.unmodifiableList(nodes));
     }
 }
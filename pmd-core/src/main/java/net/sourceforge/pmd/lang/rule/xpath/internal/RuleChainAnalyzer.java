@@ -12,6 +12,8 @@ import java.util.Comparator;
 import java.util.Deque;
 import java.util.List;
 
+import org.checkerframework.checker.nullness.qual.Nullable;
+
 import net.sourceforge.pmd.lang.ast.Node;
 
 import net.sf.saxon.Configuration;
@@ -49,6 +51,7 @@ public class RuleChainAnalyzer extends SaxonExprVisitor {
     private boolean insideExpensiveExpr;
     private boolean foundPathInsideExpensive;
     private boolean foundCombinedNodeTest;
+    private boolean foundUnion;
 
     public RuleChainAnalyzer(Configuration currentConfiguration) {
         this.configuration = currentConfiguration;
@@ -61,6 +64,23 @@ public class RuleChainAnalyzer extends SaxonExprVisitor {
         return Collections.emptyList();
     }
 
+    /**
+     * Returns a description of why no root element could be found,
+     * or null if the expression can use the rule chain.
+     */
+    public @Nullable String getFallbackReason() {
+        if (!getRootElements().isEmpty()) {
+            return null;
+        } else if (foundPathInsideExpensive) {
+            return "it contains a path that does not depend on the context node, e.g. //A[//B]";
+        } else if (foundUnion) {
+            return "it contains a union that cannot be split, e.g. (//A | //B)[1]";
+        } else if (foundCombinedNodeTest) {
+            return "its first step uses a combined node test, e.g. //(A except B)";
+        }
+        return "its first step does not select nodes by name, e.g. //* or //node()";
+    }
+
     @Override
     public Expression visit(DocumentSorter e) {
         DocumentSorter result = (DocumentSorter) super.visit(e);
@@ -178,6 +198,7 @@ public class RuleChainAnalyzer extends SaxonExprVisitor {
     public Expression visit(VennExpression e) {
         // stop visiting subtree. We assume all unions were at the root
         // and flattened, here we find one that couldn't be flattened
+        foundUnion = true;
         return e;
     }
 
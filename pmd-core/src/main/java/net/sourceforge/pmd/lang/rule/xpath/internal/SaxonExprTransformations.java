@@ -6,16 +6,26 @@
 package net.sourceforge.pmd.lang.rule.xpath.internal;
 
 import java.util.Collections;
+import java.util.List;
 
 import net.sf.saxon.expr.AxisExpression;
+import net.sf.saxon.expr.BooleanExpression;
 import net.sf.saxon.expr.Expression;
 import net.sf.saxon.expr.FilterExpression;
 import net.sf.saxon.expr.LetExpression;
 import net.sf.saxon.expr.RootExpression;
 import net.sf.saxon.expr.SlashExpression;
+import net.sf.saxon.expr.StaticProperty;
+import net.sf.saxon.expr.VennExpression;
+import net.sf.saxon.expr.parser.Token;
+import net.sf.saxon.expr.sort.DocumentSorter;
 import net.sf.saxon.om.AxisInfo;
 import net.sf.saxon.pattern.AnyNodeTest;
+import net.sf.saxon.pattern.CombinedNodeTest;
 import net.sf.saxon.pattern.NodeTest;
+import net.sf.saxon.type.BuiltInAtomicType;
+import net.sf.saxon.type.ItemType;
+import net.sf.saxon.type.Type;
 
 /**
  * Utilities to transform saxon expression trees.
@@ -48,7 +58,14 @@ final class SaxonExprTransformations {
             Expression left = super.visit(e.getLhsExpression());
             Expression right = super.visit(e.getRhsExpression());
 
-            if (right instanceof AxisExpression
+            if (left instanceof RootExpression
+                && right instanceof AxisExpression
+                && ((AxisExpression) right).getAxis() == AxisInfo.DESCENDANT_OR_SELF
+                && isElementTest(((AxisExpression) right).getNodeTest())) {
+                // the document node is never an element, so (/)/descendant-or-self::A
+                // selects the same nodes as (/)/descendant::A
+                right = new AxisExpression(AxisInfo.DESCENDANT, ((AxisExpression) right).getNodeTest());
+            } else if (right instanceof AxisExpression
                 && ((AxisExpression) right).getAxis() == AxisInfo.CHILD
                 && left instanceof SlashExpression) {
 
@@ -71,8 +88,108 @@ final class SaxonExprTransformations {
         private boolean isAnyNode(NodeTest nodeTest) {
             return nodeTest == null || nodeTest instanceof AnyNodeTest;
         }
+
+        private boolean isElementTest(NodeTest nodeTest) {
+            return nodeTest != null && nodeTest.getPrimitiveType() == Type.ELEMENT;
+        }
     };
 
+    /**
+     * Only visits the main path of the expression, not predicates or
+     * the bound values of let expressions: unions created inside those
+     * would be evaluated as is, and their operands are not guaranteed
+     * to be in document order anymore.
+     */
+    private static final SaxonExprVisitor UNION_DISTRIBUTOR = new SaxonExprVisitor() {
+
+        @Override
+        public Expression visit(SlashExpression e) {
+            Expression start = visit(e.getStart());
+            Expression step = visit(e.getStep());
+            if (isUnion(unwrapSorter(start))) {
+                VennExpression union = (VennExpression) unwrapSorter(start);
+                return union(new SlashExpression(union.getLhsExpression(), step),
+                             new SlashExpression(union.getRhsExpression(), step));
+            } else if (isUnion(unwrapSorter(step))) {
+                VennExpression union = (VennExpression) unwrapSorter(step);
+                return union(new SlashExpression(start, union.getLhsExpression()),
+                             new SlashExpression(start, union.getRhsExpression()));
+            }
+            return new SlashExpression(start, step);
+        }
+
+        @Override
+        public Expression visit(FilterExpression e) {
+            Expression base = visit(e.getBase());
+            Expression filter = e.getFilter();
+            if (isUnion(unwrapSorter(base)) && !isPositional(filter)) {
+                VennExpression union = (VennExpression) unwrapSorter(base);
+                return union(new FilterExpression(union.getLhsExpression(), filter),
+                             new FilterExpression(union.getRhsExpression(), filter));
+            }
+            return new FilterExpression(base, filter);
+        }
+
+        @Override
+        public Expression visit(AxisExpression e) {
+            NodeTest test = e.getNodeTest();
+            if (test instanceof CombinedNodeTest && ((CombinedNodeTest) test).getOperator() == Token.UNION) {
+                CombinedNodeTest combined = (CombinedNodeTest) test;
+                return union(new AxisExpression(e.getAxis(), combined.getOperand(0)),
+                             new AxisExpression(e.getAxis(), combined.getOperand(1)));
+            }
+            return e;
+        }
+
+        @Override
+        public Expression visit(LetExpression e) {
+            LetExpression result = new LetExpression();
+            result.setAction(visit(e.getAction()));
+            result.setSequence(e.getSequence());
+            result.setVariableQName(e.getVariableQName());
+            result.setRequiredType(e.getRequiredType());
+            result.setSlotNumber(e.getLocalSlotNumber());
+            return result;
+        }
+
+        @Override
+        public Expression visit(BooleanExpression e) {
+            return e;
+        }
+
+        private Expression union(Expression left, Expression right) {
+            // visit again, there may be more unions to distribute inside the operands
+            return new VennExpression(visit(left), Token.UNION, visit(right));
+        }
+
+        private boolean isUnion(Expression e) {
+            return e instanceof VennExpression && ((VennExpression) e).getOperator() == Token.UNION;
+        }
+
+        private Expression unwrapSorter(Expression e) {
+            return e instanceof DocumentSorter ? ((DocumentSorter) e).getBaseExpression() : e;
+        }
+
+        private boolean isPositional(Expression filter) {
+            ItemType type = filter.getItemType();
+            boolean isBoolean = BuiltInAtomicType.BOOLEAN.equals(type) || type instanceof NodeTest;
+            return !isBoolean
+                || (filter.getDependencies() & (StaticProperty.DEPENDS_ON_POSITION | StaticProperty.DEPENDS_ON_LAST)) != 0;
+        }
+    };
+
+    /**
+     * Push path steps and filters into the operands of unions, so that
+     * the unions end up at the top of the expression, where {@link #splitUnions(Expression)}
+     * can split them. Turns {@code (//A | //B)/C} into {@code //A/C | //B/C},
+     * {@code //(A | B)} into {@code //A | //B}, and {@code (//A | //B)[c]} into
+     * {@code //A[c] | //B[c]}. The latter is only done if the filter is not
+     * positional.
+     */
+    static Expression distributeUnions(Expression expression) {
+        return UNION_DISTRIBUTOR.visit(expression);
+    }
+
     /**
      * Turn {@code a/(b[c])} into {@code (a/b)[c]}. This is to somewhat
      * normalize the expression as Saxon parses this inconsistently.
@@ -84,7 +201,8 @@ final class SaxonExprTransformations {
     /**
      * Turn {@code ((root)/descendant-or-self::node())/child::someTest}
      * into {@code ((root)/descendant::someTest)}. The latter is the pattern
-     * detected by the rulechain analyser.
+     * detected by the rulechain analyser. Also turns {@code (root)/descendant-or-self::A}
+     * into {@code (root)/descendant::A} when {@code A} is an element test.
      */
     static Expression reduceRoot(Expression expression) {
         return ROOT_REDUCER.visit(expression);
@@ -100,7 +218,7 @@ final class SaxonExprTransformations {
      * you will have to call {@link #copyTopLevelLets(Expression, Expression)} on each subexpression
      * to turn them back into "let $a := e1 in e2" and "let $a := e1 in e3" respectively.
      */
-    static Iterable<Expression> splitUnions(Expression expr) {
+    static List<Expression> splitUnions(Expression expr) {
         SplitUnions unions = new SplitUnions();
         unions.visit(expr);
         if (unions.getExpressions().isEmpty()) {
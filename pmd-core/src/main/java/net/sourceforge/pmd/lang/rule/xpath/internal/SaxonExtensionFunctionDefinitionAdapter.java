@@ -4,6 +4,8 @@
 
 package net.sourceforge.pmd.lang.rule.xpath.internal;
 
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
 import java.util.stream.Collectors;
@@ -20,6 +22,7 @@ import net.sf.saxon.expr.XPathContext;
 import net.sf.saxon.lib.ExtensionFunctionCall;
 import net.sf.saxon.lib.ExtensionFunctionDefinition;
 import net.sf.saxon.om.EmptyAtomicSequence;
+import net.sf.saxon.om.Item;
 import net.sf.saxon.om.Sequence;
 import net.sf.saxon.om.StructuredQName;
 import net.sf.saxon.pattern.NodeKindTest;
@@ -130,12 +133,33 @@ public class SaxonExtensionFunctionDefinitionAdapter extends ExtensionFunctionDe
                 }
 
 
+                AstTreeInfo cache = definition.isCacheable() ? getTreeInfo(context) : null;
+                List<Object> cacheKey = null;
+                if (cache != null) {
+                    cacheKey = new ArrayList<>(convertedArguments.length + 2);
+                    cacheKey.add(definition.getQName());
+                    cacheKey.add(contextNode);
+                    cacheKey.addAll(Arrays.asList(convertedArguments));
+                    Sequence cached = cache.getFunctionResult(cacheKey);
+                    if (cached != null) {
+                        return cached;
+                    }
+                }
+
                 Object result = null;
                 try {
                     result = call.call(contextNode, convertedArguments);
                 } catch (XPathFunctionException e) {
                     throw new XPathException(e);
                 }
+                Sequence convertedResult = convertResult(result);
+                if (cacheKey != null) {
+                    cache.putFunctionResult(cacheKey, convertedResult);
+                }
+                return convertedResult;
+            }
+
+            private Sequence convertResult(Object result) {
                 Sequence convertedResult = null;
                 switch (definition.getResultType()) {
                     case SINGLE_BOOLEAN:
@@ -169,4 +193,14 @@ public class SaxonExtensionFunctionDefinitionAdapter extends ExtensionFunctionDe
             }
         };
     }
+
+    /**
+     * Returns the tree of the context item, if it is a PMD AST. Results
+     * are only cached in that case, other trees (e.g. a DOM) are not
+     * shared between rules.
+     */
+    private static AstTreeInfo getTreeInfo(XPathContext context) {
+        Item item = context.getContextItem();
+        return item instanceof BaseNodeInfo ? ((BaseNodeInfo) item).getTreeInfo() : null;
+    }
 }
@@ -12,9 +12,13 @@ import java.util.Map;
 import java.util.Set;
 
 import org.apache.commons.lang3.exception.ContextedRuntimeException;
+import org.checkerframework.checker.nullness.qual.Nullable;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import net.sourceforge.pmd.benchmark.TimeTracker;
+import net.sourceforge.pmd.benchmark.TimedOperation;
+import net.sourceforge.pmd.benchmark.TimedOperationCategory;
 import net.sourceforge.pmd.lang.ast.Node;
 import net.sourceforge.pmd.lang.ast.RootNode;
 import net.sourceforge.pmd.lang.rule.xpath.PmdXPathException;
@@ -69,12 +73,27 @@ public class SaxonXPathRuleQuery {
     private final XPathHandler xPathHandler;
     private final List<String> rulechainQueries = new ArrayList<>();
     private Configuration configuration;
+    private String ruleName;
+    private String ruleChainFallbackReason;
 
     /**
      * Contains for each nodeName a sub expression, used for implementing rule chain.
      */
     Map<String, List<Expression>> nodeNameToXPaths = new HashMap<>();
 
+    /**
+     * Parallel to {@link #nodeNameToXPaths}, contains a description of each
+     * sub expression, used when profiling XPath expressions. The descriptions
+     * don't contain the rule name, which is only set after the initialization.
+     */
+    private final Map<String, List<String>> nodeNameToLabelSuffixes = new HashMap<>();
+
+    /**
+     * The labels of the sub expressions when profiling XPath expressions,
+     * built from {@link #nodeNameToLabelSuffixes} on first use.
+     */
+    private Map<String, List<String>> nodeNameToLabels;
+
     /**
      * Representation of an XPath query, created at {@link #initialize()} using {@link #xpathExpr}.
      */
@@ -111,6 +130,26 @@ public class SaxonXPathRuleQuery {
     }
 
 
+    /**
+     * Returns why this query cannot use the rule chain, in which case
+     * it is evaluated once on the root of each file. Returns null if
+     * the query uses the rule chain.
+     */
+    public @Nullable String getRuleChainFallbackReason() {
+        return ruleChainFallbackReason;
+    }
+
+
+    /**
+     * Sets the name of the rule this query belongs to. It is used
+     * to label the sub expressions when profiling XPath expressions.
+     */
+    public void setRuleName(String ruleName) {
+        this.ruleName = ruleName;
+        this.nodeNameToLabels = null;
+    }
+
+
     public List<Node> evaluate(final Node node) {
         final AstTreeInfo documentNode = getDocumentNodeForRootNode(node);
         documentNode.setAttrCtx(attrCtx);
@@ -121,18 +160,20 @@ public class SaxonXPathRuleQuery {
 
             // XPath 2.0 sequences may contain duplicates
             final Set<Node> results = new LinkedHashSet<>();
-            List<Expression> expressions = getExpressionsForLocalNameOrDefault(node.getXPathNodeName());
-            for (Expression expression : expressions) {
-                @SuppressWarnings("PMD.CloseResource")
-                SequenceIterator iterator = expression.iterate(xpathDynamicContext.getXPathContextObject());
-                Item current = iterator.next();
-                while (current != null) {
-                    if (current instanceof AstNodeOwner) {
-                        results.add(((AstNodeOwner) current).getUnderlyingNode());
-                    } else {
-                        throw new XPathException("XPath rule expression returned a non-node (" + current.getClass() + "): " + current);
+            String nodeName = node.getXPathNodeName();
+            List<Expression> expressions = getExpressionsForLocalNameOrDefault(nodeName);
+            if (TimeTracker.isProfilingXPath()) {
+                List<String> labels = getLabelsForLocalNameOrDefault(nodeName);
+                for (int i = 0; i < expressions.size(); i++) {
+                    int visitedBefore = documentNode.getNumVisitedNodes();
+                    try (TimedOperation op = TimeTracker.startOperation(TimedOperationCategory.XPATH_EXPRESSION, labels.get(i))) {
+                        collectResults(expressions.get(i), xpathDynamicContext, results);
+                        op.close(documentNode.getNumVisitedNodes() - visitedBefore);
                     }
-                    current = iterator.next();
+                }
+            } else {
+                for (Expression expression : expressions) {
+                    collectResults(expression, xpathDynamicContext, results);
                 }
             }
 
@@ -148,6 +189,20 @@ public class SaxonXPathRuleQuery {
         }
     }
 
+    private static void collectResults(Expression expression, XPathDynamicContext xpathDynamicContext, Set<Node> results) throws XPathException {
+        @SuppressWarnings("PMD.CloseResource")
+        SequenceIterator iterator = expression.iterate(xpathDynamicContext.getXPathContextObject());
+        Item current = iterator.next();
+        while (current != null) {
+            if (current instanceof AstNodeOwner) {
+                results.add(((AstNodeOwner) current).getUnderlyingNode());
+            } else {
+                throw new XPathException("XPath rule expression returned a non-node (" + current.getClass() + "): " + current);
+            }
+            current = iterator.next();
+        }
+    }
+
     private ContextedRuntimeException wrapException(XPathException e, Phase phase) {
         return new PmdXPathException(e, phase, xpathExpr, version);
     }
@@ -161,6 +216,39 @@ public class SaxonXPathRuleQuery {
         return nodeNameToXPaths.get(AST_ROOT);
     }
 
+    private List<String> getLabelsForLocalNameOrDefault(String nodeName) {
+        if (nodeNameToLabels == null) {
+            String prefix = (ruleName == null ? xpathExpr : ruleName) + ": ";
+            Map<String, List<String>> labelsByName = new HashMap<>();
+            nodeNameToLabelSuffixes.forEach((name, suffixes) -> {
+                List<String> prefixed = new ArrayList<>(suffixes.size());
+                for (String suffix : suffixes) {
+                    prefixed.add(prefix + suffix);
+                }
+                labelsByName.put(name, prefixed);
+            });
+            nodeNameToLabels = labelsByName;
+        }
+        List<String> labels = nodeNameToLabels.get(nodeName);
+        if (labels != null) {
+            return labels;
+        }
+        return nodeNameToLabels.get(AST_ROOT);
+    }
+
+    private String makeProfilingLabelSuffix(String nodeName, int branch, int numBranches) {
+        StringBuilder sb = new StringBuilder();
+        if (AST_ROOT.equals(nodeName)) {
+            sb.append("(no rule chain)");
+        } else {
+            sb.append(nodeName);
+            if (numBranches > 1) {
+                sb.append(" (branch ").append(branch + 1).append('/').append(numBranches).append(')');
+            }
+        }
+        return sb.toString();
+    }
+
     // test only
     Expression getFallbackExpr() {
         return nodeNameToXPaths.get(SaxonXPathRuleQuery.AST_ROOT).get(0);
@@ -182,8 +270,9 @@ public class SaxonXPathRuleQuery {
     }
 
 
-    private void addExpressionForNode(String nodeName, Expression expression) {
+    private void addExpressionForNode(String nodeName, Expression expression, String labelSuffix) {
         nodeNameToXPaths.computeIfAbsent(nodeName, n -> new ArrayList<>(2)).add(expression);
+        nodeNameToLabelSuffixes.computeIfAbsent(nodeName, n -> new ArrayList<>(2)).add(labelSuffix);
     }
 
     private void initialize() throws XPathException {
@@ -221,11 +310,14 @@ public class SaxonXPathRuleQuery {
 
         boolean useRuleChain = true;
 
-        // First step: Split the union venn expressions into single expressions
-        Iterable<Expression> subexpressions = SaxonExprTransformations.splitUnions(expr);
+        // First step: Split the union venn expressions into single expressions.
+        // Unions nested in the path are moved to the top first, so that they can be split too.
+        List<Expression> subexpressions = SaxonExprTransformations.splitUnions(SaxonExprTransformations.distributeUnions(expr));
 
         // Second step: Analyze each expression separately
-        for (final Expression subexpression : subexpressions) { // final because of checkstyle
+        for (int i = 0; i < subexpressions.size(); i++) {
+            final Expression subexpression = subexpressions.get(i);
+            final int branch = i; // final because of lambda
             Expression modified = subexpression;
             modified = SaxonExprTransformations.hoistFilters(modified);
             modified = SaxonExprTransformations.reduceRoot(modified);
@@ -234,11 +326,14 @@ public class SaxonXPathRuleQuery {
             final Expression finalExpr = rca.visit(modified); // final because of lambda
 
             if (!rca.getRootElements().isEmpty()) {
-                rca.getRootElements().forEach(it -> addExpressionForNode(it, finalExpr));
+                rca.getRootElements().forEach(it -> addExpressionForNode(it, finalExpr, makeProfilingLabelSuffix(it, branch, subexpressions.size())));
             } else {
                 // couldn't find a root element for the expression, that means, we can't use rule chain at all
                 // even though, it would be possible for part of the expression.
                 useRuleChain = false;
+                ruleChainFallbackReason = subexpressions.size() > 1
+                                          ? "in union branch " + (i + 1) + "/" + subexpressions.size() + ", " + rca.getFallbackReason()
+                                          : rca.getFallbackReason();
                 break;
             }
         }
@@ -247,11 +342,12 @@ public class SaxonXPathRuleQuery {
             rulechainQueries.addAll(nodeNameToXPaths.keySet());
         } else {
             nodeNameToXPaths.clear();
-            LOG.debug("Unable to use RuleChain for XPath: {}", xpathExpr);
+            nodeNameToLabelSuffixes.clear();
+            LOG.debug("Unable to use RuleChain for XPath: {} ({})", xpathExpr, ruleChainFallbackReason);
         }
 
         // always add fallback expression
-        addExpressionForNode(AST_ROOT, xpathExpression.getInternalExpression());
+        addExpressionForNode(AST_ROOT, xpathExpression.getInternalExpression(), makeProfilingLabelSuffix(AST_ROOT, 0, 1));
     }
 
     public static NamePool getNamePool() {
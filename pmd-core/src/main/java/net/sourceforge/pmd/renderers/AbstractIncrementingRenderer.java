@@ -59,8 +59,8 @@ public abstract class AbstractIncrementingRenderer extends AbstractRenderer {
     public void renderFileReport(Report report) throws IOException {
         Iterator<RuleViolation> violations = report.getViolations().iterator();
         if (violations.hasNext()) {
+            // the writer is flushed by the caller, see Renderer#newListener
             renderFileViolations(violations);
-            getWriter().flush();
         }
 
         errors.addAll(report.getProcessingErrors());
@@ -0,0 +1,129 @@
+/*
+ * BSD-style license; for more info see http://pmd.sourceforge.net/license.html
+ */
+
+package net.sourceforge.pmd.renderers;
+
+import java.io.File;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.apache.commons.lang3.StringUtils;
+
+import net.sourceforge.pmd.lang.document.TextFile;
+import net.sourceforge.pmd.properties.PropertyDescriptor;
+import net.sourceforge.pmd.properties.PropertyFactory;
+import net.sourceforge.pmd.renderers.internal.binary.BinaryReportReader;
+import net.sourceforge.pmd.renderers.internal.binary.BinaryReportWriter;
+import net.sourceforge.pmd.reporting.Report;
+
+/**
+ * Renders the report in a compact binary format, meant to archive reports.
+ * Rule names, files and messages are only written once, and positions are
+ * encoded as varints. The report can later be rendered in any other format
+ * without running the analysis again, with {@code pmd report convert}
+ * (see {@link BinaryReportReader}).
+ *
+ * <p>The report is written to a byte stream, which is the
+ * {@linkplain #setReportFile(String) report file}, or the standard output.
+ * This renderer cannot write to a {@link Writer}, as the bytes of the report
+ * would be changed by the encoding of the writer.
+ *
+ * @since 7.6.0
+ */
+public class BinaryRenderer extends AbstractRenderer {
+
+    public static final String NAME = "binary";
+
+    public static final PropertyDescriptor<Boolean> COMPRESS =
+        PropertyFactory.booleanProperty("compress")
+                       .desc("Compress the report with gzip.")
+                       .defaultValue(true)
+                       .build();
+
+    private OutputStream outputStream;
+    private BinaryReportWriter reportWriter;
+
+    public BinaryRenderer() {
+        super(NAME, "Compact binary format, which can be converted to the other formats.");
+        definePropertyDescriptor(COMPRESS);
+    }
+
+    @Override
+    public String defaultFileExtension() {
+        return "pmdr";
+    }
+
+    /**
+     * Not supported, the report is binary. Use {@link #setReportFile(String)}.
+     *
+     * @throws UnsupportedOperationException Always
+     */
+    @Override
+    public void setWriter(Writer writer) {
+        throw new UnsupportedOperationException("The " + NAME + " renderer writes bytes and cannot use a Writer, "
+                                                    + "set a report file instead");
+    }
+
+    @Override
+    public void setReportFile(String reportFilename) {
+        this.writer = null;
+        this.outputStream = createOutputStream(reportFilename);
+    }
+
+    private static OutputStream createOutputStream(String reportFile) {
+        if (StringUtils.isBlank(reportFile)) {
+            return new FilterOutputStream(System.out) {
+                @Override
+                public void close() throws IOException {
+                    // avoid closing stdout, simply flush
+                    out.flush();
+                }
+
+                @Override
+                public void write(byte[] b, int off, int len) throws IOException {
+                    out.write(b, off, len);
+                }
+            };
+        }
+        try {
+            Path path = new File(reportFile).toPath().toAbsolutePath();
+            Files.createDirectories(path.getParent()); // ensure parent dir exists
+            return Files.newOutputStream(path);
+        } catch (IOException e) {
+            throw new IllegalArgumentException(e);
+        }
+    }
+
+    @Override
+    public void start() throws IOException {
+        if (outputStream == null) {
+            throw new IllegalStateException("No report file or writer was set for the " + NAME + " renderer");
+        }
+        reportWriter = new BinaryReportWriter(outputStream, getProperty(COMPRESS), this::determineFileName);
+    }
+
+    @Override
+    public void startFileAnalysis(TextFile dataSource) {
+        // does nothing
+    }
+
+    @Override
+    public void renderFileReport(Report report) throws IOException {
+        reportWriter.writeReport(report, showSuppressedViolations);
+    }
+
+    @Override
+    public void end() throws IOException {
+        if (reportWriter != null) {
+            // writes the end of the report, and closes the stream
+            reportWriter.close();
+            reportWriter = null;
+            outputStream = null;
+        }
+    }
+}
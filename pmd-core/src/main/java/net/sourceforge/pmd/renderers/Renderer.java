@@ -189,6 +189,12 @@ public interface Renderer extends PropertySource {
     /**
      * Returns a new analysis listener, that handles violations by rendering
      * them in an implementation-defined way.
+     *
+     * <p>The default implementation collects the violations of each file,
+     * and renders the report of each file with {@link #renderFileReport(Report)}
+     * on a dedicated thread, so that the analysis threads don't wait for the
+     * writer. {@link #end()} is called on the thread that closes the listener,
+     * after all reports have been rendered.
      */
     // TODO the default implementation matches the current behavior,
     //  ie violations are batched by file and forwarded to the renderer
@@ -201,8 +207,7 @@ public interface Renderer extends PropertySource {
 
         return new GlobalAnalysisListener() {
 
-            // guard for the close routine
-            final Object reportMergeLock = new Object();
+            final ReportRenderingThread renderingThread = new ReportRenderingThread(Renderer.this);
 
             final GlobalReportBuilderListener configErrorReport = new GlobalReportBuilderListener();
 
@@ -247,12 +252,7 @@ public interface Renderer extends PropertySource {
                     @Override
                     public void close() throws Exception {
                         reportBuilder.close();
-                        synchronized (reportMergeLock) {
-                            // TODO renderFileReport should be thread-safe instead
-                            try (TimedOperation ignored = TimeTracker.startOperation(TimedOperationCategory.REPORTING)) {
-                                renderer.renderFileReport(reportBuilder.getResult());
-                            }
-                        }
+                        renderingThread.submit(reportBuilder.getResult());
                     }
 
                     @Override
@@ -264,11 +264,15 @@ public interface Renderer extends PropertySource {
 
             @Override
             public void close() throws Exception {
-                configErrorReport.close();
-                Renderer.this.renderFileReport(configErrorReport.getResult());
-                try (TimedOperation ignored = TimeTracker.startOperation(TimedOperationCategory.REPORTING)) {
-                    end();
-                    flush();
+                try {
+                    configErrorReport.close();
+                    renderingThread.submit(configErrorReport.getResult());
+                    renderingThread.finish();
+                } finally {
+                    try (TimedOperation ignored = TimeTracker.startOperation(TimedOperationCategory.REPORTING)) {
+                        end();
+                        flush();
+                    }
                 }
             }
         };
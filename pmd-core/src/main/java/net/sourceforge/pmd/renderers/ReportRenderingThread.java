@@ -0,0 +1,128 @@
+/*
+ * BSD-style license; for more info see http://pmd.sourceforge.net/license.html
+ */
+
+package net.sourceforge.pmd.renderers;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+import net.sourceforge.pmd.benchmark.TimeTracker;
+import net.sourceforge.pmd.benchmark.TimedOperation;
+import net.sourceforge.pmd.benchmark.TimedOperationCategory;
+import net.sourceforge.pmd.reporting.Report;
+
+/**
+ * Renders the file reports of a {@link Renderer} on a dedicated thread,
+ * used by {@link Renderer#newListener()}. The threads that analyse files
+ * hand their reports over through a bounded queue, so they neither wait
+ * for each other nor for the writer, unless the renderer falls far behind
+ * and the queue is full. Reports are rendered in batches, and the writer
+ * is flushed after each batch instead of after each file.
+ *
+ * <p>All calls to {@link Renderer#renderFileReport(Report)} happen on the
+ * rendering thread, one at a time, in the order the reports were submitted.
+ */
+final class ReportRenderingThread {
+
+    private static final int QUEUE_CAPACITY = 256;
+    private static final Object END = new Object();
+
+    private final Renderer renderer;
+    private final BlockingQueue<Object> queue = new ArrayBlockingQueue<>(QUEUE_CAPACITY);
+    private final Thread thread;
+    private volatile Throwable failure;
+
+    ReportRenderingThread(Renderer renderer) {
+        this.renderer = renderer;
+        this.thread = new Thread(this::run, "PMD-Renderer-" + renderer.getName());
+        this.thread.setDaemon(true);
+        this.thread.start();
+    }
+
+    /**
+     * Queues the report for rendering. Blocks only if the queue is full.
+     */
+    void submit(Report report) throws IOException {
+        try {
+            queue.put(report);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while queueing a report for " + renderer.getName());
+        }
+    }
+
+    /**
+     * Waits until all submitted reports have been rendered, then stops
+     * the rendering thread. Rethrows the first exception thrown by the
+     * renderer, if any.
+     */
+    void finish() throws Exception {
+        try {
+            queue.put(END);
+            thread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while rendering reports for " + renderer.getName());
+        }
+        if (failure instanceof Error) {
+            throw (Error) failure;
+        } else if (failure != null) {
+            throw (Exception) failure;
+        }
+    }
+
+    private void run() {
+        List<Object> batch = new ArrayList<>();
+        boolean done = false;
+        while (!done) {
+            try {
+                batch.add(queue.take());
+            } catch (InterruptedException e) {
+                // nobody interrupts this thread but finish() waits for it, keep going
+                continue;
+            }
+            queue.drainTo(batch);
+
+            try (TimedOperation ignored = TimeTracker.startOperation(TimedOperationCategory.REPORTING)) {
+                for (Object item : batch) {
+                    if (item == END) { // NOPMD CompareObjectsWithEquals
+                        done = true;
+                    } else if (failure == null) {
+                        // after a failure the reports are only drained, so that workers don't block
+                        render((Report) item);
+                    }
+                }
+                if (failure == null) {
+                    flushWriter();
+                }
+            }
+            batch.clear();
+        }
+    }
+
+    private void render(Report report) {
+        try {
+            renderer.renderFileReport(report);
+        } catch (Throwable e) { // NOPMD AvoidCatchingThrowable
+            // if this thread died, the workers would block on the full queue
+            failure = e;
+        }
+    }
+
+    private void flushWriter() {
+        Writer writer = renderer.getWriter();
+        if (writer != null) {
+            try {
+                writer.flush();
+            } catch (IOException e) {
+                failure = e;
+            }
+        }
+    }
+}
@@ -0,0 +1,71 @@
+/*
+ * BSD-style license; for more info see http://pmd.sourceforge.net/license.html
+ */
+
+package net.sourceforge.pmd.renderers.internal.binary;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+/**
+ * Constants and primitive encodings shared by {@link BinaryReportWriter}
+ * and {@link BinaryReportReader}.
+ *
+ * <p>A binary report starts with the {@link #MAGIC} bytes, the {@link #VERSION}
+ * of the format and a byte of {@linkplain #FLAG_COMPRESSED flags}. If the
+ * report is compressed, the rest of the stream is gzipped. It is then a
+ * sequence of records, each starting with a tag byte:
+ * <ul>
+ * <li>{@link #TAG_FILE_REPORT}: the violations, suppressed violations,
+ * processing errors and configuration errors of one file report;
+ * <li>{@link #TAG_END}: the end of the report.
+ * </ul>
+ *
+ * <p>Strings, file ids and rules are interned: the first occurrence is
+ * written inline and the following ones only refer to it by index. All
+ * integers are written as unsigned varints, so small numbers like line
+ * numbers or indices usually take a single byte.
+ */
+final class BinaryReportFormat {
+
+    static final byte[] MAGIC = { 'P', 'M', 'D', 'R' };
+    static final int VERSION = 1;
+
+    static final int FLAG_COMPRESSED = 1;
+
+    static final int TAG_END = 0;
+    static final int TAG_FILE_REPORT = 1;
+
+    /** Reference to null, for strings. */
+    static final int REF_NULL = 0;
+    /** Reference to a new entry, whose definition follows inline. */
+    static final int REF_NEW = 1;
+    /** First index of a reference to an entry defined before. */
+    static final int REF_FIRST = 2;
+
+    private BinaryReportFormat() {
+        // utility class
+    }
+
+    static void writeVarInt(DataOutput out, int value) throws IOException {
+        int v = value;
+        while ((v & ~0x7F) != 0) {
+            out.writeByte((v & 0x7F) | 0x80);
+            v >>>= 7;
+        }
+        out.writeByte(v);
+    }
+
+    static int readVarInt(DataInput in) throws IOException {
+        int result = 0;
+        for (int shift = 0; shift < 35; shift += 7) {
+            int b = in.readUnsignedByte();
+            result |= (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return result;
+            }
+        }
+        throw new IOException("Malformed varint in binary report");
+    }
+}
@@ -0,0 +1,366 @@
+/*
+ * BSD-style license; for more info see http://pmd.sourceforge.net/license.html
+ */
+
+package net.sourceforge.pmd.renderers.internal.binary;
+
+import static net.sourceforge.pmd.renderers.internal.binary.BinaryReportFormat.readVarInt;
+
+import java.io.BufferedInputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.GZIPInputStream;
+
+import org.checkerframework.checker.nullness.qual.NonNull;
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+import net.sourceforge.pmd.lang.Language;
+import net.sourceforge.pmd.lang.LanguageRegistry;
+import net.sourceforge.pmd.lang.ast.Node;
+import net.sourceforge.pmd.lang.document.FileId;
+import net.sourceforge.pmd.lang.document.FileLocation;
+import net.sourceforge.pmd.lang.document.TextRange2d;
+import net.sourceforge.pmd.lang.rule.AbstractRule;
+import net.sourceforge.pmd.lang.rule.Rule;
+import net.sourceforge.pmd.lang.rule.RulePriority;
+import net.sourceforge.pmd.renderers.Renderer;
+import net.sourceforge.pmd.reporting.InternalApiBridge;
+import net.sourceforge.pmd.reporting.Report;
+import net.sourceforge.pmd.reporting.Report.ConfigurationError;
+import net.sourceforge.pmd.reporting.Report.GlobalReportBuilderListener;
+import net.sourceforge.pmd.reporting.Report.ProcessingError;
+import net.sourceforge.pmd.reporting.Report.SuppressedViolation;
+import net.sourceforge.pmd.reporting.RuleContext;
+import net.sourceforge.pmd.reporting.RuleViolation;
+import net.sourceforge.pmd.reporting.ViolationSuppressor;
+
+/**
+ * Reads a report written by {@link BinaryReportWriter}, and replays
+ * it into a {@link Renderer}. This allows rendering an archived report
+ * in any format without running the analysis again.
+ *
+ * <p>The rules of the violations are not the original rules, but rules
+ * that only carry the metadata that renderers use: name, ruleset, language,
+ * priority, description, examples and so on. They have no properties.
+ */
+public final class BinaryReportReader implements Closeable {
+
+    private final DataInputStream in;
+
+    private final List<String> strings = new ArrayList<>();
+    private final List<FileId> files = new ArrayList<>();
+    private final List<Rule> rules = new ArrayList<>();
+    private final Map<String, ViolationSuppressor> suppressors = new HashMap<>();
+
+    /**
+     * Opens a binary report, reading its header from the given stream.
+     *
+     * @param in Stream to read from, closed when this reader is closed
+     *
+     * @throws IOException If the stream is not a binary report, or this
+     *                     version of the format is not supported
+     */
+    public BinaryReportReader(InputStream in) throws IOException {
+        byte[] magic = new byte[BinaryReportFormat.MAGIC.length];
+        int read = 0;
+        while (read < magic.length) {
+            int n = in.read(magic, read, magic.length - read);
+            if (n < 0) {
+                break;
+            }
+            read += n;
+        }
+        if (read < magic.length || !Arrays.equals(magic, BinaryReportFormat.MAGIC)) {
+            throw new IOException("Not a binary PMD report");
+        }
+        int version = in.read();
+        if (version != BinaryReportFormat.VERSION) {
+            throw new IOException("Unsupported version of the binary report format: " + version);
+        }
+        int flags = in.read();
+        if (flags < 0) {
+            throw new IOException("Truncated binary report");
+        }
+        InputStream records = (flags & BinaryReportFormat.FLAG_COMPRESSED) != 0 ? new GZIPInputStream(in) : in;
+        this.in = new DataInputStream(new BufferedInputStream(records));
+    }
+
+    /**
+     * Renders the whole report with the given renderer, in the same order
+     * as the reports were written. The renderer is started, is given the
+     * file reports, then is ended and flushed, as it would be during an
+     * analysis.
+     */
+    public void renderTo(Renderer renderer) throws IOException {
+        renderer.start();
+        try {
+            Report report = readReport();
+            while (report != null) {
+                renderer.renderFileReport(report);
+                report = readReport();
+            }
+            renderer.end();
+        } finally {
+            renderer.flush();
+        }
+    }
+
+    /**
+     * Reads the next file report, or returns null if the end of the
+     * report has been reached.
+     */
+    public @Nullable Report readReport() throws IOException {
+        int tag = in.readUnsignedByte();
+        if (tag == BinaryReportFormat.TAG_END) {
+            return null;
+        } else if (tag != BinaryReportFormat.TAG_FILE_REPORT) {
+            throw new IOException("Malformed binary report, unknown record " + tag);
+        }
+
+        List<RuleViolation> violations = readViolations();
+
+        int numSuppressed = readVarInt(in);
+        List<SuppressedViolation> suppressed = new ArrayList<>(numSuppressed);
+        for (int i = 0; i < numSuppressed; i++) {
+            RuleViolation violation = readViolation();
+            ViolationSuppressor suppressor = suppressors.computeIfAbsent(readString(), ArchivedSuppressor::new);
+            suppressed.add(new SuppressedViolation(violation, suppressor, readString()));
+        }
+
+        int numErrors = readVarInt(in);
+        List<ProcessingError> errors = new ArrayList<>(numErrors);
+        for (int i = 0; i < numErrors; i++) {
+            FileId file = readFile();
+            errors.add(new ArchivedProcessingError(file, readString(), readString()));
+        }
+
+        int numConfigErrors = readVarInt(in);
+        List<ConfigurationError> configErrors = new ArrayList<>(numConfigErrors);
+        for (int i = 0; i < numConfigErrors; i++) {
+            Rule rule = readRule();
+            configErrors.add(new ConfigurationError(rule, readString()));
+        }
+
+        Report report = Report.buildReport(listener -> {
+            violations.forEach(listener::onRuleViolation);
+            suppressed.forEach(listener::onSuppressedRuleViolation);
+            errors.forEach(listener::onError);
+        });
+        if (!configErrors.isEmpty()) {
+            GlobalReportBuilderListener configErrorReport = new GlobalReportBuilderListener();
+            configErrors.forEach(configErrorReport::onConfigError);
+            configErrorReport.close();
+            report = report.union(configErrorReport.getResult());
+        }
+        return report;
+    }
+
+    private List<RuleViolation> readViolations() throws IOException {
+        int size = readVarInt(in);
+        List<RuleViolation> violations = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            violations.add(readViolation());
+        }
+        return violations;
+    }
+
+    private RuleViolation readViolation() throws IOException {
+        Rule rule = readRule();
+        FileId file = readFile();
+        int startLine = readVarInt(in);
+        int startColumn = readVarInt(in);
+        int endLine = startLine + readVarInt(in);
+        int endColumn = readVarInt(in);
+        String message = readString();
+
+        int numInfo = readVarInt(in);
+        Map<String, String> additionalInfo = numInfo == 0 ? Collections.emptyMap() : new HashMap<>();
+        for (int i = 0; i < numInfo; i++) {
+            additionalInfo.put(readString(), readString());
+        }
+
+        FileLocation location = FileLocation.range(file, TextRange2d.range2d(startLine, startColumn, endLine, endColumn));
+        return InternalApiBridge.createRuleViolation(rule, location, message, additionalInfo);
+    }
+
+    private Rule readRule() throws IOException {
+        int ref = readVarInt(in);
+        if (ref != 0) {
+            return rules.get(ref - 1);
+        }
+        ArchivedRule rule = new ArchivedRule();
+        rule.setName(readString());
+        rule.setRuleSetName(readString());
+        Language language = LanguageRegistry.PMD.getLanguageById(readString());
+        if (language != null) {
+            rule.setLanguage(language);
+        }
+        rule.setRuleClass(readString());
+        rule.setSince(readString());
+        rule.setMessage(readString());
+        rule.setDescription(readString());
+        rule.setExternalInfoUrl(readString());
+        rule.setPriority(RulePriority.valueOf(readVarInt(in)));
+        int numExamples = readVarInt(in);
+        for (int i = 0; i < numExamples; i++) {
+            rule.addExample(readString());
+        }
+        rules.add(rule);
+        return rule;
+    }
+
+    private FileId readFile() throws IOException {
+        int ref = readVarInt(in);
+        if (ref != 0) {
+            return files.get(ref - 1);
+        }
+        FileId file = new ArchivedFileId(readString(), readString(), readString(), readString());
+        files.add(file);
+        return file;
+    }
+
+    private String readString() throws IOException {
+        int ref = readVarInt(in);
+        if (ref == BinaryReportFormat.REF_NULL) {
+            return null;
+        } else if (ref != BinaryReportFormat.REF_NEW) {
+            return strings.get(ref - BinaryReportFormat.REF_FIRST);
+        }
+        byte[] bytes = new byte[readVarInt(in)];
+        in.readFully(bytes);
+        String value = new String(bytes, StandardCharsets.UTF_8);
+        strings.add(value);
+        return value;
+    }
+
+    @Override
+    public void close() throws IOException {
+        in.close();
+    }
+
+    /**
+     * Stands for a rule of the analysis that produced the report.
+     */
+    private static final class ArchivedRule extends AbstractRule {
+
+        @Override
+        public void apply(Node target, RuleContext ctx) {
+            throw new UnsupportedOperationException("Rule " + getName() + " was read from a report and cannot be applied");
+        }
+    }
+
+    /**
+     * Stands for a file of the analysis that produced the report. The
+     * original path is the name the file was displayed with when the
+     * report was written, which is relative if relativize roots were used.
+     */
+    private static final class ArchivedFileId implements FileId {
+
+        private final String uri;
+        private final String originalPath;
+        private final String absolutePath;
+        private final String fileName;
+
+        ArchivedFileId(String uri, String originalPath, String absolutePath, String fileName) {
+            this.uri = uri;
+            this.originalPath = originalPath;
+            this.absolutePath = absolutePath;
+            this.fileName = fileName;
+        }
+
+        @Override
+        public String getFileName() {
+            return fileName;
+        }
+
+        @Override
+        public String getOriginalPath() {
+            return originalPath;
+        }
+
+        @Override
+        public String getAbsolutePath() {
+            return absolutePath;
+        }
+
+        @Override
+        public String getUriString() {
+            return uri;
+        }
+
+        @Override
+        public @Nullable FileId getParentFsPath() {
+            return null;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            return obj instanceof FileId
+                && ((FileId) obj).getUriString().equals(this.getUriString());
+        }
+
+        @Override
+        public int hashCode() {
+            return getUriString().hashCode();
+        }
+
+        @Override
+        public String toString() {
+            return "FileId(archived=" + uri + ")";
+        }
+    }
+
+    /**
+     * A processing error whose message and stack trace were recorded
+     * as text. The throwable is not available anymore.
+     */
+    private static final class ArchivedProcessingError extends ProcessingError {
+
+        private final String msg;
+        private final String detail;
+
+        ArchivedProcessingError(FileId file, String msg, String detail) {
+            super(new RuntimeException(msg), file);
+            this.msg = msg;
+            this.detail = detail;
+        }
+
+        @Override
+        public String getMsg() {
+            return msg;
+        }
+
+        @Override
+        public String getDetail() {
+            return detail;
+        }
+    }
+
+    private static final class ArchivedSuppressor implements ViolationSuppressor {
+
+        private final String id;
+
+        ArchivedSuppressor(String id) {
+            this.id = id;
+        }
+
+        @Override
+        public String getId() {
+            return id;
+        }
+
+        @Override
+        public @Nullable SuppressedViolation suppressOrNull(RuleViolation rv, @NonNull Node node) {
+            return null;
+        }
+    }
+}
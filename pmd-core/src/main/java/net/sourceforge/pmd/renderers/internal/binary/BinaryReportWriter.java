@@ -0,0 +1,201 @@
+/*
+ * BSD-style license; for more info see http://pmd.sourceforge.net/license.html
+ */
+
+package net.sourceforge.pmd.renderers.internal.binary;
+
+import static net.sourceforge.pmd.renderers.internal.binary.BinaryReportFormat.writeVarInt;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.function.Function;
+import java.util.zip.GZIPOutputStream;
+
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+import net.sourceforge.pmd.lang.document.FileId;
+import net.sourceforge.pmd.lang.document.FileLocation;
+import net.sourceforge.pmd.lang.rule.Rule;
+import net.sourceforge.pmd.reporting.Report;
+import net.sourceforge.pmd.reporting.Report.ConfigurationError;
+import net.sourceforge.pmd.reporting.Report.ProcessingError;
+import net.sourceforge.pmd.reporting.Report.SuppressedViolation;
+import net.sourceforge.pmd.reporting.RuleViolation;
+
+/**
+ * Writes reports in the binary format described in {@link BinaryReportFormat}.
+ * Reports are written as they are {@linkplain #writeReport(Report, boolean) added},
+ * only the tables of interned strings, files and rules are kept in memory.
+ * The report can be read back with {@link BinaryReportReader}.
+ */
+public final class BinaryReportWriter implements Closeable {
+
+    private final DataOutputStream out;
+    private final Function<? super FileId, String> displayName;
+
+    private final Map<String, Integer> strings = new HashMap<>();
+    private final Map<String, Integer> files = new HashMap<>();
+    private final Map<List<Object>, Integer> rules = new HashMap<>();
+
+    /**
+     * Starts a new binary report, writing its header to the given stream.
+     *
+     * @param out         Stream to write to, closed when this writer is closed
+     * @param compress    Whether to gzip the records of the report
+     * @param displayName Computes the name of a file as the report should display it,
+     *                    see {@link net.sourceforge.pmd.reporting.FileNameRenderer}
+     */
+    public BinaryReportWriter(OutputStream out, boolean compress, Function<? super FileId, String> displayName) throws IOException {
+        this.displayName = displayName;
+        out.write(BinaryReportFormat.MAGIC);
+        out.write(BinaryReportFormat.VERSION);
+        out.write(compress ? BinaryReportFormat.FLAG_COMPRESSED : 0);
+        OutputStream records = compress ? new GZIPOutputStream(out) : out;
+        this.out = new DataOutputStream(new BufferedOutputStream(records));
+    }
+
+    /**
+     * Writes the content of a file report.
+     *
+     * @param report             A file report
+     * @param includeSuppressed  Whether to write the suppressed violations of the report
+     */
+    public void writeReport(Report report, boolean includeSuppressed) throws IOException {
+        out.writeByte(BinaryReportFormat.TAG_FILE_REPORT);
+
+        List<RuleViolation> violations = report.getViolations();
+        writeVarInt(out, violations.size());
+        for (RuleViolation violation : violations) {
+            writeViolation(violation);
+        }
+
+        List<SuppressedViolation> suppressed = includeSuppressed ? report.getSuppressedViolations()
+                                                                 : Collections.emptyList();
+        writeVarInt(out, suppressed.size());
+        for (SuppressedViolation sv : suppressed) {
+            writeViolation(sv.getRuleViolation());
+            writeString(sv.getSuppressor().getId());
+            writeString(sv.getUserMessage());
+        }
+
+        List<ProcessingError> errors = report.getProcessingErrors();
+        writeVarInt(out, errors.size());
+        for (ProcessingError error : errors) {
+            writeFile(error.getFileId());
+            writeString(error.getMsg());
+            writeString(error.getDetail());
+        }
+
+        List<ConfigurationError> configErrors = report.getConfigurationErrors();
+        writeVarInt(out, configErrors.size());
+        for (ConfigurationError error : configErrors) {
+            writeRule(error.rule());
+            writeString(error.issue());
+        }
+    }
+
+    private void writeViolation(RuleViolation violation) throws IOException {
+        FileLocation location = violation.getLocation();
+        writeRule(violation.getRule());
+        writeFile(location.getFileId());
+        writeVarInt(out, location.getStartLine());
+        writeVarInt(out, location.getStartColumn());
+        // the end line is usually the start line, or close to it
+        writeVarInt(out, location.getEndLine() - location.getStartLine());
+        writeVarInt(out, location.getEndColumn());
+        writeString(violation.getDescription());
+
+        Map<String, String> additionalInfo = violation.getAdditionalInfo();
+        writeVarInt(out, additionalInfo.size());
+        for (Entry<String, String> entry : additionalInfo.entrySet()) {
+            writeString(entry.getKey());
+            writeString(entry.getValue());
+        }
+    }
+
+    private void writeRule(Rule rule) throws IOException {
+        // rules are copied for each analysis thread, so identity is not enough
+        List<Object> key = Arrays.asList(rule.getRuleSetName(), rule.getName(), rule.getRuleClass(),
+                                         rule.getPriority(), rule.getLanguage());
+        Integer index = rules.get(key);
+        if (index != null) {
+            writeVarInt(out, index + 1);
+            return;
+        }
+        rules.put(key, rules.size());
+        writeVarInt(out, 0);
+        writeString(rule.getName());
+        writeString(rule.getRuleSetName());
+        writeString(rule.getLanguage() == null ? null : rule.getLanguage().getId());
+        writeString(rule.getRuleClass());
+        writeString(rule.getSince());
+        writeString(rule.getMessage());
+        writeString(rule.getDescription());
+        writeString(rule.getExternalInfoUrl());
+        writeVarInt(out, rule.getPriority().getPriority());
+        writeStrings(rule.getExamples());
+    }
+
+    private void writeFile(FileId fileId) throws IOException {
+        String uri = fileId.getUriString();
+        Integer index = files.get(uri);
+        if (index != null) {
+            writeVarInt(out, index + 1);
+            return;
+        }
+        files.put(uri, files.size());
+        writeVarInt(out, 0);
+        writeString(uri);
+        writeString(displayName.apply(fileId));
+        writeString(fileId.getAbsolutePath());
+        writeString(fileId.getFileName());
+    }
+
+    private void writeStrings(Collection<String> values) throws IOException {
+        writeVarInt(out, values.size());
+        for (String value : values) {
+            writeString(value);
+        }
+    }
+
+    private void writeString(@Nullable String value) throws IOException {
+        if (value == null) {
+            writeVarInt(out, BinaryReportFormat.REF_NULL);
+            return;
+        }
+        Integer index = strings.get(value);
+        if (index != null) {
+            writeVarInt(out, BinaryReportFormat.REF_FIRST + index);
+            return;
+        }
+        strings.put(value, strings.size());
+        // not writeUTF, which is limited to 64K, stack traces can be longer
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        writeVarInt(out, BinaryReportFormat.REF_NEW);
+        writeVarInt(out, bytes.length);
+        out.write(bytes);
+    }
+
+    /**
+     * Writes the end of the report and closes the underlying stream.
+     */
+    @Override
+    public void close() throws IOException {
+        try {
+            out.writeByte(BinaryReportFormat.TAG_END);
+        } finally {
+            out.close();
+        }
+    }
+}
@@ -7,8 +7,10 @@ package net.sourceforge.pmd.renderers.internal.sarif;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 
 import net.sourceforge.pmd.PMDVersion;
 import net.sourceforge.pmd.renderers.internal.sarif.SarifLog.ArtifactLocation;
@@ -33,6 +35,7 @@ import net.sourceforge.pmd.reporting.RuleViolation;
 
 public class SarifLogBuilder {
     private final List<ReportingDescriptor> rules = new ArrayList<>();
+    private final Map<ReportingDescriptor, Integer> ruleIndices = new HashMap<>();
     private final List<Result> results = new ArrayList<>();
     private final List<ToolConfigurationNotification> toolConfigurationNotifications = new ArrayList<>();
     private final List<ToolExecutionNotification> toolExecutionNotifications = new ArrayList<>();
@@ -43,11 +46,7 @@ public class SarifLogBuilder {
 
     public SarifLogBuilder add(RuleViolation violation) {
         final ReportingDescriptor ruleDescriptor = getReportingDescriptor(violation);
-        int ruleIndex = rules.indexOf(ruleDescriptor);
-        if (ruleIndex == -1) {
-            rules.add(ruleDescriptor);
-            ruleIndex = rules.size() - 1;
-        }
+        final int ruleIndex = indexOfRule(rules, ruleIndices, ruleDescriptor);
 
         final Location location = getRuleViolationLocation(violation);
         final Result result = resultFrom(ruleDescriptor, ruleIndex, location);
@@ -57,6 +56,27 @@ public class SarifLogBuilder {
     }
 
     public SarifLogBuilder addRunTimeError(Report.ProcessingError error) {
+        toolExecutionNotifications.add(toolExecutionNotification(error));
+        return this;
+    }
+
+    public SarifLogBuilder addConfigurationError(Report.ConfigurationError error) {
+        toolConfigurationNotifications.add(toolConfigurationNotification(error));
+        return this;
+    }
+
+    /**
+     * Returns the index of the rule in the list of rules, adding it if it is
+     * not there yet. The map of indices avoids a linear search of the list.
+     */
+    static int indexOfRule(List<ReportingDescriptor> rules, Map<ReportingDescriptor, Integer> ruleIndices, ReportingDescriptor ruleDescriptor) {
+        return ruleIndices.computeIfAbsent(ruleDescriptor, r -> {
+            rules.add(r);
+            return rules.size() - 1;
+        });
+    }
+
+    static ToolExecutionNotification toolExecutionNotification(Report.ProcessingError error) {
         ArtifactLocation artifactLocation = ArtifactLocation.builder()
                 .uri(error.getFileId().getUriString())
                 .build();
@@ -78,46 +98,31 @@ public class SarifLogBuilder {
                 .message(error.getDetail())
                 .build();
 
-        ToolExecutionNotification toolExecutionNotification = ToolExecutionNotification.builder()
+        return ToolExecutionNotification.builder()
                 .locations(Collections.singletonList(location))
                 .message(message)
                 .exception(exception)
                 .build();
-
-        toolExecutionNotifications.add(toolExecutionNotification);
-
-        return this;
     }
 
-    public SarifLogBuilder addConfigurationError(Report.ConfigurationError error) {
+    static ToolConfigurationNotification toolConfigurationNotification(Report.ConfigurationError error) {
         AssociatedRule associatedRule = AssociatedRule.builder()
                 .id(error.rule().getName())
                 .build();
 
         Message message = Message.builder().text(error.issue()).build();
 
-        ToolConfigurationNotification toolConfigurationNotification = ToolConfigurationNotification.builder()
+        return ToolConfigurationNotification.builder()
                 .associatedRule(associatedRule)
                 .message(message)
                 .build();
-
-        toolConfigurationNotifications.add(toolConfigurationNotification);
-
-        return this;
     }
 
     public SarifLog build() {
-        final Component driver = getDriverComponent().toBuilder().rules(rules).build();
-        final Tool tool = Tool.builder().driver(driver).build();
-        final Invocation invocation = Invocation.builder()
-                .toolExecutionNotifications(toolExecutionNotifications)
-                .toolConfigurationNotifications(toolConfigurationNotifications)
-                .executionSuccessful(isExecutionSuccessful())
-                .build();
         final Run run = Run.builder()
-                .tool(tool)
+                .tool(tool(rules))
                 .results(results)
-                .invocations(Collections.singletonList(invocation))
+                .invocations(invocations(toolExecutionNotifications, toolConfigurationNotifications))
                 .build();
 
         List<Run> runs = Collections.singletonList(run);
@@ -125,11 +130,22 @@ public class SarifLogBuilder {
         return SarifLog.builder().runs(runs).build();
     }
 
-    private boolean isExecutionSuccessful() {
-        return toolExecutionNotifications.isEmpty() && toolConfigurationNotifications.isEmpty();
+    static Tool tool(List<ReportingDescriptor> rules) {
+        final Component driver = getDriverComponent().toBuilder().rules(rules).build();
+        return Tool.builder().driver(driver).build();
+    }
+
+    static List<Invocation> invocations(List<ToolExecutionNotification> toolExecutionNotifications,
+                                        List<ToolConfigurationNotification> toolConfigurationNotifications) {
+        final Invocation invocation = Invocation.builder()
+                .toolExecutionNotifications(toolExecutionNotifications)
+                .toolConfigurationNotifications(toolConfigurationNotifications)
+                .executionSuccessful(toolExecutionNotifications.isEmpty() && toolConfigurationNotifications.isEmpty())
+                .build();
+        return Collections.singletonList(invocation);
     }
 
-    private Result resultFrom(ReportingDescriptor rule, Integer ruleIndex, Location location) {
+    static Result resultFrom(ReportingDescriptor rule, Integer ruleIndex, Location location) {
         final Result result = Result.builder()
                 .ruleId(rule.getId())
                 .ruleIndex(ruleIndex)
@@ -145,7 +161,7 @@ public class SarifLogBuilder {
         return result;
     }
 
-    private Location getRuleViolationLocation(RuleViolation rv) {
+    static Location getRuleViolationLocation(RuleViolation rv) {
         ArtifactLocation artifactLocation = ArtifactLocation.builder()
                 .uri(rv.getFileId().getUriString())
                 .build();
@@ -167,7 +183,7 @@ public class SarifLogBuilder {
             .build();
     }
 
-    private ReportingDescriptor getReportingDescriptor(RuleViolation rv) {
+    static ReportingDescriptor getReportingDescriptor(RuleViolation rv) {
         return ReportingDescriptor.builder()
             .id(rv.getRule().getName())
             .shortDescription(new MultiformatMessage(rv.getDescription()))
@@ -178,7 +194,7 @@ public class SarifLogBuilder {
             .build();
     }
 
-    private PropertyBag getRuleProperties(RuleViolation rv) {
+    private static PropertyBag getRuleProperties(RuleViolation rv) {
         return PropertyBag.builder()
                 .ruleset(rv.getRule().getRuleSetName())
                 .priority(rv.getRule().getPriority().getPriority())
@@ -186,7 +202,7 @@ public class SarifLogBuilder {
                 .build();
     }
 
-    private Component getDriverComponent() {
+    private static Component getDriverComponent() {
         return Component.builder()
                 .name("PMD")
                 .version(PMDVersion.VERSION)
@@ -0,0 +1,107 @@
+/*
+ * BSD-style license; for more info see http://pmd.sourceforge.net/license.html
+ */
+
+package net.sourceforge.pmd.renderers.internal.sarif;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import net.sourceforge.pmd.renderers.internal.sarif.SarifLog.Invocation;
+import net.sourceforge.pmd.renderers.internal.sarif.SarifLog.Location;
+import net.sourceforge.pmd.renderers.internal.sarif.SarifLog.ReportingDescriptor;
+import net.sourceforge.pmd.renderers.internal.sarif.SarifLog.Result;
+import net.sourceforge.pmd.renderers.internal.sarif.SarifLog.Tool;
+import net.sourceforge.pmd.renderers.internal.sarif.SarifLog.ToolConfigurationNotification;
+import net.sourceforge.pmd.renderers.internal.sarif.SarifLog.ToolExecutionNotification;
+import net.sourceforge.pmd.reporting.Report;
+import net.sourceforge.pmd.reporting.RuleViolation;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.reflect.TypeToken;
+import com.google.gson.stream.JsonWriter;
+
+/**
+ * Writes a SARIF log with a single run incrementally. Contrary to
+ * {@link SarifLogBuilder}, results are written as soon as they are
+ * {@linkplain #add(RuleViolation) added}, so the memory used does not
+ * grow with the number of violations. Only the rules and the
+ * notifications are kept until the end, as the rules are written
+ * after the results, when the log is {@linkplain #finish() finished}.
+ */
+public class SarifLogWriter {
+
+    private static final Type INVOCATIONS_TYPE = new TypeToken<List<Invocation>>() { }.getType();
+
+    private final Gson gson = new GsonBuilder()
+            .disableHtmlEscaping()
+            .setPrettyPrinting()
+            .create();
+    private final JsonWriter out;
+
+    private final List<ReportingDescriptor> rules = new ArrayList<>();
+    private final Map<ReportingDescriptor, Integer> ruleIndices = new HashMap<>();
+    private final List<ToolConfigurationNotification> toolConfigurationNotifications = new ArrayList<>();
+    private final List<ToolExecutionNotification> toolExecutionNotifications = new ArrayList<>();
+
+    /**
+     * Starts a new log, writing its header to the given writer.
+     */
+    public SarifLogWriter(Writer writer) throws IOException {
+        this.out = gson.newJsonWriter(writer);
+        SarifLog header = SarifLog.builder().build();
+        out.beginObject();
+        out.name("$schema").value(header.getSchema());
+        out.name("version").value(header.getVersion());
+        out.name("runs").beginArray();
+        out.beginObject();
+        out.name("results").beginArray();
+    }
+
+    /**
+     * Writes the result for the given violation.
+     */
+    public SarifLogWriter add(RuleViolation violation) throws IOException {
+        final ReportingDescriptor ruleDescriptor = SarifLogBuilder.getReportingDescriptor(violation);
+        final int ruleIndex = SarifLogBuilder.indexOfRule(rules, ruleIndices, ruleDescriptor);
+
+        final Location location = SarifLogBuilder.getRuleViolationLocation(violation);
+        gson.toJson(SarifLogBuilder.resultFrom(ruleDescriptor, ruleIndex, location), Result.class, out);
+        return this;
+    }
+
+    public SarifLogWriter addRunTimeError(Report.ProcessingError error) {
+        toolExecutionNotifications.add(SarifLogBuilder.toolExecutionNotification(error));
+        return this;
+    }
+
+    public SarifLogWriter addConfigurationError(Report.ConfigurationError error) {
+        toolConfigurationNotifications.add(SarifLogBuilder.toolConfigurationNotification(error));
+        return this;
+    }
+
+    /**
+     * Writes the rules and invocation of the run, and closes the log.
+     * The underlying writer is flushed but not closed.
+     */
+    public void finish() throws IOException {
+        out.endArray(); // results
+
+        out.name("tool");
+        gson.toJson(SarifLogBuilder.tool(rules), Tool.class, out);
+        out.name("invocations");
+        gson.toJson(SarifLogBuilder.invocations(toolExecutionNotifications, toolConfigurationNotifications),
+                    INVOCATIONS_TYPE, out);
+
+        out.endObject();
+        out.endArray(); // runs
+        out.endObject();
+        out.flush();
+    }
+}
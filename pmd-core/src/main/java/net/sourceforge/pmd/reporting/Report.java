@@ -10,8 +10,15 @@ import java.io.IOException;
 import java.io.PrintWriter;
 import java.io.StringWriter;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
 import java.util.Collections;
+import java.util.Comparator;
+import java.util.Iterator;
 import java.util.List;
+import java.util.PriorityQueue;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.function.Consumer;
 import java.util.function.Predicate;
 
@@ -194,6 +201,73 @@ public final class Report {
         }
     }
 
+    /**
+     * Adds the content of the given reports to this report. Their
+     * violations are already sorted, so they are merged instead of
+     * being inserted one by one.
+     */
+    private void addAll(Collection<Report> reports) {
+        List<List<RuleViolation>> sortedRuns = new ArrayList<>(reports.size() + 1);
+        sortedRuns.add(new ArrayList<>(violations));
+        for (Report other : reports) {
+            sortedRuns.add(other.violations);
+            suppressedRuleViolations.addAll(other.suppressedRuleViolations);
+            errors.addAll(other.errors);
+            configErrors.addAll(other.configErrors);
+        }
+        List<RuleViolation> merged = mergeSorted(sortedRuns);
+        synchronized (violations) {
+            violations.clear();
+            violations.addAll(merged);
+        }
+    }
+
+    /**
+     * Merges lists that are each sorted with {@link RuleViolation#DEFAULT_COMPARATOR}
+     * into a new sorted list.
+     */
+    private static List<RuleViolation> mergeSorted(List<List<RuleViolation>> sortedRuns) {
+        int size = 0;
+        PriorityQueue<SortedRun> heap = new PriorityQueue<>(Math.max(1, sortedRuns.size()), SortedRun.COMPARATOR);
+        for (List<RuleViolation> run : sortedRuns) {
+            if (!run.isEmpty()) {
+                size += run.size();
+                heap.add(new SortedRun(run.iterator()));
+            }
+        }
+
+        List<RuleViolation> result = new ArrayList<>(size);
+        while (!heap.isEmpty()) {
+            SortedRun run = heap.poll();
+            result.add(run.head);
+            if (run.advance()) {
+                heap.add(run);
+            }
+        }
+        return result;
+    }
+
+    private static final class SortedRun {
+
+        static final Comparator<SortedRun> COMPARATOR = Comparator.comparing((SortedRun run) -> run.head, RuleViolation.DEFAULT_COMPARATOR);
+
+        private final Iterator<RuleViolation> iterator;
+        private RuleViolation head;
+
+        SortedRun(Iterator<RuleViolation> iterator) {
+            this.iterator = iterator;
+            advance();
+        }
+
+        boolean advance() {
+            if (iterator.hasNext()) {
+                head = iterator.next();
+                return true;
+            }
+            return false;
+        }
+    }
+
     /**
      * Adds a new suppressed violation.
      */
@@ -307,15 +381,21 @@ public final class Report {
     /**
      * A {@link GlobalAnalysisListener} that accumulates the events of
      * all files into a {@link Report}.
+     *
+     * <p>Each file is collected into its own report, so that the threads
+     * analysing files don't contend on a shared report. The file reports
+     * are merged into the global report when this listener is closed.
      */
     public static final class GlobalReportBuilderListener extends BaseResultProducingCloseable<Report> implements GlobalAnalysisListener {
 
         private final Report report = new Report();
+        private final Queue<Report> fileReports = new ConcurrentLinkedQueue<>();
 
         @Override
         public FileAnalysisListener startFileAnalysis(TextFile file) {
-            // note that the report is shared, but Report is now thread-safe
-            return new ReportBuilderListener(this.report);
+            Report fileReport = new Report();
+            fileReports.add(fileReport);
+            return new ReportBuilderListener(fileReport);
         }
 
         @Override
@@ -323,6 +403,12 @@ public final class Report {
             report.addConfigError(error);
         }
 
+        @Override
+        protected void closeImpl() {
+            report.addAll(fileReports);
+            fileReports.clear();
+        }
+
         @Override
         public Report getResultImpl() {
             return report;
@@ -360,22 +446,7 @@ public final class Report {
      */
     public Report union(Report other) {
         Report copy = new Report();
-
-        for (RuleViolation violation : violations) {
-            copy.addRuleViolation(violation);
-        }
-        for (RuleViolation violation : other.violations) {
-            copy.addRuleViolation(violation);
-        }
-
-        copy.suppressedRuleViolations.addAll(suppressedRuleViolations);
-        copy.suppressedRuleViolations.addAll(other.suppressedRuleViolations);
-
-        copy.errors.addAll(errors);
-        copy.errors.addAll(other.errors);
-        copy.configErrors.addAll(configErrors);
-        copy.configErrors.addAll(other.configErrors);
-
+        copy.addAll(Arrays.asList(this, other));
         return copy;
     }
 }
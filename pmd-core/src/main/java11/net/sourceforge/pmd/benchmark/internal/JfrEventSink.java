@@ -0,0 +1,254 @@
+/*
+ * BSD-style license; for more info see http://pmd.sourceforge.net/license.html
+ */
+
+package net.sourceforge.pmd.benchmark.internal;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.EventType;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+import net.sourceforge.pmd.lang.LanguageVersion;
+import net.sourceforge.pmd.lang.document.FileId;
+import net.sourceforge.pmd.lang.rule.Rule;
+
+/**
+ * Implementation of the events with the JFR API, available from Java 11.
+ * This class is only in the Java 11 part of the multi-release jar, it is
+ * loaded reflectively by {@link FlightRecorderEvents}.
+ *
+ * <p>Whether an event is enabled is checked on its {@link EventType} before
+ * creating it, so that disabled events don't allocate.
+ */
+final class JfrEventSink implements EventSink {
+
+    private static final String CATEGORY = "PMD";
+
+    private static final EventType FILE_PROCESSING = EventType.getEventType(FileProcessingEvent.class);
+    private static final EventType PARSE = EventType.getEventType(ParseEvent.class);
+    private static final EventType LANGUAGE_PASS = EventType.getEventType(LanguagePassEvent.class);
+    private static final EventType RULE_APPLICATION = EventType.getEventType(RuleApplicationEvent.class);
+    private static final EventType ANALYSIS_CACHE = EventType.getEventType(AnalysisCacheEvent.class);
+    private static final EventType CPD_PHASE = EventType.getEventType(CpdPhaseEvent.class);
+
+    /** The file processed by the current thread, for the events that don't know it. */
+    private static final ThreadLocal<FileContext> CURRENT_FILE = ThreadLocal.withInitial(FileContext::new);
+
+    JfrEventSink() {
+        // instantiated reflectively
+    }
+
+    @Override
+    public EventScope fileProcessing(FileId fileId, LanguageVersion languageVersion) {
+        if (!FILE_PROCESSING.isEnabled() && !LANGUAGE_PASS.isEnabled()) {
+            // the file is only needed by these events
+            return EventScope.NOOP;
+        }
+        FileContext context = CURRENT_FILE.get();
+        context.file = fileId.getAbsolutePath();
+        context.language = languageVersion.getTerseName();
+        if (FILE_PROCESSING.isEnabled()) {
+            FileProcessingEvent event = new FileProcessingEvent();
+            event.file = context.file;
+            event.language = context.language;
+            event.begin();
+            context.event = event;
+        }
+        return context;
+    }
+
+    @Override
+    public EventScope parse(FileId fileId, LanguageVersion languageVersion) {
+        if (!PARSE.isEnabled()) {
+            return EventScope.NOOP;
+        }
+        ParseEvent event = new ParseEvent();
+        event.file = fileId.getAbsolutePath();
+        event.language = languageVersion.getTerseName();
+        event.begin();
+        return event;
+    }
+
+    @Override
+    public EventScope languagePass(String pass) {
+        if (!LANGUAGE_PASS.isEnabled()) {
+            return EventScope.NOOP;
+        }
+        FileContext context = CURRENT_FILE.get();
+        LanguagePassEvent event = new LanguagePassEvent();
+        event.pass = pass;
+        event.file = context.file;
+        event.language = context.language;
+        event.begin();
+        return event;
+    }
+
+    @Override
+    public EventScope ruleApplication(Rule rule, FileId fileId, LanguageVersion languageVersion) {
+        if (!RULE_APPLICATION.isEnabled()) {
+            return EventScope.NOOP;
+        }
+        RuleApplicationEvent event = new RuleApplicationEvent();
+        event.rule = rule.getName();
+        event.ruleSet = rule.getRuleSetName();
+        event.file = fileId.getAbsolutePath();
+        event.language = languageVersion.getTerseName();
+        event.begin();
+        return event;
+    }
+
+    @Override
+    public EventScope analysisCache(String operation, String cacheFile) {
+        if (!ANALYSIS_CACHE.isEnabled()) {
+            return EventScope.NOOP;
+        }
+        AnalysisCacheEvent event = new AnalysisCacheEvent();
+        event.operation = operation;
+        event.cacheFile = cacheFile;
+        event.begin();
+        return event;
+    }
+
+    @Override
+    public EventScope cpdPhase(String phase) {
+        if (!CPD_PHASE.isEnabled()) {
+            return EventScope.NOOP;
+        }
+        CpdPhaseEvent event = new CpdPhaseEvent();
+        event.phase = phase;
+        event.begin();
+        return event;
+    }
+
+    /**
+     * The file of the current thread. This is the scope of the file
+     * processing, which ends the event if it is recorded.
+     */
+    private static final class FileContext implements EventScope {
+        String file;
+        String language;
+        FileProcessingEvent event;
+
+        @Override
+        public void close() {
+            if (event != null) {
+                event.commit();
+                event = null;
+            }
+            file = null;
+            language = null;
+        }
+
+        @Override
+        public void close(int count) {
+            close();
+        }
+    }
+
+    /** Base class of the events, they are committed when first closed. */
+    abstract static class ScopedEvent extends Event implements EventScope {
+        // transient fields are not recorded
+        private transient boolean closed;
+
+        @Override
+        public void close() {
+            if (!closed) {
+                closed = true;
+                commit();
+            }
+        }
+
+        @Override
+        public void close(int count) {
+            close();
+        }
+    }
+
+    @Name("net.sourceforge.pmd.FileProcessing")
+    @Label("File Processing")
+    @Description("Analysis of a file, from the cache check to the application of the rules")
+    @Category(CATEGORY)
+    @StackTrace(false)
+    static final class FileProcessingEvent extends Event {
+        @Label("File")
+        String file;
+        @Label("Language")
+        String language;
+    }
+
+    @Name("net.sourceforge.pmd.Parse")
+    @Label("Parse")
+    @Description("Parsing of a file, without the language specific passes")
+    @Category(CATEGORY)
+    @StackTrace(false)
+    static final class ParseEvent extends ScopedEvent {
+        @Label("File")
+        String file;
+        @Label("Language")
+        String language;
+    }
+
+    @Name("net.sourceforge.pmd.LanguagePass")
+    @Label("Language Pass")
+    @Description("A language specific processing stage of a file, e.g. the symbol table resolution")
+    @Category(CATEGORY)
+    @StackTrace(false)
+    static final class LanguagePassEvent extends ScopedEvent {
+        @Label("Pass")
+        String pass;
+        @Label("File")
+        String file;
+        @Label("Language")
+        String language;
+    }
+
+    @Name("net.sourceforge.pmd.RuleApplication")
+    @Label("Rule Application")
+    @Description("Application of a rule on a file")
+    @Category(CATEGORY)
+    @StackTrace(false)
+    static final class RuleApplicationEvent extends ScopedEvent {
+        @Label("Rule")
+        String rule;
+        @Label("Ruleset")
+        String ruleSet;
+        @Label("File")
+        String file;
+        @Label("Language")
+        String language;
+        @Label("Visited Nodes")
+        int visitedNodes;
+
+        @Override
+        public void close(int count) {
+            visitedNodes = count;
+            close();
+        }
+    }
+
+    @Name("net.sourceforge.pmd.AnalysisCache")
+    @Label("Analysis Cache")
+    @Description("Loading or persisting the analysis cache")
+    @Category(CATEGORY)
+    @StackTrace(false)
+    static final class AnalysisCacheEvent extends ScopedEvent {
+        @Label("Operation")
+        String operation;
+        @Label("Cache File")
+        String cacheFile;
+    }
+
+    @Name("net.sourceforge.pmd.CpdPhase")
+    @Label("CPD Phase")
+    @Description("A phase of the copy-paste detection")
+    @Category(CATEGORY)
+    @StackTrace(false)
+    static final class CpdPhaseEvent extends ScopedEvent {
+        @Label("Phase")
+        String phase;
+    }
+}
@@ -0,0 +1,61 @@
+/*
+ * BSD-style license; for more info see http://pmd.sourceforge.net/license.html
+ */
+
+package net.sourceforge.pmd.benchmark;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.endsWith;
+import static org.hamcrest.Matchers.not;
+
+import java.io.IOException;
+import java.io.StringWriter;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+class OpenMetricsRunMetricsRendererTest {
+
+    @AfterEach
+    void stopTracking() {
+        TimeTracker.stopGlobalTracking();
+    }
+
+    @Test
+    void renderWithoutTimings() throws IOException {
+        RunMetrics metrics = new RunMetrics(3, 2, 0, 2_000_000_000L, 3_000_000_000L, 2, 1024, null);
+
+        String output = render(metrics);
+
+        assertThat(output, containsString("# TYPE pmd_files counter\n"));
+        assertThat(output, containsString("pmd_files_total 3\n"));
+        assertThat(output, containsString("pmd_wall_clock_seconds 2\n"));
+        assertThat(output, containsString("pmd_files_per_second 1.5\n"));
+        assertThat(output, containsString("pmd_thread_utilization_ratio 0.75\n"));
+        assertThat(output, not(containsString("pmd_rule_seconds")));
+        assertThat(output, endsWith("# EOF\n"));
+    }
+
+    @Test
+    void renderRuleTimesWithEscapedLabels() throws IOException {
+        TimeTracker.startGlobalTracking();
+        TimeTracker.startOperation(TimedOperationCategory.RULE, "Some \"rule\"").close();
+        TimingReport report = TimeTracker.stopGlobalTracking();
+        RunMetrics metrics = new RunMetrics(1, 0, 0, 1, 1, 1, 0, null).withTimingReport(report);
+
+        String output = render(metrics);
+
+        assertThat(output, containsString("# TYPE pmd_rule_seconds counter\n"));
+        assertThat(output, containsString("pmd_rule_seconds_total{rule=\"Some \\\"rule\\\"\"} "));
+        // the cache was not used
+        assertThat(output, containsString("pmd_analysis_cache_checks_total 0\n"));
+        assertThat(output, not(containsString("pmd_analysis_cache_hit_ratio")));
+    }
+
+    private static String render(RunMetrics metrics) throws IOException {
+        StringWriter writer = new StringWriter();
+        new OpenMetricsRunMetricsRenderer().render(metrics, writer);
+        return writer.toString();
+    }
+}
@@ -0,0 +1,54 @@
+/*
+ * BSD-style license; for more info see http://pmd.sourceforge.net/license.html
+ */
+
+package net.sourceforge.pmd.benchmark;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.Test;
+
+import net.sourceforge.pmd.lang.document.FileId;
+
+class SlowestOperationsTest {
+
+    private static final FileId FILE = FileId.fromPathLikeString("Foo.dummy");
+
+    @Test
+    void keepsTheSlowestOperations() {
+        SlowestOperations operations = new SlowestOperations(3);
+        for (long time : new long[] { 5, 1, 9, 3, 7, 2 }) {
+            operations.offer(TimedOperationCategory.PARSER, null, FILE, time, 0);
+        }
+
+        assertEquals(listOf(9, 7, 5), times(operations.toSortedList()));
+    }
+
+    @Test
+    void mergeKeepsTheSlowestOperations() {
+        SlowestOperations first = new SlowestOperations(3);
+        SlowestOperations second = new SlowestOperations(3);
+        for (long time = 0; time < 10; time++) {
+            (time % 2 == 0 ? first : second).offer(TimedOperationCategory.RULE, "Rule", FILE, time, time);
+        }
+
+        SlowestOperations merged = new SlowestOperations(3);
+        merged.addAll(first);
+        merged.addAll(second);
+
+        assertEquals(listOf(9, 8, 7), times(merged.toSortedList()));
+        assertEquals(9, merged.toSortedList().get(0).getCounter());
+    }
+
+    private static List<Long> listOf(long... times) {
+        return Arrays.stream(times).boxed().collect(Collectors.toList());
+    }
+
+    private static List<Long> times(List<SlowOperation> operations) {
+        return operations.stream().map(SlowOperation::getTimeNanos).collect(Collectors.toList());
+    }
+}
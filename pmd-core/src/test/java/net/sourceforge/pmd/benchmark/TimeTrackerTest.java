@@ -0,0 +1,158 @@
+/*
+ * BSD-style license; for more info see http://pmd.sourceforge.net/license.html
+ */
+
+package net.sourceforge.pmd.benchmark;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import net.sourceforge.pmd.benchmark.TimeTracker.TimedResult;
+import net.sourceforge.pmd.lang.document.FileId;
+
+class TimeTrackerTest {
+
+    @AfterEach
+    void stopTracking() {
+        TimeTracker.stopGlobalTracking();
+    }
+
+    @Test
+    void nestedOperationsAreNotCountedInSelfTime() throws InterruptedException {
+        TimeTracker.startGlobalTracking();
+        try (TimedOperation outer = TimeTracker.startOperation(TimedOperationCategory.RULE, "Outer")) {
+            try (TimedOperation inner = TimeTracker.startOperation(TimedOperationCategory.RULE, "Inner")) {
+                Thread.sleep(20);
+            }
+        }
+        TimingReport report = TimeTracker.stopGlobalTracking();
+
+        Map<String, TimedResult> rules = report.getLabeledMeasurements(TimedOperationCategory.RULE);
+        TimedResult outer = rules.get("Outer");
+        TimedResult inner = rules.get("Inner");
+        assertEquals(1, outer.callCount.get());
+        assertEquals(1, inner.callCount.get());
+        assertTrue(outer.totalTimeNanos.get() >= inner.totalTimeNanos.get());
+        assertTrue(outer.selfTimeNanos.get() < inner.selfTimeNanos.get());
+        assertEquals(outer.totalTimeNanos.get() - inner.totalTimeNanos.get(), outer.selfTimeNanos.get());
+    }
+
+    @Test
+    void xpathExpressionsAreNotSubtractedFromRuleSelfTime() throws InterruptedException {
+        TimeTracker.startGlobalTracking(true);
+        try (TimedOperation rule = TimeTracker.startOperation(TimedOperationCategory.RULE, "XPathRule")) {
+            try (TimedOperation expr = TimeTracker.startOperation(TimedOperationCategory.XPATH_EXPRESSION, "XPathRule: A")) {
+                Thread.sleep(20);
+            }
+        }
+        TimingReport report = TimeTracker.stopGlobalTracking();
+
+        TimedResult rule = report.getLabeledMeasurements(TimedOperationCategory.RULE).get("XPathRule");
+        TimedResult expr = report.getLabeledMeasurements(TimedOperationCategory.XPATH_EXPRESSION).get("XPathRule: A");
+        assertEquals(rule.totalTimeNanos.get(), rule.selfTimeNanos.get());
+        assertTrue(rule.selfTimeNanos.get() >= expr.totalTimeNanos.get());
+    }
+
+    @Test
+    void measurementsOfAllThreadsAreMerged() throws InterruptedException {
+        TimeTracker.startGlobalTracking();
+        Thread[] threads = new Thread[4];
+        for (int i = 0; i < threads.length; i++) {
+            threads[i] = new Thread(() -> {
+                for (int file = 0; file < 10; file++) {
+                    TimeTracker.initThread();
+                    try (TimedOperation op = TimeTracker.startOperation(TimedOperationCategory.PARSER)) {
+                        op.close(2);
+                    }
+                    TimeTracker.finishThread();
+                }
+            });
+            threads[i].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        TimingReport report = TimeTracker.stopGlobalTracking();
+
+        TimedResult parser = report.getUnlabeledMeasurements(TimedOperationCategory.PARSER);
+        assertEquals(40, parser.callCount.get());
+        assertEquals(80, parser.extraDataCounter.get());
+        assertNotNull(report.getUnlabeledMeasurements(TimedOperationCategory.UNACCOUNTED));
+    }
+
+    @Test
+    void slowestOperationsOfAllThreadsAreRanked() throws InterruptedException {
+        TimeTracker.startGlobalTracking();
+        Thread[] threads = new Thread[4];
+        for (int i = 0; i < threads.length; i++) {
+            final int thread = i;
+            threads[i] = new Thread(() -> {
+                for (int file = 0; file < 10; file++) {
+                    FileId fileId = FileId.fromPathLikeString("File" + thread + "_" + file + ".dummy");
+                    try (TimedOperation op = TimeTracker.startOperation(TimedOperationCategory.RULE, "Rule", fileId)) {
+                        op.close(file);
+                    }
+                }
+            });
+            threads[i].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        // not ranked, there is no file
+        TimeTracker.startOperation(TimedOperationCategory.PARSER, null).close();
+        TimingReport report = TimeTracker.stopGlobalTracking();
+
+        List<SlowOperation> slowest = report.getSlowestOperations(TimedOperationCategory.RULE);
+        assertEquals(TimeTracker.SLOWEST_OPERATION_COUNT, slowest.size());
+        for (int i = 1; i < slowest.size(); i++) {
+            assertTrue(slowest.get(i - 1).getTimeNanos() >= slowest.get(i).getTimeNanos());
+        }
+        assertEquals("Rule", slowest.get(0).getLabel());
+        assertEquals(40, report.getLabeledMeasurements(TimedOperationCategory.RULE).get("Rule").callCount.get());
+        assertTrue(report.getSlowestOperations(TimedOperationCategory.PARSER).isEmpty());
+    }
+
+    @Test
+    void closingTwiceIsANoop() {
+        TimeTracker.startGlobalTracking();
+        try (TimedOperation outer = TimeTracker.startOperation(TimedOperationCategory.REPORTING)) {
+            TimedOperation inner = TimeTracker.startOperation(TimedOperationCategory.PARSER);
+            inner.close();
+            inner.close();
+        }
+        TimingReport report = TimeTracker.stopGlobalTracking();
+
+        assertEquals(1, report.getUnlabeledMeasurements(TimedOperationCategory.PARSER).callCount.get());
+        assertEquals(1, report.getUnlabeledMeasurements(TimedOperationCategory.REPORTING).callCount.get());
+    }
+
+    @Test
+    void previousSessionsAreNotReported() {
+        TimeTracker.startGlobalTracking();
+        TimeTracker.startOperation(TimedOperationCategory.PARSER).close();
+        TimeTracker.stopGlobalTracking();
+
+        TimeTracker.startGlobalTracking();
+        TimingReport report = TimeTracker.stopGlobalTracking();
+
+        assertNull(report.getUnlabeledMeasurements(TimedOperationCategory.PARSER));
+    }
+
+    @Test
+    void operationsAreNoopsWithoutTracking() {
+        TimedOperation first = TimeTracker.startOperation(TimedOperationCategory.PARSER);
+        TimedOperation second = TimeTracker.startOperation(TimedOperationCategory.RULE, "Rule");
+        assertSame(first, second);
+        assertNull(TimeTracker.stopGlobalTracking());
+    }
+}
@@ -133,6 +133,29 @@ class CharStreamTest {
         assertThrows(IllegalArgumentException.class, () -> stream.backup(10));
     }
 
+    @Test
+    void testTokenImageIsSlicedFromTheDocument() throws IOException {
+
+        CharStream stream = javaCharStream("ab\\u00a0_ cd");
+
+        assertEquals('a', stream.markTokenStart());
+        assertEquals('b', stream.readChar());
+        assertEquals('\u00a0', stream.readChar());
+        assertEquals('_', stream.readChar());
+
+        JavaccTokenDocument doc = stream.getTokenDocument();
+        JavaccToken sliced = doc.createToken(1, stream, null);
+        assertEquals("ab\u00a0_", sliced.getImage());
+        assertEquals("ab\u00a0_", sliced.getImageCs().toString());
+        assertEquals("ab\\u00a0_", sliced.getText().toString());
+
+        JavaccToken shared = doc.createToken(1, stream, "shared");
+        assertEquals("shared", shared.getImage());
+        assertEquals(sliced.getRegion(), shared.getRegion());
+
+        assertEquals("ab\u00a0_", sliced.withKind(2).getImage());
+    }
+
 
     CharStream simpleCharStream(String abcd) {
         return CharStream.create(TextDocument.readOnlyString(abcd, dummyVersion), TokenDocumentBehavior.DEFAULT);
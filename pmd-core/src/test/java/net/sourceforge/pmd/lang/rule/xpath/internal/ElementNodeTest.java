@@ -107,4 +107,31 @@ class ElementNodeTest {
         assertSame(elementComment, treeInfo.findWrapperFor(c1));
     }
 
+    @Test
+    void testWrappersAreCreatedOnDemand() {
+        DummyRootNode root = helper.parse("(a(b)(c))(d)");
+
+        DummyNode c = root.getChild(0).getChild(1);
+        DummyNode d = root.getChild(1);
+
+        AstTreeInfo treeInfo = new AstTreeInfo(root, Configuration.newConfiguration());
+
+        AstElementNode elementC = treeInfo.findWrapperFor(c);
+        assertSame(c, elementC.getUnderlyingNode());
+        assertEquals(1, elementC.getSiblingPosition());
+
+        AstElementNode rootElt = treeInfo.getRootNode().getRootElement();
+        AstElementNode elementA = rootElt.getChildren().get(0);
+        assertSame(elementA, elementC.getParent());
+        assertSame(elementC, elementA.getChildren().get(1));
+
+        AstElementNode elementD = treeInfo.findWrapperFor(d);
+        assertTrue(elementC.compareOrder(elementD) < 0);
+        assertTrue(elementD.compareOrder(elementA) > 0);
+        // an ancestor comes before its descendants
+        assertTrue(elementA.compareOrder(elementC) < 0);
+        assertTrue(elementC.compareOrder(elementA) > 0);
+        assertTrue(rootElt.compareOrder(elementC) < 0);
+    }
+
 }
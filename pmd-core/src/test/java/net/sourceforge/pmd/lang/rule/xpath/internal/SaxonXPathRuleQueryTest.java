@@ -9,14 +9,21 @@ import static net.sourceforge.pmd.lang.ast.impl.DummyTreeUtil.node;
 import static net.sourceforge.pmd.lang.ast.impl.DummyTreeUtil.nodeB;
 import static net.sourceforge.pmd.lang.ast.impl.DummyTreeUtil.root;
 import static net.sourceforge.pmd.lang.ast.impl.DummyTreeUtil.tree;
+import static net.sourceforge.pmd.util.CollectionUtil.listOf;
+import static net.sourceforge.pmd.util.CollectionUtil.setOf;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.apache.commons.lang3.StringUtils;
 import org.checkerframework.checker.nullness.qual.NonNull;
@@ -25,6 +32,9 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.RegisterExtension;
 
 import net.sourceforge.pmd.DummyParsingHelper;
+import net.sourceforge.pmd.benchmark.TimeTracker;
+import net.sourceforge.pmd.benchmark.TimedOperationCategory;
+import net.sourceforge.pmd.benchmark.TimingReport;
 import net.sourceforge.pmd.lang.DummyLanguageModule;
 import net.sourceforge.pmd.lang.ast.DummyNode.DummyRootNode;
 import net.sourceforge.pmd.lang.ast.DummyNodeWithListAndEnum;
@@ -243,13 +253,12 @@ class SaxonXPathRuleQueryTest {
             )
         ));
 
-        tree.descendantsOrSelf().forEach(n -> {
-            List<Node> results = query.evaluate(n);
-            assertEquals(1, results.size());
-            assertEquals(followPath(tree, "10"), results.get(0));
-        });
+        assertEquals(setOf("dummyNode", "dummyNodeB"), new HashSet<>(query.getRuleChainVisits()));
+        assertExpression("(self::node()/child::element(dummyNode))[(data(attribute::attribute(Image))) = 10]", query.getExpressionsForLocalNameOrDefault("dummyNode").get(0));
+        assertExpression("docOrder((((/)/descendant::(element(dummyNode) | element(dummyNodeB)))/child::element(dummyNode))[(data(attribute::attribute(Image))) = 10])", query.getFallbackExpr());
 
-        assertExpression("docOrder((((/)/descendant::(element(dummyNode) | element(dummyNodeB)))/child::element(dummyNode))[(data(attribute::attribute(Image))) = 10])", query.getExpressionsForLocalNameOrDefault("dummyNode").get(0));
+        assertEquals(listOf(followPath(tree, "10")), evaluateWithRuleChain(query, tree));
+        assertEquals(listOf(followPath(tree, "10")), query.evaluate(tree));
     }
 
     @Test
@@ -265,14 +274,11 @@ class SaxonXPathRuleQueryTest {
             )
         ));
 
-        assertEquals(0, query.getRuleChainVisits().size());
+        assertEquals(setOf("dummyNode", "dummyNodeB"), new HashSet<>(query.getRuleChainVisits()));
         assertExpression("docOrder((((((/)/descendant::element(dummyNode))[(data(attribute::attribute(Image))) = 0]) | (((/)/descendant::element(dummyNodeB))[(data(attribute::attribute(Image))) = 1]))/child::element(dummyNode))[(data(attribute::attribute(Image))) = 10])", query.getFallbackExpr());
 
-        tree.descendantsOrSelf().forEach(n -> {
-            List<Node> results = query.evaluate(n);
-            assertEquals(1, results.size());
-            assertEquals(followPath(tree, "10"), results.get(0));
-        });
+        assertEquals(listOf(followPath(tree, "10")), evaluateWithRuleChain(query, tree));
+        assertEquals(listOf(followPath(tree, "10")), query.evaluate(tree));
     }
 
     @Test
@@ -290,14 +296,39 @@ class SaxonXPathRuleQueryTest {
             )
         ));
 
-        assertEquals(0, query.getRuleChainVisits().size());
+        assertEquals(setOf("dummyNode", "dummyNodeB"), new HashSet<>(query.getRuleChainVisits()));
         assertExpression("docOrder((((/)/descendant::(element(dummyNode) | element(dummyNodeB)))/child::element(dummyNode))/child::element(dummyNode))", query.getFallbackExpr());
 
-        tree.descendantsOrSelf().forEach(n -> {
-            List<Node> results = query.evaluate(n);
-            assertEquals(1, results.size());
-            assertEquals(followPath(tree, "000"), results.get(0));
-        });
+        assertEquals(listOf(followPath(tree, "000")), evaluateWithRuleChain(query, tree));
+        assertEquals(listOf(followPath(tree, "000")), query.evaluate(tree));
+    }
+
+    @Test
+    void unionWithPositionalFilterIsNotSplit() {
+        SaxonXPathRuleQuery query = createQuery("(//dummyNode | //dummyNodeB)[1]");
+
+        assertEquals(0, query.getRuleChainVisits().size());
+        assertNotNull(query.getRuleChainFallbackReason());
+    }
+
+    @Test
+    void ruleChainFallbackReason() {
+        assertNull(createQuery("//dummyNode[@Image = '0']").getRuleChainFallbackReason());
+
+        SaxonXPathRuleQuery query = createQuery("//dummyNode[//dummyNodeB]");
+        assertEquals(0, query.getRuleChainVisits().size());
+        assertTrue(query.getRuleChainFallbackReason().contains("does not depend on the context node"), query.getRuleChainFallbackReason());
+
+        query = createQuery("//dummyNode | //*[@Image = '0']");
+        assertEquals(0, query.getRuleChainVisits().size());
+        assertTrue(query.getRuleChainFallbackReason().contains("union branch"), query.getRuleChainFallbackReason());
+    }
+
+    @Test
+    void descendantOrSelfFromRootIsNormalized() {
+        SaxonXPathRuleQuery query = createQuery("/descendant-or-self::dummyNode[@Image = '0']");
+
+        assertEquals(listOf("dummyNode"), query.getRuleChainVisits());
     }
 
     @Test
@@ -338,28 +369,28 @@ class SaxonXPathRuleQueryTest {
     void ruleChainWithUnions() {
         SaxonXPathRuleQuery query = createQuery("(//ForStatement | //WhileStatement | //DoStatement)//AssignmentOperator");
         List<String> ruleChainVisits = query.getRuleChainVisits();
-        assertEquals(0, ruleChainVisits.size());
+        assertEquals(setOf("ForStatement", "WhileStatement", "DoStatement"), new HashSet<>(ruleChainVisits));
     }
 
     @Test
     void ruleChainWithUnionsAndFilter() {
         SaxonXPathRuleQuery query = createQuery("(//ForStatement | //WhileStatement | //DoStatement)//AssignmentOperator[@Image='foo']");
         List<String> ruleChainVisits = query.getRuleChainVisits();
-        assertEquals(0, ruleChainVisits.size());
+        assertEquals(setOf("ForStatement", "WhileStatement", "DoStatement"), new HashSet<>(ruleChainVisits));
     }
 
     @Test
     void ruleChainWithUnionsCustomFunctionsVariant1() {
         SaxonXPathRuleQuery query = createQuery("(//ForStatement | //WhileStatement | //DoStatement)//dummyNode[pmd-dummy:imageIs(@Image)]");
         List<String> ruleChainVisits = query.getRuleChainVisits();
-        assertEquals(0, ruleChainVisits.size());
+        assertEquals(setOf("ForStatement", "WhileStatement", "DoStatement"), new HashSet<>(ruleChainVisits));
     }
 
     @Test
     void ruleChainWithUnionsCustomFunctionsVariant2() {
         SaxonXPathRuleQuery query = createQuery("//(ForStatement | WhileStatement | DoStatement)//dummyNode[pmd-dummy:imageIs(@Image)]");
         List<String> ruleChainVisits = query.getRuleChainVisits();
-        assertEquals(0, ruleChainVisits.size());
+        assertEquals(setOf("ForStatement", "WhileStatement", "DoStatement"), new HashSet<>(ruleChainVisits));
     }
 
     @Test
@@ -389,6 +420,93 @@ class SaxonXPathRuleQueryTest {
         assertTrue(ruleChainVisits.contains("ForStatement"));
     }
 
+    @Test
+    void profilingLabelsEachSubexpression() {
+        SaxonXPathRuleQuery query = createQuery("//dummyNode[@Image='0'] | //dummyNodeB");
+        query.setRuleName("MyRule");
+
+        DummyRootNode tree = tree(() -> root(
+            node(),
+            nodeB()
+        ));
+
+        TimeTracker.startGlobalTracking(true);
+        TimingReport report;
+        try {
+            tree.descendants().forEach(query::evaluate);
+        } finally {
+            report = TimeTracker.stopGlobalTracking();
+        }
+
+        assertEquals(setOf("MyRule: dummyNode (branch 1/2)", "MyRule: dummyNodeB (branch 2/2)"),
+                     report.getLabeledMeasurements(TimedOperationCategory.XPATH_EXPRESSION).keySet());
+    }
+
+    @Test
+    void cacheableFunctionResultsAreSharedBetweenQueries() {
+        AtomicInteger numCalls = new AtomicInteger();
+        XPathFunctionDefinition countingFun = new XPathFunctionDefinition("countingImageIs", DummyLanguageModule.getInstance()) {
+            @Override
+            public Type[] getArgumentTypes() {
+                return new Type[] {Type.SINGLE_STRING};
+            }
+
+            @Override
+            public Type getResultType() {
+                return Type.SINGLE_BOOLEAN;
+            }
+
+            @Override
+            public boolean dependsOnContext() {
+                return true;
+            }
+
+            @Override
+            public boolean isCacheable() {
+                return true;
+            }
+
+            @Override
+            public FunctionCall makeCallExpression() {
+                return (contextNode, arguments) -> {
+                    numCalls.incrementAndGet();
+                    return StringUtils.equals(arguments[0].toString(), contextNode.getImage());
+                };
+            }
+        };
+        XPathHandler handler = XPathHandler.getHandlerForFunctionDefs(countingFun);
+        SaxonXPathRuleQuery query1 = new SaxonXPathRuleQuery("//dummyNode[pmd-dummy:countingImageIs('0')]",
+                                                             XPathVersion.DEFAULT, new HashMap<>(), handler, DeprecatedAttrLogger.noop());
+        SaxonXPathRuleQuery query2 = new SaxonXPathRuleQuery("//dummyNode[not(pmd-dummy:countingImageIs('0'))]",
+                                                             XPathVersion.DEFAULT, new HashMap<>(), handler, DeprecatedAttrLogger.noop());
+
+        DummyRootNode tree = tree(() -> root(
+            node(),
+            node()
+        ));
+
+        assertEquals(listOf(followPath(tree, "0")), query1.evaluate(tree));
+        assertEquals(2, numCalls.get());
+        assertEquals(listOf(followPath(tree, "1")), query2.evaluate(tree));
+        assertEquals(2, numCalls.get(), "Results should have been reused");
+    }
+
+    /**
+     * Evaluates the query like the rule chain does, on all nodes of
+     * the tree it applies to.
+     */
+    private static List<Node> evaluateWithRuleChain(SaxonXPathRuleQuery query, RootNode tree) {
+        List<String> visits = query.getRuleChainVisits();
+        if (visits.isEmpty()) {
+            return query.evaluate(tree);
+        }
+        List<Node> results = new ArrayList<>();
+        tree.descendantsOrSelf()
+            .filter(n -> visits.contains(n.getXPathNodeName()))
+            .forEach(n -> results.addAll(query.evaluate(n)));
+        return results;
+    }
+
     private static void assertExpression(String expected, Expression actual) {
         assertEquals(normalizeExprDump(expected),
                      normalizeExprDump(actual.toString()));
@@ -0,0 +1,215 @@
+/*
+ * BSD-style license; for more info see http://pmd.sourceforge.net/license.html
+ */
+
+package net.sourceforge.pmd.renderers;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsString;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.function.Consumer;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import net.sourceforge.pmd.FooRule;
+import net.sourceforge.pmd.lang.DummyLanguageModule;
+import net.sourceforge.pmd.lang.document.FileId;
+import net.sourceforge.pmd.lang.document.FileLocation;
+import net.sourceforge.pmd.lang.document.TextFile;
+import net.sourceforge.pmd.lang.document.TextRange2d;
+import net.sourceforge.pmd.lang.rule.Rule;
+import net.sourceforge.pmd.lang.rule.RulePriority;
+import net.sourceforge.pmd.renderers.internal.binary.BinaryReportReader;
+import net.sourceforge.pmd.renderers.internal.binary.BinaryReportWriter;
+import net.sourceforge.pmd.reporting.FileAnalysisListener;
+import net.sourceforge.pmd.reporting.GlobalAnalysisListener;
+import net.sourceforge.pmd.reporting.InternalApiBridge;
+import net.sourceforge.pmd.reporting.Report;
+import net.sourceforge.pmd.reporting.Report.ConfigurationError;
+import net.sourceforge.pmd.reporting.Report.ProcessingError;
+import net.sourceforge.pmd.reporting.Report.SuppressedViolation;
+import net.sourceforge.pmd.reporting.RuleViolation;
+import net.sourceforge.pmd.reporting.ViolationSuppressor;
+
+class BinaryRendererTest {
+
+    @TempDir
+    private Path tempDir;
+
+    @ParameterizedTest
+    @ValueSource(booleans = { true, false })
+    void convertedReportIsRenderedLikeTheOriginal(boolean compress) throws Exception {
+        String expected = render(new TextRenderer(), this::analysis);
+
+        Path binaryReport = tempDir.resolve("report.pmdr");
+        BinaryRenderer binaryRenderer = new BinaryRenderer();
+        binaryRenderer.setProperty(BinaryRenderer.COMPRESS, compress);
+        binaryRenderer.setReportFile(binaryReport.toString());
+        runAnalysis(binaryRenderer, this::analysis);
+
+        Path converted = tempDir.resolve("converted.txt");
+        TextRenderer textRenderer = new TextRenderer();
+        textRenderer.setReportFile(converted.toString());
+        try (BinaryReportReader reader = new BinaryReportReader(Files.newInputStream(binaryReport))) {
+            reader.renderTo(textRenderer);
+        }
+
+        assertEquals(expected, new String(Files.readAllBytes(converted), StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void reportIsReadBack() throws Exception {
+        Rule rule = createRule();
+        FileId file = FileId.fromPathLikeString("src/Foo.dummy");
+        RuleViolation violation = newViolation(rule, file, 3, 5, 4, 2, "a message");
+        RuleViolation suppressedViolation = newViolation(rule, file, 10, 1, 10, 8, "another message");
+        ProcessingError error = new ProcessingError(new IllegalStateException("boom"), file);
+        Report report = Report.buildReport(listener -> {
+            listener.onRuleViolation(violation);
+            listener.onSuppressedRuleViolation(
+                new SuppressedViolation(suppressedViolation, ViolationSuppressor.NOPMD_COMMENT_SUPPRESSOR, "on purpose"));
+            listener.onError(error);
+        });
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (BinaryReportWriter writer = new BinaryReportWriter(bytes, true, FileId::getOriginalPath)) {
+            writer.writeReport(report, true);
+        }
+
+        try (BinaryReportReader reader = new BinaryReportReader(new ByteArrayInputStream(bytes.toByteArray()))) {
+            Report readBack = reader.readReport();
+
+            RuleViolation readViolation = readBack.getViolations().get(0);
+            assertEquals("Foo", readViolation.getRule().getName());
+            assertEquals("RuleSet", readViolation.getRule().getRuleSetName());
+            assertEquals(RulePriority.MEDIUM_HIGH, readViolation.getRule().getPriority());
+            assertEquals(DummyLanguageModule.getInstance(), readViolation.getRule().getLanguage());
+            assertEquals("a message", readViolation.getDescription());
+            assertEquals(violation.getLocation().toRange2d(), readViolation.getLocation().toRange2d());
+            assertEquals("src/Foo.dummy", readViolation.getFileId().getOriginalPath());
+            assertEquals(file.getUriString(), readViolation.getFileId().getUriString());
+
+            SuppressedViolation readSuppressed = readBack.getSuppressedViolations().get(0);
+            assertEquals(ViolationSuppressor.NOPMD_COMMENT_SUPPRESSOR.getId(), readSuppressed.getSuppressor().getId());
+            assertEquals("on purpose", readSuppressed.getUserMessage());
+            assertEquals("another message", readSuppressed.getRuleViolation().getDescription());
+
+            ProcessingError readError = readBack.getProcessingErrors().get(0);
+            assertEquals(error.getMsg(), readError.getMsg());
+            assertEquals(error.getDetail(), readError.getDetail());
+
+            assertNull(reader.readReport());
+        }
+    }
+
+    @Test
+    void writerIsRejected() throws Exception {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        BinaryRenderer renderer = new BinaryRenderer();
+        try (Writer writer = new OutputStreamWriter(bytes, StandardCharsets.UTF_8)) {
+            UnsupportedOperationException e = assertThrows(UnsupportedOperationException.class, () -> renderer.setWriter(writer));
+            assertThat(e.getMessage(), containsString("set a report file"));
+        }
+        assertEquals(0, bytes.size());
+        assertThrows(IllegalStateException.class, renderer::start);
+    }
+
+    @Test
+    void reportIsReadBackThroughUtf8Writer() throws Exception {
+        // a report converted to text keeps non-ASCII messages when written as UTF-8
+        Rule rule = createRule();
+        FileId file = FileId.fromPathLikeString("src/F\u00f6\u00f6.dummy");
+        Path binaryReport = tempDir.resolve("report.pmdr");
+        BinaryRenderer binaryRenderer = new BinaryRenderer();
+        binaryRenderer.setReportFile(binaryReport.toString());
+        runAnalysis(binaryRenderer, listener -> {
+            TextFile textFile = TextFile.forCharSeq("", file, DummyLanguageModule.getInstance().getDefaultVersion());
+            try (FileAnalysisListener fileListener = listener.startFileAnalysis(textFile)) {
+                fileListener.onRuleViolation(newViolation(rule, file, 1, 1, 1, 5, "\u00fcn\u00efc\u00f6d\u00e9 \u20ac message"));
+            } catch (Exception e) {
+                throw new AssertionError(e);
+            }
+        });
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        TextRenderer textRenderer = new TextRenderer();
+        textRenderer.setWriter(new OutputStreamWriter(bytes, StandardCharsets.UTF_8));
+        try (BinaryReportReader reader = new BinaryReportReader(Files.newInputStream(binaryReport))) {
+            reader.renderTo(textRenderer);
+        }
+
+        String text = new String(bytes.toByteArray(), StandardCharsets.UTF_8);
+        assertThat(text, containsString("F\u00f6\u00f6.dummy"));
+        assertThat(text, containsString("\u00fcn\u00efc\u00f6d\u00e9 \u20ac message"));
+    }
+
+    @Test
+    void notABinaryReport() {
+        InputStream in = new ByteArrayInputStream("<?xml version='1.0'?>".getBytes(StandardCharsets.UTF_8));
+        assertThrows(IOException.class, () -> new BinaryReportReader(in));
+    }
+
+    private void analysis(GlobalAnalysisListener listener) {
+        Rule rule = createRule();
+        for (int i = 0; i < 3; i++) {
+            FileId fileId = FileId.fromPathLikeString("src/File" + i + ".dummy");
+            TextFile file = TextFile.forCharSeq("", fileId, DummyLanguageModule.getInstance().getDefaultVersion());
+            try (FileAnalysisListener fileListener = listener.startFileAnalysis(file)) {
+                fileListener.onRuleViolation(newViolation(rule, fileId, 1, 1, 1, 5, "first"));
+                fileListener.onRuleViolation(newViolation(rule, fileId, 7, 3, 9, 1, "second in file " + i));
+                fileListener.onSuppressedRuleViolation(new SuppressedViolation(
+                    newViolation(rule, fileId, 12, 1, 12, 2, "first"), ViolationSuppressor.NOPMD_COMMENT_SUPPRESSOR, ""));
+                if (i == 1) {
+                    fileListener.onError(new ProcessingError(new RuntimeException("Error"), fileId));
+                }
+            } catch (Exception e) {
+                throw new AssertionError(e);
+            }
+        }
+        listener.onConfigError(new ConfigurationError(rule, "a configuration error"));
+    }
+
+    private String render(Renderer renderer, Consumer<? super GlobalAnalysisListener> analysis) throws IOException {
+        Path file = tempDir.resolve("original.txt");
+        renderer.setReportFile(file.toString());
+        runAnalysis(renderer, analysis);
+        return new String(Files.readAllBytes(file), StandardCharsets.UTF_8);
+    }
+
+    private static void runAnalysis(Renderer renderer, Consumer<? super GlobalAnalysisListener> analysis) {
+        try (GlobalAnalysisListener listener = renderer.newListener()) {
+            analysis.accept(listener);
+        } catch (Exception e) {
+            throw new AssertionError(e);
+        }
+    }
+
+    private static Rule createRule() {
+        Rule rule = new FooRule();
+        rule.setPriority(RulePriority.MEDIUM_HIGH);
+        rule.setDescription("A rule for tests");
+        return rule;
+    }
+
+    private static RuleViolation newViolation(Rule rule, FileId file, int beginLine, int beginColumn,
+                                              int endLine, int endColumn, String message) {
+        FileLocation location = FileLocation.range(file, TextRange2d.range2d(beginLine, beginColumn, endLine, endColumn));
+        return InternalApiBridge.createRuleViolation(rule, location, message, Collections.singletonMap(RuleViolation.CLASS_NAME, "Foo"));
+    }
+}
@@ -0,0 +1,119 @@
+/*
+ * BSD-style license; for more info see http://pmd.sourceforge.net/license.html
+ */
+
+package net.sourceforge.pmd.renderers;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.jupiter.api.Test;
+
+import net.sourceforge.pmd.lang.DummyLanguageModule;
+import net.sourceforge.pmd.lang.document.FileId;
+import net.sourceforge.pmd.lang.document.TextFile;
+import net.sourceforge.pmd.reporting.FileAnalysisListener;
+import net.sourceforge.pmd.reporting.GlobalAnalysisListener;
+import net.sourceforge.pmd.reporting.Report;
+
+class ReportRenderingThreadTest {
+
+    @Test
+    void fileReportsAreRenderedOnASingleThread() throws Exception {
+        RecordingRenderer renderer = new RecordingRenderer();
+        ExecutorService workers = Executors.newFixedThreadPool(4);
+        try (GlobalAnalysisListener listener = renderer.newListener()) {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int i = 0; i < 1000; i++) {
+                TextFile file = TextFile.forCharSeq("", FileId.fromPathLikeString("file" + i),
+                                                    DummyLanguageModule.getInstance().getDefaultVersion());
+                futures.add(workers.submit(() -> {
+                    try (FileAnalysisListener fileListener = listener.startFileAnalysis(file)) {
+                        return null;
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            workers.shutdown();
+        }
+
+        // one per file, and one for the configuration errors
+        assertEquals(1001, renderer.rendered);
+        assertEquals(1, renderer.renderingThreads.size());
+        assertTrue(renderer.renderingThreads.iterator().next().getName().startsWith("PMD-Renderer"));
+        assertTrue(renderer.ended);
+    }
+
+    @Test
+    void renderingFailureIsRethrownOnClose() throws Exception {
+        IOException failure = new IOException("disk full");
+        RecordingRenderer renderer = new RecordingRenderer() {
+            @Override
+            public void renderFileReport(Report report) throws IOException {
+                throw failure;
+            }
+        };
+        GlobalAnalysisListener listener = renderer.newListener();
+        TextFile file = TextFile.forCharSeq("", FileId.fromPathLikeString("file"),
+                                            DummyLanguageModule.getInstance().getDefaultVersion());
+        listener.startFileAnalysis(file).close();
+        listener.startFileAnalysis(file).close();
+
+        assertSame(failure, assertThrows(IOException.class, listener::close));
+        assertTrue(renderer.ended, "the renderer should still be ended");
+    }
+
+    private static class RecordingRenderer extends AbstractRenderer {
+
+        final Set<Thread> renderingThreads = Collections.newSetFromMap(new ConcurrentHashMap<>());
+        int rendered;
+        boolean ended;
+
+        RecordingRenderer() {
+            super("recording", "Records the rendering threads");
+            setWriter(new StringWriter());
+        }
+
+        @Override
+        public String defaultFileExtension() {
+            return "txt";
+        }
+
+        @Override
+        public void start() {
+            // nothing to do
+        }
+
+        @Override
+        public void startFileAnalysis(TextFile dataSource) {
+            // nothing to do
+        }
+
+        @Override
+        public void renderFileReport(Report report) throws IOException {
+            renderingThreads.add(Thread.currentThread());
+            rendered++;
+        }
+
+        @Override
+        public void end() {
+            ended = true;
+        }
+    }
+}
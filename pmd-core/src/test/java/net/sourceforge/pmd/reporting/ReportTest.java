@@ -10,8 +10,11 @@ import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import java.io.StringWriter;
+import java.util.ArrayList;
 import java.util.Collections;
+import java.util.List;
 import java.util.function.Consumer;
+import java.util.stream.IntStream;
 
 import org.checkerframework.checker.nullness.qual.NonNull;
 import org.junit.jupiter.api.Test;
@@ -102,6 +105,32 @@ class ReportTest {
         assertEquals(2, union.getViolations().size());
     }
 
+    @Test
+    void testGlobalReportMergesFileReports() {
+        Rule rule = new MockRule("name", "desc", "msg", "rulesetname");
+        LanguageVersion dummyVersion = DummyLanguageModule.getInstance().getDefaultVersion();
+        Report.GlobalReportBuilderListener global = new Report.GlobalReportBuilderListener();
+
+        IntStream.range(0, 20).parallel().forEach(i -> {
+            String fileName = "file" + (i % 10);
+            TextFile file = TextFile.forCharSeq("dummyText", FileId.fromPathLikeString(fileName), dummyVersion);
+            try (FileAnalysisListener listener = global.startFileAnalysis(file)) {
+                for (int line = 10; line > 0; line--) {
+                    listener.onRuleViolation(violation(rule, getNode(line, i + 1, fileName)));
+                }
+            } catch (Exception e) {
+                throw new AssertionError(e);
+            }
+        });
+        global.close();
+
+        List<RuleViolation> violations = global.getResult().getViolations();
+        assertEquals(200, violations.size());
+        List<RuleViolation> sorted = new ArrayList<>(violations);
+        sorted.sort(RuleViolation.DEFAULT_COMPARATOR);
+        assertEquals(sorted, violations);
+    }
+
     public static @NonNull RuleViolation violation(Rule rule, FileLocation loc2) {
         return violation(rule, loc2, rule.getMessage());
     }
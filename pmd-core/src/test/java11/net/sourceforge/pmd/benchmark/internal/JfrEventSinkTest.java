@@ -0,0 +1,94 @@
+/*
+ * BSD-style license; for more info see http://pmd.sourceforge.net/license.html
+ */
+
+package net.sourceforge.pmd.benchmark.internal;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import net.sourceforge.pmd.lang.DummyLanguageModule;
+import net.sourceforge.pmd.lang.LanguageVersion;
+import net.sourceforge.pmd.lang.document.FileId;
+import net.sourceforge.pmd.lang.rule.Rule;
+
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+
+/**
+ * This test is compiled with the Java 11 part of the multi-release jar,
+ * so that {@link FlightRecorderEvents} loads the {@link JfrEventSink}.
+ */
+class JfrEventSinkTest {
+
+    private final FileId fileId = FileId.fromPathLikeString("a/Foo.dummy");
+    private final LanguageVersion languageVersion = DummyLanguageModule.getInstance().getDefaultVersion();
+
+    @Test
+    void disabledEventsAreNoop() {
+        assertSame(EventScope.NOOP, FlightRecorderEvents.fileProcessing(fileId, languageVersion));
+        assertSame(EventScope.NOOP, FlightRecorderEvents.parse(fileId, languageVersion));
+        assertSame(EventScope.NOOP, FlightRecorderEvents.languagePass("pass"));
+        assertSame(EventScope.NOOP, FlightRecorderEvents.cpdPhase("Hashing"));
+    }
+
+    @Test
+    void enabledEventsAreRecorded(@TempDir Path tempDir) throws IOException {
+        Rule rule = mock(Rule.class);
+        when(rule.getName()).thenReturn("MyRule");
+        when(rule.getRuleSetName()).thenReturn("MyRuleSet");
+
+        Path dump = tempDir.resolve("pmd.jfr");
+        try (Recording recording = new Recording()) {
+            recording.enable("net.sourceforge.pmd.FileProcessing");
+            recording.enable("net.sourceforge.pmd.LanguagePass");
+            recording.enable("net.sourceforge.pmd.RuleApplication");
+            recording.start();
+
+            try (EventScope file = FlightRecorderEvents.fileProcessing(fileId, languageVersion)) {
+                assertNotSame(EventScope.NOOP, file);
+                // not enabled in the recording
+                assertSame(EventScope.NOOP, FlightRecorderEvents.parse(fileId, languageVersion));
+                FlightRecorderEvents.languagePass("symbol table").close();
+                FlightRecorderEvents.ruleApplication(rule, fileId, languageVersion).close(42);
+            }
+
+            recording.stop();
+            recording.dump(dump);
+        }
+
+        List<RecordedEvent> events = RecordingFile.readAllEvents(dump);
+        assertEquals(3, events.size());
+
+        RecordedEvent pass = findEvent(events, "net.sourceforge.pmd.LanguagePass");
+        assertEquals("symbol table", pass.getString("pass"));
+        assertEquals(fileId.getAbsolutePath(), pass.getString("file"));
+
+        RecordedEvent ruleApplication = findEvent(events, "net.sourceforge.pmd.RuleApplication");
+        assertEquals("MyRule", ruleApplication.getString("rule"));
+        assertEquals("MyRuleSet", ruleApplication.getString("ruleSet"));
+        assertEquals(languageVersion.getTerseName(), ruleApplication.getString("language"));
+        assertEquals(42, ruleApplication.getInt("visitedNodes"));
+
+        RecordedEvent file = findEvent(events, "net.sourceforge.pmd.FileProcessing");
+        assertEquals(fileId.getAbsolutePath(), file.getString("file"));
+    }
+
+    private static RecordedEvent findEvent(List<RecordedEvent> events, String name) {
+        return events.stream()
+                     .filter(e -> e.getEventType().getName().equals(name))
+                     .findFirst()
+                     .orElseThrow(() -> new AssertionError("No event " + name + " in " + events));
+    }
+}
@@ -6,6 +6,8 @@ package net.sourceforge.pmd.lang.java.internal;
 
 import static net.sourceforge.pmd.lang.java.symbols.table.internal.JavaSemanticErrors.CANNOT_RESOLVE_SYMBOL;
 
+import java.util.Set;
+
 import org.checkerframework.checker.nullness.qual.NonNull;
 import org.checkerframework.checker.nullness.qual.Nullable;
 
@@ -15,6 +17,7 @@ import net.sourceforge.pmd.lang.ast.SemanticErrorReporter;
 import net.sourceforge.pmd.lang.java.ast.ASTCompilationUnit;
 import net.sourceforge.pmd.lang.java.ast.InternalApiBridge;
 import net.sourceforge.pmd.lang.java.ast.JavaNode;
+import net.sourceforge.pmd.lang.java.rule.JavaSemanticPass;
 import net.sourceforge.pmd.lang.java.symbols.JClassSymbol;
 import net.sourceforge.pmd.lang.java.symbols.JTypeDeclSymbol;
 import net.sourceforge.pmd.lang.java.symbols.SymbolResolver;
@@ -115,6 +118,14 @@ public final class JavaAstProcessor {
         return JavaLanguageProperties.getInternalJdkVersion(acu.getLanguageVersion());
     }
 
+    /**
+     * Whether type inference may use the overload resolution cache of
+     * the type system.
+     */
+    public boolean useOverloadResolutionCache() {
+        return globalProc.getProperties().getProperty(JavaLanguageProperties.OVERLOAD_RESOLUTION_CACHE);
+    }
+
     /**
      * Performs semantic analysis on the given source file.
      */
@@ -131,12 +142,22 @@ public final class JavaAstProcessor {
 
         TimeTracker.bench("Symbol table resolution", () -> SymbolTableResolver.traverse(this, acu));
         TimeTracker.bench("AST disambiguation", () -> InternalApiBridge.disambigWithCtx(NodeStream.of(acu), ReferenceCtx.root(this, acu)));
-        if (globalProc.getProperties().getProperty(JavaLanguageProperties.INTERNAL_DO_STRICT_TYPERES)) {
+
+        // the following passes are skipped if no rule needs them
+        Set<JavaSemanticPass> passes = globalProc.getSemanticPasses();
+        if (passes.contains(JavaSemanticPass.TYPE_RESOLUTION)
+            && globalProc.getProperties().getProperty(JavaLanguageProperties.INTERNAL_DO_STRICT_TYPERES)) {
             TimeTracker.bench("Force type resolution", () -> InternalApiBridge.forceTypeResolutionPhase(this, acu));
         }
-        TimeTracker.bench("Comment assignment", () -> InternalApiBridge.assignComments(acu));
-        TimeTracker.bench("Usage resolution", () -> InternalApiBridge.usageResolution(this, acu));
-        TimeTracker.bench("Override resolution", () -> InternalApiBridge.overrideResolution(this, acu));
+        if (passes.contains(JavaSemanticPass.COMMENT_ASSIGNMENT)) {
+            TimeTracker.bench("Comment assignment", () -> InternalApiBridge.assignComments(acu));
+        }
+        if (passes.contains(JavaSemanticPass.USAGE_RESOLUTION)) {
+            TimeTracker.bench("Usage resolution", () -> InternalApiBridge.usageResolution(this, acu));
+        }
+        if (passes.contains(JavaSemanticPass.OVERRIDE_RESOLUTION)) {
+            TimeTracker.bench("Override resolution", () -> InternalApiBridge.overrideResolution(this, acu));
+        }
     }
 
     public TypeSystem getTypeSystem() {
@@ -4,29 +4,55 @@
 
 package net.sourceforge.pmd.lang.java.internal;
 
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.EnumSet;
 import java.util.List;
 import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 import org.checkerframework.checker.nullness.qual.NonNull;
+import org.checkerframework.checker.nullness.qual.Nullable;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import net.sourceforge.pmd.benchmark.TimeTracker;
+import net.sourceforge.pmd.internal.util.ClasspathClassLoader;
 import net.sourceforge.pmd.lang.LanguageVersionHandler;
 import net.sourceforge.pmd.lang.ast.Parser;
+import net.sourceforge.pmd.lang.ast.Parser.ParserTask;
+import net.sourceforge.pmd.lang.ast.SemanticErrorReporter;
+import net.sourceforge.pmd.lang.document.TextDocument;
+import net.sourceforge.pmd.lang.document.TextFile;
 import net.sourceforge.pmd.lang.impl.BatchLanguageProcessor;
 import net.sourceforge.pmd.lang.java.ast.JavaParser;
 import net.sourceforge.pmd.lang.java.internal.JavaLanguageProperties.InferenceLoggingVerbosity;
+import net.sourceforge.pmd.lang.java.rule.JavaSemanticPass;
+import net.sourceforge.pmd.lang.java.rule.RequiresSemanticPasses;
 import net.sourceforge.pmd.lang.java.rule.xpath.internal.BaseContextNodeTestFun;
 import net.sourceforge.pmd.lang.java.rule.xpath.internal.GetCommentOnFunction;
 import net.sourceforge.pmd.lang.java.rule.xpath.internal.GetModifiersFun;
 import net.sourceforge.pmd.lang.java.rule.xpath.internal.MatchesSignatureFunction;
 import net.sourceforge.pmd.lang.java.rule.xpath.internal.MetricFunction;
 import net.sourceforge.pmd.lang.java.rule.xpath.internal.NodeIsFunction;
+import net.sourceforge.pmd.lang.java.symbols.internal.asm.ClassStubCache;
+import net.sourceforge.pmd.lang.java.symbols.internal.asm.Classpath;
+import net.sourceforge.pmd.lang.java.symbols.internal.asm.IndexedClasspath;
+import net.sourceforge.pmd.lang.java.symbols.internal.ast.SourceDeclarationIndex;
+import net.sourceforge.pmd.lang.java.types.InternalApiBridge;
 import net.sourceforge.pmd.lang.java.types.TypeSystem;
 import net.sourceforge.pmd.lang.java.types.internal.infer.TypeInferenceLogger;
 import net.sourceforge.pmd.lang.java.types.internal.infer.TypeInferenceLogger.SimpleLogger;
 import net.sourceforge.pmd.lang.java.types.internal.infer.TypeInferenceLogger.VerboseLogger;
 import net.sourceforge.pmd.lang.metrics.LanguageMetricsProvider;
+import net.sourceforge.pmd.lang.rule.Rule;
+import net.sourceforge.pmd.lang.rule.RuleReference;
 import net.sourceforge.pmd.lang.rule.xpath.impl.XPathHandler;
 import net.sourceforge.pmd.reporting.ViolationDecorator;
 import net.sourceforge.pmd.reporting.ViolationSuppressor;
@@ -44,6 +70,8 @@ public class JavaLanguageProcessor extends BatchLanguageProcessor<JavaLanguagePr
     private final JavaParser parser;
     private final JavaParser parserWithoutProcessing;
     private TypeSystem typeSystem;
+    private @Nullable SymbolClasspath symbolClasspath;
+    private Set<JavaSemanticPass> semanticPasses = EnumSet.allOf(JavaSemanticPass.class);
 
     public JavaLanguageProcessor(JavaLanguageProperties properties, TypeSystem typeSystem) {
         super(properties);
@@ -55,10 +83,97 @@ public class JavaLanguageProcessor extends BatchLanguageProcessor<JavaLanguagePr
     }
 
     public JavaLanguageProcessor(JavaLanguageProperties properties) {
-        this(properties, TypeSystem.usingClassLoaderClasspath(properties.getAnalysisClassLoader()));
+        this(properties, new SymbolClasspath(properties));
+    }
+
+    private JavaLanguageProcessor(JavaLanguageProperties properties, SymbolClasspath symbolClasspath) {
+        this(properties, TypeSystem.usingClasspath(symbolClasspath.classpath));
+        this.symbolClasspath = symbolClasspath;
         LOG.debug("Using analysis classloader: {}", properties.getAnalysisClassLoader());
     }
 
+    @Override
+    public @NonNull AutoCloseable launchAnalysis(@NonNull AnalysisTask task) {
+        semanticPasses = requiredPasses(task.getRulesets().getAllRules());
+        LOG.debug("Semantic passes required by the rules: {}", semanticPasses);
+        if (symbolClasspath != null && symbolClasspath.sourceIndex != null) {
+            SourceDeclarationIndex index = symbolClasspath.sourceIndex;
+            TimeTracker.bench("Source symbol index", () -> indexSources(task, index));
+        }
+        return super.launchAnalysis(task);
+    }
+
+    /**
+     * Returns the optional semantic passes needed by the Java rules among
+     * the given rules. Rules that don't declare their requirements with
+     * {@link RequiresSemanticPasses} need all of them.
+     */
+    Set<JavaSemanticPass> requiredPasses(Collection<? extends Rule> rules) {
+        Set<JavaSemanticPass> passes = EnumSet.noneOf(JavaSemanticPass.class);
+        for (Rule rule : rules) {
+            if (!getLanguage().equals(rule.getLanguage())) {
+                continue;
+            }
+            Rule actual = rule;
+            while (actual instanceof RuleReference) {
+                actual = ((RuleReference) actual).getRule();
+            }
+            RequiresSemanticPasses requirements = actual.getClass().getAnnotation(RequiresSemanticPasses.class);
+            if (requirements == null) {
+                return EnumSet.allOf(JavaSemanticPass.class);
+            }
+            passes.addAll(Arrays.asList(requirements.value()));
+        }
+        return passes;
+    }
+
+    /**
+     * Returns the optional semantic passes that {@link JavaAstProcessor}
+     * performs. This is all of them, unless an analysis was launched
+     * whose rules need fewer passes.
+     */
+    Set<JavaSemanticPass> getSemanticPasses() {
+        return semanticPasses;
+    }
+
+    /**
+     * Parses all the Java files of the analysis, in parallel, and
+     * records their declarations into the index. Files that cannot be
+     * parsed are skipped, the error is reported by the analysis itself.
+     */
+    private void indexSources(AnalysisTask task, SourceDeclarationIndex index) {
+        List<Callable<Void>> jobs = new ArrayList<>();
+        for (TextFile file : task.getFiles()) {
+            if (!file.getLanguageVersion().getLanguage().equals(getLanguage())) {
+                continue;
+            }
+            jobs.add(() -> {
+                try (TextDocument doc = TextDocument.create(file)) {
+                    ParserTask parserTask = new ParserTask(doc, SemanticErrorReporter.noop(), task.getLpRegistry());
+                    index.addFile(parserWithoutProcessing.parse(parserTask));
+                } catch (Exception e) {
+                    LOG.debug("Could not index the declarations of {}", file.getFileId(), e);
+                }
+                return null;
+            });
+        }
+
+        int threads = Math.max(1, Math.min(task.getThreadCount(), jobs.size()));
+        ExecutorService executor = Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "PmdSourceIndexThread");
+            thread.setDaemon(true);
+            return thread;
+        });
+        try {
+            executor.invokeAll(jobs);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            executor.shutdownNow();
+        }
+        LOG.debug("Indexed {} classes declared in {} files", index.size(), jobs.size());
+    }
+
     @Override
     public @NonNull LanguageVersionHandler services() {
         return this;
@@ -133,6 +248,72 @@ public class JavaLanguageProcessor extends BatchLanguageProcessor<JavaLanguagePr
     @Override
     public void close() throws Exception {
         this.typeSystem.logStats();
+        newTypeInfLogger().overloadResolutionCacheStats(InternalApiBridge.getOverloadCache(typeSystem));
+        if (symbolClasspath != null) {
+            symbolClasspath.close();
+        }
         super.close();
     }
+
+    /**
+     * The classpath used by the default type system, built according
+     * to the language properties.
+     */
+    private static final class SymbolClasspath implements AutoCloseable {
+
+        private final @Nullable IndexedClasspath indexedClasspath;
+        private final @Nullable ClassStubCache stubCache;
+        private final @Nullable SourceDeclarationIndex sourceIndex;
+        private final Classpath classpath;
+
+        SymbolClasspath(JavaLanguageProperties properties) {
+            ClassLoader classLoader = properties.getAnalysisClassLoader();
+            String cacheDir = properties.getProperty(JavaLanguageProperties.CLASS_STUB_CACHE);
+            Path cacheDirectory = cacheDir.isEmpty() ? null : Paths.get(cacheDir);
+
+            if (properties.getProperty(JavaLanguageProperties.CLASSPATH_INDEX)
+                && classLoader instanceof ClasspathClassLoader) {
+                indexedClasspath = TimeTracker.bench("Classpath index",
+                    () -> new IndexedClasspath((ClasspathClassLoader) classLoader, cacheDirectory));
+            } else {
+                indexedClasspath = null;
+            }
+
+            if (cacheDirectory == null) {
+                stubCache = null;
+            } else if (indexedClasspath != null) {
+                stubCache = new ClassStubCache(cacheDirectory, indexedClasspath);
+            } else {
+                stubCache = new ClassStubCache(cacheDirectory, classLoader);
+            }
+
+            Classpath base;
+            if (stubCache != null) {
+                base = stubCache;
+            } else if (indexedClasspath != null) {
+                base = indexedClasspath;
+            } else {
+                base = Classpath.forClassLoader(classLoader);
+            }
+
+            if (properties.getProperty(JavaLanguageProperties.SOURCE_SYMBOL_INDEX)) {
+                sourceIndex = new SourceDeclarationIndex(base);
+                // the declarations of the analysed sources take precedence over the auxclasspath
+                classpath = sourceIndex.delegateTo(base);
+            } else {
+                sourceIndex = null;
+                classpath = base;
+            }
+        }
+
+        @Override
+        public void close() {
+            if (stubCache != null) {
+                stubCache.close();
+            }
+            if (indexedClasspath != null) {
+                indexedClasspath.close();
+            }
+        }
+    }
 }
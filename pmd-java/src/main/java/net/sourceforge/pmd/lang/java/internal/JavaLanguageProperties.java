@@ -35,11 +35,70 @@ public class JavaLanguageProperties extends JvmLanguagePropertyBundle {
                        .defaultValue(true)
                        .build();
 
+    /**
+     * If true, all the Java files of the analysis are parsed once before
+     * the analysis starts, to index the classes they declare. Types declared
+     * in other files of the analysis can then be resolved even if they are
+     * not on the auxclasspath.
+     *
+     * @since 7.6.0
+     */
+    public static final PropertyDescriptor<Boolean> SOURCE_SYMBOL_INDEX =
+        PropertyFactory.booleanProperty("sourceSymbolIndex")
+                       .desc("Index the classes declared in the analysed files before the analysis, "
+                                 + "to resolve them even if they are not on the auxclasspath")
+                       .defaultValue(false)
+                       .build();
+
+
+    /**
+     * Directory in which to cache the class files read from jars
+     * on the auxclasspath. Empty to disable the cache.
+     *
+     * @since 7.6.0
+     */
+    public static final PropertyDescriptor<String> CLASS_STUB_CACHE =
+        PropertyFactory.stringProperty("classStubCache")
+                       .desc("Directory in which to cache the class files read from jars between runs, empty to disable the cache")
+                       .defaultValue("")
+                       .build();
+
+
+    /**
+     * If true, the packages of each entry of the auxclasspath are indexed
+     * when the analysis starts, so that class lookups only search the
+     * entries that contain the package of the class.
+     *
+     * @since 7.6.0
+     */
+    public static final PropertyDescriptor<Boolean> CLASSPATH_INDEX =
+        PropertyFactory.booleanProperty("classpathIndex")
+                       .desc("Index the packages of the auxclasspath entries to speed up class lookups")
+                       .defaultValue(false)
+                       .build();
+
+
+    /**
+     * If true, the result of overload resolution for simple method calls
+     * is cached, and shared between the files of the analysis.
+     *
+     * @since 7.6.0
+     */
+    public static final PropertyDescriptor<Boolean> OVERLOAD_RESOLUTION_CACHE =
+        PropertyFactory.booleanProperty("overloadResolutionCache")
+                       .desc("Cache the result of overload resolution for method calls that only involve types of the classpath")
+                       .defaultValue(true)
+                       .build();
+
 
     public JavaLanguageProperties() {
         super(JavaLanguageModule.getInstance());
         definePropertyDescriptor(INTERNAL_INFERENCE_LOGGING_VERBOSITY);
         definePropertyDescriptor(INTERNAL_DO_STRICT_TYPERES);
+        definePropertyDescriptor(SOURCE_SYMBOL_INDEX);
+        definePropertyDescriptor(CLASS_STUB_CACHE);
+        definePropertyDescriptor(CLASSPATH_INDEX);
+        definePropertyDescriptor(OVERLOAD_RESOLUTION_CACHE);
         definePropertyDescriptor(CpdLanguageProperties.CPD_IGNORE_METADATA);
         definePropertyDescriptor(CpdLanguageProperties.CPD_ANONYMIZE_IDENTIFIERS);
         definePropertyDescriptor(CpdLanguageProperties.CPD_ANONYMIZE_LITERALS);
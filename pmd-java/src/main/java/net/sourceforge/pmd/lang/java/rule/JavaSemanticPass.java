@@ -0,0 +1,44 @@
+/*
+ * BSD-style license; for more info see http://pmd.sourceforge.net/license.html
+ */
+
+package net.sourceforge.pmd.lang.java.rule;
+
+import net.sourceforge.pmd.annotation.Experimental;
+import net.sourceforge.pmd.lang.java.ast.ASTMethodDeclaration;
+import net.sourceforge.pmd.lang.java.ast.ASTVariableId;
+import net.sourceforge.pmd.lang.java.ast.JavadocCommentOwner;
+
+/**
+ * The semantic passes of the Java language that may be skipped when no
+ * rule of the analysis needs them. See {@link RequiresSemanticPasses}.
+ *
+ * <p>Symbol resolution, symbol tables and disambiguation are always
+ * performed, as the shape of the AST depends on them.
+ *
+ * @since 7.6.0
+ */
+@Experimental
+public enum JavaSemanticPass {
+    /**
+     * Resolves the type of every expression before the rules run.
+     * Without this pass, types are still resolved lazily when a rule
+     * queries them.
+     */
+    TYPE_RESOLUTION,
+    /**
+     * Records the usages of local variables and fields,
+     * see {@link ASTVariableId#getLocalUsages()}.
+     */
+    USAGE_RESOLUTION,
+    /**
+     * Finds the methods overridden by method declarations,
+     * see {@link ASTMethodDeclaration#getOverriddenMethod()}.
+     */
+    OVERRIDE_RESOLUTION,
+    /**
+     * Attaches javadoc comments to the declarations they document,
+     * see {@link JavadocCommentOwner#getJavadocComment()}.
+     */
+    COMMENT_ASSIGNMENT
+}
@@ -0,0 +1,41 @@
+/*
+ * BSD-style license; for more info see http://pmd.sourceforge.net/license.html
+ */
+
+package net.sourceforge.pmd.lang.java.rule;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+import net.sourceforge.pmd.annotation.Experimental;
+
+/**
+ * Declares which optional semantic passes a Java rule needs. When none
+ * of the rules of an analysis needs a pass, it is skipped, which saves
+ * time when eg only naming or style rules are enabled. Rule classes that
+ * are not annotated, including XPath rules, are assumed to need all passes.
+ *
+ * <p>For example, a rule that only looks at names, but also needs
+ * to know whether a method overrides another:
+ * <pre>{@code
+ * @RequiresSemanticPasses(JavaSemanticPass.OVERRIDE_RESOLUTION)
+ * public class MyRule extends AbstractJavaRulechainRule { ... }
+ * }</pre>
+ *
+ * <p>The annotation is not inherited: subclasses need to declare it again.
+ *
+ * @since 7.6.0
+ */
+@Experimental
+@Documented
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.TYPE)
+public @interface RequiresSemanticPasses {
+
+    /** The passes this rule needs, possibly none. */
+    JavaSemanticPass[] value();
+
+}
@@ -12,6 +12,7 @@ import net.sourceforge.pmd.lang.java.ast.ASTEnumDeclaration;
 import net.sourceforge.pmd.lang.java.ast.ASTRecordDeclaration;
 import net.sourceforge.pmd.lang.java.ast.ASTTypeDeclaration;
 import net.sourceforge.pmd.lang.java.ast.internal.PrettyPrintingUtil;
+import net.sourceforge.pmd.lang.java.rule.RequiresSemanticPasses;
 import net.sourceforge.pmd.lang.java.rule.internal.JavaRuleUtil;
 import net.sourceforge.pmd.lang.java.rule.internal.TestFrameworksUtil;
 import net.sourceforge.pmd.properties.PropertyDescriptor;
@@ -20,6 +21,7 @@ import net.sourceforge.pmd.properties.PropertyDescriptor;
 /**
  * Configurable naming conventions for type declarations.
  */
+@RequiresSemanticPasses({})
 public class ClassNamingConventionsRule extends AbstractNamingConventionRule<ASTTypeDeclaration> {
 
     private final PropertyDescriptor<Pattern> classRegex = defaultProp("class", "concrete class").build();
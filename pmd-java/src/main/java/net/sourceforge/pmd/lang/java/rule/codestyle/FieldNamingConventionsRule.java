@@ -18,6 +18,7 @@ import net.sourceforge.pmd.lang.java.ast.ASTFieldDeclaration;
 import net.sourceforge.pmd.lang.java.ast.ASTTypeDeclaration;
 import net.sourceforge.pmd.lang.java.ast.ASTVariableId;
 import net.sourceforge.pmd.lang.java.ast.internal.JavaAstUtils;
+import net.sourceforge.pmd.lang.java.rule.RequiresSemanticPasses;
 import net.sourceforge.pmd.properties.PropertyDescriptor;
 import net.sourceforge.pmd.properties.PropertyFactory;
 
@@ -28,6 +29,7 @@ import net.sourceforge.pmd.properties.PropertyFactory;
  * @author Clément Fournier
  * @since 6.7.0
  */
+@RequiresSemanticPasses({})
 public class FieldNamingConventionsRule extends AbstractNamingConventionRule<ASTVariableId> {
     // TODO we need a more powerful scheme to match some fields, e.g. include modifiers/type
     // We could define a new property, but specifying property values as a single string doesn't scale
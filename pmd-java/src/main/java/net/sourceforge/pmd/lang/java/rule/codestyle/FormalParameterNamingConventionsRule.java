@@ -8,6 +8,7 @@ package net.sourceforge.pmd.lang.java.rule.codestyle;
 import java.util.regex.Pattern;
 
 import net.sourceforge.pmd.lang.java.ast.ASTVariableId;
+import net.sourceforge.pmd.lang.java.rule.RequiresSemanticPasses;
 import net.sourceforge.pmd.properties.PropertyDescriptor;
 
 
@@ -17,6 +18,7 @@ import net.sourceforge.pmd.properties.PropertyDescriptor;
  * @author Clément Fournier
  * @since 6.6.0
  */
+@RequiresSemanticPasses({})
 public final class FormalParameterNamingConventionsRule extends AbstractNamingConventionRule<ASTVariableId> {
 
     // These are not exhaustive, but are chosen to be the most useful, for a start
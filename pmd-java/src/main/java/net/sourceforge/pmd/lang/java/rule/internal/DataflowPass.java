@@ -9,8 +9,10 @@ import static net.sourceforge.pmd.util.CollectionUtil.asSingle;
 
 import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.BitSet;
 import java.util.Collections;
 import java.util.Deque;
+import java.util.HashMap;
 import java.util.LinkedHashMap;
 import java.util.LinkedHashSet;
 import java.util.List;
@@ -150,12 +152,13 @@ public final class DataflowPass {
         for (ASTTypeDeclaration typeDecl : node.getTypeDeclarations()) {
             GlobalAlgoState subResult = new GlobalAlgoState();
             ReachingDefsVisitor.processTypeDecl(typeDecl, new SpanInfo(subResult));
-            if (subResult.usedAssignments.size() < subResult.allAssignments.size()) {
-                Set<AssignmentEntry> unused = subResult.allAssignments;
-                unused.removeAll(subResult.usedAssignments);
-                unused.removeIf(AssignmentEntry::isUnbound);
-                unused.removeIf(AssignmentEntry::isFieldDefaultValue);
-                dataflowResult.unusedAssignments.addAll(unused);
+            List<AssignmentEntry> all = subResult.assignments;
+            BitSet used = subResult.usedAssignments;
+            for (int i = used.nextClearBit(0); i < all.size(); i = used.nextClearBit(i + 1)) {
+                AssignmentEntry unused = all.get(i);
+                if (!unused.isUnbound() && !unused.isFieldDefaultValue()) {
+                    dataflowResult.unusedAssignments.add(unused);
+                }
             }
 
             CollectionUtil.mergeMaps(
@@ -1008,7 +1011,7 @@ public final class DataflowPass {
                     }
 
                     VarLocalInfo oldVar = result.assign(lhsVar, rhs);
-                    SpanInfo.updateReachingDefs(lhs, lhsVar, oldVar);
+                    result.updateReachingDefs(lhs, lhsVar, oldVar);
                 }
             }
             return result;
@@ -1220,51 +1223,68 @@ public final class DataflowPass {
      */
     private static final class GlobalAlgoState {
 
-        final Set<AssignmentEntry> allAssignments;
-        final Set<AssignmentEntry> usedAssignments;
+        // All the assignments seen so far. Each assignment is numbered
+        // by its index in this list, and sets of assignments are bitsets
+        // of those numbers. Equal assignments, eg visited twice in a loop,
+        // get the same number.
+        final List<AssignmentEntry> assignments = new ArrayList<>();
+        private final Map<AssignmentEntry, Integer> assignmentIds = new HashMap<>();
+        final BitSet usedAssignments = new BitSet();
 
         // track which assignments kill which
         // assignment -> killers(assignment)
-        final Map<AssignmentEntry, Set<AssignmentEntry>> killRecord;
+        final Map<AssignmentEntry, Set<AssignmentEntry>> killRecord = new LinkedHashMap<>();
 
         final TargetStack breakTargets = new TargetStack();
         // continue jumps to the condition check, while break jumps to after the loop
         final TargetStack continueTargets = new TargetStack();
 
-        private GlobalAlgoState(Set<AssignmentEntry> allAssignments,
-                                Set<AssignmentEntry> usedAssignments,
-                                Map<AssignmentEntry, Set<AssignmentEntry>> killRecord) {
-            this.allAssignments = allAssignments;
-            this.usedAssignments = usedAssignments;
-            this.killRecord = killRecord;
-
+        /** Returns the number of the assignment, numbering it if it is new. */
+        int idOf(AssignmentEntry entry) {
+            return assignmentIds.computeIfAbsent(entry, e -> {
+                assignments.add(e);
+                return assignments.size() - 1;
+            });
         }
 
-        private GlobalAlgoState() {
-            this(new LinkedHashSet<>(),
-                 new LinkedHashSet<>(),
-                 new LinkedHashMap<>());
+        /** Returns a new mutable set with the assignments in the bitset. */
+        Set<AssignmentEntry> toEntries(BitSet ids) {
+            Set<AssignmentEntry> result = new LinkedHashSet<>(ids.cardinality());
+            for (int i = ids.nextSetBit(0); i >= 0; i = ids.nextSetBit(i + 1)) {
+                result.add(assignments.get(i));
+            }
+            return result;
         }
     }
 
     // Information about a variable in a code span.
     static class VarLocalInfo {
 
-        // this is not modified so can be shared between different SpanInfos.
-        final Set<AssignmentEntry> reachingDefs;
+        // The numbers of the reaching assignments, see GlobalAlgoState#idOf.
+        // This is not modified so can be shared between different SpanInfos.
+        final BitSet reachingDefs;
 
-        VarLocalInfo(Set<AssignmentEntry> reachingDefs) {
+        VarLocalInfo(BitSet reachingDefs) {
             this.reachingDefs = reachingDefs;
         }
 
+        static VarLocalInfo single(int assignmentId) {
+            BitSet bits = new BitSet(assignmentId + 1);
+            bits.set(assignmentId);
+            return new VarLocalInfo(bits);
+        }
+
         // and produce an independent instance
         VarLocalInfo merge(VarLocalInfo other) {
             if (other == this) { // NOPMD #3205
                 return this;
             }
-            Set<AssignmentEntry> merged = new LinkedHashSet<>(reachingDefs.size() + other.reachingDefs.size());
-            merged.addAll(reachingDefs);
-            merged.addAll(other.reachingDefs);
+            BitSet merged = (BitSet) reachingDefs.clone();
+            merged.or(other.reachingDefs);
+            if (merged.equals(reachingDefs)) {
+                // nothing new, share the existing instance
+                return this;
+            }
             return new VarLocalInfo(merged);
         }
 
@@ -1367,7 +1387,7 @@ public final class DataflowPass {
             AssignmentEntry entry = kind != SpecialAssignmentKind.NOT_SPECIAL
                                     ? new UnboundAssignment(var, node, rhs, kind)
                                     : new AssignmentEntry(var, node, rhs);
-            VarLocalInfo newInfo = new VarLocalInfo(Collections.singleton(entry));
+            VarLocalInfo newInfo = VarLocalInfo.single(global.idOf(entry));
             if (kind.shouldJoinWithPreviousAssignment()) {
                 // For unknown method calls, we don't know if the existing reaching defs were killed or not.
                 // In that case we just add an unbound entry to the existing reaching def set.
@@ -1379,7 +1399,9 @@ public final class DataflowPass {
             VarLocalInfo previous = symtable.put(var, newInfo);
             if (previous != null) {
                 // those assignments were overwritten ("killed")
-                for (AssignmentEntry killed : previous.reachingDefs) {
+                BitSet killedIds = previous.reachingDefs;
+                for (int i = killedIds.nextSetBit(0); i >= 0; i = killedIds.nextSetBit(i + 1)) {
+                    AssignmentEntry killed = global.assignments.get(i);
                     if (killed.isBlankLocal()) {
                         continue;
                     }
@@ -1388,7 +1410,6 @@ public final class DataflowPass {
                                      .add(entry);
                 }
             }
-            global.allAssignments.add(entry);
             return previous;
         }
 
@@ -1427,19 +1448,19 @@ public final class DataflowPass {
             VarLocalInfo info = symtable.get(var);
             // may be null for implicit assignments, like method parameter
             if (info != null) {
-                global.usedAssignments.addAll(info.reachingDefs);
+                global.usedAssignments.or(info.reachingDefs);
                 if (reachingDefSink != null) {
                     updateReachingDefs(reachingDefSink, var, info);
                 }
             }
         }
 
-        private static void updateReachingDefs(@NonNull ASTNamedReferenceExpr reachingDefSink, JVariableSymbol var, VarLocalInfo info) {
+        void updateReachingDefs(@NonNull ASTNamedReferenceExpr reachingDefSink, JVariableSymbol var, VarLocalInfo info) {
             ReachingDefinitionSet reaching;
             if (info == null || var.isField() && var.isFinal()) {
                 return;
             } else {
-                reaching = new ReachingDefinitionSet(new LinkedHashSet<>(info.reachingDefs));
+                reaching = new ReachingDefinitionSet(global.toEntries(info.reachingDefs));
             }
             // need to merge into previous to account for cyclic control flow
             reachingDefSink.getUserMap().merge(REACHING_DEFS, reaching, (current, newer) -> {
@@ -50,6 +50,11 @@ public class BaseContextNodeTestFun<T extends JavaNode> extends BaseJavaXPathFun
         return true;
     }
 
+    @Override
+    public boolean isCacheable() {
+        return true;
+    }
+
     @Override
     public FunctionCall makeCallExpression() {
         return (contextNode, arguments) -> {
@@ -16,6 +16,11 @@ public final class MatchesSignatureFunction extends BaseRewrittenFunction<Invoca
         super("matchesSig", InvocationNode.class);
     }
 
+    @Override
+    public boolean isCacheable() {
+        return true;
+    }
+
     @Override
     protected boolean matches(InvocationNode contextNode, String arg, InvocationMatcher parsedArg, boolean isConstant) {
         return parsedArg.matchesCall(contextNode);
@@ -15,6 +15,7 @@ import org.objectweb.asm.Opcodes;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import net.sourceforge.pmd.internal.util.IOUtil;
 import net.sourceforge.pmd.lang.java.symbols.JClassSymbol;
 import net.sourceforge.pmd.lang.java.symbols.JModuleSymbol;
 import net.sourceforge.pmd.lang.java.symbols.SymbolResolver;
@@ -56,17 +57,26 @@ public class AsmSymbolResolver implements SymbolResolver {
 
         String internalName = getInternalName(binaryName);
 
-        ClassStub found = knownStubs.computeIfAbsent(internalName, iname -> {
-            @Nullable InputStream inputStream = getStreamOfInternalName(iname);
-            if (inputStream == null) {
-                return failed;
+        ClassStub found = knownStubs.get(internalName);
+        if (found == null) {
+            // The class file is looked up outside of the map, so that slow
+            // I/O doesn't block the threads that query other names. If several
+            // threads look up the same class concurrently, the first stub
+            // inserted wins and the others are discarded.
+            @Nullable InputStream inputStream = getStreamOfInternalName(internalName);
+            ClassStub stub = inputStream == null
+                             ? failed
+                             : new ClassStub(this, internalName, new StreamLoader(binaryName, inputStream), ClassStub.UNKNOWN_ARITY);
+            found = knownStubs.putIfAbsent(internalName, stub);
+            if (found == null) {
+                found = stub;
+            } else if (inputStream != null) {
+                IOUtil.closeQuietly(inputStream);
             }
-
-            return new ClassStub(this, iname, new StreamLoader(binaryName, inputStream), ClassStub.UNKNOWN_ARITY);
-        });
+        }
 
         if (!found.hasCanonicalName()) {
-            // note: this check needs to be done outside of computeIfAbsent
+            // note: this check needs to be done outside of the map update
             //  to prevent recursive updates of the knownStubs map.
             knownStubs.put(internalName, failed);
             found = failed;
@@ -117,14 +127,20 @@ public class AsmSymbolResolver implements SymbolResolver {
 
     @SuppressWarnings("PMD.CompareObjectsWithEquals") // ClassStub
     @NonNull ClassStub resolveFromInternalNameCannotFail(@NonNull String internalName, int observedArity) {
-        return knownStubs.compute(internalName, (iname, prev) -> {
-            if (prev != failed && prev != null) {
-                return prev;
-            }
-            @Nullable InputStream inputStream = getStreamOfInternalName(iname);
-            Loader loader = inputStream == null ? FailedLoader.INSTANCE : new StreamLoader(internalName, inputStream);
-            return new ClassStub(this, iname, loader, observedArity);
-        });
+        ClassStub prev = knownStubs.get(internalName);
+        if (prev != null && prev != failed) {
+            return prev;
+        }
+        // Like in resolveClassFromBinaryName, the I/O is done outside
+        // of the map, the remapping function only picks the winner.
+        @Nullable InputStream inputStream = getStreamOfInternalName(internalName);
+        Loader loader = inputStream == null ? FailedLoader.INSTANCE : new StreamLoader(internalName, inputStream);
+        ClassStub stub = new ClassStub(this, internalName, loader, observedArity);
+        ClassStub found = knownStubs.compute(internalName, (iname, cur) -> cur != null && cur != failed ? cur : stub);
+        if (found != stub && inputStream != null) {
+            IOUtil.closeQuietly(inputStream);
+        }
+        return found;
     }
 
     @Override
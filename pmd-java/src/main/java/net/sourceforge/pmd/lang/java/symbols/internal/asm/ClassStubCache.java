@@ -0,0 +1,404 @@
+/*
+ * BSD-style license; for more info see http://pmd.sourceforge.net/license.html
+ */
+
+package net.sourceforge.pmd.lang.java.symbols.internal.asm;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import org.checkerframework.checker.nullness.qual.Nullable;
+import org.objectweb.asm.ClassReader;
+import org.objectweb.asm.ClassWriter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import net.sourceforge.pmd.cache.internal.ClasspathFingerprinter;
+import net.sourceforge.pmd.internal.util.ClasspathClassLoader;
+import net.sourceforge.pmd.internal.util.IOUtil;
+
+/**
+ * A classpath that keeps a persistent cache of the class files it
+ * finds in jars. The cached class files are stripped of everything
+ * that {@link ClassStub} does not read (code, debug info, frames),
+ * so they are much smaller than the original, and are stored
+ * uncompressed. They are still class files, which {@link ClassStub}
+ * parses with ASM as usual: the cache saves decompressing the jar
+ * and reading the parts of the class files that are not used, not
+ * the parsing itself.
+ *
+ * <p>There is one cache file per jar, which is read into memory
+ * when the jar is first accessed. It is only used if the fingerprint of
+ * the jar, as computed by {@link ClasspathFingerprinter}, has not changed.
+ * Class files are only copied out of the buffer when they are
+ * requested. Class files not found in the cache are read from the jar,
+ * and the cache file is replaced by a new one with the new entries when
+ * this classpath is {@linkplain #close() closed}. The file is not mapped,
+ * so that it can be replaced while it is in use.
+ *
+ * <p>Class files of the JDK are kept in a snapshot, which is a cache file
+ * of the same format that is read and replaced the same way, keyed by the
+ * Java installation that provides them.
+ * That is the JDK of the {@code jrt-fs.jar} on the auxclasspath if there
+ * is one, otherwise the JDK PMD runs on. The snapshot also records the
+ * names of the JDK packages (eg {@code javax/}) that were looked up but
+ * are not in the JDK, so that they are not looked up again. It is only
+ * used if the JDK classes cannot be shadowed by the auxclasspath, that is
+ * if the JDK is searched first or the auxclasspath is empty.
+ *
+ * <p>Other class files that are not in a jar (in directories) are not
+ * cached, as reading them is already cheap.
+ */
+public final class ClassStubCache implements Classpath, AutoCloseable {
+
+    private static final Logger LOG = LoggerFactory.getLogger(ClassStubCache.class);
+
+    private static final int MAGIC = 0x504d4453; // "PMDS"
+    private static final int FORMAT_VERSION = 2;
+    private static final String CACHE_FILE_EXT = ".stubs";
+    private static final String CLASS_EXT = ".class";
+    private static final String JAR_SEPARATOR = "!/";
+    private static final String[] JDK_PACKAGES = {
+        "java/", "javax/", "jdk/", "sun/", "com/sun/", "org/w3c/dom/", "org/xml/sax/", "org/ietf/jgss/",
+    };
+    /** Files of the Java installation whose size and timestamp identify it. */
+    private static final String[] JDK_IMAGES = {"lib/modules", "lib/rt.jar", "jre/lib/rt.jar"};
+
+    /** Marks the entries that are known to be absent. */
+    private static final byte[] ABSENT = new byte[0];
+    private static final long ABSENT_POSITION = -1L;
+
+    private final Path directory;
+    private final Function<String, @Nullable URL> locator;
+    private final Classpath classpath;
+    private final ClasspathFingerprinter fingerprinter = new ClasspathFingerprinter();
+    private final ConcurrentMap<String, Optional<JarCache>> jarCaches = new ConcurrentHashMap<>();
+    private final @Nullable JarCache jdkSnapshot;
+
+    private final AtomicInteger hits = new AtomicInteger();
+    private final AtomicInteger misses = new AtomicInteger();
+
+    /**
+     * Create a new cache.
+     *
+     * @param directory   Directory in which to store the cache files
+     * @param classLoader Classloader used to find class files
+     */
+    public ClassStubCache(Path directory, ClassLoader classLoader) {
+        this(directory, classLoader::getResource, Classpath.forClassLoader(classLoader), classLoader);
+    }
+
+    /**
+     * Create a new cache that finds class files in an indexed classpath.
+     *
+     * @param directory Directory in which to store the cache files
+     * @param classpath Classpath used to find class files
+     */
+    public ClassStubCache(Path directory, IndexedClasspath classpath) {
+        this(directory, classpath::getResource, classpath, classpath.getClassLoader());
+    }
+
+    private ClassStubCache(Path directory, Function<String, @Nullable URL> locator, Classpath classpath, ClassLoader classLoader) {
+        this.directory = directory;
+        this.locator = locator;
+        this.classpath = classpath;
+        this.jdkSnapshot = openJdkSnapshot(classLoader);
+    }
+
+    @Override
+    public @Nullable InputStream findResource(String resourcePath) {
+        if (resourcePath.endsWith(CLASS_EXT)) {
+            if (jdkSnapshot != null && isJdkPackage(resourcePath)) {
+                byte[] bytes = jdkSnapshot.get(resourcePath);
+                if (bytes != null) {
+                    return new ByteArrayInputStream(bytes);
+                }
+            }
+            URL url = locator.apply(resourcePath);
+            JarCache jar = url == null ? null : getJarCache(url);
+            if (jar != null) {
+                byte[] bytes = jar.get(resourcePath);
+                if (bytes != null) {
+                    return new ByteArrayInputStream(bytes);
+                }
+            }
+        }
+        return classpath.findResource(resourcePath);
+    }
+
+    private @Nullable JarCache getJarCache(URL url) {
+        if (!"jar".equals(url.getProtocol())) {
+            return null;
+        }
+        String path = url.getPath();
+        int sep = path.indexOf(JAR_SEPARATOR);
+        if (sep < 0 || !path.startsWith("file:")) {
+            // nested jars are not supported
+            return null;
+        }
+        String jarUrl = path.substring(0, sep);
+        return jarCaches.computeIfAbsent(jarUrl, this::openJarCache).orElse(null);
+    }
+
+    private Optional<JarCache> openJarCache(String jarUrl) {
+        try {
+            long fingerprint = fingerprinter.fingerprint(new URL(jarUrl));
+            String fileName = jarUrl.substring(jarUrl.lastIndexOf('/') + 1);
+            // the path is hashed to distinguish jars with the same name
+            Path cacheFile = directory.resolve(fileName + "-" + Integer.toHexString(jarUrl.hashCode()) + CACHE_FILE_EXT);
+            return Optional.of(new JarCache(cacheFile, fingerprint, classpath));
+        } catch (MalformedURLException | RuntimeException e) {
+            LOG.debug("Cannot cache class files of {}", jarUrl, e);
+            return Optional.empty();
+        }
+    }
+
+    private @Nullable JarCache openJdkSnapshot(ClassLoader classLoader) {
+        Path javaHome;
+        Classpath jdk;
+        if (classLoader instanceof ClasspathClassLoader && ((ClasspathClassLoader) classLoader).getJrtFilesystemJavaHome() != null) {
+            ClasspathClassLoader loader = (ClasspathClassLoader) classLoader;
+            javaHome = Paths.get(loader.getJrtFilesystemJavaHome());
+            jdk = resourcePath -> {
+                Path path = loader.findInJrtFilesystem(resourcePath);
+                return path == null ? null : ClasspathClassLoader.newInputStreamFromJrtFilesystem(path);
+            };
+        } else if (classLoader instanceof ClasspathClassLoader && ((ClasspathClassLoader) classLoader).getURLs().length > 0) {
+            // the auxclasspath is searched before the JDK, and may shadow its classes
+            return null;
+        } else {
+            String home = System.getProperty("java.home");
+            if (home == null) {
+                return null;
+            }
+            javaHome = Paths.get(home);
+            String homeUri = "jar:" + javaHome.toFile().toURI();
+            jdk = resourcePath -> {
+                URL url = classLoader.getResource(resourcePath);
+                // only accept the module image, or the rt.jar of Java 8
+                if (url == null || !"jrt".equals(url.getProtocol()) && !url.toString().startsWith(homeUri)) {
+                    return null;
+                }
+                try {
+                    return url.openStream();
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            };
+        }
+
+        try {
+            long fingerprint = javaHome.toString().hashCode();
+            for (String image : JDK_IMAGES) {
+                Path file = javaHome.resolve(image);
+                if (Files.isRegularFile(file)) {
+                    fingerprint = 31 * fingerprint + Files.size(file);
+                    fingerprint = 31 * fingerprint + Files.getLastModifiedTime(file).toMillis();
+                }
+            }
+            Path cacheFile = directory.resolve("jdk-" + Integer.toHexString(javaHome.toString().hashCode()) + CACHE_FILE_EXT);
+            return new JarCache(cacheFile, fingerprint, jdk);
+        } catch (IOException | RuntimeException e) {
+            LOG.debug("Cannot cache class files of the JDK {}", javaHome, e);
+            return null;
+        }
+    }
+
+    private static boolean isJdkPackage(String resourcePath) {
+        for (String prefix : JDK_PACKAGES) {
+            if (resourcePath.startsWith(prefix)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Writes the cache files of the JDK and the jars in which new class
+     * files were found during this run.
+     */
+    @Override
+    public void close() {
+        if (jdkSnapshot != null) {
+            jdkSnapshot.save();
+        }
+        for (Optional<JarCache> jar : jarCaches.values()) {
+            jar.ifPresent(JarCache::save);
+        }
+        LOG.debug("Class stub cache: {} hits, {} misses", hits.get(), misses.get());
+    }
+
+    /**
+     * Returns the class file with everything that is not used by
+     * {@link ClassStub} removed.
+     */
+    static byte[] strip(byte[] classFile) {
+        ClassReader reader = new ClassReader(classFile);
+        ClassWriter writer = new ClassWriter(0);
+        reader.accept(writer, ClassReader.SKIP_CODE | ClassReader.SKIP_DEBUG | ClassReader.SKIP_FRAMES);
+        return writer.toByteArray();
+    }
+
+    /**
+     * The cache of a single jar, or of the JDK. The file format is
+     * <pre>
+     * magic:int version:int fingerprint:long count:int
+     * (nameLength:int name:utf8 offset:int length:int){count}
+     * data
+     * </pre>
+     * where the offsets are relative to the start of the data. Entries
+     * that are known to be absent have a length of -1.
+     */
+    private final class JarCache {
+
+        private final Path cacheFile;
+        private final long fingerprint;
+        private final Classpath source;
+        /**
+         * Entry name to data position, offset in the high bits and length in the low bits,
+         * or {@link #ABSENT_POSITION}.
+         */
+        private final Map<String, Long> index;
+        private final @Nullable ByteBuffer data;
+        private final ConcurrentMap<String, byte[]> added = new ConcurrentHashMap<>();
+
+        JarCache(Path cacheFile, long fingerprint, Classpath source) {
+            this.cacheFile = cacheFile;
+            this.fingerprint = fingerprint;
+            this.source = source;
+
+            Map<String, Long> index = Collections.emptyMap();
+            ByteBuffer data = null;
+            if (Files.isRegularFile(cacheFile)) {
+                try {
+                    // not mapped, as save() replaces the file
+                    ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(cacheFile));
+                    if (buffer.getInt() == MAGIC && buffer.getInt() == FORMAT_VERSION && buffer.getLong() == fingerprint) {
+                        index = readIndex(buffer);
+                        data = buffer.slice();
+                    }
+                } catch (IOException | RuntimeException e) {
+                    // the file is corrupt, it will be overwritten
+                    LOG.debug("Ignoring class stub cache {}", cacheFile, e);
+                    index = Collections.emptyMap();
+                    data = null;
+                }
+            }
+            this.index = index;
+            this.data = data;
+        }
+
+        private Map<String, Long> readIndex(ByteBuffer buffer) {
+            int count = buffer.getInt();
+            Map<String, Long> result = new HashMap<>(count * 2);
+            for (int i = 0; i < count; i++) {
+                byte[] name = new byte[buffer.getInt()];
+                buffer.get(name);
+                long offset = buffer.getInt();
+                int length = buffer.getInt();
+                result.put(new String(name, StandardCharsets.UTF_8), length < 0 ? ABSENT_POSITION : offset << 32 | length);
+            }
+            return result;
+        }
+
+        @Nullable byte[] get(String entryName) {
+            Long position = index.get(entryName);
+            if (position != null && data != null) {
+                hits.incrementAndGet();
+                return position == ABSENT_POSITION ? null : read(position);
+            }
+            byte[] bytes = added.get(entryName);
+            if (bytes != null) {
+                return bytes == ABSENT ? null : bytes; // NOPMD CompareObjectsWithEquals
+            }
+
+            misses.incrementAndGet();
+            try (InputStream stream = source.findResource(entryName)) {
+                if (stream == null) {
+                    added.put(entryName, ABSENT);
+                    return null;
+                }
+                bytes = strip(IOUtil.toByteArray(stream));
+            } catch (IOException | RuntimeException e) {
+                // let the class stub report the problem
+                LOG.debug("Cannot read class file {}", entryName, e);
+                return null;
+            }
+            added.put(entryName, bytes);
+            return bytes;
+        }
+
+        private byte[] read(long position) {
+            ByteBuffer buf = data.duplicate();
+            buf.position((int) (position >>> 32));
+            byte[] bytes = new byte[(int) position];
+            buf.get(bytes);
+            return bytes;
+        }
+
+        void save() {
+            if (added.isEmpty()) {
+                return;
+            }
+            Map<String, byte[]> entries = new TreeMap<>(added);
+            if (data != null) {
+                for (Map.Entry<String, Long> entry : index.entrySet()) {
+                    long position = entry.getValue();
+                    entries.put(entry.getKey(), position == ABSENT_POSITION ? ABSENT : read(position));
+                }
+            }
+
+            try {
+                Files.createDirectories(directory);
+                Path tmp = Files.createTempFile(directory, cacheFile.getFileName().toString(), ".tmp");
+                try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tmp)))) {
+                    out.writeInt(MAGIC);
+                    out.writeInt(FORMAT_VERSION);
+                    out.writeLong(fingerprint);
+                    out.writeInt(entries.size());
+                    int offset = 0;
+                    for (Map.Entry<String, byte[]> entry : entries.entrySet()) {
+                        byte[] name = entry.getKey().getBytes(StandardCharsets.UTF_8);
+                        out.writeInt(name.length);
+                        out.write(name);
+                        byte[] bytes = entry.getValue();
+                        out.writeInt(offset);
+                        if (bytes == ABSENT) { // NOPMD CompareObjectsWithEquals
+                            out.writeInt(-1);
+                        } else {
+                            out.writeInt(bytes.length);
+                            offset += bytes.length;
+                        }
+                    }
+                    for (byte[] bytes : entries.values()) {
+                        out.write(bytes);
+                    }
+                }
+                Files.move(tmp, cacheFile, StandardCopyOption.REPLACE_EXISTING);
+            } catch (IOException e) {
+                LOG.warn("Cannot write class stub cache {}: {}", cacheFile, e.toString());
+            }
+        }
+    }
+}
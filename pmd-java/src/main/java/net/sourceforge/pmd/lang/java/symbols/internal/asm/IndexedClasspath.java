@@ -0,0 +1,395 @@
+/*
+ * BSD-style license; for more info see http://pmd.sourceforge.net/license.html
+ */
+
+package net.sourceforge.pmd.lang.java.symbols.internal.asm;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.MalformedURLException;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.nio.file.FileSystem;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+import org.checkerframework.checker.nullness.qual.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import net.sourceforge.pmd.internal.util.ClasspathClassLoader;
+
+/**
+ * A classpath that finds resources in the entries of a {@link ClasspathClassLoader}
+ * using an index of the packages of each entry. The index is built once,
+ * in parallel, when this classpath is created. A lookup only searches
+ * the entries that contain the package of the resource, so that resources
+ * that are not on the classpath, which are frequently queried by the
+ * symbol resolver, are rejected without opening any jar.
+ *
+ * <p>Jars are opened as zip file systems the first time a resource is
+ * looked up in them, and stay open until this classpath is {@linkplain #close() closed}.
+ * If a cache directory is given, the package list of each jar is saved
+ * there, and reused as long as the size and modification time of the jar
+ * don't change. The jars whose packages are never queried are then not
+ * opened at all.
+ *
+ * <p>Lookups have the same precedence as {@link ClasspathClassLoader#getResourceAsStream(String)}:
+ * the jrt filesystem first, then the entries of the classpath, then the
+ * parent classloader.
+ */
+public final class IndexedClasspath implements Classpath, AutoCloseable {
+
+    private static final Logger LOG = LoggerFactory.getLogger(IndexedClasspath.class);
+
+    private static final int MAGIC = 0x504d4449; // "PMDI"
+    private static final int FORMAT_VERSION = 1;
+    private static final String CACHE_FILE_EXT = ".pkgs";
+    private static final String MODULE_INFO = "module-info.class";
+    private static final Entry[] NO_ENTRIES = new Entry[0];
+
+    private final ClasspathClassLoader classLoader;
+    private final List<Entry> entries;
+    /** Package internal name (eg {@code java/lang}) to the entries that contain it, in classpath order. */
+    private final Map<String, Entry[]> packageIndex;
+
+    /**
+     * Create a new classpath and index the entries of the classloader.
+     *
+     * @param classLoader    Classloader whose entries to index
+     * @param cacheDirectory Directory in which to cache the package lists of jars, may be null
+     */
+    public IndexedClasspath(ClasspathClassLoader classLoader, @Nullable Path cacheDirectory) {
+        this.classLoader = classLoader;
+
+        List<Entry> entries = new ArrayList<>();
+        for (URL url : classLoader.getURLs()) {
+            try {
+                Path path = Paths.get(url.toURI());
+                if (Files.isDirectory(path)) {
+                    entries.add(new DirectoryEntry(url, path));
+                } else if (Files.isRegularFile(path)) {
+                    entries.add(new JarEntry(url, path));
+                }
+            } catch (URISyntaxException | RuntimeException e) {
+                LOG.debug("Cannot index classpath entry {}", url, e);
+            }
+        }
+        this.entries = Collections.unmodifiableList(entries);
+
+        List<Set<String>> packages = entries.parallelStream()
+                                            .map(it -> it.listPackages(cacheDirectory))
+                                            .collect(Collectors.toList());
+
+        Map<String, List<Entry>> index = new HashMap<>();
+        for (int i = 0; i < entries.size(); i++) {
+            for (String pkg : packages.get(i)) {
+                index.computeIfAbsent(pkg, k -> new ArrayList<>(1)).add(entries.get(i));
+            }
+        }
+        Map<String, Entry[]> packageIndex = new HashMap<>(index.size() * 2);
+        index.forEach((pkg, list) -> packageIndex.put(pkg, list.toArray(new Entry[0])));
+        this.packageIndex = packageIndex;
+        LOG.debug("Indexed {} packages in {} classpath entries", packageIndex.size(), entries.size());
+    }
+
+    @Override
+    public @Nullable InputStream findResource(String resourcePath) {
+        if (resourcePath.endsWith(MODULE_INFO)) {
+            // modules are looked up by name, which the classloader handles
+            return classLoader.getResourceAsStream(resourcePath);
+        }
+        Path jrtPath = classLoader.findInJrtFilesystem(resourcePath);
+        if (jrtPath != null) {
+            return ClasspathClassLoader.newInputStreamFromJrtFilesystem(jrtPath);
+        }
+        for (Entry entry : entriesForPackage(resourcePath)) {
+            InputStream stream = entry.open(resourcePath);
+            if (stream != null) {
+                return stream;
+            }
+        }
+        ClassLoader parent = classLoader.getParent();
+        return parent == null ? null : parent.getResourceAsStream(resourcePath);
+    }
+
+    /**
+     * Returns the URL of the given resource, if {@link #findResource(String)}
+     * would find it in one of the entries of this classpath. Returns null
+     * if it is not found, or found in the jrt filesystem or the parent classloader.
+     */
+    public @Nullable URL getResource(String resourcePath) {
+        if (resourcePath.endsWith(MODULE_INFO) || classLoader.findInJrtFilesystem(resourcePath) != null) {
+            return null;
+        }
+        for (Entry entry : entriesForPackage(resourcePath)) {
+            if (entry.contains(resourcePath)) {
+                try {
+                    return entry.urlOf(resourcePath);
+                } catch (MalformedURLException e) {
+                    return null;
+                }
+            }
+        }
+        return null;
+    }
+
+    ClasspathClassLoader getClassLoader() {
+        return classLoader;
+    }
+
+    private Entry[] entriesForPackage(String resourcePath) {
+        Entry[] found = packageIndex.get(packageOf(resourcePath));
+        return found == null ? NO_ENTRIES : found;
+    }
+
+    /**
+     * Closes the zip file systems that were opened.
+     */
+    @Override
+    public void close() {
+        for (Entry entry : entries) {
+            entry.close();
+        }
+    }
+
+    private static String packageOf(String entryName) {
+        int lastSlash = entryName.lastIndexOf('/');
+        return lastSlash < 0 ? "" : entryName.substring(0, lastSlash);
+    }
+
+    private abstract static class Entry {
+
+        final URL url;
+        final Path path;
+
+        Entry(URL url, Path path) {
+            this.url = url;
+            this.path = path;
+        }
+
+        abstract Set<String> listPackages(@Nullable Path cacheDirectory);
+
+        abstract boolean contains(String resourcePath);
+
+        abstract @Nullable InputStream open(String resourcePath);
+
+        abstract URL urlOf(String resourcePath) throws MalformedURLException;
+
+        void close() {
+            // nothing to do
+        }
+
+        @Override
+        public String toString() {
+            return url.toString();
+        }
+    }
+
+    private static final class DirectoryEntry extends Entry {
+
+        DirectoryEntry(URL url, Path path) {
+            super(url, path);
+        }
+
+        @Override
+        Set<String> listPackages(@Nullable Path cacheDirectory) {
+            // directories are usually the output of the build, they change often
+            try (Stream<Path> files = Files.walk(path)) {
+                return files.filter(Files::isRegularFile)
+                            .map(it -> packageOf(path.relativize(it).toString().replace('\\', '/')))
+                            .collect(Collectors.toSet());
+            } catch (IOException | RuntimeException e) {
+                LOG.debug("Cannot list the files of {}", path, e);
+                return Collections.emptySet();
+            }
+        }
+
+        @Override
+        boolean contains(String resourcePath) {
+            return Files.isRegularFile(path.resolve(resourcePath));
+        }
+
+        @Override
+        @Nullable InputStream open(String resourcePath) {
+            Path file = path.resolve(resourcePath);
+            try {
+                return Files.isRegularFile(file) ? Files.newInputStream(file) : null;
+            } catch (IOException e) {
+                LOG.debug("Cannot read {}", file, e);
+                return null;
+            }
+        }
+
+        @Override
+        URL urlOf(String resourcePath) throws MalformedURLException {
+            return path.resolve(resourcePath).toUri().toURL();
+        }
+    }
+
+    private static final class JarEntry extends Entry {
+
+        private final Object lock = new Object();
+        private volatile @Nullable FileSystem fileSystem;
+        private boolean failed;
+
+        JarEntry(URL url, Path path) {
+            super(url, path);
+        }
+
+        @Override
+        Set<String> listPackages(@Nullable Path cacheDirectory) {
+            try {
+                long size = Files.size(path);
+                long lastModified = Files.getLastModifiedTime(path).toMillis();
+                Path cacheFile = null;
+                if (cacheDirectory != null) {
+                    String fileName = path.getFileName().toString();
+                    // the path is hashed to distinguish jars with the same name
+                    cacheFile = cacheDirectory.resolve(fileName + "-" + Integer.toHexString(path.toString().hashCode()) + CACHE_FILE_EXT);
+                    Set<String> cached = readCache(cacheFile, size, lastModified);
+                    if (cached != null) {
+                        return cached;
+                    }
+                }
+
+                Set<String> packages = new HashSet<>();
+                try (ZipFile zip = new ZipFile(path.toFile())) {
+                    Enumeration<? extends ZipEntry> zipEntries = zip.entries();
+                    while (zipEntries.hasMoreElements()) {
+                        ZipEntry zipEntry = zipEntries.nextElement();
+                        if (!zipEntry.isDirectory()) {
+                            packages.add(packageOf(zipEntry.getName()));
+                        }
+                    }
+                }
+                if (cacheFile != null) {
+                    writeCache(cacheFile, size, lastModified, packages);
+                }
+                return packages;
+            } catch (IOException | RuntimeException e) {
+                LOG.debug("Cannot list the entries of {}", path, e);
+                return Collections.emptySet();
+            }
+        }
+
+        private @Nullable Set<String> readCache(Path cacheFile, long size, long lastModified) {
+            if (!Files.isRegularFile(cacheFile)) {
+                return null;
+            }
+            try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(cacheFile)))) {
+                if (in.readInt() != MAGIC || in.readInt() != FORMAT_VERSION
+                    || in.readLong() != size || in.readLong() != lastModified) {
+                    return null;
+                }
+                int count = in.readInt();
+                Set<String> packages = new HashSet<>(count * 2);
+                for (int i = 0; i < count; i++) {
+                    packages.add(in.readUTF());
+                }
+                return packages;
+            } catch (IOException e) {
+                // the file is corrupt, it will be overwritten
+                LOG.debug("Ignoring classpath index cache {}", cacheFile, e);
+                return null;
+            }
+        }
+
+        private void writeCache(Path cacheFile, long size, long lastModified, Set<String> packages) {
+            try {
+                Files.createDirectories(cacheFile.getParent());
+                Path tmp = Files.createTempFile(cacheFile.getParent(), cacheFile.getFileName().toString(), ".tmp");
+                try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tmp)))) {
+                    out.writeInt(MAGIC);
+                    out.writeInt(FORMAT_VERSION);
+                    out.writeLong(size);
+                    out.writeLong(lastModified);
+                    out.writeInt(packages.size());
+                    for (String pkg : packages) {
+                        out.writeUTF(pkg);
+                    }
+                }
+                Files.move(tmp, cacheFile, StandardCopyOption.REPLACE_EXISTING);
+            } catch (IOException e) {
+                LOG.warn("Cannot write classpath index cache {}: {}", cacheFile, e.toString());
+            }
+        }
+
+        private @Nullable FileSystem getFileSystem() {
+            FileSystem fs = fileSystem;
+            if (fs != null) {
+                return fs;
+            }
+            synchronized (lock) {
+                if (fileSystem == null && !failed) {
+                    try {
+                        fileSystem = FileSystems.newFileSystem(path, (ClassLoader) null);
+                    } catch (IOException | RuntimeException e) {
+                        LOG.debug("Cannot open {}", path, e);
+                        failed = true;
+                    }
+                }
+                return fileSystem;
+            }
+        }
+
+        @Override
+        boolean contains(String resourcePath) {
+            FileSystem fs = getFileSystem();
+            return fs != null && Files.isRegularFile(fs.getPath(resourcePath));
+        }
+
+        @Override
+        @Nullable InputStream open(String resourcePath) {
+            FileSystem fs = getFileSystem();
+            if (fs == null) {
+                return null;
+            }
+            Path file = fs.getPath(resourcePath);
+            try {
+                return Files.isRegularFile(file) ? Files.newInputStream(file) : null;
+            } catch (IOException e) {
+                LOG.debug("Cannot read {} in {}", resourcePath, path, e);
+                return null;
+            }
+        }
+
+        @Override
+        URL urlOf(String resourcePath) throws MalformedURLException {
+            return new URL("jar:" + url + "!/" + resourcePath);
+        }
+
+        @Override
+        void close() {
+            synchronized (lock) {
+                if (fileSystem != null) {
+                    try {
+                        fileSystem.close();
+                    } catch (IOException e) {
+                        LOG.debug("Cannot close {}", path, e);
+                    }
+                    fileSystem = null;
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,543 @@
+/*
+ * BSD-style license; for more info see http://pmd.sourceforge.net/license.html
+ */
+
+package net.sourceforge.pmd.lang.java.symbols.internal.ast;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.checkerframework.checker.nullness.qual.Nullable;
+import org.objectweb.asm.ClassWriter;
+import org.objectweb.asm.FieldVisitor;
+import org.objectweb.asm.MethodVisitor;
+import org.objectweb.asm.Opcodes;
+
+import net.sourceforge.pmd.lang.java.symbols.internal.ast.SourceTypeDecl.ArrayRef;
+import net.sourceforge.pmd.lang.java.symbols.internal.ast.SourceTypeDecl.ClassRef;
+import net.sourceforge.pmd.lang.java.symbols.internal.ast.SourceTypeDecl.Member;
+import net.sourceforge.pmd.lang.java.symbols.internal.ast.SourceTypeDecl.PrimitiveRef;
+import net.sourceforge.pmd.lang.java.symbols.internal.ast.SourceTypeDecl.TypeParam;
+import net.sourceforge.pmd.lang.java.symbols.internal.ast.SourceTypeDecl.TypeRef;
+import net.sourceforge.pmd.lang.java.symbols.internal.ast.SourceTypeDecl.WildcardRef;
+
+/**
+ * Generates the synthetic class file of a {@link SourceTypeDecl}.
+ * This resolves the type names written in the declaration, roughly
+ * following the scoping rules of the JLS: type parameters, member
+ * types of the enclosing classes and of their supertypes that are
+ * declared in the sources, single-type imports, the package,
+ * on-demand imports, and then {@code java.lang}. Qualified names
+ * are resolved as canonical names. Names that cannot be resolved
+ * are assumed to be in the current package, which produces an
+ * unresolved symbol, as would happen with an incomplete auxclasspath.
+ *
+ * <p>Every member gets a generic signature, even if it does not
+ * use generics, so that the descriptor is never parsed by the
+ * symbol resolver.
+ */
+final class SourceClassFileWriter {
+
+    static final String CTOR = "<init>";
+
+    private static final String OBJECT = "java/lang/Object";
+    private static final int MAX_ERASURE_DEPTH = 16;
+    private static final int ACCESS_MASK = Opcodes.ACC_PUBLIC | Opcodes.ACC_PROTECTED | Opcodes.ACC_PRIVATE;
+
+    private final SourceDeclarationIndex index;
+    private final SourceTypeDecl decl;
+    private final boolean searchInheritedMembers;
+    // simple name -> internal name, "" if not found
+    private final Map<String, String> resolvedNames = new HashMap<>();
+
+    SourceClassFileWriter(SourceDeclarationIndex index, SourceTypeDecl decl) {
+        this(index, decl, true);
+    }
+
+    private SourceClassFileWriter(SourceDeclarationIndex index, SourceTypeDecl decl, boolean searchInheritedMembers) {
+        this.index = index;
+        this.decl = decl;
+        this.searchInheritedMembers = searchInheritedMembers;
+    }
+
+    byte[] toByteArray() {
+        ClassWriter cw = new ClassWriter(0);
+
+        boolean isEnum = (decl.access & Opcodes.ACC_ENUM) != 0;
+        boolean isRecord = (decl.access & Opcodes.ACC_RECORD) != 0;
+        boolean isInterface = (decl.access & Opcodes.ACC_INTERFACE) != 0;
+
+        StringBuilder signature = new StringBuilder();
+        appendTypeParams(signature, decl.typeParams, Collections.emptyList());
+
+        String superName;
+        if (isEnum) {
+            superName = "java/lang/Enum";
+            signature.append("Ljava/lang/Enum<L").append(decl.internalName).append(";>;");
+        } else if (isRecord) {
+            superName = "java/lang/Record";
+            signature.append("Ljava/lang/Record;");
+        } else if (isInterface || decl.superclass == null) {
+            superName = OBJECT;
+            signature.append("Ljava/lang/Object;");
+        } else {
+            superName = erasedInternalName(decl.superclass, Collections.emptyList());
+            appendSignature(signature, decl.superclass, Collections.emptyList());
+        }
+
+        List<String> interfaces = new ArrayList<>(decl.interfaces.size() + 1);
+        for (TypeRef itf : decl.interfaces) {
+            interfaces.add(erasedInternalName(itf, Collections.emptyList()));
+            appendSignature(signature, itf, Collections.emptyList());
+        }
+        if ((decl.access & Opcodes.ACC_ANNOTATION) != 0) {
+            interfaces.add("java/lang/annotation/Annotation");
+            signature.append("Ljava/lang/annotation/Annotation;");
+        }
+
+        // the class info does not have the modifiers that are only valid on nested classes
+        int classAccess = decl.access & ~(Opcodes.ACC_PRIVATE | Opcodes.ACC_PROTECTED | Opcodes.ACC_STATIC | Opcodes.ACC_RECORD);
+        if ((decl.access & Opcodes.ACC_PROTECTED) != 0) {
+            classAccess |= Opcodes.ACC_PUBLIC;
+        }
+        cw.visit(Opcodes.V17, classAccess, decl.internalName, signature.toString(), superName, interfaces.toArray(new String[0]));
+
+        for (TypeRef annot : decl.annotations) {
+            cw.visitAnnotation(erasure(annot, Collections.emptyList()), true).visitEnd();
+        }
+
+        if (decl.enclosing != null) {
+            cw.visitInnerClass(decl.internalName, decl.enclosing.internalName, decl.simpleName, decl.access & ~Opcodes.ACC_RECORD);
+        }
+        for (SourceTypeDecl member : decl.memberTypes) {
+            cw.visitInnerClass(member.internalName, decl.internalName, member.simpleName, member.access & ~Opcodes.ACC_RECORD);
+        }
+
+        for (Member component : decl.recordComponents) {
+            cw.visitRecordComponent(component.name, erasure(component.type, Collections.emptyList()), signature(component.type))
+              .visitEnd();
+            writeField(cw, new Member(component.name, Opcodes.ACC_PRIVATE | Opcodes.ACC_FINAL, component.type, Collections.emptyList(), null));
+        }
+        for (Member field : decl.fields) {
+            writeField(cw, field);
+        }
+        for (Member method : decl.methods) {
+            writeMethod(cw, method);
+        }
+        writeImplicitMethods(cw, isEnum, isRecord, isInterface);
+
+        cw.visitEnd();
+        return cw.toByteArray();
+    }
+
+    private void writeImplicitMethods(ClassWriter cw, boolean isEnum, boolean isRecord, boolean isInterface) {
+        ClassRef self = new ClassRef(Collections.singletonList(decl.simpleName), Collections.singletonList(Collections.emptyList()));
+        int publicStatic = Opcodes.ACC_PUBLIC | Opcodes.ACC_STATIC;
+        if (isEnum) {
+            writeMethod(cw, method("values", publicStatic, new ArrayRef(self), Collections.emptyList()));
+            writeMethod(cw, method("valueOf", publicStatic, self, Collections.singletonList(stringRef())));
+        }
+        if (isRecord) {
+            List<TypeRef> componentTypes = new ArrayList<>();
+            int ctorAccess = decl.access & ACCESS_MASK;
+            for (Member component : decl.recordComponents) {
+                componentTypes.add(component.type);
+                ctorAccess |= component.access & Opcodes.ACC_VARARGS;
+                if (!hasMethod(component.name, 0)) {
+                    writeMethod(cw, method(component.name, Opcodes.ACC_PUBLIC, component.type, Collections.emptyList()));
+                }
+            }
+            if (!hasMethod(CTOR, componentTypes.size())) {
+                writeMethod(cw, method(CTOR, ctorAccess, null, componentTypes));
+            }
+        } else if (!isInterface && !hasMethod(CTOR, -1)) {
+            // default constructor
+            int access = isEnum ? Opcodes.ACC_PRIVATE : decl.access & ACCESS_MASK;
+            writeMethod(cw, method(CTOR, access, null, Collections.emptyList()));
+        }
+    }
+
+    private static Member method(String name, int access, @Nullable TypeRef result, List<TypeRef> params) {
+        return new Member(name, access, result, Collections.emptyList(), params, Collections.emptyList(), Collections.emptyList(), null);
+    }
+
+    private static ClassRef stringRef() {
+        List<TypeRef> noArgs = Collections.emptyList();
+        return new ClassRef(Arrays.asList("java", "lang", "String"), Arrays.asList(noArgs, noArgs, noArgs));
+    }
+
+    /** Whether a method with the given name and arity is declared. An arity of -1 matches any arity. */
+    private boolean hasMethod(String name, int arity) {
+        for (Member method : decl.methods) {
+            if (method.name.equals(name) && (arity < 0 || method.parameters.size() == arity)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void writeField(ClassWriter cw, Member field) {
+        String descriptor = erasure(field.type, Collections.emptyList());
+        Object value = constantValue(field.constantValue, descriptor);
+        FieldVisitor fv = cw.visitField(field.access, field.name, descriptor, signature(field.type), value);
+        for (TypeRef annot : field.annotations) {
+            fv.visitAnnotation(erasure(annot, Collections.emptyList()), true).visitEnd();
+        }
+        fv.visitEnd();
+    }
+
+    private void writeMethod(ClassWriter cw, Member method) {
+        List<TypeParam> tparams = method.typeParams;
+        StringBuilder descriptor = new StringBuilder("(");
+        StringBuilder signature = new StringBuilder();
+        appendTypeParams(signature, tparams, tparams);
+        signature.append('(');
+
+        if (CTOR.equals(method.name) && isInnerClass()) {
+            // the descriptor has the synthetic outer instance parameter, not the signature
+            descriptor.append('L').append(decl.enclosing.internalName).append(';');
+        }
+        for (TypeRef param : method.parameters) {
+            descriptor.append(erasure(param, tparams));
+            appendSignature(signature, param, tparams);
+        }
+        descriptor.append(')');
+        signature.append(')');
+        if (method.type == null) {
+            descriptor.append('V');
+            signature.append('V');
+        } else {
+            descriptor.append(erasure(method.type, tparams));
+            appendSignature(signature, method.type, tparams);
+        }
+
+        String[] exceptions = null;
+        if (!method.thrown.isEmpty()) {
+            exceptions = new String[method.thrown.size()];
+            for (int i = 0; i < exceptions.length; i++) {
+                TypeRef thrown = method.thrown.get(i);
+                exceptions[i] = erasedInternalName(thrown, tparams);
+                signature.append('^');
+                appendSignature(signature, thrown, tparams);
+            }
+        }
+
+        MethodVisitor mv = cw.visitMethod(method.access, method.name, descriptor.toString(), signature.toString(), exceptions);
+        for (TypeRef annot : method.annotations) {
+            mv.visitAnnotation(erasure(annot, tparams), true).visitEnd();
+        }
+        mv.visitEnd();
+    }
+
+    private boolean isInnerClass() {
+        return decl.enclosing != null
+            && (decl.access & (Opcodes.ACC_STATIC | Opcodes.ACC_INTERFACE | Opcodes.ACC_ENUM | Opcodes.ACC_RECORD)) == 0;
+    }
+
+    // <editor-fold  defaultstate="collapsed" desc="Signatures">
+
+    private String signature(TypeRef type) {
+        StringBuilder sb = new StringBuilder();
+        appendSignature(sb, type, Collections.emptyList());
+        return sb.toString();
+    }
+
+    private void appendTypeParams(StringBuilder sb, List<TypeParam> tparams, List<TypeParam> methodTParams) {
+        if (tparams.isEmpty()) {
+            return;
+        }
+        sb.append('<');
+        for (TypeParam tparam : tparams) {
+            sb.append(tparam.name).append(':');
+            if (tparam.bounds.isEmpty()) {
+                sb.append("Ljava/lang/Object;");
+            }
+            for (int i = 0; i < tparam.bounds.size(); i++) {
+                if (i > 0) {
+                    sb.append(':');
+                }
+                appendSignature(sb, tparam.bounds.get(i), methodTParams);
+            }
+        }
+        sb.append('>');
+    }
+
+    private void appendSignature(StringBuilder sb, TypeRef type, List<TypeParam> methodTParams) {
+        if (type instanceof PrimitiveRef) {
+            sb.append(((PrimitiveRef) type).descriptor);
+        } else if (type instanceof ArrayRef) {
+            sb.append('[');
+            appendSignature(sb, ((ArrayRef) type).component, methodTParams);
+        } else if (type instanceof WildcardRef) {
+            WildcardRef wildcard = (WildcardRef) type;
+            sb.append(wildcard.indicator);
+            if (wildcard.bound != null) {
+                appendSignature(sb, wildcard.bound, methodTParams);
+            }
+        } else {
+            ClassRef classRef = (ClassRef) type;
+            if (classRef.isSimpleName() && findTypeParam(classRef.names.get(0), methodTParams) != null) {
+                sb.append('T').append(classRef.names.get(0)).append(';');
+                return;
+            }
+            ResolvedName resolved = resolve(classRef);
+            sb.append('L').append(resolved.topInternalName);
+            boolean hasTypeArgs = false;
+            for (int i = resolved.firstClassSegment; i < classRef.names.size(); i++) {
+                if (i > resolved.firstClassSegment) {
+                    // after a parameterized segment, the following ones are inner classes
+                    sb.append(hasTypeArgs ? '.' : '$').append(classRef.names.get(i));
+                }
+                List<TypeRef> args = classRef.typeArgs.get(i);
+                if (!args.isEmpty()) {
+                    hasTypeArgs = true;
+                    sb.append('<');
+                    for (TypeRef arg : args) {
+                        appendSignature(sb, arg, methodTParams);
+                    }
+                    sb.append('>');
+                }
+            }
+            sb.append(';');
+        }
+    }
+
+    private String erasure(TypeRef type, List<TypeParam> methodTParams) {
+        StringBuilder sb = new StringBuilder();
+        appendErasure(sb, type, methodTParams, 0);
+        return sb.toString();
+    }
+
+    private String erasedInternalName(TypeRef type, List<TypeParam> methodTParams) {
+        String erasure = erasure(type, methodTParams);
+        return erasure.charAt(0) == 'L' ? erasure.substring(1, erasure.length() - 1) : OBJECT;
+    }
+
+    private void appendErasure(StringBuilder sb, TypeRef type, List<TypeParam> methodTParams, int depth) {
+        if (type instanceof PrimitiveRef) {
+            sb.append(((PrimitiveRef) type).descriptor);
+        } else if (type instanceof ArrayRef) {
+            sb.append('[');
+            appendErasure(sb, ((ArrayRef) type).component, methodTParams, depth);
+        } else if (type instanceof ClassRef) {
+            ClassRef classRef = (ClassRef) type;
+            TypeParam tparam = classRef.isSimpleName() ? findTypeParam(classRef.names.get(0), methodTParams) : null;
+            if (tparam != null) {
+                // the erasure of a type variable is the erasure of its first bound
+                if (tparam.bounds.isEmpty() || depth > MAX_ERASURE_DEPTH) {
+                    sb.append("Ljava/lang/Object;");
+                } else {
+                    appendErasure(sb, tparam.bounds.get(0), methodTParams, depth + 1);
+                }
+                return;
+            }
+            ResolvedName resolved = resolve(classRef);
+            sb.append('L').append(resolved.topInternalName);
+            for (int i = resolved.firstClassSegment + 1; i < classRef.names.size(); i++) {
+                sb.append('$').append(classRef.names.get(i));
+            }
+            sb.append(';');
+        } else {
+            // wildcards only occur as type arguments
+            sb.append("Ljava/lang/Object;");
+        }
+    }
+
+    private static @Nullable Object constantValue(@Nullable Object value, String descriptor) {
+        if (value == null) {
+            return null;
+        }
+        if ("Ljava/lang/String;".equals(descriptor)) {
+            return value instanceof String ? value : null;
+        } else if ("Z".equals(descriptor)) {
+            // booleans are stored as int constants
+            return Boolean.TRUE.equals(value) ? Integer.valueOf(1)
+                                              : Boolean.FALSE.equals(value) ? Integer.valueOf(0) : null;
+        }
+
+        Number number;
+        if (value instanceof Number) {
+            number = (Number) value;
+        } else if (value instanceof Character) {
+            number = (int) (Character) value;
+        } else {
+            return null;
+        }
+        switch (descriptor) {
+        case "B":
+        case "C":
+        case "S":
+        case "I":
+            return number.intValue();
+        case "J":
+            return number.longValue();
+        case "F":
+            return number.floatValue();
+        case "D":
+            return number.doubleValue();
+        default:
+            return null;
+        }
+    }
+
+    // </editor-fold>
+
+    // <editor-fold  defaultstate="collapsed" desc="Name resolution">
+
+    private @Nullable TypeParam findTypeParam(String name, List<TypeParam> methodTParams) {
+        for (TypeParam tparam : methodTParams) {
+            if (tparam.name.equals(name)) {
+                return tparam;
+            }
+        }
+        for (SourceTypeDecl d = decl; d != null; d = d.enclosing) {
+            for (TypeParam tparam : d.typeParams) {
+                if (tparam.name.equals(name)) {
+                    return tparam;
+                }
+            }
+        }
+        return null;
+    }
+
+    private ResolvedName resolve(ClassRef ref) {
+        List<String> names = ref.names;
+        String first = resolveSimpleName(names.get(0));
+        if (first != null) {
+            return new ResolvedName(first, 0);
+        }
+        // then this is a qualified name, the longest prefix
+        // that is a class gives the package
+        for (int i = names.size() - 1; i >= 1; i--) {
+            String candidate = String.join("/", names.subList(0, i + 1));
+            if (index.classExists(candidate)) {
+                return new ResolvedName(candidate, i);
+            }
+        }
+        if (names.size() == 1) {
+            return new ResolvedName(decl.file.packagePrefix + names.get(0), 0);
+        }
+        int last = names.size() - 1;
+        return new ResolvedName(String.join("/", names), last);
+    }
+
+    private @Nullable String resolveSimpleName(String name) {
+        String result = resolvedNames.get(name);
+        if (result == null) {
+            result = computeSimpleName(name);
+            resolvedNames.put(name, result == null ? "" : result);
+        }
+        return result == null || result.isEmpty() ? null : result;
+    }
+
+    private @Nullable String computeSimpleName(String name) {
+        for (SourceTypeDecl d = decl; d != null; d = d.enclosing) {
+            String member = findMemberType(d, name, new HashSet<>());
+            if (member != null) {
+                return member;
+            }
+        }
+
+        for (String imported : decl.file.singleImports) {
+            if (imported.equals(name) || imported.endsWith("." + name)) {
+                String result = resolveCanonicalName(imported);
+                if (result != null) {
+                    return result;
+                }
+            }
+        }
+
+        String samePackage = decl.file.packagePrefix + name;
+        if (index.classExists(samePackage)) {
+            return samePackage;
+        }
+
+        for (String imported : decl.file.onDemandImports) {
+            String result = resolveCanonicalName(imported + "." + name);
+            if (result != null) {
+                return result;
+            }
+        }
+
+        String javaLang = "java/lang/" + name;
+        return index.classExists(javaLang) ? javaLang : null;
+    }
+
+    private @Nullable String findMemberType(SourceTypeDecl owner, String name, Set<SourceTypeDecl> seen) {
+        if (!seen.add(owner)) {
+            return null;
+        }
+        for (SourceTypeDecl member : owner.memberTypes) {
+            if (member.simpleName.equals(name)) {
+                return member.internalName;
+            }
+        }
+        if (!searchInheritedMembers) {
+            // supertypes are resolved without considering inherited members
+            return null;
+        }
+
+        // inherited member types, only if the supertype is declared in the sources
+        SourceClassFileWriter ownerScope = new SourceClassFileWriter(index, owner, false);
+        List<TypeRef> supertypes = new ArrayList<>(owner.interfaces);
+        if (owner.superclass != null) {
+            supertypes.add(0, owner.superclass);
+        }
+        for (TypeRef supertype : supertypes) {
+            SourceTypeDecl superDecl = index.getDeclaration(ownerScope.erasedInternalName(supertype, Collections.emptyList()));
+            if (superDecl != null) {
+                String inherited = findMemberType(superDecl, name, seen);
+                if (inherited != null) {
+                    return inherited;
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Returns the internal name of the class with the given canonical
+     * name, or null if it does not exist.
+     */
+    private @Nullable String resolveCanonicalName(String canonicalName) {
+        String[] segments = canonicalName.split("\\.");
+        // try the longest package first
+        for (int i = segments.length - 1; i >= 0; i--) {
+            StringBuilder sb = new StringBuilder();
+            for (int j = 0; j <= i; j++) {
+                if (j > 0) {
+                    sb.append('/');
+                }
+                sb.append(segments[j]);
+            }
+            if (index.classExists(sb.toString())) {
+                for (int j = i + 1; j < segments.length; j++) {
+                    sb.append('$').append(segments[j]);
+                }
+                return sb.toString();
+            }
+        }
+        return null;
+    }
+
+    private static final class ResolvedName {
+
+        /** Internal name of the class named by the segment at {@link #firstClassSegment}. */
+        final String topInternalName;
+        /** Index of the first segment that names a class, the previous ones are the package. */
+        final int firstClassSegment;
+
+        ResolvedName(String topInternalName, int firstClassSegment) {
+            this.topInternalName = topInternalName;
+            this.firstClassSegment = firstClassSegment;
+        }
+    }
+
+    // </editor-fold>
+}
@@ -0,0 +1,395 @@
+/*
+ * BSD-style license; for more info see http://pmd.sourceforge.net/license.html
+ */
+
+package net.sourceforge.pmd.lang.java.symbols.internal.ast;
+
+import static net.sourceforge.pmd.util.CollectionUtil.listOf;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.checkerframework.checker.nullness.qual.Nullable;
+import org.objectweb.asm.Opcodes;
+
+import net.sourceforge.pmd.lang.java.ast.ASTAmbiguousName;
+import net.sourceforge.pmd.lang.java.ast.ASTAnnotation;
+import net.sourceforge.pmd.lang.java.ast.ASTArrayDimensions;
+import net.sourceforge.pmd.lang.java.ast.ASTArrayType;
+import net.sourceforge.pmd.lang.java.ast.ASTBodyDeclaration;
+import net.sourceforge.pmd.lang.java.ast.ASTClassDeclaration;
+import net.sourceforge.pmd.lang.java.ast.ASTClassType;
+import net.sourceforge.pmd.lang.java.ast.ASTCompactConstructorDeclaration;
+import net.sourceforge.pmd.lang.java.ast.ASTCompilationUnit;
+import net.sourceforge.pmd.lang.java.ast.ASTConstructorDeclaration;
+import net.sourceforge.pmd.lang.java.ast.ASTEnumConstant;
+import net.sourceforge.pmd.lang.java.ast.ASTExecutableDeclaration;
+import net.sourceforge.pmd.lang.java.ast.ASTExpression;
+import net.sourceforge.pmd.lang.java.ast.ASTFieldDeclaration;
+import net.sourceforge.pmd.lang.java.ast.ASTFormalParameter;
+import net.sourceforge.pmd.lang.java.ast.ASTImportDeclaration;
+import net.sourceforge.pmd.lang.java.ast.ASTIntersectionType;
+import net.sourceforge.pmd.lang.java.ast.ASTLiteral;
+import net.sourceforge.pmd.lang.java.ast.ASTMethodDeclaration;
+import net.sourceforge.pmd.lang.java.ast.ASTNullLiteral;
+import net.sourceforge.pmd.lang.java.ast.ASTPrimitiveType;
+import net.sourceforge.pmd.lang.java.ast.ASTRecordComponent;
+import net.sourceforge.pmd.lang.java.ast.ASTRecordComponentList;
+import net.sourceforge.pmd.lang.java.ast.ASTReferenceType;
+import net.sourceforge.pmd.lang.java.ast.ASTThrowsList;
+import net.sourceforge.pmd.lang.java.ast.ASTType;
+import net.sourceforge.pmd.lang.java.ast.ASTTypeArguments;
+import net.sourceforge.pmd.lang.java.ast.ASTTypeDeclaration;
+import net.sourceforge.pmd.lang.java.ast.ASTTypeParameter;
+import net.sourceforge.pmd.lang.java.ast.ASTTypeParameters;
+import net.sourceforge.pmd.lang.java.ast.ASTVariableId;
+import net.sourceforge.pmd.lang.java.ast.ASTWildcardType;
+import net.sourceforge.pmd.lang.java.ast.Annotatable;
+import net.sourceforge.pmd.lang.java.ast.JModifier;
+import net.sourceforge.pmd.lang.java.ast.ModifierOwner;
+import net.sourceforge.pmd.lang.java.symbols.internal.ast.SourceTypeDecl.ArrayRef;
+import net.sourceforge.pmd.lang.java.symbols.internal.ast.SourceTypeDecl.ClassRef;
+import net.sourceforge.pmd.lang.java.symbols.internal.ast.SourceTypeDecl.FileContext;
+import net.sourceforge.pmd.lang.java.symbols.internal.ast.SourceTypeDecl.Member;
+import net.sourceforge.pmd.lang.java.symbols.internal.ast.SourceTypeDecl.PrimitiveRef;
+import net.sourceforge.pmd.lang.java.symbols.internal.ast.SourceTypeDecl.TypeParam;
+import net.sourceforge.pmd.lang.java.symbols.internal.ast.SourceTypeDecl.TypeRef;
+import net.sourceforge.pmd.lang.java.symbols.internal.ast.SourceTypeDecl.WildcardRef;
+import net.sourceforge.pmd.lang.java.symbols.internal.asm.AsmSymbolResolver;
+import net.sourceforge.pmd.lang.java.symbols.internal.asm.Classpath;
+
+/**
+ * Index of the classes declared in all the Java files of an analysis.
+ * It is filled by a pre-pass that parses the files without further
+ * processing, before the analysis starts. This allows resolving
+ * types declared in other files of the analysis, even if they are not
+ * compiled and on the auxclasspath.
+ *
+ * <p>The index is a {@link Classpath}, that serves synthetic class files
+ * for the indexed classes. Those contain the signatures of the members,
+ * the annotations (without their values) and the values of constant
+ * fields initialized with a literal, but no code. They are generated
+ * on demand and turned into symbols by the {@link AsmSymbolResolver}
+ * exactly like class files found on the auxclasspath, so that symbols
+ * are created lazily, shared between files and safe to use from
+ * several threads.
+ *
+ * <p>Files may be added concurrently, but all files must have
+ * been added before the first class file is requested. Local and
+ * anonymous classes are not indexed, as they cannot be referenced
+ * from other files.
+ */
+public final class SourceDeclarationIndex implements Classpath {
+
+    private static final String CLASS_EXT = ".class";
+    private static final ClassRef OBJECT = new ClassRef(
+        listOf("java", "lang", "Object"),
+        listOf(Collections.emptyList(), Collections.emptyList(), Collections.emptyList())
+    );
+
+    private final Classpath classpath;
+    private final ConcurrentMap<String, SourceTypeDecl> declarations = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, Boolean> classpathLookups = new ConcurrentHashMap<>();
+
+    /**
+     * Create a new, empty index.
+     *
+     * @param classpath Classpath on which to find classes that are not declared
+     *                  in the sources. This is used to resolve the type names
+     *                  found in the declarations.
+     */
+    public SourceDeclarationIndex(Classpath classpath) {
+        this.classpath = classpath;
+    }
+
+    /**
+     * Records all the classes declared in the given file. The file
+     * only needs to be parsed, no further processing is needed.
+     */
+    public void addFile(ASTCompilationUnit file) {
+        List<String> singleImports = new ArrayList<>();
+        List<String> onDemandImports = new ArrayList<>();
+        for (ASTImportDeclaration importDecl : file.children(ASTImportDeclaration.class)) {
+            if (importDecl.isModuleImport()) {
+                continue;
+            }
+            // static imports may also import member types
+            if (importDecl.isImportOnDemand()) {
+                onDemandImports.add(importDecl.getImportedName());
+            } else {
+                singleImports.add(importDecl.getImportedName());
+            }
+        }
+
+        FileContext context = new FileContext(file.getPackageName(), singleImports, onDemandImports);
+        for (ASTTypeDeclaration typeDecl : file.getTypeDeclarations()) {
+            if (!typeDecl.isUnnamedToplevelClass()) {
+                addType(typeDecl, null, context);
+            }
+        }
+    }
+
+    /**
+     * Returns the number of classes in this index.
+     */
+    public int size() {
+        return declarations.size();
+    }
+
+    @Override
+    public @Nullable InputStream findResource(String resourcePath) {
+        if (!resourcePath.endsWith(CLASS_EXT)) {
+            return null;
+        }
+        String internalName = resourcePath.substring(0, resourcePath.length() - CLASS_EXT.length());
+        SourceTypeDecl decl = declarations.get(internalName);
+        if (decl == null) {
+            return null;
+        }
+        return new ByteArrayInputStream(new SourceClassFileWriter(this, decl).toByteArray());
+    }
+
+    @Nullable SourceTypeDecl getDeclaration(String internalName) {
+        return declarations.get(internalName);
+    }
+
+    /**
+     * Returns true if a class with the given internal name is declared
+     * in the sources or exists on the classpath.
+     */
+    boolean classExists(String internalName) {
+        return declarations.containsKey(internalName)
+            || classpathLookups.computeIfAbsent(internalName, this::isOnClasspath);
+    }
+
+    private boolean isOnClasspath(String internalName) {
+        try (InputStream stream = classpath.findResource(internalName + CLASS_EXT)) {
+            return stream != null;
+        } catch (IOException ignored) {
+            return false;
+        }
+    }
+
+    private SourceTypeDecl addType(ASTTypeDeclaration node, @Nullable SourceTypeDecl enclosing, FileContext context) {
+        String internalName = enclosing == null ? context.packagePrefix + node.getSimpleName()
+                                                : enclosing.internalName + "$" + node.getSimpleName();
+        SourceTypeDecl decl = new SourceTypeDecl(internalName, node.getSimpleName(), classAccess(node), enclosing, context);
+
+        decl.typeParams.addAll(typeParams(node.getTypeParameters()));
+        if (node instanceof ASTClassDeclaration) {
+            ASTClassType superclass = ((ASTClassDeclaration) node).getSuperClassTypeNode();
+            decl.superclass = superclass == null ? null : typeRef(superclass);
+        }
+        for (ASTClassType itf : node.getSuperInterfaceTypeNodes()) {
+            decl.interfaces.add(typeRef(itf));
+        }
+        decl.annotations.addAll(annotations(node));
+
+        ClassRef selfRef = new ClassRef(listOf(node.getSimpleName()), listOf(Collections.emptyList()));
+        for (ASTEnumConstant constant : node.getEnumConstants()) {
+            int access = Opcodes.ACC_PUBLIC | Opcodes.ACC_STATIC | Opcodes.ACC_FINAL | Opcodes.ACC_ENUM;
+            decl.fields.add(new Member(constant.getName(), access, selfRef, annotations(constant), null));
+        }
+
+        ASTRecordComponentList components = node.getRecordComponents();
+        if (components != null) {
+            for (ASTRecordComponent component : components) {
+                TypeRef type = typeRef(component.getTypeNode());
+                int access = component.isVarargs() ? Opcodes.ACC_VARARGS : 0;
+                decl.recordComponents.add(new Member(component.getVarId().getName(), access, type, annotations(component), null));
+            }
+        }
+
+        for (ASTBodyDeclaration member : node.getDeclarations()) {
+            if (member instanceof ASTTypeDeclaration) {
+                decl.memberTypes.add(addType((ASTTypeDeclaration) member, decl, context));
+            } else if (member instanceof ASTFieldDeclaration) {
+                addFields(decl, (ASTFieldDeclaration) member);
+            } else if (member instanceof ASTMethodDeclaration) {
+                ASTMethodDeclaration method = (ASTMethodDeclaration) member;
+                TypeRef result = method.isVoid() ? null : typeRef(method.getResultTypeNode());
+                decl.methods.add(executable(method.getName(), method, result, method.getTypeParameters()));
+            } else if (member instanceof ASTConstructorDeclaration) {
+                ASTConstructorDeclaration ctor = (ASTConstructorDeclaration) member;
+                decl.methods.add(executable(SourceClassFileWriter.CTOR, ctor, null, ctor.getTypeParameters()));
+            } else if (member instanceof ASTCompactConstructorDeclaration) {
+                // this is the canonical constructor
+                List<TypeRef> params = new ArrayList<>();
+                int access = modifiers((ASTCompactConstructorDeclaration) member);
+                for (Member component : decl.recordComponents) {
+                    params.add(component.type);
+                    access |= component.access & Opcodes.ACC_VARARGS;
+                }
+                decl.methods.add(new Member(SourceClassFileWriter.CTOR, access, null, Collections.emptyList(), params,
+                                            Collections.emptyList(), annotations((ASTCompactConstructorDeclaration) member), null));
+            }
+        }
+
+        declarations.put(internalName, decl);
+        return decl;
+    }
+
+    private static void addFields(SourceTypeDecl decl, ASTFieldDeclaration field) {
+        int access = modifiers(field);
+        TypeRef baseType = typeRef(field.getTypeNode());
+        List<TypeRef> annotations = annotations(field);
+        boolean isConstant = (access & (Opcodes.ACC_STATIC | Opcodes.ACC_FINAL)) == (Opcodes.ACC_STATIC | Opcodes.ACC_FINAL);
+        for (ASTVariableId varId : field) {
+            TypeRef type = withDims(baseType, varId.getExtraDimensions());
+            Object value = null;
+            ASTExpression initializer = varId.getInitializer();
+            if (isConstant && initializer instanceof ASTLiteral && !(initializer instanceof ASTNullLiteral)) {
+                value = initializer.getConstValue();
+            }
+            decl.fields.add(new Member(varId.getName(), access, type, annotations, value));
+        }
+    }
+
+    private static Member executable(String name, ASTExecutableDeclaration node, @Nullable TypeRef result, @Nullable ASTTypeParameters typeParams) {
+        int access = modifiers(node);
+        if (node.isVarargs()) {
+            access |= Opcodes.ACC_VARARGS;
+        }
+        List<TypeRef> params = new ArrayList<>(node.getArity());
+        for (ASTFormalParameter param : node.getFormalParameters()) {
+            params.add(withDims(typeRef(param.getTypeNode()), param.getVarId().getExtraDimensions()));
+        }
+        List<TypeRef> thrown = new ArrayList<>(0);
+        ASTThrowsList throwsList = node.getThrowsList();
+        if (throwsList != null) {
+            for (ASTClassType exception : throwsList) {
+                thrown.add(typeRef(exception));
+            }
+        }
+        return new Member(name, access, result, typeParams(typeParams), params, thrown, annotations(node), null);
+    }
+
+    private static int modifiers(ModifierOwner node) {
+        return JModifier.toReflect(node.getModifiers().getEffectiveModifiers());
+    }
+
+    private static int classAccess(ASTTypeDeclaration node) {
+        int access = modifiers(node);
+        if (node.isAnnotation()) {
+            access |= Opcodes.ACC_ANNOTATION | Opcodes.ACC_INTERFACE | Opcodes.ACC_ABSTRACT;
+        } else if (node.isInterface()) {
+            access |= Opcodes.ACC_INTERFACE | Opcodes.ACC_ABSTRACT;
+        } else if (node.isEnum()) {
+            access |= Opcodes.ACC_ENUM;
+        } else if (node.isRecord()) {
+            access |= Opcodes.ACC_RECORD;
+        }
+        return access;
+    }
+
+    private static List<TypeParam> typeParams(@Nullable ASTTypeParameters node) {
+        if (node == null) {
+            return Collections.emptyList();
+        }
+        List<TypeParam> result = new ArrayList<>(node.size());
+        for (ASTTypeParameter tparam : node) {
+            List<TypeRef> bounds = new ArrayList<>(1);
+            ASTType bound = tparam.getTypeBoundNode();
+            if (bound instanceof ASTIntersectionType) {
+                for (ASTClassType component : ((ASTIntersectionType) bound).getComponents()) {
+                    bounds.add(typeRef(component));
+                }
+            } else if (bound != null) {
+                bounds.add(typeRef(bound));
+            }
+            result.add(new TypeParam(tparam.getName(), bounds));
+        }
+        return result;
+    }
+
+    private static List<TypeRef> annotations(Annotatable node) {
+        List<TypeRef> result = new ArrayList<>(0);
+        for (ASTAnnotation annot : node.getDeclaredAnnotations()) {
+            result.add(typeRef(annot.getTypeNode()));
+        }
+        return result;
+    }
+
+    private static TypeRef withDims(TypeRef type, @Nullable ASTArrayDimensions dims) {
+        int depth = dims == null ? 0 : dims.size();
+        for (int i = 0; i < depth; i++) {
+            type = new ArrayRef(type);
+        }
+        return type;
+    }
+
+    private static TypeRef typeRef(@Nullable ASTType node) {
+        if (node instanceof ASTPrimitiveType) {
+            return new PrimitiveRef(primitiveDescriptor((ASTPrimitiveType) node));
+        } else if (node instanceof ASTArrayType) {
+            ASTArrayType array = (ASTArrayType) node;
+            TypeRef type = typeRef(array.getElementType());
+            for (int i = 0; i < array.getArrayDepth(); i++) {
+                type = new ArrayRef(type);
+            }
+            return type;
+        } else if (node instanceof ASTClassType) {
+            List<String> names = new ArrayList<>(1);
+            List<List<TypeRef>> typeArgs = new ArrayList<>(1);
+            flattenClassType((ASTClassType) node, names, typeArgs);
+            return new ClassRef(names, typeArgs);
+        } else if (node instanceof ASTWildcardType) {
+            ASTWildcardType wildcard = (ASTWildcardType) node;
+            ASTReferenceType bound = wildcard.getTypeBoundNode();
+            if (bound == null) {
+                return new WildcardRef('*', null);
+            }
+            return new WildcardRef(wildcard.isUpperBound() ? '+' : '-', typeRef(bound));
+        }
+        // eg union types, which cannot occur in a signature
+        return OBJECT;
+    }
+
+    private static void flattenClassType(ASTClassType node, List<String> names, List<List<TypeRef>> typeArgs) {
+        ASTClassType qualifier = node.getQualifier();
+        if (qualifier != null) {
+            flattenClassType(qualifier, names, typeArgs);
+        } else {
+            // the tree is not disambiguated, the qualifier may be an ambiguous name
+            ASTAmbiguousName ambiguous = node.firstChild(ASTAmbiguousName.class);
+            if (ambiguous != null) {
+                for (String segment : ambiguous.getName().split("\\.")) {
+                    names.add(segment);
+                    typeArgs.add(Collections.emptyList());
+                }
+            }
+        }
+
+        names.add(node.getSimpleName());
+        ASTTypeArguments args = node.getTypeArguments();
+        if (args == null || args.isDiamond()) {
+            typeArgs.add(Collections.emptyList());
+        } else {
+            List<TypeRef> refs = new ArrayList<>(args.size());
+            for (ASTType arg : args) {
+                refs.add(typeRef(arg));
+            }
+            typeArgs.add(refs);
+        }
+    }
+
+    private static char primitiveDescriptor(ASTPrimitiveType node) {
+        switch (node.getKind()) {
+        case BOOLEAN: return 'Z';
+        case CHAR: return 'C';
+        case BYTE: return 'B';
+        case SHORT: return 'S';
+        case INT: return 'I';
+        case LONG: return 'J';
+        case FLOAT: return 'F';
+        case DOUBLE: return 'D';
+        default: throw new AssertionError("Unknown primitive " + node.getKind());
+        }
+    }
+}
@@ -0,0 +1,184 @@
+/*
+ * BSD-style license; for more info see http://pmd.sourceforge.net/license.html
+ */
+
+package net.sourceforge.pmd.lang.java.symbols.internal.ast;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+/**
+ * Declaration of a class recorded by the {@link SourceDeclarationIndex}.
+ * This is a lightweight copy of the signatures found in the AST,
+ * which does not retain any node. Type references are recorded as
+ * written in the source, they are only resolved when the class file
+ * is {@linkplain SourceClassFileWriter generated}.
+ */
+final class SourceTypeDecl {
+
+    final String internalName;
+    final String simpleName;
+    /** Access flags, using the constants of the class file format. */
+    final int access;
+    final @Nullable SourceTypeDecl enclosing;
+    final FileContext file;
+
+    final List<TypeParam> typeParams = new ArrayList<>(0);
+    @Nullable TypeRef superclass;
+    final List<TypeRef> interfaces = new ArrayList<>(0);
+    final List<TypeRef> annotations = new ArrayList<>(0);
+
+    final List<Member> fields = new ArrayList<>();
+    final List<Member> methods = new ArrayList<>();
+    final List<Member> recordComponents = new ArrayList<>(0);
+    final List<SourceTypeDecl> memberTypes = new ArrayList<>(0);
+
+    SourceTypeDecl(String internalName, String simpleName, int access, @Nullable SourceTypeDecl enclosing, FileContext file) {
+        this.internalName = internalName;
+        this.simpleName = simpleName;
+        this.access = access;
+        this.enclosing = enclosing;
+        this.file = file;
+    }
+
+    @Override
+    public String toString() {
+        return "SourceTypeDecl[" + internalName + "]";
+    }
+
+    /**
+     * Package and imports of a file. Shared by all the classes declared in the file.
+     */
+    static final class FileContext {
+
+        /** Internal name of the package, with a trailing slash unless it is the default package. */
+        final String packagePrefix;
+        /** Canonical names of the single-type imports. */
+        final List<String> singleImports;
+        /** Canonical names of the package or type of on-demand imports. */
+        final List<String> onDemandImports;
+
+        FileContext(String packageName, List<String> singleImports, List<String> onDemandImports) {
+            this.packagePrefix = packageName.isEmpty() ? "" : packageName.replace('.', '/') + "/";
+            this.singleImports = singleImports;
+            this.onDemandImports = onDemandImports;
+        }
+    }
+
+    /**
+     * A field, method, constructor, or record component. Constructors
+     * are named {@code <init>}.
+     */
+    static final class Member {
+
+        final String name;
+        final int access;
+        /** Type of a field, or return type of a method. Null for void methods and constructors. */
+        final @Nullable TypeRef type;
+        final List<TypeParam> typeParams;
+        final List<TypeRef> parameters;
+        final List<TypeRef> thrown;
+        final List<TypeRef> annotations;
+        /** Value of a constant field, only if its initializer is a literal. */
+        final @Nullable Object constantValue;
+
+        Member(String name, int access, @Nullable TypeRef type, List<TypeRef> annotations, @Nullable Object constantValue) {
+            this(name, access, type, Collections.emptyList(), Collections.emptyList(), Collections.emptyList(), annotations, constantValue);
+        }
+
+        Member(String name,
+               int access,
+               @Nullable TypeRef type,
+               List<TypeParam> typeParams,
+               List<TypeRef> parameters,
+               List<TypeRef> thrown,
+               List<TypeRef> annotations,
+               @Nullable Object constantValue) {
+            this.name = name;
+            this.access = access;
+            this.type = type;
+            this.typeParams = typeParams;
+            this.parameters = parameters;
+            this.thrown = thrown;
+            this.annotations = annotations;
+            this.constantValue = constantValue;
+        }
+    }
+
+    static final class TypeParam {
+
+        final String name;
+        /** Bounds as written, empty if there is no bound. */
+        final List<TypeRef> bounds;
+
+        TypeParam(String name, List<TypeRef> bounds) {
+            this.name = name;
+            this.bounds = bounds;
+        }
+    }
+
+    /**
+     * A type as written in the source.
+     */
+    abstract static class TypeRef {
+
+        private TypeRef() {
+            // sealed
+        }
+    }
+
+    static final class PrimitiveRef extends TypeRef {
+
+        /** Descriptor of the primitive type, eg {@code I} for int. */
+        final char descriptor;
+
+        PrimitiveRef(char descriptor) {
+            this.descriptor = descriptor;
+        }
+    }
+
+    static final class ArrayRef extends TypeRef {
+
+        final TypeRef component;
+
+        ArrayRef(TypeRef component) {
+            this.component = component;
+        }
+    }
+
+    /**
+     * A possibly qualified class type, eg {@code java.util.Map.Entry<K, V>}.
+     * This may also be a type variable if it has a single segment. The
+     * type arguments are recorded per segment, an empty list meaning
+     * that the segment has no type arguments.
+     */
+    static final class ClassRef extends TypeRef {
+
+        final List<String> names;
+        final List<List<TypeRef>> typeArgs;
+
+        ClassRef(List<String> names, List<List<TypeRef>> typeArgs) {
+            this.names = names;
+            this.typeArgs = typeArgs;
+        }
+
+        boolean isSimpleName() {
+            return names.size() == 1 && typeArgs.get(0).isEmpty();
+        }
+    }
+
+    static final class WildcardRef extends TypeRef {
+
+        /** One of {@code *}, {@code +} or {@code -}, as in generic signatures. */
+        final char indicator;
+        final @Nullable TypeRef bound;
+
+        WildcardRef(char indicator, @Nullable TypeRef bound) {
+            this.indicator = indicator;
+            this.bound = bound;
+        }
+    }
+}
@@ -5,6 +5,8 @@
 package net.sourceforge.pmd.lang.java.types;
 
 import net.sourceforge.pmd.annotation.InternalApi;
+import net.sourceforge.pmd.lang.java.types.internal.TypeRelationCache;
+import net.sourceforge.pmd.lang.java.types.internal.infer.OverloadResolutionCache;
 
 /**
  * Internal API.
@@ -24,4 +26,12 @@ public final class InternalApiBridge {
     public static boolean isSameTypeInInference(JTypeMirror t, JTypeMirror s) {
         return TypeOps.isSameTypeInInference(t, s);
     }
+
+    public static TypeRelationCache getRelationCache(TypeSystem ts) {
+        return ts.relationCache();
+    }
+
+    public static OverloadResolutionCache getOverloadCache(TypeSystem ts) {
+        return ts.overloadCache();
+    }
 }
@@ -33,7 +33,8 @@ final class Lub {
     }
 
     static JTypeMirror lub(TypeSystem ts, Collection<? extends JTypeMirror> us) {
-        return new LubJudge(ts).lub(us);
+        List<JTypeMirror> types = new ArrayList<>(us);
+        return ts.relationCache().lub(types, () -> new LubJudge(ts).lub(types));
     }
 
     private static JTypeMirror upperBound(JTypeMirror type) {
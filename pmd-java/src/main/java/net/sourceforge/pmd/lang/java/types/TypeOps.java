@@ -659,7 +659,9 @@ public final class TypeOps {
             }
 
             if (capture) {
-                t = capture(t);
+                // when neither type mentions inference variables, the result
+                // is the same in every file, it's cached for the type system
+                return t.getTypeSystem().relationCache().isConvertible(t, s, () -> capture(t).acceptVisitor(this, s));
             }
             return t.acceptVisitor(this, s);
         }
@@ -1654,7 +1656,7 @@ public final class TypeOps {
             return t.getTypeSystem().OBJECT;
         }
 
-        return t.acceptVisitor(AsSuperVisitor.INSTANCE, s);
+        return t.getTypeSystem().relationCache().asSuper(t, s, () -> t.acceptVisitor(AsSuperVisitor.INSTANCE, s));
     }
 
     /**
@@ -22,6 +22,8 @@ import org.checkerframework.checker.nullness.qual.NonNull;
 import org.checkerframework.checker.nullness.qual.Nullable;
 import org.pcollections.HashTreePSet;
 import org.pcollections.PSet;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 import net.sourceforge.pmd.lang.java.ast.JavaNode;
 import net.sourceforge.pmd.lang.java.symbols.JClassSymbol;
@@ -40,6 +42,8 @@ import net.sourceforge.pmd.lang.java.symbols.internal.asm.Classpath;
 import net.sourceforge.pmd.lang.java.types.BasePrimitiveSymbol.RealPrimitiveSymbol;
 import net.sourceforge.pmd.lang.java.types.BasePrimitiveSymbol.VoidSymbol;
 import net.sourceforge.pmd.lang.java.types.JPrimitiveType.PrimitiveTypeKind;
+import net.sourceforge.pmd.lang.java.types.internal.TypeRelationCache;
+import net.sourceforge.pmd.lang.java.types.internal.infer.OverloadResolutionCache;
 import net.sourceforge.pmd.util.AssertionUtil;
 import net.sourceforge.pmd.util.CollectionUtil;
 
@@ -66,6 +70,8 @@ import net.sourceforge.pmd.util.CollectionUtil;
 @SuppressWarnings("PMD.CompareObjectsWithEquals")
 public final class TypeSystem {
 
+    private static final Logger LOG = LoggerFactory.getLogger(TypeSystem.class);
+
     /**
      * Top type of the reference type system. This is the type for the
      * {@link Object} class. Note that even interfaces have this type
@@ -176,6 +182,12 @@ public final class TypeSystem {
     // test only
     final SymbolResolver resolver;
 
+    /** Caches relations between types, shared by all the files using this type system. */
+    private final TypeRelationCache relationCache = new TypeRelationCache();
+
+    /** Caches the result of overload resolution for simple calls, shared by all the files using this type system. */
+    private final OverloadResolutionCache overloadCache = new OverloadResolutionCache();
+
     /**
      * Builds a new type system. Its public fields will be initialized
      * with fresh types, unrelated to other types.
@@ -301,6 +313,14 @@ public final class TypeSystem {
         return resolver;
     }
 
+    TypeRelationCache relationCache() {
+        return relationCache;
+    }
+
+    OverloadResolutionCache overloadCache() {
+        return overloadCache;
+    }
+
     // helpers for the constructor, cannot use typeOf, only for trusted types
 
     private JClassType addSpecial(Class<?> klass, Map<JClassSymbol, JTypeMirror> shared) {
@@ -758,6 +778,8 @@ public final class TypeSystem {
      */
     public void logStats() {
         resolver.logStats();
+        LOG.debug("Type relation cache: {}", relationCache);
+        LOG.debug("Overload resolution cache: {}", overloadCache);
     }
 
     private static final class NullType implements JTypeMirror {
@@ -113,7 +113,7 @@ public final class LazyTypeResolver extends JavaVisitorBase<TypingContext, @NonN
     public LazyTypeResolver(JavaAstProcessor processor,
                             TypeInferenceLogger logger) {
         this.ts = processor.getTypeSystem();
-        this.infer = new Infer(ts, processor.getJdkVersion(), logger);
+        this.infer = new Infer(ts, processor.getJdkVersion(), logger, processor.useOverloadResolutionCache());
         this.polyResolution = new PolyResolution(infer);
         this.stringType = (JClassType) TypesFromReflection.fromReflect(String.class, ts);
         this.processor = processor;
@@ -0,0 +1,217 @@
+/*
+ * BSD-style license; for more info see http://pmd.sourceforge.net/license.html
+ */
+
+package net.sourceforge.pmd.lang.java.types.internal;
+
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+import net.sourceforge.pmd.lang.java.symbols.JClassSymbol;
+import net.sourceforge.pmd.lang.java.types.JArrayType;
+import net.sourceforge.pmd.lang.java.types.JClassType;
+import net.sourceforge.pmd.lang.java.types.JPrimitiveType;
+import net.sourceforge.pmd.lang.java.types.JTypeMirror;
+import net.sourceforge.pmd.lang.java.types.JWildcardType;
+import net.sourceforge.pmd.lang.java.types.TypeOps.Convertibility;
+import net.sourceforge.pmd.lang.java.types.TypeSystem;
+
+/**
+ * Caches the results of subtyping checks, {@linkplain net.sourceforge.pmd.lang.java.types.TypeOps#asSuper(JTypeMirror, JClassSymbol) asSuper}
+ * projections and {@linkplain TypeSystem#lub(java.util.Collection) lubs}
+ * for a whole {@link TypeSystem}, so that they are shared between the
+ * files of an analysis and between threads.
+ *
+ * <p>Only types that are built entirely from symbols of the classpath
+ * are cached, ie types that mention no type variable, inference variable,
+ * unresolved class, class declared in the analysed sources, nor type
+ * annotation. Those types are the same in every file, and the relations
+ * between them never change.
+ *
+ * <p>Each cache is bounded. When it is full it is cleared, which is
+ * crude but cheap, and the common relations are quickly cached again.
+ */
+public final class TypeRelationCache {
+
+    private static final int MAX_SIZE = 50_000;
+
+    private final Table<TypePair, Convertibility> subtypes = new Table<>("subtype");
+    private final Table<TypePair, Object> asSupers = new Table<>("asSuper");
+    private final Table<List<JTypeMirror>, JTypeMirror> lubs = new Table<>("lub");
+
+    /**
+     * Returns the cached convertibility of t to s, or computes it.
+     */
+    public Convertibility isConvertible(JTypeMirror t, JTypeMirror s, Supplier<Convertibility> compute) {
+        if (!isCacheable(t) || !isCacheable(s) || t instanceof JPrimitiveType) {
+            return compute.get();
+        }
+        return subtypes.get(new TypePair(t, s), compute);
+    }
+
+    /**
+     * Returns the cached supertype of t whose symbol is s, or computes it.
+     */
+    public @Nullable JTypeMirror asSuper(JTypeMirror t, JClassSymbol s, Supplier<@Nullable JTypeMirror> compute) {
+        if (!isCacheable(t) || !isCacheable(s)) {
+            return compute.get();
+        }
+        Object result = asSupers.get(new TypePair(t, s), () -> {
+            JTypeMirror sup = compute.get();
+            return sup == null ? NO_SUPERTYPE : sup;
+        });
+        return result == NO_SUPERTYPE ? null : (JTypeMirror) result; // NOPMD CompareObjectsWithEquals
+    }
+
+    /**
+     * Returns the cached lub of the given types, or computes it.
+     */
+    public JTypeMirror lub(List<JTypeMirror> types, Supplier<JTypeMirror> compute) {
+        for (JTypeMirror t : types) {
+            if (!isCacheable(t)) {
+                return compute.get();
+            }
+        }
+        return lubs.get(types, compute);
+    }
+
+    /**
+     * Returns the hit rate of the subtyping cache, between 0 and 1.
+     */
+    public double getSubtypeHitRate() {
+        return subtypes.hitRate();
+    }
+
+    /**
+     * Returns the hit rate of the asSuper cache, between 0 and 1.
+     */
+    public double getAsSuperHitRate() {
+        return asSupers.hitRate();
+    }
+
+    /**
+     * Returns the hit rate of the lub cache, between 0 and 1.
+     */
+    public double getLubHitRate() {
+        return lubs.hitRate();
+    }
+
+    @Override
+    public String toString() {
+        return "TypeRelationCache{" + subtypes + ", " + asSupers + ", " + lubs + '}';
+    }
+
+    static boolean isCacheable(JClassSymbol sym) {
+        return !sym.isUnresolved() && sym.tryGetNode() == null;
+    }
+
+    /**
+     * Returns true if relations involving the type can be cached, ie it is
+     * built entirely from symbols of the classpath.
+     */
+    public static boolean isCacheable(JTypeMirror t) {
+        if (!t.getTypeAnnotations().isEmpty()) {
+            return false;
+        } else if (t instanceof JPrimitiveType) {
+            return true;
+        } else if (t instanceof JArrayType) {
+            return isCacheable(((JArrayType) t).getComponentType());
+        } else if (t instanceof JWildcardType) {
+            return isCacheable(((JWildcardType) t).getBound());
+        } else if (t instanceof JClassType) {
+            JClassType ct = (JClassType) t;
+            if (!isCacheable(ct.getSymbol())) {
+                return false;
+            }
+            JClassType enclosing = ct.getEnclosingType();
+            if (enclosing != null && !isCacheable(enclosing)) {
+                return false;
+            }
+            for (JTypeMirror arg : ct.getTypeArgs()) {
+                if (!isCacheable(arg)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+        // type variables, inference variables, intersections, sentinel types
+        return false;
+    }
+
+    private static final Object NO_SUPERTYPE = new Object();
+
+    private static final class Table<K, V> {
+
+        private final String name;
+        private final ConcurrentMap<K, V> map = new ConcurrentHashMap<>();
+        private final LongAdder hits = new LongAdder();
+        private final LongAdder misses = new LongAdder();
+        private final LongAdder clears = new LongAdder();
+
+        Table(String name) {
+            this.name = name;
+        }
+
+        V get(K key, Supplier<V> compute) {
+            V result = map.get(key);
+            if (result != null) {
+                hits.increment();
+                return result;
+            }
+            misses.increment();
+            // computed outside of the map, as the computation may query the cache recursively
+            result = compute.get();
+            if (map.size() >= MAX_SIZE) {
+                map.clear();
+                clears.increment();
+            }
+            map.putIfAbsent(key, result);
+            return result;
+        }
+
+        double hitRate() {
+            long h = hits.sum();
+            long total = h + misses.sum();
+            return total == 0 ? 0 : (double) h / total;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%s: %d hits, %d misses, %d clears", name, hits.sum(), misses.sum(), clears.sum());
+        }
+    }
+
+    private static final class TypePair {
+
+        private final Object left;
+        private final Object right;
+
+        TypePair(Object left, Object right) {
+            this.left = left;
+            this.right = right;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (o == null || getClass() != o.getClass()) {
+                return false;
+            }
+            TypePair pair = (TypePair) o;
+            return left.equals(pair.left) && right.equals(pair.right);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(left, right);
+        }
+    }
+}
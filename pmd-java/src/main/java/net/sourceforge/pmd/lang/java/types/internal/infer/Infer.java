@@ -22,6 +22,7 @@ import org.checkerframework.checker.nullness.qual.NonNull;
 import org.checkerframework.checker.nullness.qual.Nullable;
 
 import net.sourceforge.pmd.lang.java.symbols.JClassSymbol;
+import net.sourceforge.pmd.lang.java.types.InternalApiBridge;
 import net.sourceforge.pmd.lang.java.types.JArrayType;
 import net.sourceforge.pmd.lang.java.types.JClassType;
 import net.sourceforge.pmd.lang.java.types.JMethodSig;
@@ -62,8 +63,12 @@ public final class Infer {
 
     private final SupertypeCheckCache supertypeCheckCache = new SupertypeCheckCache();
 
+    /** Shared by all the instances using the same type system, null if disabled. */
+    private final @Nullable OverloadResolutionCache overloadCache;
+
     /**
-     * Creates a new instance.
+     * Creates a new instance, which uses the overload resolution cache
+     * of the type system.
      *
      * @param ts         Type system
      * @param jdkVersion JDK version to use. Type inference was changed
@@ -71,9 +76,24 @@ public final class Infer {
      * @param logger     Strategy to log failures
      */
     public Infer(TypeSystem ts, int jdkVersion, TypeInferenceLogger logger) {
+        this(ts, jdkVersion, logger, true);
+    }
+
+    /**
+     * Creates a new instance.
+     *
+     * @param ts                 Type system
+     * @param jdkVersion         JDK version to use. Type inference was changed
+     *                           in Java 8 to propagate the context type.
+     * @param logger             Strategy to log failures
+     * @param useOverloadCache   Whether to use the {@link OverloadResolutionCache}
+     *                           of the type system
+     */
+    public Infer(TypeSystem ts, int jdkVersion, TypeInferenceLogger logger, boolean useOverloadCache) {
         this.ts = ts;
         this.isPreJava8 = jdkVersion < 8;
         this.LOG = logger;
+        this.overloadCache = useOverloadCache ? InternalApiBridge.getOverloadCache(ts) : null;
 
         this.NO_CTDECL = MethodCtDecl.unresolved(ts);
         this.FAILED_INVOCATION = MethodCtDecl.unresolved(ts);
@@ -311,6 +331,23 @@ public final class Infer {
             return NO_CTDECL;
         }
 
+        OverloadResolutionCache.Key cacheKey = overloadCache != null ? overloadCache.keyFor(site, potentiallyApplicable) : null;
+        if (cacheKey != null) {
+            MethodCtDecl cached = overloadCache.get(cacheKey);
+            if (cached != null) {
+                // the arguments are not poly expressions, so the
+                // applicability checks would not have mutated them
+                LOG.overloadResolutionCacheHit(site, cached);
+                return cached;
+            }
+            MethodCtDecl ctdecl = selectMostSpecific(site, potentiallyApplicable);
+            overloadCache.put(cacheKey, ctdecl);
+            return ctdecl;
+        }
+        return selectMostSpecific(site, potentiallyApplicable);
+    }
+
+    private @NonNull MethodCtDecl selectMostSpecific(MethodCallSite site, List<JMethodSig> potentiallyApplicable) {
         for (MethodResolutionPhase phase : MethodResolutionPhase.APPLICABILITY_TESTS) {
             PhaseOverloadSet applicable = new PhaseOverloadSet(this, phase, site);
             for (JMethodSig m : potentiallyApplicable) {
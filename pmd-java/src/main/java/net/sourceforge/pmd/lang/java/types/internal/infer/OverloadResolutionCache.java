@@ -0,0 +1,158 @@
+/*
+ * BSD-style license; for more info see http://pmd.sourceforge.net/license.html
+ */
+
+package net.sourceforge.pmd.lang.java.types.internal.infer;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+import net.sourceforge.pmd.lang.java.types.JMethodSig;
+import net.sourceforge.pmd.lang.java.types.JTypeMirror;
+import net.sourceforge.pmd.lang.java.types.TypeSystem;
+import net.sourceforge.pmd.lang.java.types.internal.TypeRelationCache;
+import net.sourceforge.pmd.lang.java.types.internal.infer.ExprMirror.CtorInvocationMirror;
+import net.sourceforge.pmd.lang.java.types.internal.infer.ExprMirror.InvocationMirror;
+import net.sourceforge.pmd.lang.java.types.internal.infer.ExprMirror.InvocationMirror.MethodCtDecl;
+import net.sourceforge.pmd.lang.java.types.internal.infer.ExprMirror.PolyExprMirror;
+
+/**
+ * Caches the compile-time declarations selected by overload resolution,
+ * for a whole {@link TypeSystem}. Calls like {@code sb.append(str)} or
+ * {@code list.add(x)} occur thousands of times in a codebase, and the
+ * overload resolution always selects the same method.
+ *
+ * <p>Only method calls whose outcome depends on nothing but the
+ * potentially applicable methods and the types of the arguments are
+ * cached. That is, calls
+ * <ul>
+ * <li>without explicit type arguments,
+ * <li>whose potentially applicable methods are not generic, and are
+ * members of types of the classpath,
+ * <li>whose arguments are not poly expressions (no lambda, method
+ * reference, or method call), and have a type built from the classpath.
+ * </ul>
+ * The key of the cache is the list of potentially applicable methods,
+ * rather than the receiver type, because the methods that are accessible
+ * depend on where the call is. Those methods are members of the receiver
+ * type, so the key still distinguishes receivers.
+ *
+ * <p>The cache is bounded. When it is full it is cleared.
+ */
+public final class OverloadResolutionCache {
+
+    private static final int MAX_SIZE = 20_000;
+
+    private final ConcurrentMap<Key, MethodCtDecl> cache = new ConcurrentHashMap<>();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder uncacheable = new LongAdder();
+    private final LongAdder clears = new LongAdder();
+
+    /**
+     * Returns the key for the call site, or null if its compile-time
+     * declaration cannot be cached.
+     */
+    @Nullable Key keyFor(MethodCallSite site, List<JMethodSig> potentiallyApplicable) {
+        InvocationMirror expr = site.getExpr();
+        if (site.isSpecificityCheck()
+            || expr instanceof CtorInvocationMirror
+            || !expr.getExplicitTypeArguments().isEmpty()
+            // getClass() is adapted to the type of its receiver
+            || "getClass".equals(expr.getName())) {
+            uncacheable.increment();
+            return null;
+        }
+        for (JMethodSig m : potentiallyApplicable) {
+            if (m.isGeneric() || !TypeRelationCache.isCacheable(m.getDeclaringType())) {
+                uncacheable.increment();
+                return null;
+            }
+        }
+        List<JTypeMirror> argTypes = new ArrayList<>(expr.getArgumentCount());
+        for (ExprMirror arg : expr.getArgumentExpressions()) {
+            JTypeMirror type = arg instanceof PolyExprMirror ? null : arg.getStandaloneType();
+            if (type == null || !TypeRelationCache.isCacheable(type)) {
+                uncacheable.increment();
+                return null;
+            }
+            argTypes.add(type);
+        }
+        return new Key(potentiallyApplicable, argTypes);
+    }
+
+    @Nullable MethodCtDecl get(Key key) {
+        MethodCtDecl result = cache.get(key);
+        if (result != null) {
+            hits.increment();
+        } else {
+            misses.increment();
+        }
+        return result;
+    }
+
+    void put(Key key, MethodCtDecl ctdecl) {
+        if (ctdecl.isFailed()) {
+            // failures are not shared, they are logged for each call site
+            return;
+        }
+        if (cache.size() >= MAX_SIZE) {
+            cache.clear();
+            clears.increment();
+        }
+        cache.putIfAbsent(key, ctdecl);
+    }
+
+    /**
+     * Returns the hit rate of the cache, between 0 and 1, among the
+     * call sites that could be cached.
+     */
+    public double getHitRate() {
+        long h = hits.sum();
+        long total = h + misses.sum();
+        return total == 0 ? 0 : (double) h / total;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%d hits, %d misses, %d uncacheable call sites, %d clears",
+                             hits.sum(), misses.sum(), uncacheable.sum(), clears.sum());
+    }
+
+    static final class Key {
+
+        private final List<JMethodSig> candidates;
+        private final List<JTypeMirror> argTypes;
+        private final int hash;
+
+        Key(List<JMethodSig> candidates, List<JTypeMirror> argTypes) {
+            this.candidates = candidates;
+            this.argTypes = argTypes;
+            this.hash = 31 * candidates.hashCode() + argTypes.hashCode();
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (o == null || getClass() != o.getClass()) {
+                return false;
+            }
+            Key key = (Key) o;
+            return hash == key.hash
+                && candidates.equals(key.candidates)
+                && argTypes.equals(key.argTypes);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+}
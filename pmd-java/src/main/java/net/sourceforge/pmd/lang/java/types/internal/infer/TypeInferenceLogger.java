@@ -56,6 +56,14 @@ public interface TypeInferenceLogger {
 
     default void ambiguityError(MethodCallSite site, @Nullable MethodCtDecl selected, List<MethodCtDecl> m1) { }
 
+    default void overloadResolutionCacheHit(MethodCallSite site, MethodCtDecl cached) { }
+
+    /**
+     * Log the statistics of the overload resolution cache, at the end
+     * of the analysis.
+     */
+    default void overloadResolutionCacheStats(OverloadResolutionCache cache) { }
+
     // instantiateImpl
 
 
@@ -295,6 +303,11 @@ public interface TypeInferenceLogger {
             }
         }
 
+        @Override
+        public void overloadResolutionCacheStats(OverloadResolutionCache cache) {
+            println("Overload resolution cache: " + cache);
+        }
+
         protected void printExpr(ExprMirror expr) {
             String exprText = expr.getLocation().getText().toString();
             exprText = exprText.replaceAll("\\R\\s+", "");
@@ -384,6 +397,11 @@ public interface TypeInferenceLogger {
             println("Skipping instantiation of " + partiallyInferred + ", it's already complete");
         }
 
+        @Override
+        public void overloadResolutionCacheHit(MethodCallSite site, MethodCtDecl cached) {
+            println("Using cached compile-time declaration " + ppHighlight(cached.getMethodType()));
+        }
+
 
         @Override
         public void startArgsChecks() {
@@ -0,0 +1,61 @@
+/*
+ * BSD-style license; for more info see http://pmd.sourceforge.net/license.html
+ */
+
+package net.sourceforge.pmd.lang.java.internal;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumSet;
+
+import org.junit.jupiter.api.Test;
+
+import net.sourceforge.pmd.lang.java.JavaLanguageModule;
+import net.sourceforge.pmd.lang.java.rule.AbstractJavaRule;
+import net.sourceforge.pmd.lang.java.rule.JavaSemanticPass;
+import net.sourceforge.pmd.lang.java.rule.codestyle.ClassNamingConventionsRule;
+import net.sourceforge.pmd.lang.java.rule.codestyle.LocalVariableNamingConventionsRule;
+import net.sourceforge.pmd.lang.java.rule.codestyle.MethodNamingConventionsRule;
+import net.sourceforge.pmd.lang.java.types.TypeSystem;
+import net.sourceforge.pmd.lang.rule.Rule;
+
+class JavaSemanticPassesTest {
+
+    private final JavaLanguageProcessor processor =
+        new JavaLanguageProcessor(new JavaLanguageProperties(), TypeSystem.usingClassLoaderClasspath(JavaSemanticPassesTest.class.getClassLoader()));
+
+    @Test
+    void allPassesByDefault() {
+        assertEquals(EnumSet.allOf(JavaSemanticPass.class), processor.getSemanticPasses());
+    }
+
+    @Test
+    void rulesThatNeedNoPass() {
+        assertEquals(EnumSet.noneOf(JavaSemanticPass.class),
+                     processor.requiredPasses(Arrays.asList(java(new ClassNamingConventionsRule()),
+                                                            java(new LocalVariableNamingConventionsRule()))));
+    }
+
+    @Test
+    void unionOfDeclaredPasses() {
+        assertEquals(EnumSet.of(JavaSemanticPass.OVERRIDE_RESOLUTION),
+                     processor.requiredPasses(Arrays.asList(java(new ClassNamingConventionsRule()),
+                                                            java(new MethodNamingConventionsRule()))));
+    }
+
+    @Test
+    void undeclaredRequirementsNeedAllPasses() {
+        Rule unannotated = java(new AbstractJavaRule() { });
+        assertEquals(EnumSet.allOf(JavaSemanticPass.class),
+                     processor.requiredPasses(Arrays.asList(java(new ClassNamingConventionsRule()), unannotated)));
+        assertEquals(EnumSet.allOf(JavaSemanticPass.class),
+                     processor.requiredPasses(Collections.singletonList(unannotated)));
+    }
+
+    private static Rule java(Rule rule) {
+        rule.setLanguage(JavaLanguageModule.getInstance());
+        return rule;
+    }
+}
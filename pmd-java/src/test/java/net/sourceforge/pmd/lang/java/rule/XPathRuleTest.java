@@ -118,6 +118,20 @@ class XPathRuleTest {
     }
 
 
+    @Test
+    void testNodeSelectedByNestedUnionOperandsIsReportedOnce() {
+        XPathRule rule = makeXPath("(//ForStatement | //WhileStatement)//MethodCall");
+        Report report = getReportForTestString(rule, TEST_NESTED_LOOPS);
+        assertEquals(1, report.getViolations().size());
+    }
+
+    @Test
+    void testNodeSelectedFromNestedVisitedNodesIsReportedOnce() {
+        XPathRule rule = makeXPath("//Block//MethodCall");
+        Report report = getReportForTestString(rule, TEST_NESTED_LOOPS);
+        assertEquals(1, report.getViolations().size());
+    }
+
     /**
      * Following sibling check: See https://sourceforge.net/p/pmd/bugs/1209/
      *
@@ -157,6 +171,14 @@ class XPathRuleTest {
         + "}";
 
 
+    private static final String TEST_NESTED_LOOPS = "public class Foo {\n"
+        + " void bar() {\n"
+        + "  for (int i = 0; i < 10; i++) {\n"
+        + "   while (true) { baz(); }\n"
+        + "  }\n"
+        + " }\n"
+        + "}";
+
     private static final String TEST3 = "public class Foo {\n"
         + " int forbid1; int forbid2; int forbid1$forbid2;\n"
         + "}";
@@ -82,4 +82,36 @@ class DataflowPassTest extends BaseParserTest {
         assertTrue(assignment.isBlankDeclaration());
         assertTrue(assignment.isFieldDefaultValue());
     }
+
+    @Test
+    void testReachingDefsMergedThroughLoopAndSwitch() {
+        ASTCompilationUnit ast = java.parse(
+            "class A { int foo(int k) {"
+                + "  int a = 0;"
+                + "  for (int i = 0; i < k; i++) {"
+                + "    switch (i) {"
+                + "    case 1: a = 1; break;"
+                + "    case 2: a = 2; break;"
+                + "    default: a = 3;"
+                + "    }"
+                + "  }"
+                + "  int b = a;"
+                + "  a = 4;"
+                + "  return b;"
+                + " } }");
+        DataflowResult df = DataflowPass.getDataflowResult(ast);
+        ASTVariableId a = ast.descendants(ASTVariableId.class).filter(it -> "a".equals(it.getName())).firstOrThrow();
+        // the usage in "int b = a"
+        ReachingDefinitionSet reaching = df.getReachingDefinitions(a.getLocalUsages().get(3));
+        assertThat(reaching.isNotFullyKnown(), is(false));
+        assertThat(reaching.getReaching(), hasSize(4));
+
+        // a = 4 is never used
+        assertThat(df.getUnusedAssignments(), hasSize(1));
+        assertTrue(JavaAstUtils.isLiteralInt(df.getUnusedAssignments().iterator().next().rhs, 4));
+        // and kills all the others
+        for (AssignmentEntry entry : reaching.getReaching()) {
+            assertTrue(df.getKillers(entry).stream().anyMatch(it -> JavaAstUtils.isLiteralInt(it.rhs, 4)), entry.toString());
+        }
+    }
 }
@@ -0,0 +1,121 @@
+/*
+ * BSD-style license; for more info see http://pmd.sourceforge.net/license.html
+ */
+
+package net.sourceforge.pmd.lang.java.symbols.internal.asm;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+
+import net.sourceforge.pmd.lang.java.JavaParsingHelper;
+import net.sourceforge.pmd.lang.java.symbols.JClassSymbol;
+import net.sourceforge.pmd.lang.java.types.TypeSystem;
+
+/**
+ * Resolves the same classes from many threads at once, through a
+ * classpath that is slow to find resources, to check that concurrent
+ * lookups of a name agree on a single symbol.
+ */
+class AsmSymbolResolverStressTest {
+
+    private static final int NUM_THREADS = 16;
+
+    private static final List<String> NAMES = Arrays.asList(
+        "java.util.ArrayList",
+        "java.util.HashMap",
+        "java.util.concurrent.ConcurrentHashMap",
+        "java.util.stream.Collectors",
+        "java.io.BufferedReader",
+        "java.nio.file.Files",
+        "java.lang.StringBuilder",
+        "java.lang.Thread",
+        "java.util.Map$Entry",
+        "java.util.DoesNotExist",
+        "java.util.concurrent",
+        "java.lang.annotation.Retention",
+        "java.net.URLClassLoader",
+        "java.time.LocalDate",
+        "java.util.function.Function",
+        "does.not.Exist"
+    );
+
+    @Test
+    void concurrentLookupsAgreeOnSymbols() throws Exception {
+        Classpath base = Classpath.forClassLoader(JavaParsingHelper.class.getClassLoader());
+        AtomicInteger lookups = new AtomicInteger();
+        Classpath slowClasspath = path -> {
+            lookups.incrementAndGet();
+            try {
+                Thread.sleep(1);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return base.findResource(path);
+        };
+        TypeSystem ts = TypeSystem.usingClasspath(slowClasspath);
+
+        CyclicBarrier start = new CyclicBarrier(NUM_THREADS);
+        ExecutorService executor = Executors.newFixedThreadPool(NUM_THREADS);
+        List<Future<JClassSymbol[]>> results = new ArrayList<>();
+        try {
+            for (int i = 0; i < NUM_THREADS; i++) {
+                int offset = i;
+                results.add(executor.submit(() -> {
+                    start.await();
+                    JClassSymbol[] symbols = new JClassSymbol[NAMES.size()];
+                    for (int j = 0; j < NAMES.size(); j++) {
+                        // each thread starts at a different name to vary the interleavings
+                        int idx = (j + offset) % NAMES.size();
+                        symbols[idx] = ts.getClassSymbol(NAMES.get(idx));
+                        if (symbols[idx] != null) {
+                            // parse the class and resolve its supertypes concurrently
+                            symbols[idx].getSuperclass();
+                            symbols[idx].getSuperInterfaces();
+                        }
+                    }
+                    return symbols;
+                }));
+            }
+
+            JClassSymbol[] first = results.get(0).get();
+            for (Future<JClassSymbol[]> result : results) {
+                JClassSymbol[] symbols = result.get();
+                for (int i = 0; i < NAMES.size(); i++) {
+                    assertSame(first[i], symbols[i], NAMES.get(i));
+                }
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        JClassSymbol[] symbols = results.get(0).get();
+        for (int i = 0; i < NAMES.size(); i++) {
+            String name = NAMES.get(i);
+            if (name.contains("Exist") || "java.util.concurrent".equals(name)) {
+                assertNull(symbols[i], name);
+            } else {
+                assertEquals(name, symbols[i].getBinaryName());
+                assertFalse(symbols[i].isUnresolved(), name);
+            }
+        }
+        // all names are cached now, including the failed lookups
+        int before = lookups.get();
+        for (String name : NAMES) {
+            ts.getClassSymbol(name);
+        }
+        assertEquals(before, lookups.get());
+    }
+}
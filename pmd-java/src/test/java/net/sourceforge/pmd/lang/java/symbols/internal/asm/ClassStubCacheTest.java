@@ -0,0 +1,234 @@
+/*
+ * BSD-style license; for more info see http://pmd.sourceforge.net/license.html
+ */
+
+package net.sourceforge.pmd.lang.java.symbols.internal.asm;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import net.sourceforge.pmd.internal.util.ClasspathClassLoader;
+import net.sourceforge.pmd.internal.util.IOUtil;
+import net.sourceforge.pmd.lang.java.symbols.JClassSymbol;
+import net.sourceforge.pmd.lang.java.types.TypeSystem;
+
+class ClassStubCacheTest {
+
+    private static final String CLASS_FILE = "net/sourceforge/pmd/lang/java/symbols/internal/asm/ClassStubCacheTest.class";
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void cacheIsReusedBetweenRuns() throws IOException {
+        Path jar = makeJar();
+        Path cacheDir = tempDir.resolve("cache");
+        byte[] original = readClassFile();
+
+        byte[] firstRun;
+        try (URLClassLoader loader = new URLClassLoader(new URL[] {jar.toUri().toURL()}, null)) {
+            ClassStubCache cache = new ClassStubCache(cacheDir, loader);
+            firstRun = readFully(cache.findResource(CLASS_FILE));
+            assertNull(cache.findResource("does/not/Exist.class"));
+            cache.close();
+        }
+        assertTrue(firstRun.length < original.length, "class file should be stripped");
+        assertArrayEquals(ClassStubCache.strip(original), firstRun);
+        assertEquals(1, listFiles(cacheDir).size());
+
+        // the second run reads the cache file
+        try (URLClassLoader loader = new URLClassLoader(new URL[] {jar.toUri().toURL()}, null)) {
+            ClassStubCache cache = new ClassStubCache(cacheDir, loader);
+            assertArrayEquals(firstRun, readFully(cache.findResource(CLASS_FILE)));
+
+            TypeSystem ts = TypeSystem.usingClasspath(cache);
+            JClassSymbol sym = ts.getClassSymbol(ClassStubCacheTest.class.getName());
+            assertNotNull(sym);
+            assertFalse(sym.getDeclaredMethods().isEmpty());
+            cache.close();
+        }
+    }
+
+    @Test
+    void cacheIsInvalidatedWhenJarChanges() throws IOException {
+        Path jar = makeJar();
+        Path cacheDir = tempDir.resolve("cache");
+
+        try (URLClassLoader loader = new URLClassLoader(new URL[] {jar.toUri().toURL()}, null)) {
+            ClassStubCache cache = new ClassStubCache(cacheDir, loader);
+            assertNotNull(cache.findResource(CLASS_FILE));
+            cache.close();
+        }
+        Path cacheFile = listFiles(cacheDir).get(0);
+        byte[] firstCache = Files.readAllBytes(cacheFile);
+
+        // add an entry, the fingerprint changes
+        try (ZipOutputStream out = new ZipOutputStream(Files.newOutputStream(jar))) {
+            putEntry(out, CLASS_FILE, readClassFile());
+            putEntry(out, "other/Foo.class", readClassFile());
+        }
+
+        try (URLClassLoader loader = new URLClassLoader(new URL[] {jar.toUri().toURL()}, null)) {
+            ClassStubCache cache = new ClassStubCache(cacheDir, loader);
+            assertNotNull(cache.findResource(CLASS_FILE));
+            cache.close();
+        }
+        assertEquals(1, listFiles(cacheDir).size());
+        assertFalse(Arrays.equals(firstCache, Files.readAllBytes(cacheFile)), "cache should have been rewritten");
+    }
+
+    @Test
+    void cacheFileInUseIsReplaced() throws IOException {
+        Path jar = makeJar();
+        Path cacheDir = tempDir.resolve("cache");
+
+        byte[] firstRun;
+        try (URLClassLoader loader = new URLClassLoader(new URL[] {jar.toUri().toURL()}, null)) {
+            ClassStubCache cache = new ClassStubCache(cacheDir, loader);
+            firstRun = readFully(cache.findResource(CLASS_FILE));
+            cache.close();
+        }
+        Path cacheFile = listFiles(cacheDir).get(0);
+        byte[] firstCache = Files.readAllBytes(cacheFile);
+
+        // the cache file is in use while a new entry is added and the file replaced
+        try (URLClassLoader loader = new URLClassLoader(new URL[] {jar.toUri().toURL()}, null)) {
+            ClassStubCache cache = new ClassStubCache(cacheDir, loader);
+            assertArrayEquals(firstRun, readFully(cache.findResource(CLASS_FILE)));
+            assertNull(cache.findResource("does/not/Exist.class"));
+            cache.close();
+            assertArrayEquals(firstRun, readFully(cache.findResource(CLASS_FILE)));
+        }
+        assertFalse(Arrays.equals(firstCache, Files.readAllBytes(cacheFile)), "cache should have been rewritten");
+
+        try (URLClassLoader loader = new URLClassLoader(new URL[] {jar.toUri().toURL()}, null)) {
+            ClassStubCache cache = new ClassStubCache(cacheDir, loader);
+            assertArrayEquals(firstRun, readFully(cache.findResource(CLASS_FILE)));
+            assertNull(cache.findResource("does/not/Exist.class"));
+            cache.close();
+        }
+    }
+
+    @Test
+    void jdkClassesAreSnapshotted() throws IOException {
+        Path cacheDir = tempDir.resolve("cache");
+        String string = "java/lang/String.class";
+        String missing = "javax/does/not/Exist.class";
+
+        byte[] firstRun;
+        try (URLClassLoader loader = new URLClassLoader(new URL[0], null)) {
+            ClassStubCache cache = new ClassStubCache(cacheDir, loader);
+            firstRun = readFully(cache.findResource(string));
+            assertNull(cache.findResource(missing));
+            cache.close();
+        }
+        List<Path> files = listFiles(cacheDir);
+        assertEquals(1, files.size());
+        assertTrue(files.get(0).getFileName().toString().startsWith("jdk-"));
+
+        try (URLClassLoader loader = new URLClassLoader(new URL[0], null)) {
+            ClassStubCache cache = new ClassStubCache(cacheDir, loader);
+            assertArrayEquals(firstRun, readFully(cache.findResource(string)));
+            assertNull(cache.findResource(missing));
+            cache.close();
+        }
+    }
+
+    @Test
+    void jdkSnapshotInUseIsExtended() throws IOException {
+        Path cacheDir = tempDir.resolve("cache");
+        String string = "java/lang/String.class";
+        String integer = "java/lang/Integer.class";
+
+        byte[] stringStub;
+        try (URLClassLoader loader = new URLClassLoader(new URL[0], null)) {
+            ClassStubCache cache = new ClassStubCache(cacheDir, loader);
+            stringStub = readFully(cache.findResource(string));
+            cache.close();
+        }
+        Path snapshot = listFiles(cacheDir).get(0);
+        byte[] firstSnapshot = Files.readAllBytes(snapshot);
+
+        byte[] integerStub;
+        try (URLClassLoader loader = new URLClassLoader(new URL[0], null)) {
+            ClassStubCache cache = new ClassStubCache(cacheDir, loader);
+            assertArrayEquals(stringStub, readFully(cache.findResource(string)));
+            integerStub = readFully(cache.findResource(integer));
+            cache.close();
+            assertArrayEquals(stringStub, readFully(cache.findResource(string)));
+        }
+        assertFalse(Arrays.equals(firstSnapshot, Files.readAllBytes(snapshot)), "snapshot should have been rewritten");
+
+        try (URLClassLoader loader = new URLClassLoader(new URL[0], null)) {
+            ClassStubCache cache = new ClassStubCache(cacheDir, loader);
+            assertArrayEquals(stringStub, readFully(cache.findResource(string)));
+            assertArrayEquals(integerStub, readFully(cache.findResource(integer)));
+            cache.close();
+        }
+    }
+
+    @Test
+    void noJdkSnapshotWhenAuxclasspathMayShadowTheJdk() throws IOException {
+        Path jar = makeJar();
+        Path cacheDir = tempDir.resolve("cache");
+
+        try (ClasspathClassLoader loader = new ClasspathClassLoader(Collections.singletonList(jar.toFile()), null)) {
+            ClassStubCache cache = new ClassStubCache(cacheDir, loader);
+            assertNotNull(cache.findResource("java/lang/String.class"));
+            cache.close();
+        }
+        assertFalse(Files.exists(cacheDir), "nothing should have been cached");
+    }
+
+    private Path makeJar() throws IOException {
+        Path jar = tempDir.resolve("lib.jar");
+        try (ZipOutputStream out = new ZipOutputStream(Files.newOutputStream(jar))) {
+            putEntry(out, CLASS_FILE, readClassFile());
+        }
+        return jar;
+    }
+
+    private static void putEntry(ZipOutputStream out, String name, byte[] bytes) throws IOException {
+        out.putNextEntry(new ZipEntry(name));
+        out.write(bytes);
+        out.closeEntry();
+    }
+
+    private static byte[] readClassFile() throws IOException {
+        return readFully(ClassStubCacheTest.class.getClassLoader().getResourceAsStream(CLASS_FILE));
+    }
+
+    private static byte[] readFully(InputStream stream) throws IOException {
+        assertNotNull(stream);
+        try (InputStream is = stream) {
+            return IOUtil.toByteArray(is);
+        }
+    }
+
+    private static List<Path> listFiles(Path dir) throws IOException {
+        try (Stream<Path> files = Files.list(dir)) {
+            return files.collect(Collectors.toList());
+        }
+    }
+}
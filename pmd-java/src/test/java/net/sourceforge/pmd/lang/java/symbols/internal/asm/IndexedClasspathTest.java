@@ -0,0 +1,93 @@
+/*
+ * BSD-style license; for more info see http://pmd.sourceforge.net/license.html
+ */
+
+package net.sourceforge.pmd.lang.java.symbols.internal.asm;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URL;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.stream.Stream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import net.sourceforge.pmd.internal.util.ClasspathClassLoader;
+import net.sourceforge.pmd.internal.util.IOUtil;
+
+class IndexedClasspathTest {
+
+    private static final String CLASS_FILE = "net/sourceforge/pmd/lang/java/symbols/internal/asm/IndexedClasspathTest.class";
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void findResourcesInJarsAndDirectories() throws IOException {
+        byte[] classFile = readFully(IndexedClasspathTest.class.getClassLoader().getResourceAsStream(CLASS_FILE));
+        Path jar = tempDir.resolve("lib.jar");
+        try (ZipOutputStream out = new ZipOutputStream(Files.newOutputStream(jar))) {
+            out.putNextEntry(new ZipEntry(CLASS_FILE));
+            out.write(classFile);
+            out.closeEntry();
+        }
+        Path dir = tempDir.resolve("classes");
+        Files.createDirectories(dir.resolve("other"));
+        Files.write(dir.resolve("other/Foo.class"), classFile);
+
+        try (ClasspathClassLoader loader = new ClasspathClassLoader(Arrays.asList(jar.toFile(), dir.toFile()), IndexedClasspathTest.class.getClassLoader());
+             IndexedClasspath classpath = new IndexedClasspath(loader, null)) {
+
+            assertArrayEquals(classFile, readFully(classpath.findResource(CLASS_FILE)));
+            assertArrayEquals(classFile, readFully(classpath.findResource("other/Foo.class")));
+            assertNull(classpath.findResource("other/Bar.class"));
+            assertNull(classpath.findResource("does/not/Exist.class"));
+            // found in the parent classloader
+            assertNotNull(classpath.findResource("java/lang/String.class"));
+
+            URL url = classpath.getResource(CLASS_FILE);
+            assertNotNull(url);
+            assertEquals("jar", url.getProtocol());
+            assertNull(classpath.getResource("java/lang/String.class"));
+        }
+    }
+
+    @Test
+    void packageListsAreCached() throws IOException {
+        Path jar = tempDir.resolve("lib.jar");
+        try (ZipOutputStream out = new ZipOutputStream(Files.newOutputStream(jar))) {
+            out.putNextEntry(new ZipEntry("p/A.class"));
+            out.write(new byte[] {1, 2, 3});
+            out.closeEntry();
+        }
+        Path cacheDir = tempDir.resolve("cache");
+
+        for (int i = 0; i < 2; i++) {
+            try (ClasspathClassLoader loader = new ClasspathClassLoader(Arrays.asList(jar.toFile()), null);
+                 IndexedClasspath classpath = new IndexedClasspath(loader, cacheDir)) {
+                assertArrayEquals(new byte[] {1, 2, 3}, readFully(classpath.findResource("p/A.class")));
+                assertNull(classpath.findResource("q/A.class"));
+            }
+            try (Stream<Path> files = Files.list(cacheDir)) {
+                assertEquals(1, files.count());
+            }
+        }
+    }
+
+    private static byte[] readFully(InputStream stream) throws IOException {
+        assertNotNull(stream);
+        try (InputStream is = stream) {
+            return IOUtil.toByteArray(is);
+        }
+    }
+}
@@ -0,0 +1,111 @@
+/*
+ * BSD-style license; for more info see http://pmd.sourceforge.net/license.html
+ */
+
+package net.sourceforge.pmd.lang.java.symbols.internal.ast;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.Test;
+
+import net.sourceforge.pmd.lang.java.JavaParsingHelper;
+import net.sourceforge.pmd.lang.java.symbols.JClassSymbol;
+import net.sourceforge.pmd.lang.java.symbols.JMethodSymbol;
+import net.sourceforge.pmd.lang.java.symbols.internal.asm.Classpath;
+import net.sourceforge.pmd.lang.java.types.JTypeMirror;
+import net.sourceforge.pmd.lang.java.types.Substitution;
+import net.sourceforge.pmd.lang.java.types.TypeSystem;
+
+class SourceDeclarationIndexTest {
+
+    private final JavaParsingHelper parser = JavaParsingHelper.DEFAULT.withProcessing(false);
+    private final Classpath classpath = Classpath.forClassLoader(JavaParsingHelper.class.getClassLoader());
+
+    @Test
+    void resolveClassesOfOtherFiles() {
+        SourceDeclarationIndex index = new SourceDeclarationIndex(classpath);
+        index.addFile(parser.parse(
+            "package p;\n"
+                + "import java.util.List;\n"
+                + "public class A<T extends Comparable<T>> extends B implements Runnable {\n"
+                + "    public static final int MAX = 3;\n"
+                + "    public List<T> items;\n"
+                + "    A(String s) { }\n"
+                + "    @Override public void run() { }\n"
+                + "    public <E extends Exception> T get(E e, int... rest) throws E { return null; }\n"
+                + "    public static class Inner { }\n"
+                + "    public enum Kind { ONE, TWO }\n"
+                + "}"
+        ));
+        index.addFile(parser.parse(
+            "package p;\n"
+                + "public abstract class B {\n"
+                + "    protected abstract A.Inner inner();\n"
+                + "    void local() { class Local { } }\n"
+                + "}"
+        ));
+        assertEquals(4, index.size());
+
+        TypeSystem ts = TypeSystem.usingClasspath(index.delegateTo(classpath));
+
+        JClassSymbol a = ts.getClassSymbol("p.A");
+        assertNotNull(a);
+        assertFalse(a.isUnresolved());
+        assertEquals("p.B", a.getSuperclass().getBinaryName());
+        assertEquals(1, a.getTypeParameterCount());
+        assertEquals(3, a.getDeclaredField("MAX").getConstValue());
+        assertEquals(ts.getClassSymbol("java.util.List"), a.getDeclaredField("items").getTypeMirror(Substitution.EMPTY).getSymbol());
+        assertEquals(1, a.getConstructors().size());
+
+        JMethodSymbol get = methodNamed(a, "get");
+        assertTrue(get.isVarargs());
+        assertEquals(2, get.getArity());
+        assertEquals(1, get.getTypeParameterCount());
+
+        JClassSymbol inner = a.getDeclaredClass("Inner");
+        assertNotNull(inner);
+        assertEquals("p.A$Inner", inner.getBinaryName());
+        assertEquals("p.A.Inner", inner.getCanonicalName());
+
+        JClassSymbol kind = ts.getClassSymbol("p.A$Kind");
+        assertNotNull(kind);
+        assertTrue(kind.isEnum());
+        assertEquals(2, kind.getEnumConstants().size());
+
+        JClassSymbol b = ts.getClassSymbol("p.B");
+        assertNotNull(b);
+        JTypeMirror innerType = methodNamed(b, "inner").getReturnType(Substitution.EMPTY);
+        assertEquals(inner, innerType.getSymbol());
+        assertNull(ts.getClassSymbol("p.B$1Local"));
+    }
+
+    @Test
+    void resolveRecords() {
+        SourceDeclarationIndex index = new SourceDeclarationIndex(classpath);
+        index.addFile(parser.parse("package p; public record Point(int x, String... names) { }"));
+
+        TypeSystem ts = TypeSystem.usingClasspath(index.delegateTo(classpath));
+        JClassSymbol point = ts.getClassSymbol("p.Point");
+        assertNotNull(point);
+        assertTrue(point.isRecord());
+        assertEquals(2, point.getRecordComponents().size());
+        assertEquals(1, point.getConstructors().size());
+        assertTrue(point.getConstructors().get(0).isVarargs());
+        assertEquals(ts.INT, methodNamed(point, "x").getReturnType(Substitution.EMPTY));
+    }
+
+    private static JMethodSymbol methodNamed(JClassSymbol owner, String name) {
+        List<JMethodSymbol> methods = owner.getDeclaredMethods().stream()
+                                           .filter(it -> it.nameEquals(name))
+                                           .collect(Collectors.toList());
+        assertEquals(1, methods.size(), "methods named " + name);
+        return methods.get(0);
+    }
+}
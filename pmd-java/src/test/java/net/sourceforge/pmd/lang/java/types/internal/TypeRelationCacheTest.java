@@ -0,0 +1,65 @@
+/*
+ * BSD-style license; for more info see http://pmd.sourceforge.net/license.html
+ */
+
+package net.sourceforge.pmd.lang.java.types.internal;
+
+import static java.util.Collections.singletonList;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Arrays;
+
+import org.junit.jupiter.api.Test;
+
+import net.sourceforge.pmd.lang.java.JavaParsingHelper;
+import net.sourceforge.pmd.lang.java.ast.ASTClassDeclaration;
+import net.sourceforge.pmd.lang.java.ast.ASTCompilationUnit;
+import net.sourceforge.pmd.lang.java.symbols.JClassSymbol;
+import net.sourceforge.pmd.lang.java.types.InternalApiBridge;
+import net.sourceforge.pmd.lang.java.types.JTypeMirror;
+import net.sourceforge.pmd.lang.java.types.TypeSystem;
+
+class TypeRelationCacheTest {
+
+    @Test
+    void relationsAreCachedForTheTypeSystem() {
+        TypeSystem ts = TypeSystem.usingClassLoaderClasspath(JavaParsingHelper.class.getClassLoader());
+        TypeRelationCache cache = InternalApiBridge.getRelationCache(ts);
+        JTypeMirror string = ts.rawType(classSym(ts, "java.lang.String"));
+        JTypeMirror arrayList = ts.parameterise(classSym(ts, "java.util.ArrayList"), singletonList(string));
+        JClassSymbol list = classSym(ts, "java.util.List");
+        JTypeMirror listOfString = ts.parameterise(list, singletonList(string));
+
+        for (int i = 0; i < 3; i++) {
+            assertTrue(arrayList.isSubtypeOf(listOfString));
+            assertFalse(listOfString.isSubtypeOf(arrayList));
+            assertEquals(listOfString, arrayList.getAsSuper(list));
+            assertEquals(ts.OBJECT, ts.lub(Arrays.asList(string, listOfString)));
+        }
+
+        assertTrue(cache.getSubtypeHitRate() > 0);
+        assertTrue(cache.getAsSuperHitRate() > 0);
+        assertTrue(cache.getLubHitRate() > 0);
+    }
+
+    @Test
+    void typesOfTheSourcesAreNotCached() {
+        ASTCompilationUnit acu = JavaParsingHelper.DEFAULT.parse("import java.util.*; class Foo<T> extends ArrayList<String> { }");
+        TypeSystem ts = acu.getTypeSystem();
+        ASTClassDeclaration foo = acu.descendants(ASTClassDeclaration.class).firstOrThrow();
+
+        assertFalse(TypeRelationCache.isCacheable(foo.getTypeMirror()));
+        // type variable T
+        assertFalse(TypeRelationCache.isCacheable(foo.getTypeMirror().getTypeArgs().get(0)));
+        assertTrue(TypeRelationCache.isCacheable(foo.getTypeMirror().getSuperClass()));
+        assertTrue(TypeRelationCache.isCacheable(ts.arrayType(ts.INT)));
+    }
+
+    private static JClassSymbol classSym(TypeSystem ts, String name) {
+        JClassSymbol sym = ts.getClassSymbol(name);
+        assertFalse(sym == null || sym.isUnresolved(), name);
+        return sym;
+    }
+}
@@ -0,0 +1,55 @@
+/*
+ * BSD-style license; for more info see http://pmd.sourceforge.net/license.html
+ */
+
+package net.sourceforge.pmd.lang.java.types.internal.infer;
+
+import static java.util.Collections.singletonList;
+import static net.sourceforge.pmd.util.CollectionUtil.listOf;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import net.sourceforge.pmd.lang.java.JavaParsingHelper;
+import net.sourceforge.pmd.lang.java.ast.ASTCompilationUnit;
+import net.sourceforge.pmd.lang.java.ast.ASTMethodCall;
+import net.sourceforge.pmd.lang.java.types.InternalApiBridge;
+import net.sourceforge.pmd.lang.java.types.JTypeMirror;
+import net.sourceforge.pmd.lang.java.types.TypeSystem;
+
+class OverloadResolutionCacheTest {
+
+    @Test
+    void cachedCallsSelectTheSameOverloads() {
+        ASTCompilationUnit acu = JavaParsingHelper.DEFAULT.parse(
+            "import java.util.*;"
+                + "class Foo {"
+                + "  void foo(StringBuilder sb, List<String> list, String s, int i, char c) {"
+                + "    sb.append(s); sb.append(i); sb.append(c); sb.append(s); sb.append(i); sb.append(c);"
+                + "    list.add(s); list.add(s); list.add(i, s);"
+                + "    sb.append(list.get(0));"
+                + "  }"
+                + "}");
+        OverloadResolutionCache cache = InternalApiBridge.getOverloadCache(acu.getTypeSystem());
+
+        TypeSystem ts = acu.getTypeSystem();
+        List<ASTMethodCall> calls = acu.descendants(ASTMethodCall.class).toList();
+        JTypeMirror string = ts.declaration(ts.getClassSymbol("java.lang.String"));
+        assertEquals(singletonList(string), calls.get(0).getMethodType().getFormalParameters());
+        assertEquals(singletonList(ts.INT), calls.get(1).getMethodType().getFormalParameters());
+        assertEquals(singletonList(ts.CHAR), calls.get(2).getMethodType().getFormalParameters());
+        for (int i = 0; i < 3; i++) {
+            // the same overloads are selected when the result is cached
+            assertEquals(calls.get(i).getMethodType(), calls.get(i + 3).getMethodType());
+        }
+        assertEquals(singletonList(string), calls.get(6).getMethodType().getFormalParameters());
+        assertEquals(calls.get(6).getMethodType(), calls.get(7).getMethodType());
+        assertEquals(listOf(ts.INT, string), calls.get(8).getMethodType().getFormalParameters());
+        // the argument is a method call, so that one is not cached
+        assertEquals(singletonList(string), calls.get(9).getMethodType().getFormalParameters());
+        assertTrue(cache.getHitRate() > 0, cache.toString());
+    }
+}
@@ -51,23 +51,28 @@ public class PLSQLParser extends JjtreeParserAdapter<ASTInput> {
             }
 
             if (image == null) {
+                // PLSQL is case-insensitive, but the contents of
+                // string literals and the like are case-sensitive.
+                // Note: tokens are normalized to uppercase make CPD case-insensitive.
+                // We use uppercase and not lowercase because that way, PLSQL keywords
+                // will be returned unchanged (they are already uppercase, see PLSQLParser),
+                // therefore creating fewer strings in memory.
+                boolean caseSensitive = kind == PLSQLTokenKinds.CHARACTER_LITERAL
+                    || kind == PLSQLTokenKinds.STRING_LITERAL
+                    || kind == PLSQLTokenKinds.QUOTED_LITERAL;
+
                 Chars imageCs = cs.getTokenImageCs();
                 if (kind == PLSQLTokenKinds.IDENTIFIER && imageCs.charAt(0) == '"') {
                     // remove quotes to make identical to bare ID
                     image = imageCs.substring(1, imageCs.length() - 1);
+                } else if (caseSensitive || isUpperCase(imageCs)) {
+                    // the image is the text of the token, it doesn't need to be stored
+                    return super.createToken(self, kind, cs, null);
                 } else {
                     image = imageCs.toString();
                 }
 
-                // PLSQL is case-insensitive, but the contents of
-                // string literals and the like are case-sensitive.
-                // Note: tokens are normalized to uppercase make CPD case-insensitive.
-                // We use uppercase and not lowercase because that way, PLSQL keywords
-                // will be returned unchanged (they are already uppercase, see PLSQLParser),
-                // therefore creating fewer strings in memory.
-                if (kind != PLSQLTokenKinds.CHARACTER_LITERAL
-                    && kind != PLSQLTokenKinds.STRING_LITERAL
-                    && kind != PLSQLTokenKinds.QUOTED_LITERAL) {
+                if (!caseSensitive) {
                     image = image.toUpperCase(Locale.ROOT);
                 }
             }
@@ -76,6 +81,17 @@ public class PLSQLParser extends JjtreeParserAdapter<ASTInput> {
         }
     };
 
+    private static boolean isUpperCase(Chars image) {
+        for (int i = 0; i < image.length(); i++) {
+            char c = image.charAt(i);
+            // non-ASCII characters may change length when uppercased
+            if (c >= 'a' && c <= 'z' || c > 127) {
+                return false;
+            }
+        }
+        return true;
+    }
+
     @Override
     protected TokenDocumentBehavior tokenBehavior() {
         return TOKEN_BEHAVIOR;
@@ -133,6 +133,8 @@ class BaseTestParserImpl {
             descriptor.setLanguageVersion(lversion);
         }
 
+        descriptor.setPerformanceBudget(parsePerformanceBudget(testCode, err));
+
         XmlPosition startPosition = xmlPositioner.startPositionOf(testCode);
         descriptor.setLineNumber(startPosition.getLine());
     }
@@ -227,6 +229,40 @@ class BaseTestParserImpl {
         return null;
     }
 
+    private PerformanceBudget parsePerformanceBudget(Element testCode, PmdXmlReporter err) {
+        Element budgetNode = getSingleChild(testCode, "performance-budget", false, err);
+        if (budgetNode == null) {
+            return null;
+        }
+        long maxAllocatedBytes = parseLimitAttribute(budgetNode, "max-allocated-bytes", err);
+        if (maxAllocatedBytes < 0) {
+            return null;
+        }
+        if (maxAllocatedBytes == PerformanceBudget.UNLIMITED) {
+            err.at(budgetNode).warn("Budget without limit is ignored");
+            return null;
+        }
+        return new PerformanceBudget(maxAllocatedBytes);
+    }
+
+    /** Returns the limit, {@link PerformanceBudget#UNLIMITED} if it is missing, or -1 if it is invalid. */
+    private long parseLimitAttribute(Element budgetNode, String attrName, PmdXmlReporter err) {
+        Attr attrNode = budgetNode.getAttributeNode(attrName);
+        if (attrNode == null) {
+            return PerformanceBudget.UNLIMITED;
+        }
+        try {
+            long limit = Long.parseLong(attrNode.getValue().trim());
+            if (limit >= 0) {
+                return limit;
+            }
+        } catch (NumberFormatException ignored) {
+            // reported below
+        }
+        err.at(attrNode).error("Expected a non-negative integer, got ''{0}''", attrNode.getValue());
+        return -1;
+    }
+
     /** FIXME this is stupid, the language version may be of a different language than the Rule... */
     private static LanguageVersion parseSourceType(String languageIdAndVersion) {
         final String version;
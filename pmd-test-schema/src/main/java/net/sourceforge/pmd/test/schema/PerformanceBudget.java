@@ -0,0 +1,42 @@
+/*
+ * BSD-style license; for more info see http://pmd.sourceforge.net/license.html
+ */
+
+package net.sourceforge.pmd.test.schema;
+
+/**
+ * The work a rule may do on the code of a test, declared with the element
+ * {@code performance-budget} of a test. The work is measured in units that
+ * don't depend on the speed of the machine, so that a test fails if a change
+ * makes a rule do a lot more work, and not because the machine is busy.
+ *
+ * @since 7.6.0
+ */
+public final class PerformanceBudget {
+
+    /** The value of a limit that is not declared. */
+    public static final long UNLIMITED = Long.MAX_VALUE;
+
+    private final long maxAllocatedBytes;
+
+    public PerformanceBudget(long maxAllocatedBytes) {
+        if (maxAllocatedBytes < 0) {
+            throw new IllegalArgumentException("Negative budget");
+        }
+        this.maxAllocatedBytes = maxAllocatedBytes;
+    }
+
+    /**
+     * Returns the maximum number of bytes the rule may allocate on the
+     * heap while it is applied, or {@link #UNLIMITED}. The allocated bytes
+     * vary between runs, so this limit needs a large margin.
+     */
+    public long getMaxAllocatedBytes() {
+        return maxAllocatedBytes;
+    }
+
+    @Override
+    public String toString() {
+        return "PerformanceBudget [maxAllocatedBytes=" + maxAllocatedBytes + "]";
+    }
+}
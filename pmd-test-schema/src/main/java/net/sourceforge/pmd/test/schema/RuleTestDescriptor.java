@@ -27,6 +27,7 @@ public class RuleTestDescriptor {
     private List<Integer> expectedLineNumbers;
     private List<String> expectedMessages;
     private int lineNumber;
+    private PerformanceBudget performanceBudget;
 
     public RuleTestDescriptor(int index, Rule rule) {
         this.index = index;
@@ -124,4 +125,21 @@ public class RuleTestDescriptor {
     public void setLineNumber(int lineNumber) {
         this.lineNumber = lineNumber;
     }
+
+    /**
+     * Returns the work the rule may do on the code of this test, or null
+     * if the test has no budget.
+     *
+     * @since 7.6.0
+     */
+    public PerformanceBudget getPerformanceBudget() {
+        return performanceBudget;
+    }
+
+    /**
+     * @since 7.6.0
+     */
+    public void setPerformanceBudget(PerformanceBudget performanceBudget) {
+        this.performanceBudget = performanceBudget;
+    }
 }
@@ -8,6 +8,7 @@ import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.containsString;
 import static org.hamcrest.Matchers.equalTo;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 
 import java.io.IOException;
@@ -139,6 +140,33 @@ class TestSchemaParserTest {
                                              + "                            ^^^^ Unknown property, known property names are violationSuppressRegex, violationSuppressXPath\n"));
     }
 
+    @Test
+    void testPerformanceBudget() throws IOException {
+        String file = "<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n"
+                + "<test-data\n"
+                + "        xmlns=\"http://pmd.sourceforge.net/rule-tests\"\n"
+                + "        xmlns:xsi=\"http://www.w3.org/2001/XMLSchema-instance\"\n"
+                + "        xsi:schemaLocation=\"http://pmd.sourceforge.net/rule-tests net/sourceforge/pmd/test/schema/rule-tests_1_0_0.xsd\">\n"
+                + "    <test-code>\n"
+                + "        <description>with budget</description>\n"
+                + "        <expected-problems>0</expected-problems>\n"
+                + "        <code>class Foo {}</code>\n"
+                + "        <performance-budget max-allocated-bytes='100000'/>\n"
+                + "    </test-code>\n"
+                + "    <test-code>\n"
+                + "        <description>without budget</description>\n"
+                + "        <expected-problems>0</expected-problems>\n"
+                + "        <code>class Foo {}</code>\n"
+                + "    </test-code>\n"
+                + "</test-data>\n";
+
+        RuleTestCollection parsed = parseFile(file);
+
+        PerformanceBudget budget = parsed.getTests().get(0).getPerformanceBudget();
+        assertEquals(100000, budget.getMaxAllocatedBytes());
+        assertNull(parsed.getTests().get(1).getPerformanceBudget());
+    }
+
     private RuleTestCollection parseFile(String file) throws IOException {
         MockRule mockRule = new MockRule();
         mockRule.setLanguage(PlainTextLanguage.getInstance());
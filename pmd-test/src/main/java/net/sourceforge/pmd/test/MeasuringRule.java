@@ -0,0 +1,41 @@
+/**
+ * BSD-style license; for more info see http://pmd.sourceforge.net/license.html
+ */
+
+package net.sourceforge.pmd.test;
+
+import net.sourceforge.pmd.lang.ast.Node;
+import net.sourceforge.pmd.lang.rule.Rule;
+import net.sourceforge.pmd.lang.rule.RuleReference;
+import net.sourceforge.pmd.reporting.RuleContext;
+
+/**
+ * Applies a rule and records its {@link RuleWork}. Only the work done
+ * in {@link Rule#apply(Node, RuleContext)} is measured, not the parsing
+ * or the other processing stages of the language.
+ */
+final class MeasuringRule extends RuleReference {
+
+    private final RuleWork work;
+
+    MeasuringRule(Rule rule, RuleWork work) {
+        super(rule, null);
+        this.work = work;
+    }
+
+    @Override
+    public void apply(Node target, RuleContext ctx) {
+        long allocatedBefore = RuleWork.currentThreadAllocatedBytes();
+        try {
+            super.apply(target, ctx);
+        } finally {
+            work.recordApplication(RuleWork.currentThreadAllocatedBytes() - allocatedBefore);
+        }
+    }
+
+    @Override
+    public Rule deepCopy() {
+        // the analysis copies the rules, the copy records into the same work
+        return new MeasuringRule(getRule().deepCopy(), work);
+    }
+}
@@ -44,6 +44,7 @@ import net.sourceforge.pmd.renderers.TextRenderer;
 import net.sourceforge.pmd.reporting.GlobalAnalysisListener;
 import net.sourceforge.pmd.reporting.Report;
 import net.sourceforge.pmd.reporting.RuleViolation;
+import net.sourceforge.pmd.test.schema.PerformanceBudget;
 import net.sourceforge.pmd.test.schema.RuleTestCollection;
 import net.sourceforge.pmd.test.schema.RuleTestDescriptor;
 import net.sourceforge.pmd.test.schema.TestSchemaParser;
@@ -91,6 +92,7 @@ public abstract class RuleTst {
         rule = reinitializeRule(rule);
 
         Map<PropertyDescriptor<?>, Object> oldProperties = rule.getPropertiesByPropertyDescriptor();
+        RuleWork work = test.getPerformanceBudget() != null ? new RuleWork() : null;
         try {
             int res;
             Report report;
@@ -115,7 +117,7 @@ public abstract class RuleTst {
                     throw new RuntimeException("Rule is not configured correctly: " + dysfunctionReason);
                 }
 
-                report = processUsingStringReader(test, rule);
+                report = processUsingStringReader(test, rule, work);
                 res = report.getViolations().size();
             } catch (Exception e) {
                 e.printStackTrace();
@@ -128,6 +130,9 @@ public abstract class RuleTst {
                          '"' + test.getDescription() + "\" resulted in wrong number of failures,");
             assertMessages(report, test);
             assertLineNumbers(report, test);
+            if (work != null) {
+                assertWithinBudget(work, test.getPerformanceBudget(), '"' + test.getDescription() + '"');
+            }
         } finally {
             // Restore old properties
             for (Map.Entry<PropertyDescriptor<?>, Object> entry : oldProperties.entrySet()) {
@@ -222,8 +227,57 @@ public abstract class RuleTst {
         System.out.println("--------------------------------------------------------------");
     }
 
-    private Report processUsingStringReader(RuleTestDescriptor test, Rule rule) {
-        return runTestFromString(test.getCode(), rule, test.getLanguageVersion());
+    private Report processUsingStringReader(RuleTestDescriptor test, Rule rule, RuleWork work) {
+        if (work == null) {
+            return runTestFromString(test.getCode(), rule, test.getLanguageVersion());
+        }
+        warmUp(rule, test.getCode(), test.getLanguageVersion());
+        return runTestFromString(test.getCode(), new MeasuringRule(rule, work), test.getLanguageVersion());
+    }
+
+    /**
+     * The first run on some code allocates for things that are reused by
+     * later runs, eg lazily loaded classes or shared caches. A budget is
+     * therefore checked on a second run, so that it doesn't depend on
+     * which tests ran before.
+     */
+    private void warmUp(Rule rule, String code, LanguageVersion languageVersion) {
+        runTestFromString(code, new MeasuringRule(rule, new RuleWork()), languageVersion);
+    }
+
+    /**
+     * Run the rule on the given code and return the work it did on a second,
+     * warmed up run. This can
+     * be used with a {@link StressCorpusGenerator} to write dedicated
+     * performance tests, whose budget is checked with
+     * {@link #assertWithinBudget(RuleWork, PerformanceBudget, String)}.
+     *
+     * @since 7.6.0
+     */
+    public RuleWork measureRule(Rule rule, String code, LanguageVersion languageVersion) {
+        Rule copy = rule.deepCopy();
+        warmUp(copy, code, languageVersion);
+        RuleWork work = new RuleWork();
+        runTestFromString(code, new MeasuringRule(copy, work), languageVersion);
+        return work;
+    }
+
+    /**
+     * Fail if the work exceeds the budget. The allocated bytes are only
+     * checked if the JVM can measure them. They still vary between runs,
+     * eg with the JIT compilation, so a budget for them needs a large margin.
+     *
+     * @param work   The work done by the rule
+     * @param budget The budget of the rule
+     * @param what   The description of the measured code, for the failure message
+     *
+     * @since 7.6.0
+     */
+    public static void assertWithinBudget(RuleWork work, PerformanceBudget budget, String what) {
+        if (work.getAllocatedBytes() > budget.getMaxAllocatedBytes()) {
+            fail(what + " exceeded the performance budget: the rule allocated " + work.getAllocatedBytes()
+                     + " bytes, the budget is " + budget.getMaxAllocatedBytes() + " bytes");
+        }
     }
 
     private static final ClassLoader TEST_AUXCLASSPATH_CLASSLOADER;
@@ -0,0 +1,67 @@
+/**
+ * BSD-style license; for more info see http://pmd.sourceforge.net/license.html
+ */
+
+package net.sourceforge.pmd.test;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+
+import net.sourceforge.pmd.test.schema.PerformanceBudget;
+
+/**
+ * The work done by a rule while it was applied, in units that don't
+ * depend on the speed of the machine. This is measured by
+ * {@link RuleTst#measureRule(net.sourceforge.pmd.lang.rule.Rule, String, net.sourceforge.pmd.lang.LanguageVersion)},
+ * and by the tests that declare a {@link PerformanceBudget}.
+ *
+ * @since 7.6.0
+ */
+public final class RuleWork {
+
+    private static final com.sun.management.ThreadMXBean ALLOCATION_BEAN = allocationBean();
+
+    private long allocatedBytes;
+
+    RuleWork() {
+        // created by RuleTst
+    }
+
+    /**
+     * Returns the number of bytes the rule allocated on the heap while it
+     * was applied, or -1 if the JVM cannot measure it.
+     */
+    public long getAllocatedBytes() {
+        return isAllocationMeasured() ? allocatedBytes : -1;
+    }
+
+    /** Returns true if the JVM can measure the allocated bytes of a thread. */
+    public static boolean isAllocationMeasured() {
+        return ALLOCATION_BEAN != null;
+    }
+
+    /** Returns the bytes allocated by the current thread so far, or 0 if they are not measured. */
+    static long currentThreadAllocatedBytes() {
+        return ALLOCATION_BEAN != null ? ALLOCATION_BEAN.getThreadAllocatedBytes(Thread.currentThread().getId()) : 0;
+    }
+
+    void recordApplication(long allocatedBytes) {
+        this.allocatedBytes += allocatedBytes;
+    }
+
+    @Override
+    public String toString() {
+        return "RuleWork [allocatedBytes=" + getAllocatedBytes() + "]";
+    }
+
+    private static com.sun.management.ThreadMXBean allocationBean() {
+        ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        if (bean instanceof com.sun.management.ThreadMXBean) {
+            com.sun.management.ThreadMXBean sunBean = (com.sun.management.ThreadMXBean) bean;
+            if (sunBean.isThreadAllocatedMemorySupported() && sunBean.isThreadAllocatedMemoryEnabled()) {
+                return sunBean;
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,66 @@
+/**
+ * BSD-style license; for more info see http://pmd.sourceforge.net/license.html
+ */
+
+package net.sourceforge.pmd.test;
+
+import java.util.Objects;
+
+/**
+ * Synthesizes large inputs for a rule, by repeating a fragment of code
+ * between a header and a footer. The placeholder {@value #INDEX_PLACEHOLDER}
+ * in the fragment is replaced by the index of the repetition, so that the
+ * repetitions can declare distinct names. For instance, in Java:
+ *
+ * <pre>{@code
+ * String code = StressCorpusGenerator.of("class Foo {\n", "  int field{n};\n", "}\n")
+ *                                    .generate(10_000);
+ * }</pre>
+ *
+ * <p>The generated code can be passed to {@link RuleTst#measureRule(net.sourceforge.pmd.lang.rule.Rule, String, net.sourceforge.pmd.lang.LanguageVersion)},
+ * to check that the work of a rule grows linearly with the size of the input.
+ *
+ * @since 7.6.0
+ */
+public final class StressCorpusGenerator {
+
+    /** The placeholder replaced by the index of the repetition. */
+    public static final String INDEX_PLACEHOLDER = "{n}";
+
+    private final String header;
+    private final String fragment;
+    private final String footer;
+
+    private StressCorpusGenerator(String header, String fragment, String footer) {
+        this.header = Objects.requireNonNull(header, "header");
+        this.fragment = Objects.requireNonNull(fragment, "fragment");
+        this.footer = Objects.requireNonNull(footer, "footer");
+    }
+
+    /**
+     * Returns a generator that repeats the fragment between the header
+     * and the footer.
+     */
+    public static StressCorpusGenerator of(String header, String fragment, String footer) {
+        return new StressCorpusGenerator(header, fragment, footer);
+    }
+
+    /**
+     * Returns the header, followed by the given number of repetitions of the
+     * fragment, followed by the footer.
+     *
+     * @throws IllegalArgumentException If the count is negative
+     */
+    public String generate(int count) {
+        if (count < 0) {
+            throw new IllegalArgumentException("Negative count " + count);
+        }
+        StringBuilder sb = new StringBuilder(header.length() + footer.length() + count * (fragment.length() + 4));
+        sb.append(header);
+        for (int i = 0; i < count; i++) {
+            sb.append(fragment.replace(INDEX_PLACEHOLDER, Integer.toString(i)));
+        }
+        sb.append(footer);
+        return sb.toString();
+    }
+}
@@ -4,7 +4,13 @@
 
 package net.sourceforge.pmd.test;
 
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
+import static org.hamcrest.Matchers.startsWith;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.spy;
 import static org.mockito.Mockito.verify;
@@ -15,6 +21,7 @@ import java.util.Collections;
 
 import org.junit.jupiter.api.Test;
 import org.mockito.Mockito;
+import org.opentest4j.AssertionFailedError;
 
 import net.sourceforge.pmd.lang.DummyLanguageModule;
 import net.sourceforge.pmd.lang.LanguageProcessor;
@@ -25,15 +32,21 @@ import net.sourceforge.pmd.lang.rule.AbstractRule;
 import net.sourceforge.pmd.lang.rule.Rule;
 import net.sourceforge.pmd.lang.rule.RuleTargetSelector;
 import net.sourceforge.pmd.reporting.RuleContext;
+import net.sourceforge.pmd.test.schema.PerformanceBudget;
 import net.sourceforge.pmd.test.schema.RuleTestDescriptor;
 
 class RuleTstTest {
+    private static final int ALLOCATION = 1 << 16;
+
     private final LanguageVersion dummyLanguage = DummyLanguageModule.getInstance().getDefaultVersion();
 
     private Rule rule = spy(AbstractRule.class);
 
     private final RuleTst ruleTester = spy(RuleTst.class);
 
+    /** Keeps the allocations of the rule from being optimized away. */
+    private byte[] allocated;
+
     @Test
     void shouldCallStartAndEnd() {
         when(rule.getLanguage()).thenReturn(dummyLanguage.getLanguage());
@@ -79,4 +92,51 @@ class RuleTstTest {
 
         ruleTester.runTest(testDescriptor);
     }
+
+    @Test
+    void shouldFailWhenPerformanceBudgetIsExceeded() {
+        assumeTrue(RuleWork.isAllocationMeasured());
+        when(rule.getLanguage()).thenReturn(dummyLanguage.getLanguage());
+        when(rule.getName()).thenReturn("test rule");
+        when(rule.getTargetSelector()).thenReturn(RuleTargetSelector.forRootOnly());
+        when(rule.deepCopy()).thenReturn(rule);
+        Mockito.doAnswer(invocation -> {
+            allocated = new byte[ALLOCATION];
+            return null;
+        }).when(rule).apply(any(Node.class), any(RuleContext.class));
+
+        RuleTestDescriptor testDescriptor = new RuleTestDescriptor(0, rule);
+        testDescriptor.setLanguageVersion(dummyLanguage);
+        testDescriptor.setCode("(a)(b)");
+        testDescriptor.setDescription("sample test");
+        testDescriptor.recordExpectedViolations(0, Collections.emptyList(), Collections.emptyList());
+
+        testDescriptor.setPerformanceBudget(new PerformanceBudget(100L * ALLOCATION));
+        ruleTester.runTest(testDescriptor);
+
+        testDescriptor.setPerformanceBudget(new PerformanceBudget(ALLOCATION / 2));
+        AssertionFailedError error = assertThrows(AssertionFailedError.class, () -> ruleTester.runTest(testDescriptor));
+        assertThat(error.getMessage(), containsString("bytes, the budget is " + ALLOCATION / 2 + " bytes"));
+    }
+
+    @Test
+    void shouldMeasureGeneratedCorpus() {
+        assumeTrue(RuleWork.isAllocationMeasured());
+        when(rule.getLanguage()).thenReturn(dummyLanguage.getLanguage());
+        when(rule.getName()).thenReturn("test rule");
+        when(rule.getTargetSelector()).thenReturn(RuleTargetSelector.forXPathNames(Collections.singleton("dummyNode")));
+        when(rule.deepCopy()).thenReturn(rule);
+        Mockito.doAnswer(invocation -> {
+            allocated = new byte[ALLOCATION];
+            return null;
+        }).when(rule).apply(any(Node.class), any(RuleContext.class));
+
+        String code = StressCorpusGenerator.of("", "(a{n})", "").generate(50);
+        assertThat(code, startsWith("(a0)(a1)"));
+
+        RuleWork work = ruleTester.measureRule(rule, code, dummyLanguage);
+
+        // the rule is applied to each of the 50 nodes
+        assertThat(work.getAllocatedBytes(), greaterThanOrEqualTo(50L * ALLOCATION));
+    }
 }
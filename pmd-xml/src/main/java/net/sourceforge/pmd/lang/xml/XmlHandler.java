@@ -5,6 +5,7 @@
 package net.sourceforge.pmd.lang.xml;
 
 import net.sourceforge.pmd.lang.AbstractPmdLanguageVersionHandler;
+import net.sourceforge.pmd.lang.LanguagePropertyBundle;
 import net.sourceforge.pmd.lang.ast.Parser;
 
 /**
@@ -12,9 +13,20 @@ import net.sourceforge.pmd.lang.ast.Parser;
  */
 public class XmlHandler extends AbstractPmdLanguageVersionHandler {
 
+    private final boolean streamingParser;
+
+    public XmlHandler() {
+        this.streamingParser = false;
+    }
+
+    public XmlHandler(LanguagePropertyBundle properties) {
+        this.streamingParser = properties.hasDescriptor(XmlLanguageProperties.STREAMING_PARSER)
+            && properties.getProperty(XmlLanguageProperties.STREAMING_PARSER);
+    }
+
     @Override
     public Parser getParser() {
-        return new XmlParser();
+        return new XmlParser(streamingParser);
     }
 
 }
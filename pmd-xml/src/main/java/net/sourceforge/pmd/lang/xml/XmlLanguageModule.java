@@ -21,13 +21,18 @@ public class XmlLanguageModule extends SimpleLanguageModuleBase {
                               .extensions("xml")
                               .addVersion("1.0")
                               .addDefaultVersion("1.1"),
-                new XmlHandler());
+                props -> new XmlHandler(props));
     }
 
     public static XmlLanguageModule getInstance() {
         return (XmlLanguageModule) LanguageRegistry.PMD.getLanguageById(ID);
     }
 
+    @Override
+    public LanguagePropertyBundle newPropertyBundle() {
+        return new XmlLanguageProperties(this);
+    }
+
     @Override
     public CpdLexer createCpdLexer(LanguagePropertyBundle bundle) {
         return new XmlCpdLexer();
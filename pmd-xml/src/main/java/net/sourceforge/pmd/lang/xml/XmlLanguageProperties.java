@@ -0,0 +1,38 @@
+/*
+ * BSD-style license; for more info see http://pmd.sourceforge.net/license.html
+ */
+
+package net.sourceforge.pmd.lang.xml;
+
+import net.sourceforge.pmd.lang.Language;
+import net.sourceforge.pmd.lang.LanguagePropertyBundle;
+import net.sourceforge.pmd.properties.PropertyDescriptor;
+import net.sourceforge.pmd.properties.PropertyFactory;
+
+/**
+ * Language properties shared by the XML-based languages (XML, POM, WSDL, XSL).
+ *
+ * @since 7.6.0
+ */
+public class XmlLanguageProperties extends LanguagePropertyBundle {
+
+    /**
+     * If true, files are parsed in a single streaming (StAX) pass, which
+     * determines the positions of the nodes while parsing. Otherwise, the
+     * DOM is built first and the positions are computed in a second pass
+     * over the DOM.
+     *
+     * <p>Env variable is {@code PMD_XML_STREAMING_PARSER} (with the language
+     * id instead of {@code XML} for the other XML-based languages).
+     */
+    public static final PropertyDescriptor<Boolean> STREAMING_PARSER =
+        PropertyFactory.booleanProperty("streamingParser")
+                       .desc("Parse files in a single streaming pass. This is faster and uses less memory on large files.")
+                       .defaultValue(false)
+                       .build();
+
+    public XmlLanguageProperties(Language language) {
+        super(language);
+        definePropertyDescriptor(STREAMING_PARSER);
+    }
+}
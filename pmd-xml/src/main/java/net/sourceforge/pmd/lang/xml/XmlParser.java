@@ -14,9 +14,16 @@ import net.sourceforge.pmd.lang.xml.ast.internal.XmlParserImpl.RootXmlNode;
  */
 class XmlParser implements Parser {
 
+    private final boolean streaming;
+
+    XmlParser(boolean streaming) {
+        this.streaming = streaming;
+    }
+
     @Override
     public RootXmlNode parse(ParserTask task) throws ParseException {
-        return new XmlParserImpl().parse(task);
+        XmlParserImpl parser = new XmlParserImpl();
+        return streaming ? parser.parseStreaming(task) : parser.parse(task);
     }
 
 }
@@ -0,0 +1,385 @@
+/*
+ * BSD-style license; for more info see http://pmd.sourceforge.net/license.html
+ */
+
+package net.sourceforge.pmd.lang.xml.ast.internal;
+
+import java.io.ByteArrayInputStream;
+import java.io.StringReader;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import javax.xml.XMLConstants;
+import javax.xml.parsers.DocumentBuilderFactory;
+import javax.xml.parsers.ParserConfigurationException;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+
+import org.w3c.dom.DOMException;
+import org.w3c.dom.Document;
+import org.w3c.dom.DocumentType;
+import org.w3c.dom.Element;
+import org.w3c.dom.Node;
+import org.w3c.dom.Text;
+
+import net.sourceforge.pmd.lang.ast.ParseException;
+import net.sourceforge.pmd.lang.ast.Parser.ParserTask;
+import net.sourceforge.pmd.lang.document.Chars;
+import net.sourceforge.pmd.lang.document.TextDocument;
+import net.sourceforge.pmd.lang.xml.ast.internal.XmlParserImpl.RootXmlNode;
+
+/**
+ * Builds the DOM of an XML file and the PMD nodes wrapping it in a single
+ * streaming pass. The events of a {@link XMLStreamReader} are matched with
+ * the source text as they arrive to determine the position of each node,
+ * which replaces the second pass over the finished DOM done by {@link DOMLineNumbers}.
+ *
+ * <p>The positions follow the same conventions as {@link DOMLineNumbers}:
+ * the end offset of a node is the offset of its last character.
+ */
+final class StaxDomBuilder {
+
+    private static final String CDATA_START = "<![CDATA[";
+
+    private final XmlParserImpl parser;
+    private final TextDocument textDocument;
+    private final Chars text;
+    private final Document document;
+
+    /** Open nodes, the document is at the bottom. */
+    private final Deque<XmlNodeWrapper> stack = new ArrayDeque<>();
+    /** Offset in the source text up to which events have been matched. */
+    private int pos;
+
+    /** Text or CDATA node that may still receive data from subsequent character events. */
+    private XmlNodeWrapper pendingText;
+    /** Number of characters of the pending CDATA section that have not been reported yet. */
+    private int cdataRemaining;
+
+    private StaxDomBuilder(XmlParserImpl parser, TextDocument textDocument, Document document) {
+        this.parser = parser;
+        this.textDocument = textDocument;
+        this.text = textDocument.getText();
+        this.document = document;
+    }
+
+    static RootXmlNode parse(XmlParserImpl parser, ParserTask task) {
+        Document document = newDocument();
+        RootXmlNode root = new RootXmlNode(parser, document, task);
+        StaxDomBuilder builder = new StaxDomBuilder(parser, task.getTextDocument(), document);
+        XMLStreamReader reader = null;
+        try {
+            reader = newInputFactory().createXMLStreamReader(new StringReader(task.getSourceText()));
+            builder.build(root, reader);
+            root.setXmlEncoding(reader.getCharacterEncodingScheme());
+        } catch (XMLStreamException | DOMException e) {
+            throw new ParseException(e);
+        } finally {
+            closeQuietly(reader);
+        }
+        return root;
+    }
+
+    private void build(RootXmlNode root, XMLStreamReader reader) throws XMLStreamException {
+        if (reader.getVersion() != null) {
+            document.setXmlVersion(reader.getVersion());
+        }
+        if (reader.standaloneSet()) {
+            document.setXmlStandalone(reader.isStandalone());
+        }
+
+        setPosition(root, 0, 0);
+        stack.push(root);
+        // the reader doesn't report the XML declaration as an event
+        pos = endOfXmlDeclaration();
+
+        while (reader.hasNext()) {
+            int event = reader.next();
+            switch (event) {
+            case XMLStreamConstants.START_ELEMENT:
+                endText();
+                startElement(reader);
+                break;
+            case XMLStreamConstants.END_ELEMENT:
+                endText();
+                endElement();
+                break;
+            case XMLStreamConstants.CHARACTERS:
+            case XMLStreamConstants.SPACE:
+            case XMLStreamConstants.CDATA:
+                characters(reader.getText());
+                break;
+            case XMLStreamConstants.COMMENT:
+                endText();
+                markup(document.createComment(reader.getText()), "<!--", "-->");
+                break;
+            case XMLStreamConstants.PROCESSING_INSTRUCTION:
+                endText();
+                String data = reader.getPIData();
+                markup(document.createProcessingInstruction(reader.getPITarget(), data == null ? "" : data), "<?", "?>");
+                break;
+            case XMLStreamConstants.ENTITY_REFERENCE:
+                // only reported for entities that could not be replaced
+                endText();
+                markup(document.createEntityReference(reader.getLocalName()), "&", ";");
+                break;
+            case XMLStreamConstants.DTD:
+                endText();
+                doctype(reader.getText());
+                break;
+            default:
+                break;
+            }
+        }
+
+        root.endOffset = pos - 1;
+    }
+
+    /**
+     * Returns the offset after the XML declaration, or 0 if the document
+     * doesn't start with one. A processing instruction whose target starts
+     * with "xml", eg {@code <?xml-stylesheet ...?>}, is not a declaration.
+     */
+    private int endOfXmlDeclaration() {
+        if (text.startsWith("<?xml", 0) && text.length() > 5 && Character.isWhitespace(text.charAt(5))) {
+            return text.indexOf("?>", 5) + 2;
+        }
+        return 0;
+    }
+
+    private void startElement(XMLStreamReader reader) {
+        Element element = document.createElementNS(emptyToNull(reader.getNamespaceURI()),
+                                                   qualifiedName(reader.getPrefix(), reader.getLocalName()));
+
+        for (int i = 0; i < reader.getNamespaceCount(); i++) {
+            String prefix = reader.getNamespacePrefix(i);
+            element.setAttributeNS(XMLConstants.XMLNS_ATTRIBUTE_NS_URI,
+                                   qualifiedName(XMLConstants.XMLNS_ATTRIBUTE, prefix),
+                                   reader.getNamespaceURI(i));
+        }
+        for (int i = 0; i < reader.getAttributeCount(); i++) {
+            element.setAttributeNS(emptyToNull(reader.getAttributeNamespace(i)),
+                                   qualifiedName(reader.getAttributePrefix(i), reader.getAttributeLocalName(i)),
+                                   reader.getAttributeValue(i));
+        }
+
+        int start = text.indexOf("<", pos);
+        int end = endOfTag(start);
+        XmlNodeWrapper wrapper = append(element, start, end);
+        stack.push(wrapper);
+        pos = end;
+    }
+
+    private void endElement() {
+        XmlNodeWrapper element = stack.pop();
+        // the end offset is the '>' of the start tag at this point
+        boolean isAutoClose = element.getNumChildren() == 0 && text.charAt(element.endOffset - 1) == '/';
+        if (!isAutoClose) {
+            int closeTag = text.indexOf("</", pos);
+            pos = text.indexOf(">", closeTag) + 1;
+        }
+        element.endOffset = pos - 1;
+    }
+
+    private void characters(String data) {
+        if (stack.peek().getNode().getNodeType() == Node.DOCUMENT_NODE) {
+            // whitespace outside of the root element, which is not part of the DOM
+            return;
+        }
+
+        if (pendingText != null && cdataRemaining > 0) {
+            // the reader may split a CDATA section into several events
+            ((Text) pendingText.getNode()).appendData(data);
+            cdataRemaining -= data.length();
+        } else if (text.startsWith(CDATA_START, pos)) {
+            endText();
+            int contentStart = pos + CDATA_START.length();
+            int contentEnd = text.indexOf("]]>", contentStart);
+            pendingText = append(document.createCDATASection(data), pos, contentEnd + "]]>".length());
+            cdataRemaining = contentEnd - contentStart - data.length();
+            pos = contentEnd + "]]>".length();
+        } else if (pendingText != null && pendingText.getNode().getNodeType() == Node.TEXT_NODE) {
+            // the reader may split text into several events, eg around entity references
+            ((Text) pendingText.getNode()).appendData(data);
+        } else {
+            endText();
+            int end = text.indexOf("<", pos);
+            if (end < 0) {
+                end = text.length();
+            }
+            pendingText = append(document.createTextNode(data), pos, end);
+            pos = end;
+        }
+    }
+
+    private void endText() {
+        pendingText = null;
+        cdataRemaining = 0;
+    }
+
+    private void markup(Node node, String open, String close) {
+        int start = text.indexOf(open, pos);
+        int end = text.indexOf(close, start + open.length()) + close.length();
+        append(node, start, end);
+        pos = end;
+    }
+
+    private void doctype(String dtd) {
+        int start = text.indexOf("<!DOCTYPE", pos);
+        int end = endOfTag(start);
+        DoctypeDeclaration decl = DoctypeDeclaration.parse(dtd);
+        DocumentType doctype = document.getImplementation().createDocumentType(decl.name, decl.publicId, decl.systemId);
+        append(doctype, start, end);
+        pos = end;
+    }
+
+    /**
+     * Appends the node to the innermost open node and creates its wrapper.
+     *
+     * @param start Offset of the first character of the node
+     * @param end   Offset after the last character of the node
+     */
+    private XmlNodeWrapper append(Node node, int start, int end) {
+        stack.peek().getNode().appendChild(node);
+        XmlNodeWrapper wrapper = (XmlNodeWrapper) parser.wrapDomNode(node);
+        setPosition(wrapper, start, end - 1);
+        return wrapper;
+    }
+
+    private void setPosition(XmlNodeWrapper wrapper, int start, int end) {
+        wrapper.startOffset = start;
+        wrapper.endOffset = end;
+        wrapper.textDoc = textDocument;
+    }
+
+    /**
+     * Returns the offset after the closing {@code >} of the markup declaration
+     * or tag starting at the given offset. This skips over quoted strings and,
+     * for a doctype, over the internal subset.
+     */
+    private int endOfTag(int start) {
+        char quote = 0;
+        int bracketDepth = 0;
+        for (int i = start + 1; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (quote != 0) {
+                if (c == quote) {
+                    quote = 0;
+                }
+            } else if (c == '"' || c == '\'') {
+                quote = c;
+            } else if (c == '[') {
+                bracketDepth++;
+            } else if (c == ']') {
+                bracketDepth--;
+            } else if (c == '>' && bracketDepth <= 0) {
+                return i + 1;
+            }
+        }
+        return text.length();
+    }
+
+    private static String qualifiedName(String prefix, String localName) {
+        return prefix == null || prefix.isEmpty() ? localName : prefix + ":" + localName;
+    }
+
+    private static String emptyToNull(String uri) {
+        return uri == null || uri.isEmpty() ? null : uri;
+    }
+
+    private static Document newDocument() {
+        try {
+            DocumentBuilderFactory dbf = DocumentBuilderFactory.newInstance();
+            dbf.setNamespaceAware(true);
+            return dbf.newDocumentBuilder().newDocument();
+        } catch (ParserConfigurationException e) {
+            throw new ParseException(e);
+        }
+    }
+
+    private static XMLInputFactory newInputFactory() {
+        XMLInputFactory factory = XMLInputFactory.newFactory();
+        factory.setProperty(XMLInputFactory.IS_NAMESPACE_AWARE, true);
+        factory.setProperty(XMLInputFactory.IS_VALIDATING, false);
+        factory.setProperty(XMLInputFactory.IS_COALESCING, false);
+        factory.setProperty(XMLInputFactory.IS_REPLACING_ENTITY_REFERENCES, true);
+        factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+        factory.setProperty(XMLInputFactory.SUPPORT_DTD, true);
+        // never throws on unresolved resource
+        factory.setXMLResolver((publicId, systemId, baseUri, namespace) -> new ByteArrayInputStream(new byte[0]));
+        return factory;
+    }
+
+    private static void closeQuietly(XMLStreamReader reader) {
+        if (reader != null) {
+            try {
+                reader.close();
+            } catch (XMLStreamException ignored) {
+                // ignored
+            }
+        }
+    }
+
+    /**
+     * The name and external ids of a doctype declaration, which the
+     * stream reader only reports as text.
+     */
+    private static final class DoctypeDeclaration {
+
+        private String name;
+        private String publicId;
+        private String systemId;
+
+        private final String dtd;
+        private int idx;
+
+        private DoctypeDeclaration(String dtd) {
+            this.dtd = dtd;
+            this.idx = "<!DOCTYPE".length();
+        }
+
+        static DoctypeDeclaration parse(String dtd) {
+            DoctypeDeclaration decl = new DoctypeDeclaration(dtd);
+            decl.name = decl.nextToken();
+            String keyword = decl.nextToken();
+            if ("PUBLIC".equals(keyword)) {
+                decl.publicId = decl.nextQuoted();
+                decl.systemId = decl.nextQuoted();
+            } else if ("SYSTEM".equals(keyword)) {
+                decl.systemId = decl.nextQuoted();
+            }
+            return decl;
+        }
+
+        private void skipWhitespace() {
+            while (idx < dtd.length() && Character.isWhitespace(dtd.charAt(idx))) {
+                idx++;
+            }
+        }
+
+        private String nextToken() {
+            skipWhitespace();
+            int start = idx;
+            while (idx < dtd.length() && !Character.isWhitespace(dtd.charAt(idx)) && dtd.charAt(idx) != '[' && dtd.charAt(idx) != '>') {
+                idx++;
+            }
+            return dtd.substring(start, idx);
+        }
+
+        private String nextQuoted() {
+            skipWhitespace();
+            if (idx >= dtd.length() || dtd.charAt(idx) != '"' && dtd.charAt(idx) != '\'') {
+                return null;
+            }
+            char quote = dtd.charAt(idx);
+            int end = dtd.indexOf(quote, idx + 1);
+            if (end < 0) {
+                return null;
+            }
+            String result = dtd.substring(idx + 1, end);
+            idx = end + 1;
+            return result;
+        }
+    }
+}
@@ -7,9 +7,7 @@ package net.sourceforge.pmd.lang.xml.ast.internal;
 import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.StringReader;
-import java.util.HashMap;
 import java.util.Iterator;
-import java.util.Map;
 import javax.xml.parsers.DocumentBuilder;
 import javax.xml.parsers.DocumentBuilderFactory;
 import javax.xml.parsers.ParserConfigurationException;
@@ -26,17 +24,14 @@ import net.sourceforge.pmd.lang.ast.Parser.ParserTask;
 import net.sourceforge.pmd.lang.ast.RootNode;
 import net.sourceforge.pmd.lang.rule.xpath.Attribute;
 import net.sourceforge.pmd.lang.rule.xpath.impl.AttributeAxisIterator;
+import net.sourceforge.pmd.lang.rule.xpath.internal.CoordinateXPathFunction;
 import net.sourceforge.pmd.lang.xml.ast.XmlNode;
 
 public final class XmlParserImpl {
     // never throws on unresolved resource
     private static final EntityResolver SILENT_ENTITY_RESOLVER = (publicId, systemId) -> new InputSource(new ByteArrayInputStream("".getBytes()));
 
-    private final Map<org.w3c.dom.Node, XmlNode> nodeCache = new HashMap<>();
-
-
     private Document parseDocument(String xmlData) throws ParseException {
-        nodeCache.clear();
         try {
             DocumentBuilderFactory dbf = DocumentBuilderFactory.newInstance();
             dbf.setNamespaceAware(true);
@@ -63,11 +58,19 @@ public final class XmlParserImpl {
         RootXmlNode root = new RootXmlNode(this, document, task);
         DOMLineNumbers lineNumbers = new DOMLineNumbers(root, task.getTextDocument());
         lineNumbers.determine();
-        nodeCache.put(document, root);
         return root;
     }
 
 
+    /**
+     * Parses the file in a single streaming pass, see {@link StaxDomBuilder}.
+     * The resulting tree is the same as with {@link #parse(ParserTask)}.
+     */
+    public RootXmlNode parseStreaming(ParserTask task) {
+        return StaxDomBuilder.parse(this, task);
+    }
+
+
     /**
      * Gets the wrapper for a DOM node, implementing PMD interfaces.
      *
@@ -76,12 +79,12 @@ public final class XmlParserImpl {
      * @return The wrapper
      */
     XmlNode wrapDomNode(Node domNode) {
-        XmlNode wrapper = nodeCache.get(domNode);
-        if (wrapper == null) {
-            wrapper = new XmlNodeWrapper(this, domNode);
-            nodeCache.put(domNode, wrapper);
+        // wrappers register themselves as user data of the DOM node
+        Object wrapper = domNode.getUserData(CoordinateXPathFunction.PMD_NODE_USER_DATA);
+        if (wrapper instanceof XmlNode) {
+            return (XmlNode) wrapper;
         }
-        return wrapper;
+        return new XmlNodeWrapper(this, domNode);
     }
 
 
@@ -91,6 +94,7 @@ public final class XmlParserImpl {
     public static class RootXmlNode extends XmlNodeWrapper implements RootNode {
 
         private final AstInfo<RootXmlNode> astInfo;
+        private String xmlEncoding;
 
         RootXmlNode(XmlParserImpl parser, Document domNode, ParserTask task) {
             super(parser, domNode);
@@ -113,7 +117,15 @@ public final class XmlParserImpl {
         }
         
         public String getXmlEncoding() {
-            return getNode().getXmlEncoding();
+            return xmlEncoding != null ? xmlEncoding : getNode().getXmlEncoding();
+        }
+
+        /**
+         * Sets the encoding from the XML declaration, for documents
+         * that were not built by a DOM parser.
+         */
+        void setXmlEncoding(String xmlEncoding) {
+            this.xmlEncoding = xmlEncoding;
         }
         
         public boolean isXmlStandalone() {
@@ -9,6 +9,7 @@ import net.sourceforge.pmd.lang.LanguagePropertyBundle;
 import net.sourceforge.pmd.lang.LanguageRegistry;
 import net.sourceforge.pmd.lang.impl.SimpleLanguageModuleBase;
 import net.sourceforge.pmd.lang.xml.XmlHandler;
+import net.sourceforge.pmd.lang.xml.XmlLanguageProperties;
 import net.sourceforge.pmd.lang.xml.cpd.XmlCpdLexer;
 
 public class PomLanguageModule extends SimpleLanguageModuleBase {
@@ -18,13 +19,18 @@ public class PomLanguageModule extends SimpleLanguageModuleBase {
         super(LanguageMetadata.withId(ID).name("Maven POM")
                               .extensions("pom")
                               .addDefaultVersion("4.0.0"),
-              new XmlHandler());
+              props -> new XmlHandler(props));
     }
 
     public static PomLanguageModule getInstance() {
         return (PomLanguageModule) LanguageRegistry.PMD.getLanguageById(ID);
     }
 
+    @Override
+    public LanguagePropertyBundle newPropertyBundle() {
+        return new XmlLanguageProperties(this);
+    }
+
     @Override
     public CpdLexer createCpdLexer(LanguagePropertyBundle bundle) {
         return new XmlCpdLexer();
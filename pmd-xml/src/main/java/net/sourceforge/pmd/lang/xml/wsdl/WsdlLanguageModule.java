@@ -9,6 +9,7 @@ import net.sourceforge.pmd.lang.LanguagePropertyBundle;
 import net.sourceforge.pmd.lang.LanguageRegistry;
 import net.sourceforge.pmd.lang.impl.SimpleLanguageModuleBase;
 import net.sourceforge.pmd.lang.xml.XmlHandler;
+import net.sourceforge.pmd.lang.xml.XmlLanguageProperties;
 import net.sourceforge.pmd.lang.xml.cpd.XmlCpdLexer;
 
 /**
@@ -22,13 +23,18 @@ public class WsdlLanguageModule extends SimpleLanguageModuleBase {
                               .extensions("wsdl")
                               .addVersion("1.1")
                               .addDefaultVersion("2.0"),
-                new XmlHandler());
+                props -> new XmlHandler(props));
     }
 
     public static WsdlLanguageModule getInstance() {
         return (WsdlLanguageModule) LanguageRegistry.PMD.getLanguageById(ID);
     }
 
+    @Override
+    public LanguagePropertyBundle newPropertyBundle() {
+        return new XmlLanguageProperties(this);
+    }
+
     @Override
     public CpdLexer createCpdLexer(LanguagePropertyBundle bundle) {
         return new XmlCpdLexer();
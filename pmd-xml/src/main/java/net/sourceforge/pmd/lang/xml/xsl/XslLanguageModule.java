@@ -9,6 +9,7 @@ import net.sourceforge.pmd.lang.LanguagePropertyBundle;
 import net.sourceforge.pmd.lang.LanguageRegistry;
 import net.sourceforge.pmd.lang.impl.SimpleLanguageModuleBase;
 import net.sourceforge.pmd.lang.xml.XmlHandler;
+import net.sourceforge.pmd.lang.xml.XmlLanguageProperties;
 import net.sourceforge.pmd.lang.xml.cpd.XmlCpdLexer;
 
 /**
@@ -23,13 +24,18 @@ public class XslLanguageModule extends SimpleLanguageModuleBase {
                               .addVersion("1.0")
                               .addVersion("2.0")
                               .addDefaultVersion("3.0"),
-                new XmlHandler());
+                props -> new XmlHandler(props));
     }
 
     public static XslLanguageModule getInstance() {
         return (XslLanguageModule) LanguageRegistry.PMD.getLanguageById(ID);
     }
 
+    @Override
+    public LanguagePropertyBundle newPropertyBundle() {
+        return new XmlLanguageProperties(this);
+    }
+
     @Override
     public CpdLexer createCpdLexer(LanguagePropertyBundle bundle) {
         return new XmlCpdLexer();
@@ -4,8 +4,12 @@
 
 package net.sourceforge.pmd.lang.xml;
 
+import net.sourceforge.pmd.lang.LanguageProcessor;
 import net.sourceforge.pmd.lang.PmdCapableLanguage;
+import net.sourceforge.pmd.lang.ast.Parser.ParserTask;
+import net.sourceforge.pmd.lang.ast.RootNode;
 import net.sourceforge.pmd.lang.test.ast.BaseParsingHelper;
+import net.sourceforge.pmd.lang.xml.ast.internal.XmlParserImpl;
 import net.sourceforge.pmd.lang.xml.ast.internal.XmlParserImpl.RootXmlNode;
 
 /**
@@ -13,15 +17,26 @@ import net.sourceforge.pmd.lang.xml.ast.internal.XmlParserImpl.RootXmlNode;
  */
 public final class XmlParsingHelper extends BaseParsingHelper<XmlParsingHelper, RootXmlNode> {
 
-    public static final XmlParsingHelper XML = new XmlParsingHelper(XmlLanguageModule.getInstance(), Params.getDefault());
+    public static final XmlParsingHelper XML = new XmlParsingHelper(XmlLanguageModule.getInstance(), Params.getDefault(), false);
 
+    /** Uses the streaming parser, see {@link XmlLanguageProperties#STREAMING_PARSER}. */
+    public static final XmlParsingHelper XML_STREAMING = new XmlParsingHelper(XmlLanguageModule.getInstance(), Params.getDefault(), true);
 
-    private XmlParsingHelper(PmdCapableLanguage langName, Params params) {
+    private final boolean streaming;
+
+    private XmlParsingHelper(PmdCapableLanguage langName, Params params, boolean streaming) {
         super(langName, RootXmlNode.class, params);
+        this.streaming = streaming;
     }
 
     @Override
     protected XmlParsingHelper clone(Params params) {
-        return new XmlParsingHelper(this.getLanguage(), params);
+        return new XmlParsingHelper(this.getLanguage(), params, streaming);
+    }
+
+    @Override
+    protected RootNode parseImpl(Params params, LanguageProcessor processor, ParserTask task) {
+        return streaming ? new XmlParserImpl().parseStreaming(task)
+                         : super.parseImpl(params, processor, task);
     }
 }
@@ -0,0 +1,40 @@
+/*
+ * BSD-style license; for more info see http://pmd.sourceforge.net/license.html
+ */
+
+package net.sourceforge.pmd.lang.xml.ast;
+
+import org.checkerframework.checker.nullness.qual.NonNull;
+import org.junit.jupiter.api.Test;
+
+import net.sourceforge.pmd.lang.test.ast.BaseParsingHelper;
+import net.sourceforge.pmd.lang.test.ast.TestUtilsKt;
+import net.sourceforge.pmd.lang.xml.XmlParsingHelper;
+
+/**
+ * Runs the tests of {@link XmlCoordinatesTest} with the streaming parser,
+ * which must produce the same positions.
+ */
+class XmlStreamingCoordinatesTest extends XmlCoordinatesTest {
+
+    @Override
+    public @NonNull BaseParsingHelper<?, ?> getParser() {
+        return XmlParsingHelper.XML_STREAMING.withResourceContext(getClass(), "testdata");
+    }
+
+    @Override
+    @Test
+    void testAutoclosingElementLength() {
+        final String xml = "<elementName att1='foo' att2='bar' att3='other' />";
+        TestUtilsKt.assertPosition(XmlParsingHelper.XML_STREAMING.parse(xml), 1, 1, 1, xml.length());
+    }
+
+    @Test
+    void testXmlDeclarationIsSkipped() {
+        final String element = "<project a='1'><child/></project>";
+        final String xml = "<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n" + element;
+        XmlNode project = XmlParsingHelper.XML_STREAMING.parse(xml).getChild(0);
+        TestUtilsKt.assertPosition(project, 2, 1, 2, element.length());
+        TestUtilsKt.assertPosition(project.getChild(0), 2, 16, 2, 23);
+    }
+}
@@ -0,0 +1,22 @@
+/*
+ * BSD-style license; for more info see http://pmd.sourceforge.net/license.html
+ */
+
+package net.sourceforge.pmd.lang.xml.ast;
+
+import org.checkerframework.checker.nullness.qual.NonNull;
+
+import net.sourceforge.pmd.lang.test.ast.BaseParsingHelper;
+import net.sourceforge.pmd.lang.xml.XmlParsingHelper;
+
+/**
+ * Runs the tests of {@link XmlParserTest} with the streaming parser,
+ * which must produce the same trees.
+ */
+class XmlStreamingParserTest extends XmlParserTest {
+
+    @Override
+    public @NonNull BaseParsingHelper<?, ?> getParser() {
+        return XmlParsingHelper.XML_STREAMING.withResourceContext(getClass(), "testdata");
+    }
+}